@@ -0,0 +1,43 @@
+package com.dms.config;
+
+import com.dms.storage.StorageCircuitBreaker;
+import com.dms.storage.StorageCircuitBreakers;
+import com.dms.storage.StorageOperation;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.Locale;
+import java.util.Map;
+
+@Component
+@Endpoint(id = "blobcircuits")
+@RequiredArgsConstructor
+public class BlobCircuitBreakerEndpoint {
+
+    private final StorageCircuitBreakers circuitBreakers;
+
+    @ReadOperation
+    public Map<String, Map<String, Object>> circuits() {
+        return circuitBreakers.snapshot();
+    }
+
+    @ReadOperation
+    public Map<String, Object> circuit(@Selector String operation) {
+        return breaker(operation).snapshot();
+    }
+
+    @WriteOperation
+    public Map<String, Object> reset(@Selector String operation) {
+        StorageCircuitBreaker breaker = breaker(operation);
+        breaker.reset();
+        return breaker.snapshot();
+    }
+
+    private StorageCircuitBreaker breaker(String operation) {
+        return circuitBreakers.get(StorageOperation.valueOf(operation.toUpperCase(Locale.ROOT)));
+    }
+}
@@ -1,6 +1,8 @@
 package com.dms.config;
 
+import com.dms.security.DmsRole;
 import com.dms.security.RateLimitingFilter;
+import com.dms.security.TenantPrincipalFilter;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
@@ -35,6 +37,7 @@ public class SecurityConfig {
 
     private final RateLimitingFilter rateLimitingFilter;
     private final McpAuthorizationFilter mcpAuthorizationFilter;
+    private final TenantPrincipalFilter tenantPrincipalFilter;
 
     @Value("${dms.security.allowed-origins:http://localhost:4200}")
     private String[] allowedOrigins;
@@ -62,11 +65,14 @@ public class SecurityConfig {
         } else {
             http.authorizeHttpRequests(auth -> auth
                     .requestMatchers("/actuator/health", "/actuator/info").permitAll()
+                    // Metrics span every tenant and blobcircuits can reset the breakers.
+                    .requestMatchers("/actuator/**").hasRole(DmsRole.ADMIN.name())
                     .anyRequest().authenticated())
                 .oauth2ResourceServer(oauth2 -> oauth2.jwt(jwt -> jwt.jwtAuthenticationConverter(jwtAuthenticationConverter())));
         }
 
-        http.addFilterAfter(mcpAuthorizationFilter, org.springframework.security.web.authentication.AnonymousAuthenticationFilter.class)
+        http.addFilterAfter(tenantPrincipalFilter, org.springframework.security.web.authentication.AnonymousAuthenticationFilter.class)
+            .addFilterAfter(mcpAuthorizationFilter, TenantPrincipalFilter.class)
             .addFilterAfter(rateLimitingFilter, McpAuthorizationFilter.class)
             .headers(headers -> headers
                 .addHeaderWriter(new StaticHeadersWriter("Content-Security-Policy",
@@ -3,28 +3,39 @@ package com.dms.controller;
 import com.dms.dto.request.DocumentUploadRequest;
 import com.dms.dto.request.BulkDownloadRequest;
 import com.dms.dto.request.MetadataUpdateRequest;
+import com.dms.dto.response.CursorPageResponse;
 import com.dms.dto.response.DocumentResponse;
 import com.dms.dto.response.VersionHistoryResponse;
 import com.dms.domain.DocumentVersion;
 import com.dms.service.DocumentService;
 import com.dms.service.SearchService;
 import com.dms.service.VersioningService;
+import com.dms.storage.BlobRangeReader;
+import com.dms.storage.BulkArchiveWriter;
+import com.dms.storage.LocalBlobResource;
+import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
 import jakarta.validation.Valid;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.core.io.InputStreamResource;
+import org.springframework.core.io.Resource;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.HttpRange;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.util.MimeTypeUtils;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 import java.util.Map;
 import java.util.Comparator;
@@ -37,6 +48,11 @@ import java.util.stream.Collectors;
 @Validated
 public class DocumentController {
 
+	private static final String SENDFILE_SUPPORT_ATTR = "org.apache.tomcat.sendfile.support";
+	private static final String SENDFILE_FILENAME_ATTR = "org.apache.tomcat.sendfile.filename";
+	private static final String SENDFILE_START_ATTR = "org.apache.tomcat.sendfile.start";
+	private static final String SENDFILE_END_ATTR = "org.apache.tomcat.sendfile.end";
+
 	private final DocumentService documentService;
 	private final VersioningService versioningService;
     private final SearchService searchService;
@@ -56,6 +72,15 @@ public class DocumentController {
 		return ResponseEntity.ok(documentService.listDocuments(pageable));
 	}
 
+	@PreAuthorize("hasRole('DOCUMENT_USER')")
+	@GetMapping("/cursor")
+	public ResponseEntity<CursorPageResponse> listDocumentsByCursor(
+			@RequestParam(required = false) String cursor,
+			@RequestParam(defaultValue = "20") int size,
+			@RequestParam(defaultValue = "false") boolean includeTotal) {
+		return ResponseEntity.ok(documentService.listDocuments(cursor, size, includeTotal));
+	}
+
 	@PreAuthorize("hasRole('DOCUMENT_USER')")
 	@GetMapping("/{id}")
 	public ResponseEntity<DocumentResponse> getDocument(@PathVariable UUID id) {
@@ -65,46 +90,61 @@ public class DocumentController {
 
 	@PreAuthorize("hasRole('DOCUMENT_USER')")
 	@GetMapping("/{id}/download")
-	public ResponseEntity<?> download(@PathVariable UUID id, @RequestHeader(value = HttpHeaders.RANGE, required = false) String range) {
+	public ResponseEntity<?> download(@PathVariable UUID id, @RequestHeader(value = HttpHeaders.RANGE, required = false) String range,
+			HttpServletRequest request) {
 		DocumentResponse meta = documentService.getDocument(id);
 		long fileSize = meta.getFileSizeBytes() != null ? meta.getFileSizeBytes() : 0;
 		if (range != null && !range.isBlank() && fileSize > 0) {
-			List<HttpRange> ranges = HttpRange.parseRanges(range);
-			if (!ranges.isEmpty()) {
+			List<HttpRange> ranges;
+			try {
+				ranges = HttpRange.parseRanges(range);
+			} catch (IllegalArgumentException ex) {
+				return rangeNotSatisfiable(fileSize);
+			}
+			if (ranges.stream().anyMatch(r -> r.getRangeStart(fileSize) >= fileSize)) {
+				return rangeNotSatisfiable(fileSize);
+			}
+			if (ranges.size() == 1) {
 				HttpRange first = ranges.get(0);
 				long start = first.getRangeStart(fileSize);
 				long end = first.getRangeEnd(fileSize);
-				byte[] bytes = documentService.downloadDocumentRange(id, start, end);
+				InputStream body = documentService.downloadDocumentRange(id, start, end);
 				return ResponseEntity.status(HttpStatus.PARTIAL_CONTENT)
 					.header(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + fileSize)
 					.header(HttpHeaders.ACCEPT_RANGES, "bytes")
-					.contentLength(bytes.length)
+					.contentLength(end - start + 1)
 					.contentType(MediaType.APPLICATION_PDF)
-					.body(bytes);
+					.body(new InputStreamResource(body));
+			}
+			if (!ranges.isEmpty()) {
+				BlobRangeReader reader = documentService.openDocumentRanges(id);
+				String boundary = MimeTypeUtils.generateMultipartBoundaryString();
+				StreamingResponseBody body = out -> writeByteRanges(out, reader, ranges, fileSize, boundary);
+				return ResponseEntity.status(HttpStatus.PARTIAL_CONTENT)
+					.header(HttpHeaders.ACCEPT_RANGES, "bytes")
+					.contentType(MediaType.parseMediaType("multipart/byteranges; boundary=" + boundary))
+					.body(body);
 			}
 		}
-		InputStreamResource resource = new InputStreamResource(documentService.downloadDocument(id));
-
-		return ResponseEntity.ok()
+		ResponseEntity.BodyBuilder response = ResponseEntity.ok()
 			.header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + id + ".pdf\"")
 			.header(HttpHeaders.ACCEPT_RANGES, "bytes")
 			.contentLength(fileSize)
-			.contentType(MediaType.APPLICATION_PDF)
-			.body(resource);
+			.contentType(MediaType.APPLICATION_PDF);
+		return serveBlob(response, documentService.downloadDocument(id), request);
 	}
 
 	@PreAuthorize("hasRole('DOCUMENT_USER')")
 	@GetMapping("/{id}/preview")
-	public ResponseEntity<InputStreamResource> preview(@PathVariable UUID id) {
+	public ResponseEntity<?> preview(@PathVariable UUID id, HttpServletRequest request) {
 		DocumentResponse meta = documentService.getDocument(id);
-		InputStream is = documentService.previewDocument(id);
-		InputStreamResource resource = new InputStreamResource(is);
+		Resource resource = documentService.previewDocument(id);
 
-		return ResponseEntity.ok()
+		ResponseEntity.BodyBuilder response = ResponseEntity.ok()
 			.header(HttpHeaders.CONTENT_DISPOSITION, "inline; filename=\"" + id + ".pdf\"")
 			.contentLength(meta.getFileSizeBytes() != null ? meta.getFileSizeBytes() : 0)
-			.contentType(MediaType.APPLICATION_PDF)
-			.body(resource);
+			.contentType(MediaType.APPLICATION_PDF);
+		return serveBlob(response, resource, request);
 	}
 
 	@PreAuthorize("hasRole('DOCUMENT_USER')")
@@ -170,11 +210,14 @@ public class DocumentController {
 
 	@PreAuthorize("hasRole('DOCUMENT_USER')")
 	@GetMapping("/{id}/versions/{version}")
-	public ResponseEntity<InputStreamResource> getVersion(@PathVariable UUID id, @PathVariable int version) {
-		InputStream is = versioningService.getVersionContent(id, version);
-		return ResponseEntity.ok()
-			.contentType(MediaType.APPLICATION_PDF)
-			.body(new InputStreamResource(is));
+	public ResponseEntity<?> getVersion(@PathVariable UUID id, @PathVariable int version, HttpServletRequest request) {
+		Resource resource = versioningService.getVersionContent(id, version);
+		ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+			.contentType(MediaType.APPLICATION_PDF);
+		if (resource instanceof LocalBlobResource local) {
+			response.contentLength(local.contentLength());
+		}
+		return serveBlob(response, resource, request);
 	}
 
 	@PreAuthorize("hasRole('DOCUMENT_USER')")
@@ -186,11 +229,51 @@ public class DocumentController {
 
 	@PreAuthorize("hasRole('DOCUMENT_USER')")
 	@PostMapping("/bulk-download")
-	public ResponseEntity<byte[]> bulkDownload(@Valid @RequestBody BulkDownloadRequest request) {
-		byte[] archive = searchService.bulkDownload(request.getDocumentIds());
+	public ResponseEntity<StreamingResponseBody> bulkDownload(@Valid @RequestBody BulkDownloadRequest request) {
+		BulkArchiveWriter.Archive archive = searchService.bulkDownload(request.getDocumentIds());
 		return ResponseEntity.ok()
 			.header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"documents.zip\"")
 			.contentType(MediaType.APPLICATION_OCTET_STREAM)
-			.body(archive);
+			.body(archive::writeTo);
+	}
+
+	/**
+	 * Local blobs are handed to the container's sendfile support when it is available (Tomcat NIO),
+	 * otherwise copied with FileChannel.transferTo, mapped or not; remote blobs are streamed.
+	 */
+	private ResponseEntity<?> serveBlob(ResponseEntity.BodyBuilder response, Resource resource, HttpServletRequest request) {
+		if (!(resource instanceof LocalBlobResource local)) {
+			return response.body(resource);
+		}
+		if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT_ATTR))) {
+			request.setAttribute(SENDFILE_FILENAME_ATTR, local.getPath().toAbsolutePath().toString());
+			request.setAttribute(SENDFILE_START_ATTR, 0L);
+			request.setAttribute(SENDFILE_END_ATTR, local.contentLength());
+			return response.contentLength(local.contentLength()).build();
+		}
+		StreamingResponseBody body = local::writeTo;
+		return response.body(body);
+	}
+
+	private ResponseEntity<Void> rangeNotSatisfiable(long fileSize) {
+		return ResponseEntity.status(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE)
+			.header(HttpHeaders.CONTENT_RANGE, "bytes */" + fileSize)
+			.build();
+	}
+
+	private void writeByteRanges(OutputStream out, BlobRangeReader reader, List<HttpRange> ranges, long fileSize, String boundary)
+			throws IOException {
+		for (HttpRange httpRange : ranges) {
+			long start = httpRange.getRangeStart(fileSize);
+			long end = httpRange.getRangeEnd(fileSize);
+			String partHeader = "\r\n--" + boundary + "\r\n"
+				+ HttpHeaders.CONTENT_TYPE + ": " + MediaType.APPLICATION_PDF_VALUE + "\r\n"
+				+ HttpHeaders.CONTENT_RANGE + ": bytes " + start + "-" + end + "/" + fileSize + "\r\n\r\n";
+			out.write(partHeader.getBytes(StandardCharsets.US_ASCII));
+			try (InputStream part = reader.open(start, end)) {
+				part.transferTo(out);
+			}
+		}
+		out.write(("\r\n--" + boundary + "--\r\n").getBytes(StandardCharsets.US_ASCII));
 	}
 }
@@ -4,6 +4,7 @@ import com.dms.dto.request.BulkDownloadRequest;
 import com.dms.dto.request.SearchRequest;
 import com.dms.dto.response.SearchResultResponse;
 import com.dms.service.SearchService;
+import com.dms.storage.BulkArchiveWriter;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpHeaders;
@@ -14,6 +15,7 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 @RestController
 @RequestMapping("/api/v1/search")
@@ -30,11 +32,11 @@ public class SearchController {
 
     @PostMapping("/bulk-download")
     @PreAuthorize("hasRole('DOCUMENT_USER')")
-    public ResponseEntity<byte[]> bulkDownload(@Valid @RequestBody BulkDownloadRequest request) {
-        byte[] archive = searchService.bulkDownload(request.getDocumentIds());
+    public ResponseEntity<StreamingResponseBody> bulkDownload(@Valid @RequestBody BulkDownloadRequest request) {
+        BulkArchiveWriter.Archive archive = searchService.bulkDownload(request.getDocumentIds());
         return ResponseEntity.ok()
             .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"documents.zip\"")
             .contentType(MediaType.APPLICATION_OCTET_STREAM)
-            .body(archive);
+            .body(archive::writeTo);
     }
 }
@@ -0,0 +1,72 @@
+package com.dms.controller;
+
+import com.dms.dto.request.DocumentUploadRequest;
+import com.dms.dto.response.DocumentResponse;
+import com.dms.dto.response.UploadSessionResponse;
+import com.dms.service.UploadSessionService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.UUID;
+
+/**
+ * Resumable upload for large PDFs: create a session with the document request, PUT the raw bytes of
+ * each numbered part in order, then complete the session to create the document.
+ */
+@RestController
+@RequestMapping("/api/v1/documents/upload-sessions")
+@RequiredArgsConstructor
+public class UploadSessionController {
+
+    private final UploadSessionService uploadSessionService;
+
+    @PostMapping
+    @PreAuthorize("hasRole('DOCUMENT_USER')")
+    public ResponseEntity<UploadSessionResponse> create(@Valid @RequestBody DocumentUploadRequest request) {
+        return ResponseEntity.status(201).body(uploadSessionService.createSession(request));
+    }
+
+    @PutMapping(value = "/{sessionId}/parts/{partNumber}",
+            consumes = { MediaType.APPLICATION_OCTET_STREAM_VALUE, MediaType.APPLICATION_PDF_VALUE })
+    @PreAuthorize("hasRole('DOCUMENT_USER')")
+    public ResponseEntity<UploadSessionResponse> uploadPart(@PathVariable UUID sessionId, @PathVariable int partNumber,
+            HttpServletRequest request) throws IOException {
+        // Read the servlet stream directly so the part is never buffered as a whole.
+        try (InputStream content = request.getInputStream()) {
+            return ResponseEntity.ok(uploadSessionService.uploadPart(sessionId, partNumber, content));
+        }
+    }
+
+    @GetMapping("/{sessionId}")
+    @PreAuthorize("hasRole('DOCUMENT_USER')")
+    public ResponseEntity<UploadSessionResponse> status(@PathVariable UUID sessionId) {
+        return ResponseEntity.ok(uploadSessionService.getSession(sessionId));
+    }
+
+    @PostMapping("/{sessionId}/complete")
+    @PreAuthorize("hasRole('DOCUMENT_USER')")
+    public ResponseEntity<DocumentResponse> complete(@PathVariable UUID sessionId) {
+        return ResponseEntity.status(201).body(uploadSessionService.complete(sessionId, MediaType.APPLICATION_PDF_VALUE));
+    }
+
+    @DeleteMapping("/{sessionId}")
+    @PreAuthorize("hasRole('DOCUMENT_USER')")
+    public ResponseEntity<Void> abort(@PathVariable UUID sessionId) {
+        uploadSessionService.abort(sessionId);
+        return ResponseEntity.noContent().build();
+    }
+}
@@ -0,0 +1,57 @@
+package com.dms.domain;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.time.Instant;
+import java.util.UUID;
+
+@Entity
+@Table(name = "chunk_embeddings")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ChunkEmbedding {
+
+    @Id
+    @Column(name = "chunk_id")
+    private UUID chunkId;
+
+    @Column(name = "tenant_id", nullable = false)
+    private UUID tenantId;
+
+    @Column(name = "dimensions", nullable = false)
+    private Integer dimensions;
+
+    @Column(name = "embedding", nullable = false)
+    private byte[] embedding;
+
+    @Column(name = "created_at", nullable = false)
+    private Instant createdAt;
+
+    public static ChunkEmbedding of(RequirementChunk chunk, float[] vector) {
+        ByteBuffer buffer = ByteBuffer.allocate(vector.length * Float.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.asFloatBuffer().put(vector);
+        return ChunkEmbedding.builder()
+            .chunkId(chunk.getId())
+            .tenantId(chunk.getTenantId())
+            .dimensions(vector.length)
+            .embedding(buffer.array())
+            .createdAt(Instant.now())
+            .build();
+    }
+
+    public float[] toVector() {
+        float[] vector = new float[dimensions];
+        ByteBuffer.wrap(embedding).order(ByteOrder.LITTLE_ENDIAN).asFloatBuffer().get(vector);
+        return vector;
+    }
+}
@@ -0,0 +1,68 @@
+package com.dms.domain;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.io.Serializable;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.time.Instant;
+
+@Entity
+@Table(name = "embedding_cache")
+@IdClass(EmbeddingCacheEntry.Key.class)
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class EmbeddingCacheEntry {
+
+    @Id
+    @Column(name = "model")
+    private String model;
+
+    @Id
+    @Column(name = "text_hash")
+    private String textHash;
+
+    @Column(name = "dimensions", nullable = false)
+    private Integer dimensions;
+
+    @Column(name = "embedding", nullable = false)
+    private byte[] embedding;
+
+    @Column(name = "created_at", nullable = false)
+    private Instant createdAt;
+
+    public static EmbeddingCacheEntry of(String model, String textHash, float[] vector) {
+        ByteBuffer buffer = ByteBuffer.allocate(vector.length * Float.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.asFloatBuffer().put(vector);
+        return EmbeddingCacheEntry.builder()
+            .model(model)
+            .textHash(textHash)
+            .dimensions(vector.length)
+            .embedding(buffer.array())
+            .createdAt(Instant.now())
+            .build();
+    }
+
+    public float[] toVector() {
+        float[] vector = new float[dimensions];
+        ByteBuffer.wrap(embedding).order(ByteOrder.LITTLE_ENDIAN).asFloatBuffer().get(vector);
+        return vector;
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private String model;
+        private String textHash;
+    }
+}
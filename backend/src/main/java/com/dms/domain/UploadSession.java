@@ -0,0 +1,79 @@
+package com.dms.domain;
+
+import io.hypersistence.utils.hibernate.type.json.JsonType;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.hibernate.annotations.Type;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+@Entity
+@Table(name = "upload_sessions")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class UploadSession {
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private UUID id;
+
+    @Column(name = "tenant_id", nullable = false)
+    private UUID tenantId;
+
+    @Column(name = "user_id", nullable = false)
+    private String userId;
+
+    @Column(name = "document_id", nullable = false)
+    private UUID documentId;
+
+    @Column(name = "blob_path", nullable = false)
+    private String blobPath;
+
+    @Column(name = "document_type_id", nullable = false)
+    private UUID documentTypeId;
+
+    @Type(JsonType.class)
+    @Column(name = "metadata", columnDefinition = "jsonb", nullable = false)
+    private Map<String, Object> metadata;
+
+    @Column(name = "idempotency_key")
+    private String idempotencyKey;
+
+    @Type(JsonType.class)
+    @Column(name = "part_blocks", columnDefinition = "jsonb", nullable = false)
+    private List<List<String>> partBlocks;
+
+    @Column(name = "total_bytes", nullable = false)
+    private Long totalBytes;
+
+    @Column(name = "bytes_before_last_part", nullable = false)
+    private Long bytesBeforeLastPart;
+
+    @Column(name = "last_part_attempt", nullable = false)
+    private Integer lastPartAttempt;
+
+    @Column(name = "hash_state")
+    private String hashState;
+
+    @Column(name = "hash_state_before_last_part")
+    private String hashStateBeforeLastPart;
+
+    @Column(name = "expires_at", nullable = false)
+    private Instant expiresAt;
+
+    @Column(name = "created_at", nullable = false)
+    private Instant createdAt;
+
+    @Version
+    @Column(name = "entity_version", nullable = false)
+    private Long entityVersion;
+}
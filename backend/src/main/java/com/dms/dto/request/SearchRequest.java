@@ -29,4 +29,15 @@ public class SearchRequest {
     @Max(100)
     @Builder.Default
     private int pageSize = 20;
+    /** Continuation token from a previous response; takes precedence over {@code page}. */
+    private String cursor;
+    /**
+     * Counting is a full scan of the matching rows, so keyset (first page or cursor) requests only count when
+     * asked; otherwise totalCount and totalPages are -1. OFFSET pages ({@code page > 0}) always count.
+     */
+    @Builder.Default
+    private boolean includeTotal = false;
+    /** Adds type, month and metadata counts over the whole filtered set, ignoring paging. */
+    @Builder.Default
+    private boolean includeFacets = false;
 }
@@ -0,0 +1,20 @@
+package com.dms.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CursorPageResponse {
+
+    private List<DocumentResponse> results;
+    private String nextCursor;
+    private int pageSize;
+    private Long totalCount;
+}
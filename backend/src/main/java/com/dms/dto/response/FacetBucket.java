@@ -0,0 +1,17 @@
+package com.dms.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class FacetBucket {
+
+    private String key;
+    private String label;
+    private long count;
+}
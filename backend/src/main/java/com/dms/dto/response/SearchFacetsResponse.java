@@ -0,0 +1,21 @@
+package com.dms.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SearchFacetsResponse {
+
+    private List<FacetBucket> documentTypes;
+    private List<FacetBucket> createdMonths;
+    /** Top values per configured metadata key ({@code dms.search.facets.metadata-keys}). */
+    private Map<String, List<FacetBucket>> metadata;
+}
@@ -18,4 +18,6 @@ public class SearchResultResponse {
     private int page;
     private int pageSize;
     private int totalPages;
+    private String nextCursor;
+    private SearchFacetsResponse facets;
 }
@@ -0,0 +1,19 @@
+package com.dms.dto.response;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.time.Instant;
+import java.util.UUID;
+
+@Data
+@Builder
+public class UploadSessionResponse {
+    private UUID sessionId;
+    private UUID documentId;
+    private int nextPartNumber;
+    private long receivedBytes;
+    private long maxPartBytes;
+    private long maxBytes;
+    private Instant expiresAt;
+}
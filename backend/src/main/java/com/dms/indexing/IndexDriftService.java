@@ -6,17 +6,19 @@ import com.dms.repository.RequirementChunkRepository;
 import com.dms.search.AzureSearchClient;
 import com.dms.service.HybridSearchService;
 import com.dms.service.TenantContext;
-import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
 
 @Service
-@RequiredArgsConstructor
 public class IndexDriftService {
 
     private final RequirementChunkRepository chunkRepository;
@@ -24,6 +26,22 @@ public class IndexDriftService {
     private final IndexingService indexingService;
     private final HybridSearchService hybridSearchService;
     private final TenantContext tenantContext;
+    private final int reconcileBatchSize;
+
+    public IndexDriftService(
+            RequirementChunkRepository chunkRepository,
+            AzureSearchClient azureSearchClient,
+            IndexingService indexingService,
+            HybridSearchService hybridSearchService,
+            TenantContext tenantContext,
+            @Value("${dms.indexing.reconcile-batch-size:256}") int reconcileBatchSize) {
+        this.chunkRepository = chunkRepository;
+        this.azureSearchClient = azureSearchClient;
+        this.indexingService = indexingService;
+        this.hybridSearchService = hybridSearchService;
+        this.tenantContext = tenantContext;
+        this.reconcileBatchSize = Math.max(1, reconcileBatchSize);
+    }
 
     @Transactional(readOnly = true)
     public Map<String, Integer> analyzeDrift() {
@@ -45,10 +63,23 @@ public class IndexDriftService {
         );
     }
 
-    @Transactional
+    /**
+     * Re-indexes the tenant's chunks in slices of {@code dms.indexing.reconcile-batch-size}, read by id.
+     * Each slice is embedded under its own deadline and committed on its own, so a large tenant neither
+     * floods the embedding queue nor runs in one transaction.
+     */
     public Map<String, Integer> reconcileDrift() {
         UUID tenantId = tenantContext.getCurrentTenantId();
-        chunkRepository.findByTenantId(tenantId).forEach(indexingService::indexChunk);
+        Pageable slice = PageRequest.of(0, reconcileBatchSize);
+        List<RequirementChunk> chunks = chunkRepository.findByTenantIdOrderById(tenantId, slice);
+        while (!chunks.isEmpty()) {
+            indexingService.indexChunks(chunks);
+            if (chunks.size() < reconcileBatchSize) {
+                break;
+            }
+            UUID lastId = chunks.get(chunks.size() - 1).getId();
+            chunks = chunkRepository.findByTenantIdAndIdGreaterThanOrderById(tenantId, lastId, slice);
+        }
         hybridSearchService.evictCache();
         return analyzeDrift();
     }
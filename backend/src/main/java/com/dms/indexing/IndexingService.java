@@ -1,19 +1,30 @@
 package com.dms.indexing;
 
+import com.dms.domain.ChunkEmbedding;
 import com.dms.domain.RequirementChunk;
 import com.dms.domain.SearchIndexOutboxEvent;
 import com.dms.dto.response.HybridSearchResult;
+import com.dms.repository.ChunkEmbeddingRepository;
 import com.dms.repository.RequirementChunkRepository;
 import com.dms.repository.SearchIndexOutboxEventRepository;
 import com.dms.search.AzureSearchClient;
+import com.dms.search.Embedding;
+import com.dms.search.KeywordIndex;
+import com.dms.search.VectorIndex;
+import com.dms.service.EmbeddingService;
 import com.dms.service.TenantContext;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.UUID;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
@@ -23,6 +34,10 @@ public class IndexingService {
     private final SearchIndexOutboxEventRepository outboxRepository;
     private final RequirementChunkRepository requirementChunkRepository;
     private final AzureSearchClient azureSearchClient;
+    private final KeywordIndex keywordIndex;
+    private final VectorIndex vectorIndex;
+    private final ChunkEmbeddingRepository chunkEmbeddingRepository;
+    private final EmbeddingService embeddingService;
     private final TenantContext tenantContext;
 
     @Transactional
@@ -43,22 +58,85 @@ public class IndexingService {
 
     @Transactional
     public void indexChunk(RequirementChunk chunk) {
-        HybridSearchResult result = HybridSearchResult.builder()
-            .chunkId(chunk.getId())
-            .documentId(chunk.getDocumentId())
-            .sequenceNumber(chunk.getChunkOrder())
-            .content(chunk.getChunkText())
-            .tokenCount(chunk.getTokenCount())
-            .relevanceScore(1.0)
-            .searchType("indexed")
-            .createdAt(chunk.getCreatedAt())
-            .build();
-        azureSearchClient.upsert(result);
+        indexChunks(List.of(chunk));
+    }
+
+    /**
+     * Indexes the chunks, embedding all of their texts in one call. The in-memory keyword and vector
+     * indexes pick the chunks up once the transaction commits.
+     */
+    @Transactional
+    public void indexChunks(List<RequirementChunk> chunks) {
+        for (RequirementChunk chunk : chunks) {
+            HybridSearchResult result = HybridSearchResult.builder()
+                .chunkId(chunk.getId())
+                .documentId(chunk.getDocumentId())
+                .sequenceNumber(chunk.getChunkOrder())
+                .content(chunk.getChunkText())
+                .tokenCount(chunk.getTokenCount())
+                .relevanceScore(1.0)
+                .searchType("indexed")
+                .createdAt(chunk.getCreatedAt())
+                .build();
+            azureSearchClient.upsert(result);
+        }
+        List<RequirementChunk> embeddable = chunks.stream()
+            .filter(chunk -> chunk.getChunkText() != null && !chunk.getChunkText().isBlank())
+            .toList();
+        List<Embedding> embeddings = embeddingService.generateEmbeddings(embeddable.stream()
+            .map(RequirementChunk::getChunkText)
+            .toList());
+        List<ChunkEmbedding> rows = new ArrayList<>(embeddable.size());
+        for (int i = 0; i < embeddable.size(); i++) {
+            rows.add(ChunkEmbedding.of(embeddable.get(i), embeddings.get(i).toArray()));
+        }
+        chunkEmbeddingRepository.upsertAll(rows);
+        chunks.stream().collect(Collectors.groupingBy(RequirementChunk::getTenantId)).forEach((tenantId, tenantChunks) -> {
+            long generation = requirementChunkRepository.bumpSearchIndexGeneration(tenantId);
+            List<RequirementChunk> tenantEmbeddable = new ArrayList<>();
+            List<Embedding> tenantEmbeddings = new ArrayList<>();
+            for (int i = 0; i < embeddable.size(); i++) {
+                if (embeddable.get(i).getTenantId().equals(tenantId)) {
+                    tenantEmbeddable.add(embeddable.get(i));
+                    tenantEmbeddings.add(embeddings.get(i));
+                }
+            }
+            afterCommit(() -> {
+                keywordIndex.index(tenantId, tenantChunks, generation);
+                vectorIndex.index(tenantId, tenantEmbeddable, tenantEmbeddings, generation);
+            });
+        });
     }
 
     @Transactional
     public void deleteDocumentFromIndex(UUID documentId) {
-        requirementChunkRepository.findByDocumentId(documentId)
-            .forEach(chunk -> azureSearchClient.deleteByChunkId(chunk.getId()));
+        List<RequirementChunk> chunks = requirementChunkRepository.findByDocumentId(documentId);
+        chunks.forEach(chunk -> azureSearchClient.deleteByChunkId(chunk.getId()));
+        if (!chunks.isEmpty()) {
+            chunkEmbeddingRepository.deleteAllById(chunks.stream().map(RequirementChunk::getId).toList());
+            UUID tenantId = chunks.get(0).getTenantId();
+            long generation = requirementChunkRepository.bumpSearchIndexGeneration(tenantId);
+            afterCommit(() -> {
+                keywordIndex.removeDocument(tenantId, documentId, generation);
+                vectorIndex.removeDocument(tenantId, documentId, generation);
+            });
+        }
+    }
+
+    /**
+     * Runs {@code change} once the surrounding transaction commits, so the in-memory indexes never show
+     * rows that are rolled back, or immediately when there is no transaction.
+     */
+    private static void afterCommit(Runnable change) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            change.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                change.run();
+            }
+        });
     }
 }
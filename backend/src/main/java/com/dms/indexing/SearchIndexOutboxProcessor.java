@@ -1,6 +1,5 @@
 package com.dms.indexing;
 
-import com.dms.domain.RequirementChunk;
 import com.dms.domain.SearchIndexOutboxEvent;
 import com.dms.repository.RequirementChunkRepository;
 import com.dms.repository.SearchIndexOutboxEventRepository;
@@ -52,9 +51,6 @@ public class SearchIndexOutboxProcessor {
             indexingService.deleteDocumentFromIndex(event.getEntityId());
             return;
         }
-        List<RequirementChunk> chunks = requirementChunkRepository.findByDocumentId(event.getEntityId());
-        for (RequirementChunk chunk : chunks) {
-            indexingService.indexChunk(chunk);
-        }
+        indexingService.indexChunks(requirementChunkRepository.findByDocumentId(event.getEntityId()));
     }
 }
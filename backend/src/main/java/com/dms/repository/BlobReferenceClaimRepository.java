@@ -0,0 +1,13 @@
+package com.dms.repository;
+
+import java.util.UUID;
+
+public interface BlobReferenceClaimRepository {
+
+    /**
+     * Inserts a reference with a count of one unless the tenant already has one for {@code contentHash}.
+     * Returns true when this call inserted it. A concurrent insert of the same hash makes this call wait
+     * for that transaction instead of failing on the unique constraint.
+     */
+    boolean insertIfAbsent(UUID tenantId, String contentHash, String blobPath, long fileSizeBytes);
+}
@@ -0,0 +1,54 @@
+package com.dms.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Query;
+import org.hibernate.Session;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * PostgreSQL resolves the race with {@code ON CONFLICT DO NOTHING}; H2 (local profile) has no such clause
+ * outside its PostgreSQL mode and uses a {@code MERGE} that only inserts.
+ */
+public class BlobReferenceClaimRepositoryImpl implements BlobReferenceClaimRepository {
+
+    private static final String COLUMNS = "(id, tenant_id, content_hash, blob_path, file_size_bytes, ref_count, created_at)";
+    private static final String VALUES = "(:id, :tenantId, :contentHash, :blobPath, :fileSizeBytes, 1, :createdAt)";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private volatile Boolean postgres;
+
+    @Override
+    public boolean insertIfAbsent(UUID tenantId, String contentHash, String blobPath, long fileSizeBytes) {
+        Query query = entityManager.createNativeQuery(isPostgres()
+            ? "INSERT INTO blob_references " + COLUMNS + " VALUES " + VALUES
+                + " ON CONFLICT (tenant_id, content_hash) DO NOTHING"
+            : "MERGE INTO blob_references r USING (SELECT CAST(:tenantId AS UUID) AS tenant_id, "
+                + "CAST(:contentHash AS VARCHAR(128)) AS content_hash) s "
+                + "ON r.tenant_id = s.tenant_id AND r.content_hash = s.content_hash "
+                + "WHEN NOT MATCHED THEN INSERT " + COLUMNS + " VALUES " + VALUES);
+        query.setParameter("id", UUID.randomUUID());
+        query.setParameter("tenantId", tenantId);
+        query.setParameter("contentHash", contentHash);
+        query.setParameter("blobPath", blobPath);
+        query.setParameter("fileSizeBytes", fileSizeBytes);
+        query.setParameter("createdAt", Instant.now());
+        return query.executeUpdate() > 0;
+    }
+
+    private boolean isPostgres() {
+        Boolean cached = postgres;
+        if (cached == null) {
+            cached = entityManager.unwrap(Session.class)
+                .doReturningWork(connection -> connection.getMetaData().getDatabaseProductName())
+                .toLowerCase()
+                .contains("postgres");
+            postgres = cached;
+        }
+        return cached;
+    }
+}
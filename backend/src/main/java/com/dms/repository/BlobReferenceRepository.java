@@ -0,0 +1,20 @@
+package com.dms.repository;
+
+import com.dms.domain.BlobReference;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+import java.util.UUID;
+
+@Repository
+public interface BlobReferenceRepository extends JpaRepository<BlobReference, UUID>, BlobReferenceClaimRepository {
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    Optional<BlobReference> findByTenantIdAndContentHash(UUID tenantId, String contentHash);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    Optional<BlobReference> findByTenantIdAndBlobPath(UUID tenantId, String blobPath);
+}
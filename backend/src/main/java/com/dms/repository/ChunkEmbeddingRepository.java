@@ -0,0 +1,22 @@
+package com.dms.repository;
+
+import com.dms.domain.ChunkEmbedding;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface ChunkEmbeddingRepository extends JpaRepository<ChunkEmbedding, UUID>, ChunkEmbeddingUpsertRepository {
+
+    /**
+     * The tenant's embeddings whose chunk belongs to a document that is not deleted, without the chunk text.
+     */
+    @Query("SELECT new com.dms.repository.SearchableEmbedding(c.documentId, e) FROM ChunkEmbedding e, RequirementChunk c " +
+           "WHERE e.tenantId = :tenantId AND c.id = e.chunkId AND c.documentId IN " +
+           "(SELECT d.id FROM Document d WHERE d.tenantId = :tenantId AND d.deletedAt IS NULL)")
+    List<SearchableEmbedding> findSearchableByTenantId(@Param("tenantId") UUID tenantId);
+}
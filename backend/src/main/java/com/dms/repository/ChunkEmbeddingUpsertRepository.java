@@ -0,0 +1,14 @@
+package com.dms.repository;
+
+import com.dms.domain.ChunkEmbedding;
+
+import java.util.List;
+
+public interface ChunkEmbeddingUpsertRepository {
+
+    /**
+     * Writes the embeddings in one JDBC batch, replacing any row already stored for the same chunk. Unlike
+     * {@code saveAll} on these assigned ids, nothing is read first.
+     */
+    void upsertAll(List<ChunkEmbedding> embeddings);
+}
@@ -0,0 +1,66 @@
+package com.dms.repository;
+
+import com.dms.domain.ChunkEmbedding;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.Session;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.util.List;
+
+/**
+ * PostgreSQL replaces existing rows with {@code ON CONFLICT DO UPDATE}; H2 (local profile) uses its
+ * keyed {@code MERGE}.
+ */
+public class ChunkEmbeddingUpsertRepositoryImpl implements ChunkEmbeddingUpsertRepository {
+
+    private static final String COLUMNS = "(chunk_id, tenant_id, dimensions, embedding, created_at)";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private volatile Boolean postgres;
+
+    @Override
+    @Transactional
+    public void upsertAll(List<ChunkEmbedding> embeddings) {
+        if (embeddings.isEmpty()) {
+            return;
+        }
+        String sql = isPostgres()
+            ? "INSERT INTO chunk_embeddings " + COLUMNS + " VALUES (?, ?, ?, ?, ?) ON CONFLICT (chunk_id) DO UPDATE SET "
+                + "tenant_id = EXCLUDED.tenant_id, dimensions = EXCLUDED.dimensions, "
+                + "embedding = EXCLUDED.embedding, created_at = EXCLUDED.created_at"
+            : "MERGE INTO chunk_embeddings " + COLUMNS + " KEY (chunk_id) VALUES (?, ?, ?, ?, ?)";
+        Session session = entityManager.unwrap(Session.class);
+        // The rows reference chunks that may still be pending in this persistence context.
+        session.flush();
+        session.doWork(connection -> {
+            try (PreparedStatement statement = connection.prepareStatement(sql)) {
+                for (ChunkEmbedding embedding : embeddings) {
+                    statement.setObject(1, embedding.getChunkId());
+                    statement.setObject(2, embedding.getTenantId());
+                    statement.setInt(3, embedding.getDimensions());
+                    statement.setBytes(4, embedding.getEmbedding());
+                    statement.setTimestamp(5, Timestamp.from(embedding.getCreatedAt()));
+                    statement.addBatch();
+                }
+                statement.executeBatch();
+            }
+        });
+    }
+
+    private boolean isPostgres() {
+        Boolean cached = postgres;
+        if (cached == null) {
+            cached = entityManager.unwrap(Session.class)
+                .doReturningWork(connection -> connection.getMetaData().getDatabaseProductName())
+                .toLowerCase()
+                .contains("postgres");
+            postgres = cached;
+        }
+        return cached;
+    }
+}
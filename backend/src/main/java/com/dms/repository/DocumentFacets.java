@@ -0,0 +1,16 @@
+package com.dms.repository;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Counts over one filtered, access-trimmed document set: per document type (key = type id, label = type
+ * name), per UTC creation month (key = {@code yyyy-MM}) and the most frequent values of selected metadata keys.
+ */
+public record DocumentFacets(List<FacetCount> documentTypes,
+                             List<FacetCount> createdMonths,
+                             Map<String, List<FacetCount>> metadata) {
+
+    public record FacetCount(String key, String label, long count) {
+    }
+}
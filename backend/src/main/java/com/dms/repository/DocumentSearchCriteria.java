@@ -0,0 +1,30 @@
+package com.dms.repository;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Everything a structured search filters on, compiled by {@link DocumentSearchRepository} into a single
+ * statement. {@code effectiveGroupIds == null} skips the access predicate (internal callers only);
+ * {@code afterCreatedAt}/{@code afterId} select keyset mode, otherwise {@code offset} applies.
+ */
+@Data
+@Builder
+public class DocumentSearchCriteria {
+    private UUID tenantId;
+    private UUID documentTypeId;
+    private Instant createdFrom;
+    private Instant createdTo;
+    private boolean includeDeleted;
+    private Map<String, Object> metadata;
+    private Set<UUID> effectiveGroupIds;
+    private Instant afterCreatedAt;
+    private UUID afterId;
+    private int offset;
+    private int limit;
+}
@@ -0,0 +1,34 @@
+package com.dms.repository;
+
+import com.dms.domain.Document;
+
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+public interface DocumentSearchRepository {
+
+    /**
+     * Returns one page of documents (with their type) in {@code (createdAt DESC, id DESC)} order.
+     */
+    List<Document> search(DocumentSearchCriteria criteria);
+
+    /**
+     * Counts every match of the criteria, ignoring the page position.
+     */
+    long count(DocumentSearchCriteria criteria);
+
+    /**
+     * Keyword search over {@code metadata_tsv} with {@code websearch_to_tsquery} syntax, ordered by
+     * {@code ts_rank_cd}. Falls back to a substring match on databases without text search.
+     */
+    List<FullTextHit> searchFullTextRanked(UUID tenantId, String query, Set<UUID> effectiveGroupIds, int offset, int limit);
+
+    long countFullText(UUID tenantId, String query, Set<UUID> effectiveGroupIds);
+
+    /**
+     * Type, creation-month and metadata value counts over the rows {@code criteria} matches, ignoring its
+     * paging fields. At most {@code topN} values are returned per metadata key.
+     */
+    DocumentFacets facets(DocumentSearchCriteria criteria, List<String> metadataKeys, int topN);
+}
@@ -0,0 +1,350 @@
+package com.dms.repository;
+
+import com.dms.domain.Document;
+import com.dms.exception.ValidationException;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Query;
+import org.hibernate.Session;
+import org.springframework.web.util.HtmlUtils;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * Compiles {@link DocumentSearchCriteria} into one native statement so pages come back full and counts
+ * match what is returned. On PostgreSQL metadata equality is a JSONB containment test served by
+ * {@code idx_documents_metadata} and access is an array overlap on {@code document_types.allowed_groups};
+ * on H2 (local profile) the same predicates are expressed with its JSON text and array functions.
+ * Keyword queries use the trigger-maintained {@code metadata_tsv} column and its GIN index.
+ * The statements select ids only; the page is then loaded with its types in a single fetch join.
+ */
+public class DocumentSearchRepositoryImpl implements DocumentSearchRepository {
+
+    // Filters hold plain JSON values; a private mapper keeps the fragment usable in JPA test slices.
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+    // jsonb text output escapes control characters, so these selectors cannot be forged by stored metadata.
+    private static final String MATCH_START = "\u0002";
+    private static final String MATCH_END = "\u0003";
+    private static final String HEADLINE_OPTIONS =
+        "StartSel=" + MATCH_START + ", StopSel=" + MATCH_END + ", MaxFragments=2, MaxWords=20, MinWords=5";
+    private static final String FROM = "FROM documents d JOIN document_types t ON t.id = d.document_type_id ";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private volatile Boolean postgres;
+
+    @Override
+    public List<Document> search(DocumentSearchCriteria criteria) {
+        Map<String, Object> parameters = new LinkedHashMap<>();
+        String where = where(criteria, parameters, true);
+        Query query = entityManager.createNativeQuery(
+            "SELECT d.id " + FROM + where + " ORDER BY d.created_at DESC, d.id DESC");
+        parameters.forEach(query::setParameter);
+        query.setFirstResult(criteria.getAfterCreatedAt() == null ? Math.max(0, criteria.getOffset()) : 0);
+        query.setMaxResults(criteria.getLimit());
+
+        List<UUID> ids = ((List<?>) query.getResultList()).stream().map(DocumentSearchRepositoryImpl::toUuid).toList();
+        return loadInOrder(ids);
+    }
+
+    @Override
+    public long count(DocumentSearchCriteria criteria) {
+        Map<String, Object> parameters = new LinkedHashMap<>();
+        Query query = entityManager.createNativeQuery("SELECT count(*) " + FROM + where(criteria, parameters, false));
+        parameters.forEach(query::setParameter);
+        return ((Number) query.getSingleResult()).longValue();
+    }
+
+    @Override
+    public List<FullTextHit> searchFullTextRanked(UUID tenantId, String query, Set<UUID> effectiveGroupIds, int offset, int limit) {
+        Map<String, Object> parameters = new LinkedHashMap<>();
+        String where = fullTextWhere(tenantId, query, effectiveGroupIds, parameters);
+        Query nativeQuery;
+        if (isPostgres()) {
+            // Headlines re-parse the JSON text, so they are only built for the rows of the page.
+            nativeQuery = entityManager.createNativeQuery(
+                "SELECT r.id, r.rank, ts_headline('english', r.body, websearch_to_tsquery('english', :query), :headlineOptions) "
+                    + "FROM (SELECT d.id, d.created_at, CAST(d.metadata AS text) AS body, "
+                    + "ts_rank_cd(d.metadata_tsv, websearch_to_tsquery('english', :query)) AS rank "
+                    + FROM + where
+                    + " ORDER BY rank DESC, d.created_at DESC, d.id DESC LIMIT :limit OFFSET :offset) r "
+                    + "ORDER BY r.rank DESC, r.created_at DESC, r.id DESC");
+            parameters.put("headlineOptions", HEADLINE_OPTIONS);
+            parameters.put("limit", limit);
+            parameters.put("offset", Math.max(0, offset));
+        } else {
+            nativeQuery = entityManager.createNativeQuery(
+                "SELECT d.id, 0, NULL " + FROM + where + " ORDER BY d.created_at DESC, d.id DESC");
+            nativeQuery.setFirstResult(Math.max(0, offset));
+            nativeQuery.setMaxResults(limit);
+        }
+        parameters.forEach(nativeQuery::setParameter);
+
+        List<Object[]> rows = ((List<?>) nativeQuery.getResultList()).stream().map(row -> (Object[]) row).toList();
+        List<Document> documents = loadInOrder(rows.stream().map(row -> toUuid(row[0])).toList());
+        List<FullTextHit> hits = new ArrayList<>(documents.size());
+        for (int i = 0; i < documents.size(); i++) {
+            Object[] row = rows.get(i);
+            hits.add(new FullTextHit(documents.get(i), row[1] == null ? 0 : ((Number) row[1]).doubleValue(),
+                row[2] == null ? null : highlight(row[2].toString())));
+        }
+        return hits;
+    }
+
+    @Override
+    public long countFullText(UUID tenantId, String query, Set<UUID> effectiveGroupIds) {
+        Map<String, Object> parameters = new LinkedHashMap<>();
+        Query nativeQuery = entityManager.createNativeQuery(
+            "SELECT count(*) " + FROM + fullTextWhere(tenantId, query, effectiveGroupIds, parameters));
+        parameters.forEach(nativeQuery::setParameter);
+        return ((Number) nativeQuery.getSingleResult()).longValue();
+    }
+
+    @Override
+    public DocumentFacets facets(DocumentSearchCriteria criteria, List<String> metadataKeys, int topN) {
+        Map<String, Object> parameters = new LinkedHashMap<>();
+        boolean postgres = isPostgres();
+        boolean metadataInSql = postgres && !metadataKeys.isEmpty();
+        // The CTE is referenced by every branch, so PostgreSQL materializes the filtered set once.
+        StringBuilder sql = new StringBuilder("WITH filtered AS (SELECT d.document_type_id, t.name AS type_name, ")
+            .append("d.created_at, d.metadata ").append(FROM).append(where(criteria, parameters, false)).append(") ")
+            .append("SELECT 'type', CAST(NULL AS VARCHAR), CAST(document_type_id AS VARCHAR), type_name, count(*) ")
+            .append("FROM filtered GROUP BY document_type_id, type_name ")
+            .append("UNION ALL SELECT 'month', NULL, ").append(monthExpression(postgres)).append(", NULL, count(*) ")
+            .append("FROM filtered GROUP BY ").append(monthExpression(postgres));
+        if (metadataInSql) {
+            sql.append(" UNION ALL SELECT 'metadata', m.field, m.bucket, m.bucket, m.hits FROM (")
+                .append("SELECT e.key AS field, e.value AS bucket, count(*) AS hits, ")
+                .append("row_number() OVER (PARTITION BY e.key ORDER BY count(*) DESC, e.value) AS position ")
+                .append("FROM filtered f CROSS JOIN jsonb_each_text(f.metadata) e ")
+                .append("WHERE e.key IN (:facetKeys) AND e.value IS NOT NULL GROUP BY e.key, e.value) m ")
+                .append("WHERE m.position <= :topN");
+            parameters.put("facetKeys", metadataKeys);
+            parameters.put("topN", topN);
+        }
+        Query query = entityManager.createNativeQuery(sql.toString());
+        parameters.forEach(query::setParameter);
+
+        List<DocumentFacets.FacetCount> documentTypes = new ArrayList<>();
+        List<DocumentFacets.FacetCount> createdMonths = new ArrayList<>();
+        Map<String, List<DocumentFacets.FacetCount>> metadata = new LinkedHashMap<>();
+        metadataKeys.forEach(key -> metadata.put(key, new ArrayList<>()));
+        for (Object result : query.getResultList()) {
+            Object[] row = (Object[]) result;
+            DocumentFacets.FacetCount count = new DocumentFacets.FacetCount(
+                (String) row[2], (String) row[3], ((Number) row[4]).longValue());
+            switch ((String) row[0]) {
+                case "type" -> documentTypes.add(count);
+                case "month" -> createdMonths.add(count);
+                default -> metadata.get((String) row[1]).add(count);
+            }
+        }
+        if (!postgres && !metadataKeys.isEmpty()) {
+            countMetadataInMemory(criteria, metadataKeys, topN, metadata);
+        }
+
+        documentTypes.sort(Comparator.comparingLong(DocumentFacets.FacetCount::count).reversed()
+            .thenComparing(DocumentFacets.FacetCount::label));
+        createdMonths.sort(Comparator.comparing(DocumentFacets.FacetCount::key));
+        metadata.values().forEach(counts -> counts.sort(
+            Comparator.comparingLong(DocumentFacets.FacetCount::count).reversed().thenComparing(DocumentFacets.FacetCount::key)));
+        return new DocumentFacets(documentTypes, createdMonths, metadata);
+    }
+
+    private static String monthExpression(boolean postgres) {
+        return postgres
+            ? "to_char(created_at AT TIME ZONE 'UTC', 'YYYY-MM')"
+            : "CAST(EXTRACT(YEAR FROM created_at) AS VARCHAR) || '-' || LPAD(CAST(EXTRACT(MONTH FROM created_at) AS VARCHAR), 2, '0')";
+    }
+
+    /**
+     * H2 has no {@code jsonb_each_text}; the local profile counts the matching rows' metadata here instead.
+     */
+    private void countMetadataInMemory(DocumentSearchCriteria criteria, List<String> metadataKeys, int topN,
+                                       Map<String, List<DocumentFacets.FacetCount>> metadata) {
+        Map<String, Object> parameters = new LinkedHashMap<>();
+        Query query = entityManager.createNativeQuery(
+            "SELECT CAST(d.metadata AS VARCHAR) " + FROM + where(criteria, parameters, false));
+        parameters.forEach(query::setParameter);
+
+        Map<String, Map<String, Long>> counts = new HashMap<>();
+        for (Object json : query.getResultList()) {
+            Map<?, ?> values = fromJson(json.toString());
+            for (String key : metadataKeys) {
+                Object value = values.get(key);
+                if (value != null) {
+                    String bucket = value instanceof Map || value instanceof List ? toJson(value) : value.toString();
+                    counts.computeIfAbsent(key, ignored -> new HashMap<>()).merge(bucket, 1L, Long::sum);
+                }
+            }
+        }
+        counts.forEach((key, values) -> values.entrySet().stream()
+            .sorted(Map.Entry.<String, Long>comparingByValue().reversed()
+                .thenComparing(Map.Entry.<String, Long>comparingByKey()))
+            .limit(topN)
+            .forEach(entry -> metadata.get(key).add(
+                new DocumentFacets.FacetCount(entry.getKey(), entry.getKey(), entry.getValue()))));
+    }
+
+    private String fullTextWhere(UUID tenantId, String query, Set<UUID> effectiveGroupIds, Map<String, Object> parameters) {
+        List<String> predicates = new ArrayList<>();
+        predicates.add("d.tenant_id = :tenantId");
+        predicates.add("d.deleted_at IS NULL");
+        parameters.put("tenantId", tenantId);
+        if (isPostgres()) {
+            predicates.add("d.metadata_tsv @@ websearch_to_tsquery('english', :query)");
+            parameters.put("query", query);
+        } else {
+            predicates.add("LOWER(CAST(d.metadata AS VARCHAR)) LIKE :query ESCAPE '\\'");
+            parameters.put("query", "%" + escapeLike(query.toLowerCase()) + "%");
+        }
+        if (effectiveGroupIds != null) {
+            predicates.add(accessPredicate(effectiveGroupIds, parameters));
+        }
+        return "WHERE " + String.join(" AND ", predicates);
+    }
+
+    /**
+     * Loads the documents with their types in one fetch join, preserving the order of {@code ids}.
+     */
+    private List<Document> loadInOrder(List<UUID> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Map<UUID, Integer> position = new HashMap<>();
+        for (int i = 0; i < ids.size(); i++) {
+            position.put(ids.get(i), i);
+        }
+        return entityManager.createQuery(
+                "SELECT d FROM Document d JOIN FETCH d.documentType WHERE d.id IN :ids", Document.class)
+            .setParameter("ids", ids)
+            .getResultList().stream()
+            .sorted(Comparator.comparing(document -> position.get(document.getId())))
+            .toList();
+    }
+
+    private String where(DocumentSearchCriteria criteria, Map<String, Object> parameters, boolean withKeyset) {
+        List<String> predicates = new ArrayList<>();
+        predicates.add("d.tenant_id = :tenantId");
+        parameters.put("tenantId", criteria.getTenantId());
+
+        if (criteria.getDocumentTypeId() != null) {
+            predicates.add("d.document_type_id = :documentTypeId");
+            parameters.put("documentTypeId", criteria.getDocumentTypeId());
+        }
+        if (criteria.getCreatedFrom() != null) {
+            predicates.add("d.created_at >= :createdFrom");
+            parameters.put("createdFrom", criteria.getCreatedFrom());
+        }
+        if (criteria.getCreatedTo() != null) {
+            predicates.add("d.created_at <= :createdTo");
+            parameters.put("createdTo", criteria.getCreatedTo());
+        }
+        if (!criteria.isIncludeDeleted()) {
+            predicates.add("d.deleted_at IS NULL");
+        }
+        if (criteria.getMetadata() != null && !criteria.getMetadata().isEmpty()) {
+            predicates.add(metadataPredicate(criteria.getMetadata(), parameters));
+        }
+        if (criteria.getEffectiveGroupIds() != null) {
+            predicates.add(accessPredicate(criteria.getEffectiveGroupIds(), parameters));
+        }
+        if (withKeyset && criteria.getAfterCreatedAt() != null) {
+            predicates.add("(d.created_at < :afterCreatedAt OR (d.created_at = :afterCreatedAt AND d.id < :afterId))");
+            parameters.put("afterCreatedAt", criteria.getAfterCreatedAt());
+            parameters.put("afterId", criteria.getAfterId());
+        }
+        return "WHERE " + String.join(" AND ", predicates);
+    }
+
+    private String metadataPredicate(Map<String, Object> metadata, Map<String, Object> parameters) {
+        if (isPostgres()) {
+            parameters.put("metadata", toJson(metadata));
+            return "d.metadata @> CAST(:metadata AS jsonb)";
+        }
+        // The member must be followed by the next member or the end of the object, so "n":1 does not match "n":10.
+        List<String> predicates = new ArrayList<>();
+        int index = 0;
+        for (Map.Entry<String, Object> entry : metadata.entrySet()) {
+            String name = "metadata" + index++;
+            String member = "%" + escapeLike(toJson(entry.getKey()) + ":" + toJson(entry.getValue()));
+            predicates.add("(CAST(d.metadata AS VARCHAR) LIKE :" + name + "a ESCAPE '\\' "
+                + "OR CAST(d.metadata AS VARCHAR) LIKE :" + name + "b ESCAPE '\\')");
+            parameters.put(name + "a", member + ",%");
+            parameters.put(name + "b", member + "}%");
+        }
+        return String.join(" AND ", predicates);
+    }
+
+    private String accessPredicate(Set<UUID> effectiveGroupIds, Map<String, Object> parameters) {
+        if (isPostgres()) {
+            parameters.put("effectiveGroups", effectiveGroupIds.stream()
+                .map(UUID::toString)
+                .collect(Collectors.joining(",", "{", "}")));
+            return "(cardinality(t.allowed_groups) = 0 OR t.allowed_groups && CAST(:effectiveGroups AS uuid[]))";
+        }
+        StringBuilder predicate = new StringBuilder("(CARDINALITY(t.allowed_groups) = 0");
+        int index = 0;
+        for (UUID groupId : effectiveGroupIds) {
+            String name = "group" + index++;
+            predicate.append(" OR ARRAY_CONTAINS(t.allowed_groups, :").append(name).append(')');
+            parameters.put(name, groupId);
+        }
+        return predicate.append(')').toString();
+    }
+
+    private boolean isPostgres() {
+        Boolean cached = postgres;
+        if (cached == null) {
+            cached = entityManager.unwrap(Session.class)
+                .doReturningWork(connection -> connection.getMetaData().getDatabaseProductName())
+                .toLowerCase()
+                .contains("postgres");
+            postgres = cached;
+        }
+        return cached;
+    }
+
+    /**
+     * HTML-escapes the headline first and only then turns the selectors into {@code <mark>} tags, so markup
+     * stored in metadata comes back as text.
+     */
+    private static String highlight(String headline) {
+        return HtmlUtils.htmlEscape(headline).replace(MATCH_START, "<mark>").replace(MATCH_END, "</mark>");
+    }
+
+    private static String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+
+    private static UUID toUuid(Object id) {
+        return id instanceof UUID uuid ? uuid : UUID.fromString(id.toString());
+    }
+
+    private static Map<?, ?> fromJson(String json) {
+        try {
+            return OBJECT_MAPPER.readValue(json, Map.class);
+        } catch (JsonProcessingException e) {
+            return Map.of();
+        }
+    }
+
+    private String toJson(Object value) {
+        try {
+            return OBJECT_MAPPER.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new ValidationException("Invalid metadata filter");
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package com.dms.repository;
+
+import com.dms.domain.EmbeddingCacheEntry;
+
+import java.util.List;
+
+public interface EmbeddingCacheInsertRepository {
+
+    /**
+     * Inserts the entries in one JDBC batch, skipping any whose model and text hash are already stored,
+     * for example by another instance. Unlike {@code saveAll} on these assigned ids, nothing is read first.
+     */
+    void insertIfAbsent(List<EmbeddingCacheEntry> entries);
+}
@@ -0,0 +1,64 @@
+package com.dms.repository;
+
+import com.dms.domain.EmbeddingCacheEntry;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.Session;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.util.List;
+
+/**
+ * PostgreSQL skips existing rows with {@code ON CONFLICT DO NOTHING}; H2 (local profile) uses a
+ * {@code MERGE} that only inserts.
+ */
+public class EmbeddingCacheInsertRepositoryImpl implements EmbeddingCacheInsertRepository {
+
+    private static final String COLUMNS = "(model, text_hash, dimensions, embedding, created_at)";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private volatile Boolean postgres;
+
+    @Override
+    @Transactional
+    public void insertIfAbsent(List<EmbeddingCacheEntry> entries) {
+        if (entries.isEmpty()) {
+            return;
+        }
+        String sql = isPostgres()
+            ? "INSERT INTO embedding_cache " + COLUMNS + " VALUES (?, ?, ?, ?, ?) ON CONFLICT (model, text_hash) DO NOTHING"
+            : "MERGE INTO embedding_cache c USING (SELECT CAST(? AS VARCHAR(200)) AS model, "
+                + "CAST(? AS VARCHAR(64)) AS text_hash) s "
+                + "ON c.model = s.model AND c.text_hash = s.text_hash "
+                + "WHEN NOT MATCHED THEN INSERT " + COLUMNS + " VALUES (s.model, s.text_hash, ?, ?, ?)";
+        entityManager.unwrap(Session.class).doWork(connection -> {
+            try (PreparedStatement statement = connection.prepareStatement(sql)) {
+                for (EmbeddingCacheEntry entry : entries) {
+                    statement.setString(1, entry.getModel());
+                    statement.setString(2, entry.getTextHash());
+                    statement.setInt(3, entry.getDimensions());
+                    statement.setBytes(4, entry.getEmbedding());
+                    statement.setTimestamp(5, Timestamp.from(entry.getCreatedAt()));
+                    statement.addBatch();
+                }
+                statement.executeBatch();
+            }
+        });
+    }
+
+    private boolean isPostgres() {
+        Boolean cached = postgres;
+        if (cached == null) {
+            cached = entityManager.unwrap(Session.class)
+                .doReturningWork(connection -> connection.getMetaData().getDatabaseProductName())
+                .toLowerCase()
+                .contains("postgres");
+            postgres = cached;
+        }
+        return cached;
+    }
+}
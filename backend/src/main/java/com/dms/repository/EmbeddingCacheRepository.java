@@ -0,0 +1,24 @@
+package com.dms.repository;
+
+import com.dms.domain.EmbeddingCacheEntry;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface EmbeddingCacheRepository extends JpaRepository<EmbeddingCacheEntry, EmbeddingCacheEntry.Key>, EmbeddingCacheInsertRepository {
+
+    List<EmbeddingCacheEntry> findByModelAndTextHashIn(String model, Collection<String> textHashes);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM EmbeddingCacheEntry e WHERE e.createdAt < :cutoff")
+    int deleteCreatedBefore(@Param("cutoff") Instant cutoff);
+}
@@ -0,0 +1,11 @@
+package com.dms.repository;
+
+import com.dms.domain.Document;
+
+/**
+ * A keyword search match. {@code highlight} holds HTML-escaped fragments of the metadata with the matches
+ * wrapped in {@code <mark>}, and is null, like {@code rank} is zero, when the database has no full-text
+ * index (H2).
+ */
+public record FullTextHit(Document document, double rank, String highlight) {
+}
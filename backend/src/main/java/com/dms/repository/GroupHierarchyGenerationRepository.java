@@ -0,0 +1,17 @@
+package com.dms.repository;
+
+import java.util.UUID;
+
+public interface GroupHierarchyGenerationRepository {
+
+    /**
+     * Advances the tenant's hierarchy generation as part of the current transaction, so other instances
+     * see the change exactly when the group write that caused it becomes visible.
+     */
+    void bumpHierarchyGeneration(UUID tenantId);
+
+    /**
+     * The tenant's current hierarchy generation, zero before its first change.
+     */
+    long findHierarchyGeneration(UUID tenantId);
+}
@@ -4,6 +4,9 @@ import com.dms.domain.Group;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -11,7 +14,7 @@ import java.util.Optional;
 import java.util.UUID;
 
 @Repository
-public interface GroupRepository extends JpaRepository<Group, UUID> {
+public interface GroupRepository extends JpaRepository<Group, UUID>, GroupHierarchyGenerationRepository {
 
     List<Group> findAllByTenantId(UUID tenantId);
     
@@ -24,5 +27,54 @@ public interface GroupRepository extends JpaRepository<Group, UUID> {
     List<Group> findByParentGroupId(UUID parentGroupId);
 
     long countByParentGroupId(UUID parentGroupId);
+
+    @Query(value = "SELECT g.id FROM groups g WHERE g.tenant_id = :tenantId", nativeQuery = true)
+    List<UUID> findIdsByTenantId(@Param("tenantId") UUID tenantId);
+
+    /**
+     * The user's direct groups and all of their ancestors, resolved through {@code group_closure}.
+     */
+    @Query(value = "SELECT DISTINCT c.ancestor_id FROM user_groups ug " +
+                   "JOIN group_closure c ON c.descendant_id = ug.group_id " +
+                   "WHERE ug.tenant_id = :tenantId AND ug.user_id = :userId", nativeQuery = true)
+    List<UUID> findEffectiveGroupIds(@Param("tenantId") UUID tenantId, @Param("userId") String userId);
+
+    /**
+     * Ancestors of a group, root first.
+     */
+    @Query(value = "SELECT g.* FROM groups g JOIN group_closure c ON c.ancestor_id = g.id " +
+                   "WHERE c.descendant_id = :groupId AND c.depth > 0 ORDER BY c.depth DESC", nativeQuery = true)
+    List<Group> findAncestors(@Param("groupId") UUID groupId);
+
+    @Query(value = "SELECT COUNT(*) FROM group_closure c " +
+                   "WHERE c.ancestor_id = :ancestorId AND c.descendant_id = :descendantId", nativeQuery = true)
+    long countClosure(@Param("ancestorId") UUID ancestorId, @Param("descendantId") UUID descendantId);
+
+    @Modifying
+    @Query(value = "INSERT INTO group_closure (tenant_id, ancestor_id, descendant_id, depth) " +
+                   "VALUES (:tenantId, :groupId, :groupId, 0)", nativeQuery = true)
+    void insertClosureSelf(@Param("tenantId") UUID tenantId, @Param("groupId") UUID groupId);
+
+    /**
+     * Links every ancestor of {@code parentId} (itself included) to every group in the subtree of
+     * {@code groupId}.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO group_closure (tenant_id, ancestor_id, descendant_id, depth) " +
+                   "SELECT a.tenant_id, a.ancestor_id, d.descendant_id, a.depth + d.depth + 1 " +
+                   "FROM group_closure a CROSS JOIN group_closure d " +
+                   "WHERE a.descendant_id = :parentId AND d.ancestor_id = :groupId", nativeQuery = true)
+    void attachClosure(@Param("groupId") UUID groupId, @Param("parentId") UUID parentId);
+
+    /**
+     * Removes the links between the subtree of {@code groupId} and its current ancestors, leaving the
+     * subtree's internal rows intact.
+     */
+    @Modifying
+    @Query(value = "DELETE FROM group_closure WHERE descendant_id IN " +
+                   "(SELECT s.descendant_id FROM group_closure s WHERE s.ancestor_id = :groupId) " +
+                   "AND ancestor_id NOT IN " +
+                   "(SELECT s.descendant_id FROM group_closure s WHERE s.ancestor_id = :groupId)", nativeQuery = true)
+    void detachClosure(@Param("groupId") UUID groupId);
 }
 
@@ -3,10 +3,13 @@ package com.dms.repository;
 import com.dms.domain.LegalHold;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 
 @Repository
@@ -22,5 +25,9 @@ public interface LegalHoldRepository extends JpaRepository<LegalHold, UUID> {
     @Query("select l from LegalHold l where l.tenantId = :tenantId and l.releasedAt is null")
     List<LegalHold> findActiveByTenant(UUID tenantId);
 
+    @Query("select distinct l.document.id from LegalHold l where l.tenantId = :tenantId "
+        + "and l.document.id in :documentIds and l.releasedAt is null")
+    Set<UUID> findDocumentIdsWithActiveHolds(@Param("tenantId") UUID tenantId, @Param("documentIds") Collection<UUID> documentIds);
+
     Optional<LegalHold> findByIdAndTenantId(UUID id, UUID tenantId);
 }
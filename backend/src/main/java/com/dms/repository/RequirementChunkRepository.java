@@ -1,15 +1,29 @@
 package com.dms.repository;
 
 import com.dms.domain.RequirementChunk;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
 import java.util.UUID;
 
 @Repository
-public interface RequirementChunkRepository extends JpaRepository<RequirementChunk, UUID> {
+public interface RequirementChunkRepository extends JpaRepository<RequirementChunk, UUID>, SearchIndexGenerationRepository {
     List<RequirementChunk> findByDocumentId(UUID documentId);
     
     List<RequirementChunk> findByTenantId(UUID tenantId);
+
+    List<RequirementChunk> findByTenantIdOrderById(UUID tenantId, Pageable pageable);
+
+    List<RequirementChunk> findByTenantIdAndIdGreaterThanOrderById(UUID tenantId, UUID afterId, Pageable pageable);
+
+    /**
+     * The tenant's chunks whose document is not deleted, which is what the in-memory search indexes hold.
+     */
+    @Query("SELECT c FROM RequirementChunk c WHERE c.tenantId = :tenantId AND c.documentId IN " +
+           "(SELECT d.id FROM Document d WHERE d.tenantId = :tenantId AND d.deletedAt IS NULL)")
+    List<RequirementChunk> findSearchableByTenantId(@Param("tenantId") UUID tenantId);
 }
@@ -0,0 +1,17 @@
+package com.dms.repository;
+
+import java.util.UUID;
+
+public interface SearchIndexGenerationRepository {
+
+    /**
+     * Advances the tenant's search index generation as part of the current transaction and returns the
+     * new value. The row stays locked until the transaction ends, so the value is this change's alone.
+     */
+    long bumpSearchIndexGeneration(UUID tenantId);
+
+    /**
+     * The tenant's current search index generation, zero before its first change.
+     */
+    long findSearchIndexGeneration(UUID tenantId);
+}
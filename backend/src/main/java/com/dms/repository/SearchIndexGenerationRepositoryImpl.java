@@ -0,0 +1,56 @@
+package com.dms.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.Session;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * PostgreSQL upserts with {@code ON CONFLICT DO UPDATE}; H2 (local profile) uses the equivalent {@code MERGE}.
+ */
+public class SearchIndexGenerationRepositoryImpl implements SearchIndexGenerationRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private volatile Boolean postgres;
+
+    @Override
+    @Transactional
+    public long bumpSearchIndexGeneration(UUID tenantId) {
+        entityManager.createNativeQuery(isPostgres()
+                ? "INSERT INTO search_index_generations (tenant_id, generation) VALUES (:tenantId, 1) "
+                    + "ON CONFLICT (tenant_id) DO UPDATE SET generation = search_index_generations.generation + 1"
+                : "MERGE INTO search_index_generations g USING (SELECT CAST(:tenantId AS UUID) AS tenant_id) s "
+                    + "ON g.tenant_id = s.tenant_id "
+                    + "WHEN MATCHED THEN UPDATE SET generation = g.generation + 1 "
+                    + "WHEN NOT MATCHED THEN INSERT (tenant_id, generation) VALUES (s.tenant_id, 1)")
+            .setParameter("tenantId", tenantId)
+            .executeUpdate();
+        return findSearchIndexGeneration(tenantId);
+    }
+
+    @Override
+    public long findSearchIndexGeneration(UUID tenantId) {
+        List<?> rows = entityManager.createNativeQuery(
+                "SELECT generation FROM search_index_generations WHERE tenant_id = :tenantId")
+            .setParameter("tenantId", tenantId)
+            .getResultList();
+        return rows.isEmpty() ? 0 : ((Number) rows.get(0)).longValue();
+    }
+
+    private boolean isPostgres() {
+        Boolean cached = postgres;
+        if (cached == null) {
+            cached = entityManager.unwrap(Session.class)
+                .doReturningWork(connection -> connection.getMetaData().getDatabaseProductName())
+                .toLowerCase()
+                .contains("postgres");
+            postgres = cached;
+        }
+        return cached;
+    }
+}
@@ -0,0 +1,12 @@
+package com.dms.repository;
+
+import com.dms.domain.ChunkEmbedding;
+
+import java.util.UUID;
+
+/**
+ * A persisted chunk embedding together with the document the chunk belongs to, which is all the in-memory
+ * vector index keeps per chunk.
+ */
+public record SearchableEmbedding(UUID documentId, ChunkEmbedding embedding) {
+}
@@ -0,0 +1,28 @@
+package com.dms.repository;
+
+import com.dms.domain.UploadSession;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface UploadSessionRepository extends JpaRepository<UploadSession, UUID> {
+
+    List<UploadSession> findTop100ByExpiresAtBeforeOrderByExpiresAt(Instant cutoff);
+
+    /**
+     * Removes the session only if nobody changed it since {@code entityVersion} was read; returns the
+     * number of rows removed, so exactly one caller wins a race to complete, abort or expire it.
+     */
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM UploadSession s WHERE s.id = :id AND s.entityVersion = :entityVersion")
+    int deleteIfUnchanged(@Param("id") UUID id, @Param("entityVersion") Long entityVersion);
+}
@@ -0,0 +1,81 @@
+package com.dms.search;
+
+import java.util.Arrays;
+
+/**
+ * An embedding vector, scaled to unit length on creation so cosine similarity is a plain dot product.
+ * Backed by a {@code float[]}: 1 KB for 256 dimensions, against roughly 5 KB as a {@code List<Double>}.
+ * Instances are immutable.
+ */
+public final class Embedding {
+
+    private final float[] values;
+
+    private Embedding(float[] values) {
+        this.values = values;
+    }
+
+    /**
+     * Copies and normalises {@code raw}; an all-zero vector stays zero.
+     */
+    public static Embedding of(float[] raw) {
+        double norm = 0.0;
+        for (float value : raw) {
+            norm += (double) value * value;
+        }
+        float scale = norm == 0.0 ? 0.0f : (float) (1.0 / Math.sqrt(norm));
+        float[] values = new float[raw.length];
+        for (int i = 0; i < raw.length; i++) {
+            values[i] = raw[i] * scale;
+        }
+        return new Embedding(values);
+    }
+
+    public int dimensions() {
+        return values.length;
+    }
+
+    public float get(int index) {
+        return values[index];
+    }
+
+    /**
+     * Cosine similarity, in [-1, 1].
+     */
+    public float cosine(Embedding other) {
+        if (other.values.length != values.length) {
+            throw new IllegalArgumentException("Expected " + values.length + " dimensions but got " + other.values.length);
+        }
+        return VectorKernels.dot(values, 0, other.values, 0, values.length);
+    }
+
+    /**
+     * Cosine similarity against a unit-length vector stored at {@code offset} in {@code vectors}.
+     */
+    public float cosine(float[] vectors, int offset) {
+        return VectorKernels.dot(values, 0, vectors, offset, values.length);
+    }
+
+    public void copyInto(float[] target, int offset) {
+        System.arraycopy(values, 0, target, offset, values.length);
+    }
+
+    public float[] toArray() {
+        return values.clone();
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        return this == other || other instanceof Embedding embedding && Arrays.equals(values, embedding.values);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(values);
+    }
+
+    @Override
+    public String toString() {
+        return "Embedding[" + values.length + " dimensions]";
+    }
+}
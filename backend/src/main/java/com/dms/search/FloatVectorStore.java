@@ -0,0 +1,54 @@
+package com.dms.search;
+
+import java.util.Arrays;
+
+/**
+ * Full-precision storage: unit-length vectors back to back in one {@code float[]}.
+ */
+final class FloatVectorStore implements VectorStore {
+
+    private final int dimensions;
+    private float[] vectors = new float[0];
+
+    FloatVectorStore(int dimensions) {
+        this.dimensions = dimensions;
+    }
+
+    @Override
+    public int dimensions() {
+        return dimensions;
+    }
+
+    @Override
+    public int bytesPerVector() {
+        return dimensions * Float.BYTES;
+    }
+
+    @Override
+    public void ensureCapacity(int nodes) {
+        if (nodes * dimensions > vectors.length) {
+            vectors = Arrays.copyOf(vectors, nodes * dimensions);
+        }
+    }
+
+    @Override
+    public void set(int node, Embedding vector) {
+        vector.copyInto(vectors, node * dimensions);
+    }
+
+    @Override
+    public float similarity(int left, int right) {
+        return VectorKernels.dot(vectors, left * dimensions, vectors, right * dimensions, dimensions);
+    }
+
+    @Override
+    public NodeScorer scorer(Embedding query) {
+        float[] values = query.toArray();
+        return node -> VectorKernels.dot(values, 0, vectors, node * dimensions, dimensions);
+    }
+
+    @Override
+    public Embedding vector(int node) {
+        return Embedding.of(Arrays.copyOfRange(vectors, node * dimensions, (node + 1) * dimensions));
+    }
+}
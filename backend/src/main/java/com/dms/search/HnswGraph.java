@@ -0,0 +1,438 @@
+package com.dms.search;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.SplittableRandom;
+
+/**
+ * Hierarchical navigable small world graph (Malkov &amp; Yashunin) for cosine similarity. Vectors live in
+ * a {@link VectorStore}, contiguous by node number, either at full precision or int8-quantized. Layer 0
+ * links live in one {@code int[]} as well; only the few nodes above layer 0 get an extra array.
+ * <p>
+ * Not thread-safe: callers serialise writes against reads. Deleted nodes stay in the graph as waypoints
+ * and are only filtered from results.
+ */
+final class HnswGraph {
+
+    private static final ThreadLocal<VisitedSet> VISITED = ThreadLocal.withInitial(VisitedSet::new);
+
+    private final VectorStore store;
+    private final int dimensions;
+    private final int maxLinks;
+    private final int maxLinks0;
+    private final int efConstruction;
+    private final double levelMultiplier;
+    private final SplittableRandom random;
+
+    private int[] links0;
+    private int[][] upperLinks;
+    private int[] levels;
+    private final BitSet deleted = new BitSet();
+    private int size;
+    private int deletedCount;
+    private int entryPoint = -1;
+    private int maxLevel = -1;
+
+    HnswGraph(VectorStore store, int m, int efConstruction, long seed) {
+        this.store = store;
+        this.dimensions = store.dimensions();
+        this.maxLinks = Math.max(2, m);
+        this.maxLinks0 = this.maxLinks * 2;
+        this.efConstruction = Math.max(this.maxLinks, efConstruction);
+        this.levelMultiplier = 1.0 / Math.log(this.maxLinks);
+        this.random = new SplittableRandom(seed);
+        int capacity = 64;
+        store.ensureCapacity(capacity);
+        this.links0 = new int[capacity * (maxLinks0 + 1)];
+        this.upperLinks = new int[capacity][];
+        this.levels = new int[capacity];
+    }
+
+    int dimensions() {
+        return dimensions;
+    }
+
+    int size() {
+        return size;
+    }
+
+    int deletedCount() {
+        return deletedCount;
+    }
+
+    VectorStore store() {
+        return store;
+    }
+
+    /**
+     * Inserts {@code vector} and returns its node number.
+     */
+    int add(Embedding vector) {
+        if (vector.dimensions() != dimensions) {
+            throw new IllegalArgumentException("Expected " + dimensions + " dimensions but got " + vector.dimensions());
+        }
+        ensureCapacity(size + 1);
+        int node = size++;
+        store.set(node, vector);
+        int level = (int) (-Math.log(1.0 - random.nextDouble()) * levelMultiplier);
+        levels[node] = level;
+        if (level > 0) {
+            upperLinks[node] = new int[level * (maxLinks + 1)];
+        }
+        if (entryPoint < 0) {
+            entryPoint = node;
+            maxLevel = level;
+            return node;
+        }
+
+        VectorStore.NodeScorer scorer = other -> store.similarity(node, other);
+        int nearest = entryPoint;
+        for (int layer = maxLevel; layer > level; layer--) {
+            nearest = searchLayer(scorer, nearest, 1, layer).best();
+        }
+        for (int layer = Math.min(level, maxLevel); layer >= 0; layer--) {
+            NodeHeap found = searchLayer(scorer, nearest, efConstruction, layer);
+            int[] candidates = found.drainBestFirst();
+            float[] similarities = new float[candidates.length];
+            for (int i = 0; i < candidates.length; i++) {
+                similarities[i] = store.similarity(node, candidates[i]);
+            }
+            int[] neighbours = selectNeighbours(candidates, similarities, candidates.length, maxLinks(layer));
+            setLinks(node, layer, neighbours, neighbours.length);
+            for (int neighbour : neighbours) {
+                link(neighbour, layer, node);
+            }
+            nearest = candidates[0];
+        }
+        if (level > maxLevel) {
+            entryPoint = node;
+            maxLevel = level;
+        }
+        return node;
+    }
+
+    void markDeleted(int node) {
+        if (!deleted.get(node)) {
+            deleted.set(node);
+            deletedCount++;
+        }
+    }
+
+    /**
+     * Up to {@code k} live nodes closest to {@code query}, best first; {@code similarities} receives their
+     * similarities as scored by the store and must hold at least {@code k} entries.
+     */
+    int[] search(Embedding query, int k, int ef, float[] similarities) {
+        if (entryPoint < 0 || size == deletedCount) {
+            return new int[0];
+        }
+        VectorStore.NodeScorer scorer = store.scorer(query);
+        int nearest = entryPoint;
+        for (int layer = maxLevel; layer > 0; layer--) {
+            nearest = searchLayer(scorer, nearest, 1, layer).best();
+        }
+        int[] found = searchLayer(scorer, nearest, Math.max(ef, k), 0).drainBestFirst();
+        int[] result = new int[Math.min(k, found.length)];
+        int count = 0;
+        for (int i = 0; i < found.length && count < result.length; i++) {
+            if (!deleted.get(found[i])) {
+                similarities[count] = scorer.similarity(found[i]);
+                result[count++] = found[i];
+            }
+        }
+        return count == result.length ? result : Arrays.copyOf(result, count);
+    }
+
+    /**
+     * Scan over all live nodes with the store's similarity, for measuring recall.
+     */
+    int[] bruteForce(Embedding query, int k) {
+        VectorStore.NodeScorer scorer = store.scorer(query);
+        NodeHeap best = new NodeHeap(k + 1);
+        for (int node = 0; node < size; node++) {
+            if (deleted.get(node)) {
+                continue;
+            }
+            best.push(node, scorer.similarity(node));
+            if (best.size() > k) {
+                best.pop();
+            }
+        }
+        return best.drainBestFirst();
+    }
+
+    Embedding vector(int node) {
+        return store.vector(node);
+    }
+
+    private NodeHeap searchLayer(VectorStore.NodeScorer scorer, int entry, int ef, int layer) {
+        VisitedSet visited = VISITED.get().clear(size);
+        // Candidates are keyed by negated similarity so the closest is popped first; results keep the
+        // worst of the current best ef on top.
+        NodeHeap candidates = new NodeHeap(ef * 2);
+        NodeHeap results = new NodeHeap(ef + 1);
+        float similarity = scorer.similarity(entry);
+        visited.visit(entry);
+        candidates.push(entry, -similarity);
+        results.push(entry, similarity);
+        while (candidates.size() > 0) {
+            float closest = -candidates.peekKey();
+            int node = candidates.pop();
+            if (results.size() >= ef && closest < results.peekKey()) {
+                break;
+            }
+            int count = linkCount(node, layer);
+            for (int i = 0; i < count; i++) {
+                int neighbour = linkAt(node, layer, i);
+                if (!visited.visit(neighbour)) {
+                    continue;
+                }
+                float neighbourSimilarity = scorer.similarity(neighbour);
+                if (results.size() < ef || neighbourSimilarity > results.peekKey()) {
+                    candidates.push(neighbour, -neighbourSimilarity);
+                    results.push(neighbour, neighbourSimilarity);
+                    if (results.size() > ef) {
+                        results.pop();
+                    }
+                }
+            }
+        }
+        return results;
+    }
+
+    /**
+     * The paper's neighbour heuristic: keeps a candidate only if it is closer to the base node than to any
+     * neighbour already kept, which spreads links across clusters; pruned candidates fill remaining slots.
+     * {@code candidates} must be ordered best first.
+     */
+    private int[] selectNeighbours(int[] candidates, float[] similarities, int count, int max) {
+        int[] kept = new int[Math.min(max, count)];
+        int keptCount = 0;
+        int[] pruned = new int[count];
+        int prunedCount = 0;
+        for (int i = 0; i < count && keptCount < kept.length; i++) {
+            int candidate = candidates[i];
+            boolean diverse = true;
+            for (int j = 0; j < keptCount; j++) {
+                if (store.similarity(candidate, kept[j]) > similarities[i]) {
+                    diverse = false;
+                    break;
+                }
+            }
+            if (diverse) {
+                kept[keptCount++] = candidate;
+            } else {
+                pruned[prunedCount++] = candidate;
+            }
+        }
+        for (int i = 0; i < prunedCount && keptCount < kept.length; i++) {
+            kept[keptCount++] = pruned[i];
+        }
+        return keptCount == kept.length ? kept : Arrays.copyOf(kept, keptCount);
+    }
+
+    private void link(int node, int layer, int neighbour) {
+        int count = linkCount(node, layer);
+        int max = maxLinks(layer);
+        if (count < max) {
+            setLink(node, layer, count, neighbour);
+            setLinkCount(node, layer, count + 1);
+            return;
+        }
+        int[] candidates = new int[count + 1];
+        float[] similarities = new float[count + 1];
+        for (int i = 0; i < count; i++) {
+            candidates[i] = linkAt(node, layer, i);
+        }
+        candidates[count] = neighbour;
+        for (int i = 0; i <= count; i++) {
+            similarities[i] = store.similarity(node, candidates[i]);
+        }
+        sortBestFirst(candidates, similarities);
+        int[] selected = selectNeighbours(candidates, similarities, candidates.length, max);
+        setLinks(node, layer, selected, selected.length);
+    }
+
+    private static void sortBestFirst(int[] nodes, float[] similarities) {
+        for (int i = 1; i < nodes.length; i++) {
+            int node = nodes[i];
+            float similarity = similarities[i];
+            int j = i - 1;
+            while (j >= 0 && similarities[j] < similarity) {
+                nodes[j + 1] = nodes[j];
+                similarities[j + 1] = similarities[j];
+                j--;
+            }
+            nodes[j + 1] = node;
+            similarities[j + 1] = similarity;
+        }
+    }
+
+    private int maxLinks(int layer) {
+        return layer == 0 ? maxLinks0 : maxLinks;
+    }
+
+    private int linkCount(int node, int layer) {
+        return layer == 0 ? links0[node * (maxLinks0 + 1)] : upperLinks[node][(layer - 1) * (maxLinks + 1)];
+    }
+
+    private void setLinkCount(int node, int layer, int count) {
+        if (layer == 0) {
+            links0[node * (maxLinks0 + 1)] = count;
+        } else {
+            upperLinks[node][(layer - 1) * (maxLinks + 1)] = count;
+        }
+    }
+
+    private int linkAt(int node, int layer, int index) {
+        return layer == 0
+            ? links0[node * (maxLinks0 + 1) + 1 + index]
+            : upperLinks[node][(layer - 1) * (maxLinks + 1) + 1 + index];
+    }
+
+    private void setLink(int node, int layer, int index, int neighbour) {
+        if (layer == 0) {
+            links0[node * (maxLinks0 + 1) + 1 + index] = neighbour;
+        } else {
+            upperLinks[node][(layer - 1) * (maxLinks + 1) + 1 + index] = neighbour;
+        }
+    }
+
+    private void setLinks(int node, int layer, int[] neighbours, int count) {
+        for (int i = 0; i < count; i++) {
+            setLink(node, layer, i, neighbours[i]);
+        }
+        setLinkCount(node, layer, count);
+    }
+
+    private void ensureCapacity(int required) {
+        if (required <= levels.length) {
+            return;
+        }
+        int capacity = Math.max(required, levels.length * 2);
+        store.ensureCapacity(capacity);
+        links0 = Arrays.copyOf(links0, capacity * (maxLinks0 + 1));
+        upperLinks = Arrays.copyOf(upperLinks, capacity);
+        levels = Arrays.copyOf(levels, capacity);
+    }
+
+    /**
+     * Visited marks for one layer search, reused by every search on the same thread: a node is visited when
+     * its stamp equals the current epoch, so clearing is an increment rather than a fresh array per layer.
+     */
+    private static final class VisitedSet {
+
+        private int[] stamps = new int[64];
+        private int epoch;
+
+        private VisitedSet clear(int capacity) {
+            if (stamps.length < capacity) {
+                stamps = new int[Math.max(capacity, stamps.length * 2)];
+                epoch = 0;
+            }
+            if (++epoch == 0) {
+                Arrays.fill(stamps, 0);
+                epoch = 1;
+            }
+            return this;
+        }
+
+        /**
+         * Marks the node; false when it was already marked in this search.
+         */
+        private boolean visit(int node) {
+            if (stamps[node] == epoch) {
+                return false;
+            }
+            stamps[node] = epoch;
+            return true;
+        }
+    }
+
+    /**
+     * Binary min-heap of nodes keyed by a float, without boxing.
+     */
+    private static final class NodeHeap {
+
+        private int[] nodes;
+        private float[] keys;
+        private int size;
+
+        private NodeHeap(int capacity) {
+            nodes = new int[Math.max(4, capacity)];
+            keys = new float[nodes.length];
+        }
+
+        private int size() {
+            return size;
+        }
+
+        private float peekKey() {
+            return keys[0];
+        }
+
+        private void push(int node, float key) {
+            if (size == nodes.length) {
+                nodes = Arrays.copyOf(nodes, size * 2);
+                keys = Arrays.copyOf(keys, size * 2);
+            }
+            int i = size++;
+            while (i > 0) {
+                int parent = (i - 1) >>> 1;
+                if (keys[parent] <= key) {
+                    break;
+                }
+                nodes[i] = nodes[parent];
+                keys[i] = keys[parent];
+                i = parent;
+            }
+            nodes[i] = node;
+            keys[i] = key;
+        }
+
+        private int pop() {
+            int top = nodes[0];
+            size--;
+            int lastNode = nodes[size];
+            float lastKey = keys[size];
+            int i = 0;
+            while (true) {
+                int child = 2 * i + 1;
+                if (child >= size) {
+                    break;
+                }
+                if (child + 1 < size && keys[child + 1] < keys[child]) {
+                    child++;
+                }
+                if (keys[child] >= lastKey) {
+                    break;
+                }
+                nodes[i] = nodes[child];
+                keys[i] = keys[child];
+                i = child;
+            }
+            nodes[i] = lastNode;
+            keys[i] = lastKey;
+            return top;
+        }
+
+        /**
+         * Empties a heap keyed by similarity and returns its nodes from most to least similar.
+         */
+        private int[] drainBestFirst() {
+            int[] ordered = new int[size];
+            for (int i = ordered.length - 1; i >= 0; i--) {
+                ordered[i] = pop();
+            }
+            return ordered;
+        }
+
+        /**
+         * The most similar node of a heap keyed by similarity.
+         */
+        private int best() {
+            int[] ordered = drainBestFirst();
+            return ordered[0];
+        }
+    }
+}
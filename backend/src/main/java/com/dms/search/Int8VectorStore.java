@@ -0,0 +1,110 @@
+package com.dms.search;
+
+import java.util.Arrays;
+
+/**
+ * Scalar-quantized storage: each vector becomes one signed byte per dimension plus its own offset and
+ * scale, so component {@code i} is approximately {@code offset + scale * (code[i] + 128)}. That is about
+ * a quarter of the float storage.
+ * <p>
+ * Queries stay in float and are scored asymmetrically against the codes:
+ * {@code dot(q, x) ~ offset * sum(q) + scale * (dot(q, code) + 128 * sum(q))}, so only the stored side carries quantization
+ * error. Two stored vectors are compared with an exact integer dot product of their codes.
+ */
+final class Int8VectorStore implements VectorStore {
+
+    private static final int LEVELS = 255;
+    private static final int CODE_SHIFT = 128;
+
+    private final int dimensions;
+    private byte[] codes = new byte[0];
+    private float[] offsets = new float[0];
+    private float[] scales = new float[0];
+    // Sum of each vector's signed codes, used to expand the product of two dequantized vectors.
+    private int[] codeSums = new int[0];
+
+    Int8VectorStore(int dimensions) {
+        this.dimensions = dimensions;
+    }
+
+    @Override
+    public int dimensions() {
+        return dimensions;
+    }
+
+    @Override
+    public int bytesPerVector() {
+        return dimensions + 2 * Float.BYTES + Integer.BYTES;
+    }
+
+    @Override
+    public void ensureCapacity(int nodes) {
+        if (nodes > offsets.length) {
+            codes = Arrays.copyOf(codes, nodes * dimensions);
+            offsets = Arrays.copyOf(offsets, nodes);
+            scales = Arrays.copyOf(scales, nodes);
+            codeSums = Arrays.copyOf(codeSums, nodes);
+        }
+    }
+
+    @Override
+    public void set(int node, Embedding vector) {
+        float min = Float.POSITIVE_INFINITY;
+        float max = Float.NEGATIVE_INFINITY;
+        for (int i = 0; i < dimensions; i++) {
+            float value = vector.get(i);
+            min = Math.min(min, value);
+            max = Math.max(max, value);
+        }
+        float scale = max > min ? (max - min) / LEVELS : 0.0f;
+        int base = node * dimensions;
+        int sum = 0;
+        for (int i = 0; i < dimensions; i++) {
+            int level = scale == 0.0f ? 0 : Math.round((vector.get(i) - min) / scale);
+            int code = Math.max(0, Math.min(LEVELS, level)) - CODE_SHIFT;
+            codes[base + i] = (byte) code;
+            sum += code;
+        }
+        offsets[node] = min;
+        scales[node] = scale;
+        codeSums[node] = sum;
+    }
+
+    @Override
+    public float similarity(int left, int right) {
+        // With u = code + 128 and U = sum(u): dot(x, y) = D*o1*o2 + o1*s2*U2 + o2*s1*U1 + s1*s2*dot(u1, u2).
+        long shiftedLeft = codeSums[left] + (long) CODE_SHIFT * dimensions;
+        long shiftedRight = codeSums[right] + (long) CODE_SHIFT * dimensions;
+        long codeDot = VectorKernels.dot(codes, left * dimensions, codes, right * dimensions, dimensions);
+        long shiftedDot = codeDot + (long) CODE_SHIFT * (codeSums[left] + codeSums[right])
+            + (long) CODE_SHIFT * CODE_SHIFT * dimensions;
+        double oLeft = offsets[left];
+        double oRight = offsets[right];
+        double sLeft = scales[left];
+        double sRight = scales[right];
+        return (float) (dimensions * oLeft * oRight + oLeft * sRight * shiftedRight + oRight * sLeft * shiftedLeft
+            + sLeft * sRight * shiftedDot);
+    }
+
+    @Override
+    public NodeScorer scorer(Embedding query) {
+        float[] values = query.toArray();
+        float sum = 0.0f;
+        for (float value : values) {
+            sum += value;
+        }
+        float querySum = sum;
+        return node -> offsets[node] * querySum
+            + scales[node] * (VectorKernels.dot(values, 0, codes, node * dimensions, dimensions) + CODE_SHIFT * querySum);
+    }
+
+    @Override
+    public Embedding vector(int node) {
+        float[] values = new float[dimensions];
+        int base = node * dimensions;
+        for (int i = 0; i < dimensions; i++) {
+            values[i] = offsets[node] + scales[node] * (codes[base + i] + CODE_SHIFT);
+        }
+        return Embedding.of(values);
+    }
+}
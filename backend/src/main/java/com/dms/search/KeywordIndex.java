@@ -0,0 +1,522 @@
+package com.dms.search;
+
+import com.dms.domain.RequirementChunk;
+import com.dms.dto.response.HybridSearchResult;
+import com.dms.repository.RequirementChunkRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Per-tenant inverted index over requirement chunk text, scored with BM25. Chunks are numbered densely
+ * per tenant and terms are interned to {@code int} ids; each term keeps its postings as parallel
+ * {@code int} arrays of chunk numbers and term frequencies, so a query only walks the postings of its own
+ * terms and accumulates scores only for the chunks they reach. The index keeps no chunk text: per chunk
+ * it holds the ids, the length and the distinct term ids, and the text of the final results is read by id.
+ * <p>
+ * A tenant is loaded from the database on its first query. {@link com.dms.indexing.IndexingService}
+ * applies its changes once they are committed, tagged with the tenant's {@code search_index_generations}
+ * value. A query compares the stored generation with the one the index is at, at most once per
+ * {@code dms.search.index.check-interval-ms}, and reloads the tenant when another instance has written in
+ * between. Replaced and removed chunks are tombstoned: they drop out of the BM25 statistics immediately
+ * and out of the postings once the tenant is compacted, which happens once they outnumber the live chunks.
+ */
+@Component
+@Slf4j
+public class KeywordIndex {
+
+    private static final int COMPACTION_MIN_DEAD = 1024;
+
+    private final RequirementChunkRepository requirementChunkRepository;
+    private final double k1;
+    private final double b;
+    private final Duration checkInterval;
+    private final Map<UUID, TenantIndex> tenants = new ConcurrentHashMap<>();
+
+    public KeywordIndex(
+            RequirementChunkRepository requirementChunkRepository,
+            @Value("${dms.search.keyword.bm25-k1:1.2}") double k1,
+            @Value("${dms.search.keyword.bm25-b:0.75}") double b,
+            @Value("${dms.search.index.check-interval-ms:5000}") long checkIntervalMillis) {
+        this.requirementChunkRepository = requirementChunkRepository;
+        this.k1 = k1;
+        this.b = b;
+        this.checkInterval = Duration.ofMillis(Math.max(0, checkIntervalMillis));
+    }
+
+    /**
+     * Adds the chunks, replacing earlier versions with the same ids. Call after the transaction that
+     * bumped the tenant's generation to {@code generation} has committed.
+     */
+    public void index(UUID tenantId, List<RequirementChunk> chunks, long generation) {
+        tenant(tenantId).apply(generation, index -> chunks.forEach(index::upsert));
+    }
+
+    /**
+     * Drops the document's chunks. Call after the transaction that bumped the tenant's generation to
+     * {@code generation} has committed.
+     */
+    public void removeDocument(UUID tenantId, UUID documentId, long generation) {
+        tenant(tenantId).apply(generation, index -> index.removeDocument(documentId));
+    }
+
+    /**
+     * The {@code limit} best chunks for {@code query}, best first, with the BM25 score as relevance.
+     */
+    public List<HybridSearchResult> search(UUID tenantId, String query, int limit) {
+        List<String> terms = new ArrayList<>(new LinkedHashSet<>(tokenize(query)));
+        if (terms.isEmpty()) {
+            return List.of();
+        }
+        TenantIndex tenant = tenant(tenantId);
+        tenant.ensureCurrent();
+        return hydrate(tenant.search(terms, Math.max(1, limit)));
+    }
+
+    /**
+     * Lower-cased runs of letters and digits.
+     */
+    static List<String> tokenize(String text) {
+        if (text == null || text.isEmpty()) {
+            return List.of();
+        }
+        List<String> tokens = new ArrayList<>();
+        int start = -1;
+        for (int i = 0; i <= text.length(); i++) {
+            boolean wordChar = i < text.length() && Character.isLetterOrDigit(text.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                tokens.add(text.substring(start, i).toLowerCase(Locale.ROOT));
+                start = -1;
+            }
+        }
+        return tokens;
+    }
+
+    /**
+     * Reads the ranked chunks by id, in rank order. A chunk deleted since the index last caught up is dropped.
+     */
+    private List<HybridSearchResult> hydrate(List<ScoredChunk> ranked) {
+        if (ranked.isEmpty()) {
+            return List.of();
+        }
+        Map<UUID, RequirementChunk> chunks = requirementChunkRepository.findAllById(ranked.stream()
+                .map(ScoredChunk::chunkId)
+                .toList()).stream()
+            .collect(Collectors.toMap(RequirementChunk::getId, Function.identity()));
+        List<HybridSearchResult> results = new ArrayList<>(ranked.size());
+        for (ScoredChunk scored : ranked) {
+            RequirementChunk chunk = chunks.get(scored.chunkId());
+            if (chunk != null) {
+                results.add(HybridSearchResult.builder()
+                    .chunkId(chunk.getId())
+                    .documentId(chunk.getDocumentId())
+                    .sequenceNumber(chunk.getChunkOrder())
+                    .content(chunk.getChunkText())
+                    .tokenCount(chunk.getTokenCount())
+                    .relevanceScore(scored.score())
+                    .createdAt(chunk.getCreatedAt())
+                    .build());
+            }
+        }
+        return results;
+    }
+
+    private TenantIndex tenant(UUID tenantId) {
+        return tenants.computeIfAbsent(tenantId, TenantIndex::new);
+    }
+
+    private final class TenantIndex {
+
+        private final UUID tenantId;
+        private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+        private final Map<String, Integer> termIds = new HashMap<>();
+        private final List<Postings> postings = new ArrayList<>();
+        private final Map<UUID, Integer> slotByChunk = new HashMap<>();
+        private final Map<UUID, Set<UUID>> chunksByDocument = new HashMap<>();
+        private final BitSet live = new BitSet();
+        // Per slot: the chunk, its document, its length in tokens and its distinct term ids.
+        private UUID[] chunkIds = new UUID[64];
+        private UUID[] documentIds = new UUID[64];
+        private int[] lengths = new int[64];
+        private int[][] slotTerms = new int[64][];
+        private int slots;
+        private int liveCount;
+        private long totalLength;
+        private long generation;
+        private volatile boolean loaded;
+        private volatile Instant nextCheckAt = Instant.MIN;
+
+        private TenantIndex(UUID tenantId) {
+            this.tenantId = tenantId;
+        }
+
+        /**
+         * Loads the tenant on first use and reloads it when the stored generation has moved past the one
+         * this index is at, checking at most once per interval.
+         */
+        private void ensureCurrent() {
+            Instant now = Instant.now();
+            if (loaded && nextCheckAt.isAfter(now)) {
+                return;
+            }
+            long storedGeneration = requirementChunkRepository.findSearchIndexGeneration(tenantId);
+            lock.writeLock().lock();
+            try {
+                if (!loaded || generation < storedGeneration) {
+                    load();
+                }
+                nextCheckAt = now.plus(checkInterval);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        private void load() {
+            reset();
+            // Read before the chunks, so a change committed in between shows up at the next check.
+            generation = requirementChunkRepository.findSearchIndexGeneration(tenantId);
+            List<RequirementChunk> chunks = requirementChunkRepository.findSearchableByTenantId(tenantId);
+            chunks.forEach(this::append);
+            loaded = true;
+            log.debug("Loaded keyword index for tenant {} ({} chunks, generation {})", tenantId, chunks.size(), generation);
+        }
+
+        /**
+         * Applies a committed change. A tenant that is not loaded yet ignores it, because its first load
+         * reads the committed state. The index only moves to {@code committedGeneration} when it was at the
+         * generation just before; otherwise another instance's change is missing and the next check reloads.
+         */
+        private void apply(long committedGeneration, Consumer<TenantIndex> change) {
+            lock.writeLock().lock();
+            try {
+                if (!loaded) {
+                    return;
+                }
+                change.accept(this);
+                if (generation == committedGeneration - 1) {
+                    generation = committedGeneration;
+                }
+                compactIfNeeded();
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        private void upsert(RequirementChunk chunk) {
+            Integer previous = slotByChunk.get(chunk.getId());
+            if (previous != null) {
+                tombstone(previous);
+            }
+            append(chunk);
+        }
+
+        private void removeDocument(UUID documentId) {
+            Set<UUID> documentChunks = chunksByDocument.remove(documentId);
+            if (documentChunks == null) {
+                return;
+            }
+            for (UUID chunkId : documentChunks) {
+                tombstone(slotByChunk.get(chunkId));
+            }
+        }
+
+        private List<ScoredChunk> search(List<String> terms, int limit) {
+            lock.readLock().lock();
+            try {
+                if (liveCount == 0) {
+                    return List.of();
+                }
+                List<Postings> matched = new ArrayList<>(terms.size());
+                int candidates = 0;
+                for (String term : terms) {
+                    Integer termId = termIds.get(term);
+                    if (termId != null && postings.get(termId).live > 0) {
+                        matched.add(postings.get(termId));
+                        candidates += postings.get(termId).live;
+                    }
+                }
+                if (matched.isEmpty()) {
+                    return List.of();
+                }
+
+                double averageLength = Math.max(1.0, (double) totalLength / liveCount);
+                ScoreAccumulator scores = new ScoreAccumulator(Math.min(candidates, liveCount));
+                for (Postings termPostings : matched) {
+                    double idf = Math.log(1.0 + (liveCount - termPostings.live + 0.5) / (termPostings.live + 0.5));
+                    for (int i = 0; i < termPostings.size; i++) {
+                        int slot = termPostings.slots[i];
+                        if (!live.get(slot)) {
+                            continue;
+                        }
+                        double tf = termPostings.frequencies[i];
+                        double norm = k1 * (1.0 - b + b * lengths[slot] / averageLength);
+                        scores.add(slot, idf * tf * (k1 + 1.0) / (tf + norm));
+                    }
+                }
+
+                // Min-heap of the best entries so far; later (newer) slots win ties.
+                PriorityQueue<Integer> best = new PriorityQueue<>(limit + 1, (left, right) -> {
+                    int byScore = Double.compare(scores.score(left), scores.score(right));
+                    return byScore != 0 ? byScore : Integer.compare(scores.slot(left), scores.slot(right));
+                });
+                for (int entry = 0; entry < scores.capacity(); entry++) {
+                    if (scores.slot(entry) < 0) {
+                        continue;
+                    }
+                    best.offer(entry);
+                    if (best.size() > limit) {
+                        best.poll();
+                    }
+                }
+                ScoredChunk[] ranked = new ScoredChunk[best.size()];
+                for (int i = ranked.length - 1; i >= 0; i--) {
+                    int entry = best.poll();
+                    ranked[i] = new ScoredChunk(chunkIds[scores.slot(entry)], scores.score(entry));
+                }
+                return List.of(ranked);
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        private void append(RequirementChunk chunk) {
+            if (slots == chunkIds.length) {
+                grow(slots * 2);
+            }
+            int slot = slots++;
+            List<String> tokens = tokenize(chunk.getChunkText());
+            Map<Integer, Integer> frequencies = new HashMap<>();
+            for (String token : tokens) {
+                int termId = termIds.computeIfAbsent(token, ignored -> {
+                    postings.add(new Postings());
+                    return postings.size() - 1;
+                });
+                frequencies.merge(termId, 1, Integer::sum);
+            }
+            int[] terms = new int[frequencies.size()];
+            int next = 0;
+            for (Map.Entry<Integer, Integer> frequency : frequencies.entrySet()) {
+                postings.get(frequency.getKey()).add(slot, frequency.getValue());
+                terms[next++] = frequency.getKey();
+            }
+            chunkIds[slot] = chunk.getId();
+            documentIds[slot] = chunk.getDocumentId();
+            lengths[slot] = tokens.size();
+            slotTerms[slot] = terms;
+            totalLength += tokens.size();
+            liveCount++;
+            live.set(slot);
+            slotByChunk.put(chunk.getId(), slot);
+            chunksByDocument.computeIfAbsent(chunk.getDocumentId(), ignored -> new HashSet<>()).add(chunk.getId());
+        }
+
+        private void tombstone(int slot) {
+            live.clear(slot);
+            // Keep N, document frequencies and the average length to the live chunks.
+            for (int termId : slotTerms[slot]) {
+                postings.get(termId).live--;
+            }
+            totalLength -= lengths[slot];
+            liveCount--;
+            UUID chunkId = chunkIds[slot];
+            UUID documentId = documentIds[slot];
+            chunkIds[slot] = null;
+            documentIds[slot] = null;
+            slotTerms[slot] = null;
+            slotByChunk.remove(chunkId);
+            Set<UUID> siblings = chunksByDocument.get(documentId);
+            if (siblings != null) {
+                siblings.remove(chunkId);
+                if (siblings.isEmpty()) {
+                    chunksByDocument.remove(documentId);
+                }
+            }
+        }
+
+        /**
+         * Renumbers the live chunks densely and drops the tombstoned postings, and with them the terms no
+         * live chunk uses, without tokenizing anything again.
+         */
+        private void compactIfNeeded() {
+            int dead = slots - liveCount;
+            if (dead < COMPACTION_MIN_DEAD || dead <= liveCount) {
+                return;
+            }
+            int[] slotMap = new int[slots];
+            int next = 0;
+            for (int slot = 0; slot < slots; slot++) {
+                if (!live.get(slot)) {
+                    slotMap[slot] = -1;
+                    continue;
+                }
+                slotMap[slot] = next;
+                chunkIds[next] = chunkIds[slot];
+                documentIds[next] = documentIds[slot];
+                lengths[next] = lengths[slot];
+                slotTerms[next] = slotTerms[slot];
+                slotByChunk.put(chunkIds[next], next);
+                next++;
+            }
+            Arrays.fill(chunkIds, next, slots, null);
+            Arrays.fill(documentIds, next, slots, null);
+            Arrays.fill(slotTerms, next, slots, null);
+
+            int[] termMap = new int[postings.size()];
+            List<Postings> kept = new ArrayList<>();
+            for (int termId = 0; termId < postings.size(); termId++) {
+                Postings termPostings = postings.get(termId);
+                if (termPostings.live == 0) {
+                    termMap[termId] = -1;
+                    continue;
+                }
+                termPostings.retain(slotMap);
+                termMap[termId] = kept.size();
+                kept.add(termPostings);
+            }
+            termIds.values().removeIf(termId -> termMap[termId] < 0);
+            termIds.replaceAll((term, termId) -> termMap[termId]);
+            for (int slot = 0; slot < next; slot++) {
+                int[] terms = slotTerms[slot];
+                for (int i = 0; i < terms.length; i++) {
+                    terms[i] = termMap[terms[i]];
+                }
+            }
+            postings.clear();
+            postings.addAll(kept);
+
+            slots = next;
+            live.clear();
+            live.set(0, next);
+            grow(Math.max(64, next * 2));
+            log.debug("Compacted keyword index for tenant {} ({} chunks, {} dropped)", tenantId, next, dead);
+        }
+
+        private void grow(int capacity) {
+            chunkIds = Arrays.copyOf(chunkIds, capacity);
+            documentIds = Arrays.copyOf(documentIds, capacity);
+            lengths = Arrays.copyOf(lengths, capacity);
+            slotTerms = Arrays.copyOf(slotTerms, capacity);
+        }
+
+        private void reset() {
+            termIds.clear();
+            postings.clear();
+            slotByChunk.clear();
+            chunksByDocument.clear();
+            live.clear();
+            int capacity = Math.max(64, liveCount * 2);
+            chunkIds = new UUID[capacity];
+            documentIds = new UUID[capacity];
+            lengths = new int[capacity];
+            slotTerms = new int[capacity][];
+            slots = 0;
+            liveCount = 0;
+            totalLength = 0;
+        }
+    }
+
+    private static final class Postings {
+
+        private int[] slots = new int[4];
+        private int[] frequencies = new int[4];
+        private int size;
+        // Postings of live chunks, the document frequency BM25 uses.
+        private int live;
+
+        private void add(int slot, int frequency) {
+            if (size == slots.length) {
+                slots = Arrays.copyOf(slots, size + (size >> 1));
+                frequencies = Arrays.copyOf(frequencies, slots.length);
+            }
+            slots[size] = slot;
+            frequencies[size] = frequency;
+            size++;
+            live++;
+        }
+
+        /**
+         * Keeps the postings of live chunks, renumbered through {@code slotMap} ({@code -1} for dead slots).
+         */
+        private void retain(int[] slotMap) {
+            int kept = 0;
+            for (int i = 0; i < size; i++) {
+                int slot = slotMap[slots[i]];
+                if (slot >= 0) {
+                    slots[kept] = slot;
+                    frequencies[kept] = frequencies[i];
+                    kept++;
+                }
+            }
+            size = kept;
+            slots = Arrays.copyOf(slots, Math.max(4, kept));
+            frequencies = Arrays.copyOf(frequencies, slots.length);
+        }
+    }
+
+    /**
+     * Open-addressing map from slot to accumulated score, sized to the postings a query walks rather than to
+     * the tenant. Entries are addressed by their position, which is what the ranking heap holds.
+     */
+    private static final class ScoreAccumulator {
+
+        // slot + 1, so that 0 marks a free position
+        private final int[] keys;
+        private final double[] scores;
+        private final int mask;
+
+        private ScoreAccumulator(int expected) {
+            int capacity = Integer.highestOneBit(Math.max(1, expected) * 2 - 1) << 1;
+            keys = new int[capacity];
+            scores = new double[capacity];
+            mask = capacity - 1;
+        }
+
+        private void add(int slot, double score) {
+            int hash = slot * 0x9E3779B9;
+            int position = (hash ^ (hash >>> 16)) & mask;
+            while (keys[position] != 0 && keys[position] != slot + 1) {
+                position = (position + 1) & mask;
+            }
+            keys[position] = slot + 1;
+            scores[position] += score;
+        }
+
+        private int capacity() {
+            return keys.length;
+        }
+
+        /** The slot stored at {@code position}, or -1 when the position is free. */
+        private int slot(int position) {
+            return keys[position] - 1;
+        }
+
+        private double score(int position) {
+            return scores[position];
+        }
+    }
+
+    private record ScoredChunk(UUID chunkId, double score) {
+    }
+}
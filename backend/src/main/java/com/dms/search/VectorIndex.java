@@ -0,0 +1,360 @@
+package com.dms.search;
+
+import com.dms.domain.ChunkEmbedding;
+import com.dms.domain.RequirementChunk;
+import com.dms.dto.response.HybridSearchResult;
+import com.dms.repository.ChunkEmbeddingRepository;
+import com.dms.repository.RequirementChunkRepository;
+import com.dms.repository.SearchableEmbedding;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Per-tenant approximate nearest-neighbour index over chunk embeddings, backed by an {@link HnswGraph}.
+ * The graph only keeps chunk and document ids next to the vectors; the text of the final results is read
+ * from {@code requirement_chunks} per query.
+ * <p>
+ * A tenant is loaded from {@code chunk_embeddings} on its first query. {@link com.dms.indexing.IndexingService}
+ * applies its changes once they are committed, tagged with the tenant's {@code search_index_generations}
+ * value, and a query reloads the tenant when another instance has written since, checking at most once per
+ * {@code dms.search.index.check-interval-ms}, like {@link KeywordIndex}. Replaced and removed chunks are
+ * marked deleted in the graph; once they outnumber the live ones the tenant's graph is rebuilt.
+ * <p>
+ * With {@code dms.search.vector.quantization=int8} the graph holds int8 codes instead of floats, about a
+ * quarter of the heap. The graph then only generates candidates: a few times {@code limit} of them are
+ * rescored against their persisted float32 vectors, one primary-key lookup per query, and the best
+ * {@code limit} returned. Candidates whose float32 row is gone are dropped, so every returned score is exact.
+ */
+@Component
+@Slf4j
+public class VectorIndex {
+
+    private static final int REBUILD_MIN_DELETED = 1024;
+
+    private final ChunkEmbeddingRepository chunkEmbeddingRepository;
+    private final RequirementChunkRepository requirementChunkRepository;
+    private final int m;
+    private final int efConstruction;
+    private final int efSearch;
+    private final boolean quantized;
+    private final int rescoreOversample;
+    private final Duration checkInterval;
+    private final Map<UUID, TenantGraph> tenants = new ConcurrentHashMap<>();
+
+    public VectorIndex(
+            ChunkEmbeddingRepository chunkEmbeddingRepository,
+            RequirementChunkRepository requirementChunkRepository,
+            @Value("${dms.search.vector.hnsw.m:16}") int m,
+            @Value("${dms.search.vector.hnsw.ef-construction:200}") int efConstruction,
+            @Value("${dms.search.vector.hnsw.ef-search:64}") int efSearch,
+            @Value("${dms.search.vector.quantization:none}") String quantization,
+            @Value("${dms.search.vector.rescore-oversample:4}") int rescoreOversample,
+            @Value("${dms.search.index.check-interval-ms:5000}") long checkIntervalMillis) {
+        this.chunkEmbeddingRepository = chunkEmbeddingRepository;
+        this.requirementChunkRepository = requirementChunkRepository;
+        this.m = m;
+        this.efConstruction = efConstruction;
+        this.efSearch = efSearch;
+        if (!"none".equalsIgnoreCase(quantization) && !"int8".equalsIgnoreCase(quantization)) {
+            throw new IllegalArgumentException("Unsupported vector quantization: " + quantization);
+        }
+        this.quantized = "int8".equalsIgnoreCase(quantization);
+        this.rescoreOversample = Math.max(1, rescoreOversample);
+        this.checkInterval = Duration.ofMillis(Math.max(0, checkIntervalMillis));
+    }
+
+    /**
+     * Adds the chunks with their embeddings, replacing earlier versions with the same ids. Call after the
+     * transaction that bumped the tenant's generation to {@code generation} has committed.
+     */
+    public void index(UUID tenantId, List<RequirementChunk> chunks, List<Embedding> embeddings, long generation) {
+        tenant(tenantId).apply(generation, graph -> {
+            for (int i = 0; i < chunks.size(); i++) {
+                graph.upsert(new ChunkRef(chunks.get(i).getId(), chunks.get(i).getDocumentId()), embeddings.get(i));
+            }
+        });
+    }
+
+    /**
+     * Drops the document's chunks. Call after the transaction that bumped the tenant's generation to
+     * {@code generation} has committed.
+     */
+    public void removeDocument(UUID tenantId, UUID documentId, long generation) {
+        tenant(tenantId).apply(generation, graph -> graph.removeDocument(documentId));
+    }
+
+    /**
+     * The {@code limit} chunks most similar to {@code query}, best first, with cosine similarity as
+     * relevance.
+     */
+    public List<HybridSearchResult> search(UUID tenantId, Embedding query, int limit) {
+        TenantGraph tenant = tenant(tenantId);
+        tenant.ensureCurrent();
+        int target = Math.max(1, limit);
+        if (!quantized) {
+            return hydrate(tenant.search(query, target, efSearch));
+        }
+        int candidates = target * rescoreOversample;
+        return hydrate(rescore(query, tenant.search(query, candidates, Math.max(efSearch, candidates)), target));
+    }
+
+    private List<Neighbour> rescore(Embedding query, List<Neighbour> candidates, int limit) {
+        if (candidates.isEmpty()) {
+            return candidates;
+        }
+        Map<UUID, ChunkEmbedding> exact = chunkEmbeddingRepository.findAllById(candidates.stream()
+                .map(candidate -> candidate.chunk().chunkId())
+                .toList()).stream()
+            .collect(Collectors.toMap(ChunkEmbedding::getChunkId, Function.identity()));
+        List<Neighbour> rescored = new ArrayList<>(candidates.size());
+        for (Neighbour candidate : candidates) {
+            ChunkEmbedding embedding = exact.get(candidate.chunk().chunkId());
+            // Without a matching float32 row there is no exact score to rank it by; the chunk was deleted or
+            // re-embedded since the graph last caught up, so it is dropped rather than mixed in at int8 precision.
+            if (embedding != null && embedding.getDimensions() == query.dimensions()) {
+                rescored.add(new Neighbour(candidate.chunk(), query.cosine(Embedding.of(embedding.toVector()))));
+            }
+        }
+        return rescored.stream()
+            .sorted(Comparator.comparingDouble(Neighbour::similarity).reversed())
+            .limit(limit)
+            .toList();
+    }
+
+    /**
+     * Reads the chunks behind the final neighbours, keeping their order. Chunks deleted since the graph
+     * last caught up are dropped.
+     */
+    private List<HybridSearchResult> hydrate(List<Neighbour> neighbours) {
+        if (neighbours.isEmpty()) {
+            return List.of();
+        }
+        Map<UUID, RequirementChunk> chunks = requirementChunkRepository.findAllById(neighbours.stream()
+                .map(neighbour -> neighbour.chunk().chunkId())
+                .toList()).stream()
+            .collect(Collectors.toMap(RequirementChunk::getId, Function.identity()));
+        List<HybridSearchResult> results = new ArrayList<>(neighbours.size());
+        for (Neighbour neighbour : neighbours) {
+            RequirementChunk chunk = chunks.get(neighbour.chunk().chunkId());
+            if (chunk != null) {
+                results.add(HybridSearchResult.builder()
+                    .chunkId(chunk.getId())
+                    .documentId(chunk.getDocumentId())
+                    .sequenceNumber(chunk.getChunkOrder())
+                    .content(chunk.getChunkText())
+                    .tokenCount(chunk.getTokenCount())
+                    .relevanceScore((double) neighbour.similarity())
+                    .createdAt(chunk.getCreatedAt())
+                    .build());
+            }
+        }
+        return results;
+    }
+
+    private TenantGraph tenant(UUID tenantId) {
+        return tenants.computeIfAbsent(tenantId, TenantGraph::new);
+    }
+
+    private record ChunkRef(UUID chunkId, UUID documentId) {
+    }
+
+    private record Neighbour(ChunkRef chunk, float similarity) {
+    }
+
+    private final class TenantGraph {
+
+        private final UUID tenantId;
+        private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+        private final Map<UUID, Integer> nodeByChunk = new HashMap<>();
+        private final Map<UUID, Set<UUID>> chunksByDocument = new HashMap<>();
+        private HnswGraph graph;
+        private ChunkRef[] refs = new ChunkRef[64];
+        private long generation;
+        private volatile boolean loaded;
+        private volatile Instant nextCheckAt = Instant.MIN;
+
+        private TenantGraph(UUID tenantId) {
+            this.tenantId = tenantId;
+        }
+
+        /**
+         * Loads the tenant on first use and reloads it when the stored generation has moved past the one
+         * this graph is at, checking at most once per interval.
+         */
+        private void ensureCurrent() {
+            Instant now = Instant.now();
+            if (loaded && nextCheckAt.isAfter(now)) {
+                return;
+            }
+            long storedGeneration = requirementChunkRepository.findSearchIndexGeneration(tenantId);
+            lock.writeLock().lock();
+            try {
+                if (!loaded || generation < storedGeneration) {
+                    load();
+                }
+                nextCheckAt = now.plus(checkInterval);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        private void load() {
+            reset();
+            // Read before the embeddings, so a change committed in between shows up at the next check.
+            generation = requirementChunkRepository.findSearchIndexGeneration(tenantId);
+            List<SearchableEmbedding> rows = chunkEmbeddingRepository.findSearchableByTenantId(tenantId);
+            // Vectors of different embedding models are not comparable; keep those of the newest one.
+            int dimensions = rows.stream()
+                .map(SearchableEmbedding::embedding)
+                .max(Comparator.comparing(ChunkEmbedding::getCreatedAt))
+                .map(ChunkEmbedding::getDimensions)
+                .orElse(0);
+            int added = 0;
+            for (SearchableEmbedding row : rows) {
+                if (row.embedding().getDimensions() == dimensions) {
+                    append(new ChunkRef(row.embedding().getChunkId(), row.documentId()), Embedding.of(row.embedding().toVector()));
+                    added++;
+                }
+            }
+            loaded = true;
+            log.debug("Loaded vector index for tenant {} ({} chunks, generation {})", tenantId, added, generation);
+        }
+
+        /**
+         * Applies a committed change. A tenant that is not loaded yet ignores it, because its first load
+         * reads the committed state. The graph only moves to {@code committedGeneration} when it was at the
+         * generation just before; otherwise another instance's change is missing and the next check reloads.
+         */
+        private void apply(long committedGeneration, Consumer<TenantGraph> change) {
+            lock.writeLock().lock();
+            try {
+                if (!loaded) {
+                    return;
+                }
+                change.accept(this);
+                if (generation == committedGeneration - 1) {
+                    generation = committedGeneration;
+                }
+                if (graph != null) {
+                    rebuildIfNeeded();
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        private void upsert(ChunkRef chunk, Embedding embedding) {
+            Integer previous = nodeByChunk.get(chunk.chunkId());
+            if (previous != null) {
+                delete(previous);
+            }
+            if (graph != null && graph.dimensions() != embedding.dimensions()) {
+                // The embedding model changed; vectors of different models are not comparable.
+                log.warn("Rebuilding vector index for tenant {}: dimensions changed from {} to {}",
+                    tenantId, graph.dimensions(), embedding.dimensions());
+                reset();
+            }
+            append(chunk, embedding);
+        }
+
+        private void removeDocument(UUID documentId) {
+            Set<UUID> chunkIds = chunksByDocument.remove(documentId);
+            if (chunkIds == null) {
+                return;
+            }
+            for (UUID chunkId : chunkIds) {
+                delete(nodeByChunk.get(chunkId));
+            }
+        }
+
+        private List<Neighbour> search(Embedding query, int limit, int ef) {
+            lock.readLock().lock();
+            try {
+                if (graph == null || query.dimensions() != graph.dimensions()) {
+                    return List.of();
+                }
+                float[] similarities = new float[limit];
+                int[] nodes = graph.search(query, limit, ef, similarities);
+                List<Neighbour> results = new ArrayList<>(nodes.length);
+                for (int i = 0; i < nodes.length; i++) {
+                    results.add(new Neighbour(refs[nodes[i]], similarities[i]));
+                }
+                return results;
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        private void append(ChunkRef chunk, Embedding embedding) {
+            if (graph == null) {
+                VectorStore store = quantized
+                    ? new Int8VectorStore(embedding.dimensions())
+                    : new FloatVectorStore(embedding.dimensions());
+                graph = new HnswGraph(store, m, efConstruction, tenantId.getLeastSignificantBits());
+            }
+            int node = graph.add(embedding);
+            if (node >= refs.length) {
+                refs = Arrays.copyOf(refs, Math.max(node + 1, refs.length * 2));
+            }
+            refs[node] = chunk;
+            nodeByChunk.put(chunk.chunkId(), node);
+            chunksByDocument.computeIfAbsent(chunk.documentId(), ignored -> new HashSet<>()).add(chunk.chunkId());
+        }
+
+        private void delete(int node) {
+            graph.markDeleted(node);
+            ChunkRef chunk = refs[node];
+            refs[node] = null;
+            nodeByChunk.remove(chunk.chunkId());
+            Set<UUID> siblings = chunksByDocument.get(chunk.documentId());
+            if (siblings != null) {
+                siblings.remove(chunk.chunkId());
+                if (siblings.isEmpty()) {
+                    chunksByDocument.remove(chunk.documentId());
+                }
+            }
+        }
+
+        private void rebuildIfNeeded() {
+            int deleted = graph.deletedCount();
+            int live = graph.size() - deleted;
+            if (deleted < REBUILD_MIN_DELETED || deleted <= live) {
+                return;
+            }
+            HnswGraph previous = graph;
+            ChunkRef[] previousRefs = refs;
+            reset();
+            for (int node = 0; node < previous.size(); node++) {
+                if (previousRefs[node] != null) {
+                    append(previousRefs[node], previous.vector(node));
+                }
+            }
+            log.debug("Rebuilt vector index for tenant {} ({} chunks, {} dropped)", tenantId, live, deleted);
+        }
+
+        private void reset() {
+            graph = null;
+            refs = new ChunkRef[64];
+            nodeByChunk.clear();
+            chunksByDocument.clear();
+        }
+    }
+}
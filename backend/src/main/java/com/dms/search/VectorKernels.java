@@ -0,0 +1,80 @@
+package com.dms.search;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Dot products over slices of {@code float[]} and int8 codes, the inner loops of every vector
+ * comparison. The float kernel uses the incubating Vector API when the JVM was started with
+ * {@code --add-modules jdk.incubator.vector} and a plain loop otherwise; none of them allocate.
+ */
+@Slf4j
+public final class VectorKernels {
+
+    private static final boolean SIMD = ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent();
+
+    static {
+        log.info("Vector similarity kernels: {}", SIMD ? "SIMD (jdk.incubator.vector)" : "scalar");
+    }
+
+    private VectorKernels() {
+    }
+
+    public static float dot(float[] a, int aOffset, float[] b, int bOffset, int length) {
+        return SIMD ? SimdKernels.dot(a, aOffset, b, bOffset, length) : scalarDot(a, aOffset, b, bOffset, length);
+    }
+
+    static float scalarDot(float[] a, int aOffset, float[] b, int bOffset, int length) {
+        // Four accumulators break the add dependency chain so the JIT can keep several multiplies in flight.
+        float s0 = 0.0f;
+        float s1 = 0.0f;
+        float s2 = 0.0f;
+        float s3 = 0.0f;
+        int i = 0;
+        for (int bound = length & ~3; i < bound; i += 4) {
+            s0 += a[aOffset + i] * b[bOffset + i];
+            s1 += a[aOffset + i + 1] * b[bOffset + i + 1];
+            s2 += a[aOffset + i + 2] * b[bOffset + i + 2];
+            s3 += a[aOffset + i + 3] * b[bOffset + i + 3];
+        }
+        for (; i < length; i++) {
+            s0 += a[aOffset + i] * b[bOffset + i];
+        }
+        return (s0 + s1) + (s2 + s3);
+    }
+
+    /**
+     * Sum of {@code a[i] * codes[i]} over signed int8 codes: a float query against a quantized vector.
+     */
+    public static float dot(float[] a, int aOffset, byte[] codes, int codesOffset, int length) {
+        float s0 = 0.0f;
+        float s1 = 0.0f;
+        float s2 = 0.0f;
+        float s3 = 0.0f;
+        int i = 0;
+        for (int bound = length & ~3; i < bound; i += 4) {
+            s0 += a[aOffset + i] * codes[codesOffset + i];
+            s1 += a[aOffset + i + 1] * codes[codesOffset + i + 1];
+            s2 += a[aOffset + i + 2] * codes[codesOffset + i + 2];
+            s3 += a[aOffset + i + 3] * codes[codesOffset + i + 3];
+        }
+        for (; i < length; i++) {
+            s0 += a[aOffset + i] * codes[codesOffset + i];
+        }
+        return (s0 + s1) + (s2 + s3);
+    }
+
+    /**
+     * Exact integer dot product of two int8 code slices.
+     */
+    public static int dot(byte[] a, int aOffset, byte[] b, int bOffset, int length) {
+        int sum = 0;
+        for (int i = 0; i < length; i++) {
+            sum += a[aOffset + i] * b[bOffset + i];
+        }
+        return sum;
+    }
+
+    static boolean simdEnabled() {
+        return SIMD;
+    }
+}
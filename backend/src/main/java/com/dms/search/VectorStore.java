@@ -0,0 +1,39 @@
+package com.dms.search;
+
+/**
+ * Contiguous storage for the vectors of an {@link HnswGraph}, addressed by node number. Implementations
+ * decide the precision; the graph only asks for similarities.
+ */
+interface VectorStore {
+
+    int dimensions();
+
+    /**
+     * Heap bytes per stored vector, excluding graph links.
+     */
+    int bytesPerVector();
+
+    void ensureCapacity(int nodes);
+
+    void set(int node, Embedding vector);
+
+    /**
+     * Approximate cosine similarity between two stored vectors.
+     */
+    float similarity(int left, int right);
+
+    /**
+     * Scores stored vectors against {@code query}; prepared once per query.
+     */
+    NodeScorer scorer(Embedding query);
+
+    /**
+     * The stored vector, dequantized where necessary.
+     */
+    Embedding vector(int node);
+
+    @FunctionalInterface
+    interface NodeScorer {
+        float similarity(int node);
+    }
+}
@@ -0,0 +1,31 @@
+package com.dms.security;
+
+import java.util.Locale;
+import java.util.Optional;
+
+/**
+ * Application roles, granted as {@code ROLE_<name>} authorities by {@code SecurityConfig}.
+ */
+public enum DmsRole {
+    DOCUMENT_USER,
+    DOCUMENT_ADMIN,
+    ADMIN,
+    COMPLIANCE_OFFICER,
+    LEGAL_OFFICER;
+
+    private static final String PREFIX = "ROLE_";
+
+    public static Optional<DmsRole> fromAuthority(String authority) {
+        if (authority == null || authority.length() <= PREFIX.length()
+                || !authority.regionMatches(true, 0, PREFIX, 0, PREFIX.length())) {
+            return Optional.empty();
+        }
+        String name = authority.substring(PREFIX.length()).toUpperCase(Locale.ROOT);
+        for (DmsRole role : values()) {
+            if (role.name().equals(name)) {
+                return Optional.of(role);
+            }
+        }
+        return Optional.empty();
+    }
+}
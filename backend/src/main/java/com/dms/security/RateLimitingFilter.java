@@ -1,5 +1,6 @@
 package com.dms.security;
 
+import com.dms.service.TenantContext;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
@@ -8,9 +9,6 @@ import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.MediaType;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
@@ -25,6 +23,7 @@ import java.util.concurrent.atomic.AtomicInteger;
 public class RateLimitingFilter extends OncePerRequestFilter {
 
     private final ObjectMapper objectMapper;
+    private final TenantContext tenantContext;
 
     @Value("${dms.rate-limit.requests-per-minute:100}")
     private int maxRequestsPerMinute;
@@ -61,19 +60,8 @@ public class RateLimitingFilter extends OncePerRequestFilter {
     }
 
     private String resolveKey() {
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        String user = authentication != null ? authentication.getName() : "anonymous";
-        String tenant = "default";
-        if (authentication instanceof JwtAuthenticationToken jwtAuth) {
-            String tenantId = jwtAuth.getToken().getClaimAsString("tenant_id");
-            if (tenantId == null || tenantId.isBlank()) {
-                tenantId = jwtAuth.getToken().getClaimAsString("tid");
-            }
-            if (tenantId != null && !tenantId.isBlank()) {
-                tenant = tenantId;
-            }
-        }
-        return user + ":" + tenant;
+        TenantPrincipal principal = tenantContext.current();
+        return principal.userId() + ":" + principal.tenantId();
     }
 
     private record WindowCounter(long minute, AtomicInteger count) {
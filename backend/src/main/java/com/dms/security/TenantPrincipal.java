@@ -0,0 +1,64 @@
+package com.dms.security;
+
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
+
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * The caller's tenant, user id and roles, resolved once from the authentication.
+ */
+public record TenantPrincipal(UUID tenantId, String userId, Set<DmsRole> roles) {
+
+    public static final String SYSTEM_USER = "system";
+
+    public TenantPrincipal {
+        roles = roles.isEmpty()
+            ? Collections.unmodifiableSet(EnumSet.noneOf(DmsRole.class))
+            : Collections.unmodifiableSet(EnumSet.copyOf(roles));
+    }
+
+    public boolean hasRole(DmsRole role) {
+        return roles.contains(role);
+    }
+
+    public static TenantPrincipal system(UUID tenantId) {
+        return new TenantPrincipal(tenantId, SYSTEM_USER, Set.of());
+    }
+
+    /**
+     * Reads the tenant from the {@code tenant_id} claim, falling back to {@code tid}; a missing or malformed
+     * claim resolves to {@code defaultTenantId}.
+     */
+    public static TenantPrincipal from(Authentication authentication, UUID defaultTenantId) {
+        if (authentication == null) {
+            return system(defaultTenantId);
+        }
+        EnumSet<DmsRole> roles = EnumSet.noneOf(DmsRole.class);
+        for (GrantedAuthority authority : authentication.getAuthorities()) {
+            DmsRole.fromAuthority(authority.getAuthority()).ifPresent(roles::add);
+        }
+        return new TenantPrincipal(tenantId(authentication, defaultTenantId), authentication.getName(), roles);
+    }
+
+    private static UUID tenantId(Authentication authentication, UUID defaultTenantId) {
+        if (authentication instanceof JwtAuthenticationToken jwtAuth) {
+            String tenantId = jwtAuth.getToken().getClaimAsString("tenant_id");
+            if (tenantId == null || tenantId.isBlank()) {
+                tenantId = jwtAuth.getToken().getClaimAsString("tid");
+            }
+            if (tenantId != null && !tenantId.isBlank()) {
+                try {
+                    return UUID.fromString(tenantId);
+                } catch (IllegalArgumentException ignored) {
+                    // fall back to configured default tenant when claim format is invalid
+                }
+            }
+        }
+        return defaultTenantId;
+    }
+}
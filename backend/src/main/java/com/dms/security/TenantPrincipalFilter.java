@@ -0,0 +1,38 @@
+package com.dms.security;
+
+import com.dms.service.TenantContext;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Resolves the {@link TenantPrincipal} once per request, right after authentication, so services and
+ * later filters read a bound value instead of re-parsing JWT claims.
+ */
+@Component
+@RequiredArgsConstructor
+public class TenantPrincipalFilter extends OncePerRequestFilter {
+
+    private final TenantContext tenantContext;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+        throws ServletException, IOException {
+
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        TenantPrincipalHolder.set(authentication, tenantContext.resolve(authentication));
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            TenantPrincipalHolder.clear();
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.dms.security;
+
+import org.springframework.security.core.Authentication;
+
+/**
+ * Thread-bound {@link TenantPrincipal} together with the authentication it was resolved from. A lookup
+ * only hits when the current authentication is that same instance, so a principal can never outlive or
+ * disagree with the security context it belongs to.
+ */
+public final class TenantPrincipalHolder {
+
+    private static final ThreadLocal<Binding> CURRENT = new ThreadLocal<>();
+
+    private TenantPrincipalHolder() {
+    }
+
+    public static TenantPrincipal get(Authentication authentication) {
+        Binding binding = CURRENT.get();
+        return binding != null && binding.authentication() == authentication ? binding.principal() : null;
+    }
+
+    public static void set(Authentication authentication, TenantPrincipal principal) {
+        CURRENT.set(new Binding(authentication, principal));
+    }
+
+    public static Binding capture() {
+        return CURRENT.get();
+    }
+
+    public static void restore(Binding binding) {
+        if (binding == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(binding);
+        }
+    }
+
+    public static void clear() {
+        CURRENT.remove();
+    }
+
+    public record Binding(Authentication authentication, TenantPrincipal principal) {
+    }
+}
@@ -0,0 +1,32 @@
+package com.dms.security;
+
+import org.springframework.core.task.TaskDecorator;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+
+/**
+ * Carries the submitting thread's security context and bound {@link TenantPrincipal} into {@code @Async}
+ * work. Spring Boot applies a single {@link TaskDecorator} bean to the auto-configured task executor.
+ */
+@Component
+public class TenantPrincipalTaskDecorator implements TaskDecorator {
+
+    @Override
+    public Runnable decorate(Runnable runnable) {
+        SecurityContext securityContext = SecurityContextHolder.getContext();
+        TenantPrincipalHolder.Binding binding = TenantPrincipalHolder.capture();
+        return () -> {
+            SecurityContext previousContext = SecurityContextHolder.getContext();
+            TenantPrincipalHolder.Binding previousBinding = TenantPrincipalHolder.capture();
+            SecurityContextHolder.setContext(securityContext);
+            TenantPrincipalHolder.restore(binding);
+            try {
+                runnable.run();
+            } finally {
+                SecurityContextHolder.setContext(previousContext);
+                TenantPrincipalHolder.restore(previousBinding);
+            }
+        };
+    }
+}
@@ -1,34 +1,30 @@
 package com.dms.service;
 
 import com.dms.domain.Document;
-import com.dms.domain.Group;
-import com.dms.domain.UserGroup;
+import com.dms.domain.DocumentType;
 import com.dms.exception.TenantMismatchException;
 import com.dms.exception.UnauthorizedAccessException;
-import com.dms.repository.GroupRepository;
-import com.dms.repository.UserGroupRepository;
+import com.dms.repository.DocumentRepository;
+import com.dms.security.DmsRole;
 import lombok.RequiredArgsConstructor;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.GrantedAuthority;
-import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 
-import java.util.ArrayDeque;
-import java.util.Arrays;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class AuthorizationService {
 
     private final TenantContext tenantContext;
-    private final UserGroupRepository userGroupRepository;
-    private final GroupRepository groupRepository;
+    private final GroupHierarchyCache groupHierarchyCache;
+    private final DocumentRepository documentRepository;
 
     public void assertCanAccessDocument(Document document) {
         if (!canAccessDocument(document)) {
@@ -44,69 +40,90 @@ public class AuthorizationService {
             throw new TenantMismatchException("Cross-tenant access is not allowed");
         }
 
-        UUID[] allowedGroups = document.getDocumentType().getAllowedGroups();
-        if (allowedGroups == null || allowedGroups.length == 0) {
-            return true;
+        return isAllowed(tenantId, userId, document.getDocumentType().getAllowedGroups());
+    }
+
+    /**
+     * Returns the documents the caller may read, in their original order. Each distinct document type is
+     * evaluated once; documents of another tenant are dropped rather than reported.
+     */
+    public List<Document> filterAccessible(Collection<Document> documents) {
+        if (documents.isEmpty()) {
+            return List.of();
+        }
+        UUID tenantId = tenantContext.getCurrentTenantId();
+        String userId = tenantContext.getCurrentUserId();
+        Map<UUID, Boolean> allowedByType = new HashMap<>();
+        List<Document> accessible = new ArrayList<>(documents.size());
+        for (Document document : documents) {
+            if (!tenantId.equals(document.getTenantId())) {
+                continue;
+            }
+            DocumentType type = document.getDocumentType();
+            if (allowedByType.computeIfAbsent(type.getId(), ignored -> isAllowed(tenantId, userId, type.getAllowedGroups()))) {
+                accessible.add(document);
+            }
         }
+        return accessible;
+    }
 
-        Set<UUID> effectiveGroupIds = resolveEffectiveUserGroups(tenantId, userId);
-        return Arrays.stream(allowedGroups).anyMatch(effectiveGroupIds::contains);
+    /**
+     * The subset of {@code documentIds} that exist in the caller's tenant and that the caller may read,
+     * loaded with their types in one query.
+     */
+    public Set<UUID> accessibleIds(Collection<UUID> documentIds) {
+        if (documentIds.isEmpty()) {
+            return Set.of();
+        }
+        List<Document> documents = documentRepository.findAllByIdInAndTenantId(documentIds, tenantContext.getCurrentTenantId());
+        return filterAccessible(documents).stream().map(Document::getId).collect(Collectors.toSet());
     }
 
-    public boolean canUploadToType(UUID[] allowedGroups) {
+    /**
+     * The caller's direct and inherited groups, for pushing access checks into queries.
+     */
+    public Set<UUID> currentEffectiveGroups() {
+        return resolveEffectiveUserGroups(tenantContext.getCurrentTenantId(), tenantContext.getCurrentUserId());
+    }
+
+    /**
+     * Checks a batch of documents against the caller's cached effective groups.
+     */
+    public void assertCanAccessDocuments(Collection<Document> documents) {
         UUID tenantId = tenantContext.getCurrentTenantId();
         String userId = tenantContext.getCurrentUserId();
-        if (allowedGroups == null || allowedGroups.length == 0) {
-            return true;
+        for (Document document : documents) {
+            if (!tenantId.equals(document.getTenantId())) {
+                throw new TenantMismatchException("Cross-tenant access is not allowed");
+            }
+            if (!isAllowed(tenantId, userId, document.getDocumentType().getAllowedGroups())) {
+                throw new UnauthorizedAccessException("User not authorized for document");
+            }
         }
-        Set<UUID> effectiveGroupIds = resolveEffectiveUserGroups(tenantId, userId);
-        return Arrays.stream(allowedGroups).anyMatch(effectiveGroupIds::contains);
+    }
+
+    public boolean canUploadToType(UUID[] allowedGroups) {
+        return isAllowed(tenantContext.getCurrentTenantId(), tenantContext.getCurrentUserId(), allowedGroups);
     }
 
     public boolean canDeleteDocument(Document document) {
-        return canAccessDocument(document) && (hasRole("ADMIN") || hasRole("DOCUMENT_ADMIN"));
+        return canAccessDocument(document) && (hasRole(DmsRole.ADMIN) || hasRole(DmsRole.DOCUMENT_ADMIN));
     }
 
     public boolean canViewAuditLogs() {
-        return hasRole("ADMIN") || hasRole("COMPLIANCE_OFFICER");
+        return hasRole(DmsRole.ADMIN) || hasRole(DmsRole.COMPLIANCE_OFFICER);
     }
 
     Set<UUID> resolveEffectiveUserGroups(UUID tenantId, String userId) {
-        List<UserGroup> assignments = userGroupRepository.findAllByTenantIdAndUserId(tenantId, userId);
-        Set<UUID> directGroupIds = assignments.stream().map(ug -> ug.getGroup().getId()).collect(java.util.stream.Collectors.toSet());
-
-        List<Group> tenantGroups = groupRepository.findAllByTenantId(tenantId);
-        Map<UUID, UUID> parentByChild = new HashMap<>();
-        for (Group group : tenantGroups) {
-            if (group.getParentGroup() != null) {
-                parentByChild.put(group.getId(), group.getParentGroup().getId());
-            }
-        }
-
-        Set<UUID> effective = new HashSet<>(directGroupIds);
-        ArrayDeque<UUID> stack = new ArrayDeque<>(directGroupIds);
-        while (!stack.isEmpty()) {
-            UUID current = stack.pop();
-            UUID parent = parentByChild.get(current);
-            if (parent != null && effective.add(parent)) {
-                stack.push(parent);
-            }
-        }
+        return groupHierarchyCache.effectiveGroups(tenantId, userId);
+    }
 
-        return effective;
+    private boolean isAllowed(UUID tenantId, String userId, UUID[] allowedGroups) {
+        return allowedGroups == null || allowedGroups.length == 0
+            || groupHierarchyCache.isMemberOfAny(tenantId, userId, allowedGroups);
     }
 
-    private boolean hasRole(String role) {
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        if (authentication == null) {
-            return false;
-        }
-        String expected = "ROLE_" + role;
-        for (GrantedAuthority authority : authentication.getAuthorities()) {
-            if (expected.equalsIgnoreCase(authority.getAuthority())) {
-                return true;
-            }
-        }
-        return false;
+    private boolean hasRole(DmsRole role) {
+        return tenantContext.current().hasRole(role);
     }
 }
@@ -0,0 +1,163 @@
+package com.dms.service;
+
+import com.dms.domain.BlobReference;
+import com.dms.repository.BlobReferenceRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.util.UUID;
+
+/**
+ * Decides where uploaded content lives. With {@code dms.blob.content-addressed.enabled} each tenant stores
+ * a given SHA-256 once under {@code <tenant>/cas/<hh>/<hash>.pdf}; documents and versions pointing at it are
+ * counted in {@code blob_references} and the blob is deleted only when the last reference is released.
+ * Without the flag, content is written to the caller's per-version path as before.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class BlobReferenceService {
+
+    private static final int MAX_CLAIM_ATTEMPTS = 3;
+
+    private final BlobReferenceRepository blobReferenceRepository;
+    private final BlobStorageService blobStorageService;
+
+    @Value("${dms.blob.content-addressed.enabled:false}")
+    private boolean contentAddressed;
+
+    public boolean isContentAddressed() {
+        return contentAddressed;
+    }
+
+    /**
+     * Stores the upload and returns its location. In content-addressed mode the spooled multipart file is
+     * hashed first, so a duplicate costs one local read and a counter update instead of a blob write.
+     */
+    @Transactional
+    public StoredBlob store(UUID tenantId, String defaultBlobPath, MultipartFile file) {
+        if (!contentAddressed) {
+            String contentHash = blobStorageService.uploadValidatedPdf(defaultBlobPath, file);
+            return new StoredBlob(defaultBlobPath, contentHash, false, false);
+        }
+
+        String contentHash = blobStorageService.calculateContentHash(file);
+        String blobPath = contentAddressedPath(tenantId, contentHash);
+        BlobReference existing = claim(tenantId, contentHash, blobPath, file.getSize());
+        if (existing != null) {
+            log.debug("Deduplicated upload onto {} (refs={})", existing.getBlobPath(), existing.getRefCount());
+            return new StoredBlob(existing.getBlobPath(), contentHash, true, true);
+        }
+
+        // The reference row is ours; if the write fails it rolls back with the transaction.
+        blobStorageService.uploadValidatedPdf(blobPath, file);
+        return new StoredBlob(blobPath, contentHash, false, true);
+    }
+
+    /**
+     * Takes ownership of content an upload session or a new version already wrote at {@code stagedBlobPath}. In
+     * content-addressed mode a known hash drops the staged copy in favour of the shared blob; a new hash
+     * is counted under the staged path so the content is not written a second time.
+     */
+    @Transactional
+    public StoredBlob adopt(UUID tenantId, String stagedBlobPath, String contentHash, long fileSizeBytes) {
+        if (!contentAddressed) {
+            return new StoredBlob(stagedBlobPath, contentHash, false, false);
+        }
+
+        BlobReference existing = claim(tenantId, contentHash, stagedBlobPath, fileSizeBytes);
+        if (existing != null) {
+            blobStorageService.deleteBlob(stagedBlobPath);
+            log.debug("Deduplicated staged upload onto {} (refs={})", existing.getBlobPath(), existing.getRefCount());
+            return new StoredBlob(existing.getBlobPath(), contentHash, true, true);
+        }
+
+        // Not reported as content-addressed: the blob is only ours until the reference row commits.
+        return new StoredBlob(stagedBlobPath, contentHash, false, false);
+    }
+
+    /**
+     * Adds a reference to an already stored blob. Returns false when the path is not reference counted,
+     * in which case the caller owns a private copy.
+     */
+    @Transactional
+    public boolean retain(UUID tenantId, String blobPath) {
+        BlobReference reference = blobReferenceRepository.findByTenantIdAndBlobPath(tenantId, blobPath).orElse(null);
+        if (reference == null) {
+            return false;
+        }
+        reference.setRefCount(reference.getRefCount() + 1);
+        blobReferenceRepository.save(reference);
+        return true;
+    }
+
+    /**
+     * Drops one reference and deletes the blob once nothing points at it. Paths that are not reference
+     * counted (written before the flag was enabled) are deleted directly.
+     */
+    @Transactional
+    public void release(UUID tenantId, String blobPath) {
+        BlobReference reference = blobReferenceRepository.findByTenantIdAndBlobPath(tenantId, blobPath).orElse(null);
+        if (reference == null) {
+            blobStorageService.deleteBlob(blobPath);
+            return;
+        }
+        int remaining = reference.getRefCount() - 1;
+        if (remaining > 0) {
+            reference.setRefCount(remaining);
+            blobReferenceRepository.save(reference);
+            return;
+        }
+        blobReferenceRepository.delete(reference);
+        blobStorageService.deleteBlob(blobPath);
+    }
+
+    /**
+     * Cleans up after a failed upload transaction. Content-addressed blobs are left in place: the
+     * reference row rolls back with the transaction and the next upload of the same hash reuses the blob.
+     */
+    public void discard(String defaultBlobPath, StoredBlob stored) {
+        if (stored == null) {
+            if (!contentAddressed) {
+                blobStorageService.deleteBlob(defaultBlobPath);
+            }
+            return;
+        }
+        if (!stored.contentAddressed()) {
+            blobStorageService.deleteBlob(stored.blobPath());
+        }
+    }
+
+    /**
+     * Counts one more reference to the tenant's blob for {@code contentHash} and returns it, or records
+     * {@code blobPath} as its first reference and returns null. Concurrent first uploads of the same
+     * content serialize on the insert: the loser waits for the winner to commit and then counts a
+     * reference to its blob.
+     */
+    private BlobReference claim(UUID tenantId, String contentHash, String blobPath, long fileSizeBytes) {
+        for (int attempt = 0; attempt < MAX_CLAIM_ATTEMPTS; attempt++) {
+            BlobReference existing = blobReferenceRepository.findByTenantIdAndContentHash(tenantId, contentHash).orElse(null);
+            if (existing != null) {
+                existing.setRefCount(existing.getRefCount() + 1);
+                blobReferenceRepository.save(existing);
+                return existing;
+            }
+            if (blobReferenceRepository.insertIfAbsent(tenantId, contentHash, blobPath, fileSizeBytes)) {
+                return null;
+            }
+            // Inserted by a concurrent upload and possibly released again since; look it up once more.
+        }
+        throw new IllegalStateException("Could not claim blob reference for content " + contentHash);
+    }
+
+    private String contentAddressedPath(UUID tenantId, String contentHash) {
+        return String.format("%s/cas/%s/%s.pdf", tenantId, contentHash.substring(0, 2), contentHash);
+    }
+
+    public record StoredBlob(String blobPath, String contentHash, boolean deduplicated, boolean contentAddressed) {
+    }
+}
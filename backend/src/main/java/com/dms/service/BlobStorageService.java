@@ -1,89 +1,120 @@
 package com.dms.service;
 
+import com.azure.core.util.Context;
+import com.azure.core.util.polling.LongRunningOperationStatus;
+import com.azure.core.util.polling.PollResponse;
 import com.azure.storage.blob.BlobClient;
 import com.azure.storage.blob.BlobContainerClient;
+import com.azure.storage.blob.models.BlobCopyInfo;
 import com.azure.storage.blob.models.BlobHttpHeaders;
+import com.azure.storage.blob.models.BlobRange;
 import com.azure.storage.blob.sas.BlobSasPermission;
 import com.azure.storage.blob.sas.BlobServiceSasSignatureValues;
+import com.azure.storage.blob.specialized.BlockBlobClient;
 import com.dms.exception.BlobStorageException;
 import com.dms.exception.ValidationException;
+import com.dms.storage.AzureBlockStagingClient;
+import com.dms.storage.BlobDiskCache;
+import com.dms.storage.BlockStagingClient;
+import com.dms.storage.BlockUploadEngine;
+import com.dms.storage.BoundedInputStream;
+import com.dms.storage.ByteBufferInputStream;
+import com.dms.storage.LocalBlobResource;
+import com.dms.storage.LocalBlockStagingClient;
+import com.dms.storage.MappedRegionCache;
+import com.dms.storage.PdfUploadStream;
+import com.dms.storage.StorageCircuitBreaker;
+import com.dms.storage.StorageCircuitBreakers;
+import com.dms.storage.StorageOperation;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.InputStreamResource;
+import org.springframework.core.io.Resource;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
-import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
-import java.security.MessageDigest;
-import java.security.NoSuchAlgorithmException;
+import java.nio.ByteBuffer;
 import java.time.Duration;
 import java.time.OffsetDateTime;
-import java.util.HexFormat;
-import java.util.concurrent.atomic.AtomicInteger;
+import java.util.List;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
 import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
 import java.nio.file.Path;
 import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
 
 @Service
 @Slf4j
 public class BlobStorageService {
 
-    private static final int PDF_MAGIC_BYTES_LENGTH = 5;
-    private static final byte[] PDF_MAGIC_BYTES = new byte[] { '%', 'P', 'D', 'F', '-' };
+    private static final Duration COPY_POLL_INTERVAL = Duration.ofMillis(500);
+    private static final Duration COPY_TIMEOUT = Duration.ofMinutes(10);
 
     private final BlobContainerClient blobContainerClient;
+    private final BlockUploadEngine blockUploadEngine;
+    private final MappedRegionCache mappedRegionCache;
+    private final BlobDiskCache blobDiskCache;
     private final Path localStorageRoot;
     private final long maxUploadBytes;
-    private final Duration circuitOpenDuration;
-    private final int circuitFailureThreshold;
-    private final AtomicInteger consecutiveFailures = new AtomicInteger(0);
-    private volatile long circuitOpenUntilEpochMillis = 0;
+    private final long blockUploadThresholdBytes;
+    private final StorageCircuitBreakers circuitBreakers;
 
     public BlobStorageService(
             ObjectProvider<BlobContainerClient> blobContainerClientProvider,
+            BlockUploadEngine blockUploadEngine,
+            MappedRegionCache mappedRegionCache,
+            BlobDiskCache blobDiskCache,
             @Value("${dms.local-storage.path:./target/local-blob-storage}") String localStoragePath,
             @Value("${dms.blob.max-upload-bytes:104857600}") long maxUploadBytes,
-            @Value("${dms.resilience.circuit-breaker.open-duration-seconds:60}") long openDurationSeconds,
-            @Value("${dms.resilience.circuit-breaker.failure-threshold:5}") int circuitFailureThreshold) {
+            @Value("${dms.blob.block-upload.threshold-bytes:8388608}") long blockUploadThresholdBytes,
+            StorageCircuitBreakers circuitBreakers) {
         this.blobContainerClient = blobContainerClientProvider.getIfAvailable();
+        this.blockUploadEngine = blockUploadEngine;
+        this.mappedRegionCache = mappedRegionCache;
+        this.blobDiskCache = blobDiskCache;
         this.localStorageRoot = Path.of(localStoragePath).toAbsolutePath().normalize();
         this.maxUploadBytes = maxUploadBytes;
-        this.circuitOpenDuration = Duration.ofSeconds(Math.max(1, openDurationSeconds));
-        this.circuitFailureThreshold = Math.max(1, circuitFailureThreshold);
+        this.blockUploadThresholdBytes = blockUploadThresholdBytes;
+        this.circuitBreakers = circuitBreakers;
     }
 
     public void uploadBlob(String blobPath, MultipartFile file) {
-        try {
-            ValidatedBlob validated = validatePdfAndCalculateHash(file);
-            uploadBlob(blobPath, new ByteArrayInputStream(validated.bytes()), validated.size(), file.getContentType());
-        } catch (IOException e) {
-            throw new BlobStorageException("Blob upload failed", e);
-        }
+        uploadValidatedPdf(blobPath, file);
     }
 
     public String uploadValidatedPdf(String blobPath, MultipartFile file) {
-        try {
-            ValidatedBlob validated = validatePdfAndCalculateHash(file);
-            uploadBlob(blobPath, new ByteArrayInputStream(validated.bytes()), validated.size(), file.getContentType());
-            return validated.sha256();
+        validateUploadSize(file);
+        try (PdfUploadStream content = PdfUploadStream.open(file.getInputStream(), maxUploadBytes)) {
+            try {
+                uploadBlob(blobPath, content, file.getSize(), file.getContentType());
+            } catch (BlobStorageException ex) {
+                if (content.isLimitExceeded()) {
+                    throw new ValidationException("File exceeds maximum upload size of " + maxUploadBytes + " bytes");
+                }
+                throw ex;
+            }
+            return content.getSha256();
         } catch (IOException e) {
             throw new BlobStorageException("Blob upload failed", e);
         }
     }
 
     public String calculateContentHash(MultipartFile file) {
-        try {
-            return validatePdfAndCalculateHash(file).sha256();
+        validateUploadSize(file);
+        try (PdfUploadStream content = PdfUploadStream.open(file.getInputStream(), maxUploadBytes)) {
+            return content.getSha256();
         } catch (IOException e) {
             throw new BlobStorageException("Failed to hash content", e);
         }
     }
 
     public InputStream downloadBlob(String blobPath) {
-        return runWithCircuitBreaker(() -> {
+        return openWithCircuitBreaker(StorageOperation.DOWNLOAD, () -> {
             if (blobContainerClient != null) {
                 BlobClient blobClient = blobContainerClient.getBlobClient(blobPath);
                 return blobClient.openInputStream();
@@ -97,68 +128,123 @@ public class BlobStorageService {
         });
     }
 
-    public byte[] downloadBlobRange(String blobPath, long startInclusive, long endInclusive) {
+    /**
+     * Downloads a blob whose content hash is known; remote blobs are served through the disk cache when it is enabled.
+     */
+    public InputStream downloadBlob(String blobPath, String contentHash) {
+        if (!isDiskCached(contentHash)) {
+            return downloadBlob(blobPath);
+        }
+        try {
+            return Files.newInputStream(fetchCached(blobPath, contentHash));
+        } catch (NoSuchFileException evictedMeanwhile) {
+            return downloadBlob(blobPath);
+        } catch (IOException e) {
+            throw new BlobStorageException("Blob download failed", e);
+        }
+    }
+
+    /**
+     * Opens the blob as a resource. Local blobs come back as a {@link LocalBlobResource} so callers
+     * can serve them zero-copy; remote blobs are wrapped as a stream.
+     */
+    public Resource openBlobResource(String blobPath) {
+        return openBlobResource(blobPath, null);
+    }
+
+    public Resource openBlobResource(String blobPath, String contentHash) {
+        if (isDiskCached(contentHash)) {
+            return new InputStreamResource(downloadBlob(blobPath, contentHash));
+        }
+        if (blobContainerClient != null) {
+            BlobClient blobClient = blobContainerClient.getBlobClient(blobPath);
+            return new InputStreamResource(openWithCircuitBreaker(StorageOperation.DOWNLOAD, blobClient::openInputStream));
+        }
+        return runWithCircuitBreaker(StorageOperation.DOWNLOAD, () -> {
+            try {
+                Path source = resolveLocalPath(blobPath);
+                long size = Files.size(source);
+                return new LocalBlobResource(source, size, mappedRegionCache.get(source));
+            } catch (IOException e) {
+                throw new BlobStorageException("Blob download failed", e);
+            }
+        });
+    }
+
+    public InputStream downloadBlobRange(String blobPath, long startInclusive, long endInclusive) {
         if (startInclusive < 0 || endInclusive < startInclusive) {
             throw new ValidationException("Invalid byte range");
         }
-        try (InputStream in = downloadBlob(blobPath)) {
-            long skipped = in.skip(startInclusive);
-            while (skipped < startInclusive) {
-                long delta = in.skip(startInclusive - skipped);
-                if (delta <= 0) {
-                    return new byte[0];
-                }
-                skipped += delta;
+        long length = endInclusive - startInclusive + 1;
+        return openWithCircuitBreaker(StorageOperation.DOWNLOAD, () -> {
+            if (blobContainerClient != null) {
+                BlobClient blobClient = blobContainerClient.getBlobClient(blobPath);
+                return blobClient.openInputStream(new BlobRange(startInclusive, length), null);
             }
-            long remaining = endInclusive - startInclusive + 1;
-            ByteArrayOutputStream out = new ByteArrayOutputStream();
-            byte[] buffer = new byte[8192];
-            while (remaining > 0) {
-                int read = in.read(buffer, 0, (int) Math.min(buffer.length, remaining));
-                if (read < 0) {
-                    break;
+            try {
+                Path source = resolveLocalPath(blobPath);
+                ByteBuffer mapped = mappedRegionCache.get(source);
+                if (mapped != null) {
+                    int offset = (int) Math.min(startInclusive, mapped.limit());
+                    int window = (int) Math.min(length, mapped.limit() - offset);
+                    return new ByteBufferInputStream(mapped.slice(offset, window));
                 }
-                out.write(buffer, 0, read);
-                remaining -= read;
+                FileChannel channel = FileChannel.open(source, StandardOpenOption.READ);
+                try {
+                    channel.position(startInclusive);
+                } catch (IOException e) {
+                    channel.close();
+                    throw e;
+                }
+                return new BoundedInputStream(Channels.newInputStream(channel), length);
+            } catch (IOException e) {
+                throw new BlobStorageException("Blob ranged download failed", e);
             }
-            return out.toByteArray();
-        } catch (IOException e) {
-            throw new BlobStorageException("Blob ranged download failed", e);
-        }
+        });
     }
 
     public void deleteBlob(String blobPath) {
-        runWithCircuitBreaker(() -> {
+        runWithCircuitBreaker(StorageOperation.DELETE, () -> {
             if (blobContainerClient != null) {
                 BlobClient blobClient = blobContainerClient.getBlobClient(blobPath);
                 blobClient.deleteIfExists();
             } else {
                 try {
-                    Files.deleteIfExists(resolveLocalPath(blobPath));
+                    Path target = resolveLocalPath(blobPath);
+                    mappedRegionCache.invalidate(target);
+                    Files.deleteIfExists(target);
                 } catch (IOException e) {
                     throw new BlobStorageException("Blob delete failed", e);
                 }
             }
+            blobDiskCache.invalidate(blobPath);
             log.info("Deleted blob: {}", blobPath);
             return null;
         });
     }
 
     public void uploadBlob(String blobPath, java.io.InputStream content, long size, String contentType) {
-        runWithCircuitBreaker(() -> {
+        runWithCircuitBreaker(StorageOperation.UPLOAD, () -> {
             if (blobContainerClient != null) {
-                BlobClient blobClient = blobContainerClient.getBlobClient(blobPath);
-                blobClient.upload(content, size, true);
-                if (contentType != null) {
-                    blobClient.setHttpHeaders(new BlobHttpHeaders().setContentType(contentType));
+                BlockBlobClient blockBlobClient = blobContainerClient.getBlobClient(blobPath).getBlockBlobClient();
+                if (size < 0 || size > blockUploadThresholdBytes) {
+                    blockUploadEngine.upload(content, new AzureBlockStagingClient(blockBlobClient), contentType);
+                } else {
+                    BlobHttpHeaders headers = contentType == null ? null : new BlobHttpHeaders().setContentType(contentType);
+                    blockBlobClient.uploadWithResponse(content, size, headers, null, null, null, null, null, Context.NONE);
                 }
             } else {
+                Path target = resolveLocalPath(blobPath);
+                Path partial = target.resolveSibling(target.getFileName() + ".part");
                 try {
-                    Path target = resolveLocalPath(blobPath);
                     Files.createDirectories(target.getParent());
-                    Files.copy(content, target, StandardCopyOption.REPLACE_EXISTING);
+                    Files.copy(content, partial, StandardCopyOption.REPLACE_EXISTING);
+                    Files.move(partial, target, StandardCopyOption.REPLACE_EXISTING);
+                    mappedRegionCache.invalidate(target);
                 } catch (IOException e) {
                     throw new BlobStorageException("Blob upload failed", e);
+                } finally {
+                    Files.deleteIfExists(partial);
                 }
             }
             log.info("Uploaded blob (stream): {}", blobPath);
@@ -166,6 +252,79 @@ public class BlobStorageService {
         });
     }
 
+    /**
+     * Opens block staging for {@code blobPath} so callers can stage content over several requests and
+     * commit it at once. Every call goes through the upload circuit breaker.
+     */
+    public BlockStagingClient openBlockStaging(String blobPath) {
+        BlockStagingClient client = blobContainerClient != null
+            ? new AzureBlockStagingClient(blobContainerClient.getBlobClient(blobPath).getBlockBlobClient())
+            : new LocalBlockStagingClient(resolveLocalPath(blobPath));
+        return new BlockStagingClient() {
+            @Override
+            public void stageBlock(String blockId, byte[] data, int length) {
+                runWithCircuitBreaker(StorageOperation.UPLOAD, () -> {
+                    client.stageBlock(blockId, data, length);
+                    return null;
+                });
+            }
+
+            @Override
+            public void commitBlockList(List<String> blockIds, String contentType) {
+                runWithCircuitBreaker(StorageOperation.UPLOAD, () -> {
+                    client.commitBlockList(blockIds, contentType);
+                    if (blobContainerClient == null) {
+                        mappedRegionCache.invalidate(resolveLocalPath(blobPath));
+                    }
+                    blobDiskCache.invalidate(blobPath);
+                    log.info("Committed {} staged blocks: {}", blockIds.size(), blobPath);
+                    return null;
+                });
+            }
+
+            @Override
+            public void abort() {
+                client.abort();
+            }
+        };
+    }
+
+    /**
+     * Copies a blob without streaming it through the JVM: a server-side copy on Azure, a hard link
+     * (falling back to a file-system copy) on the local store.
+     */
+    public void copyBlob(String sourceBlobPath, String targetBlobPath) {
+        runWithCircuitBreaker(StorageOperation.COPY, () -> {
+            if (blobContainerClient != null) {
+                BlobClient source = blobContainerClient.getBlobClient(sourceBlobPath);
+                BlobClient target = blobContainerClient.getBlobClient(targetBlobPath);
+                PollResponse<BlobCopyInfo> response = target.beginCopy(source.getBlobUrl(), COPY_POLL_INTERVAL)
+                    .waitForCompletion(COPY_TIMEOUT);
+                if (response.getStatus() != LongRunningOperationStatus.SUCCESSFULLY_COMPLETED) {
+                    throw new BlobStorageException("Blob copy did not complete: " + response.getStatus());
+                }
+            } else {
+                Path source = resolveLocalPath(sourceBlobPath);
+                Path target = resolveLocalPath(targetBlobPath);
+                try {
+                    Files.createDirectories(target.getParent());
+                    Files.deleteIfExists(target);
+                    mappedRegionCache.invalidate(target);
+                    try {
+                        Files.createLink(target, source);
+                    } catch (UnsupportedOperationException | IOException linkFailure) {
+                        log.debug("Hard link unavailable for {}, copying instead: {}", targetBlobPath, linkFailure.getMessage());
+                        Files.copy(source, target, StandardCopyOption.REPLACE_EXISTING);
+                    }
+                } catch (IOException e) {
+                    throw new BlobStorageException("Blob copy failed", e);
+                }
+            }
+            log.info("Copied blob {} -> {}", sourceBlobPath, targetBlobPath);
+            return null;
+        });
+    }
+
     public String generateReadSasUrl(String blobPath, Duration duration) {
         Duration effectiveDuration = duration == null || duration.isNegative() || duration.isZero()
             ? Duration.ofMinutes(60)
@@ -180,61 +339,69 @@ public class BlobStorageService {
         return "local://" + resolveLocalPath(blobPath) + "?expiresAt=" + OffsetDateTime.now().plus(effectiveDuration);
     }
 
+    private boolean isDiskCached(String contentHash) {
+        return blobContainerClient != null && blobDiskCache.isEnabled() && contentHash != null && !contentHash.isBlank();
+    }
+
+    private Path fetchCached(String blobPath, String contentHash) throws IOException {
+        // Cache hits never touch the storage account, so they bypass the circuit breaker.
+        return blobDiskCache.fetch(blobPath, contentHash,
+            () -> openWithCircuitBreaker(StorageOperation.DOWNLOAD, () -> blobContainerClient.getBlobClient(blobPath).openInputStream()));
+    }
+
     private Path resolveLocalPath(String blobPath) {
         return localStorageRoot.resolve(blobPath).normalize();
     }
 
-    private <T> T runWithCircuitBreaker(SupplierWithException<T> operation) {
-        long now = System.currentTimeMillis();
-        if (now < circuitOpenUntilEpochMillis) {
-            throw new BlobStorageException("Blob storage circuit breaker is OPEN");
+    private <T> T runWithCircuitBreaker(StorageOperation operation, StorageCircuitBreaker.StorageCall<T> call) {
+        try {
+            return circuitBreakers.get(operation).execute(call, BlobStorageService::isServiceFailure);
+        } catch (ValidationException | BlobStorageException ex) {
+            throw ex;
+        } catch (Exception ex) {
+            throw new BlobStorageException("Blob storage operation failed", ex);
         }
+    }
+
+    /**
+     * Opens a stream under the operation's breaker. The bulkhead permit is held until the caller closes the
+     * stream, and a failed read is recorded against the operation's window.
+     */
+    private InputStream openWithCircuitBreaker(StorageOperation operation, StorageCircuitBreaker.StorageCall<InputStream> call) {
         try {
-            T result = operation.run();
-            consecutiveFailures.set(0);
-            return result;
+            return circuitBreakers.get(operation).executeStream(call, BlobStorageService::isServiceFailure);
+        } catch (ValidationException | BlobStorageException ex) {
+            throw ex;
         } catch (Exception ex) {
-            int failures = consecutiveFailures.incrementAndGet();
-            if (failures >= circuitFailureThreshold) {
-                circuitOpenUntilEpochMillis = System.currentTimeMillis() + circuitOpenDuration.toMillis();
+            throw new BlobStorageException("Blob storage operation failed", ex);
+        }
+    }
+
+    /**
+     * Only failures that say something about the storage service count against the breaker:
+     * validation errors and client errors such as a missing blob do not.
+     */
+    private static boolean isServiceFailure(Exception ex) {
+        for (Throwable cause = ex; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ValidationException
+                    || cause instanceof NoSuchFileException
+                    || cause instanceof java.io.FileNotFoundException) {
+                return false;
             }
-            if (ex instanceof BlobStorageException bse) {
-                throw bse;
+            if (cause instanceof com.azure.storage.blob.models.BlobStorageException azure) {
+                int status = azure.getStatusCode();
+                return status >= 500 || status == 408 || status == 429;
             }
-            throw new BlobStorageException("Blob storage operation failed", ex);
         }
+        return true;
     }
 
-    private ValidatedBlob validatePdfAndCalculateHash(MultipartFile file) throws IOException {
+    private void validateUploadSize(MultipartFile file) {
         if (file == null || file.isEmpty()) {
             throw new ValidationException("File is required");
         }
         if (file.getSize() > maxUploadBytes) {
-            throw new ValidationException("File exceeds maximum size of 100MB");
-        }
-        byte[] bytes = file.getBytes();
-        if (bytes.length < PDF_MAGIC_BYTES_LENGTH) {
-            throw new ValidationException("Invalid PDF file");
-        }
-        for (int i = 0; i < PDF_MAGIC_BYTES_LENGTH; i++) {
-            if (bytes[i] != PDF_MAGIC_BYTES[i]) {
-                throw new ValidationException("Uploaded file must be a PDF");
-            }
-        }
-        try {
-            MessageDigest digest = MessageDigest.getInstance("SHA-256");
-            String sha256 = HexFormat.of().formatHex(digest.digest(bytes));
-            return new ValidatedBlob(bytes, sha256, bytes.length);
-        } catch (NoSuchAlgorithmException e) {
-            throw new BlobStorageException("SHA-256 algorithm unavailable", e);
+            throw new ValidationException("File exceeds maximum upload size of " + maxUploadBytes + " bytes");
         }
     }
-
-    private record ValidatedBlob(byte[] bytes, String sha256, long size) {
-    }
-
-    @FunctionalInterface
-    private interface SupplierWithException<T> {
-        T run() throws Exception;
-    }
 }
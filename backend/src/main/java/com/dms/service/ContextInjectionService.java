@@ -2,6 +2,7 @@ package com.dms.service;
 
 import com.dms.dto.response.DocumentResponse;
 import com.dms.dto.response.HybridSearchResult;
+import com.dms.search.Embedding;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.PageRequest;
@@ -106,8 +107,8 @@ public class ContextInjectionService {
      */
     public List<Map<String, Object>> rankContextByRelevance(List<String> chunkIds, String query) {
         log.info("Ranking {} chunks by relevance to query", chunkIds.size());
-        List<Double> queryVector = embeddingService.generateEmbedding(query == null ? "" : query);
-        int dimensions = queryVector.size();
+        Embedding queryVector = embeddingService.generateEmbedding(query == null ? "" : query);
+        int dimensions = queryVector.dimensions();
         return chunkIds.stream()
             .map(id -> {
                 int hash = Math.abs(id.hashCode());
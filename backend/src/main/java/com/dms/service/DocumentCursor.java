@@ -0,0 +1,49 @@
+package com.dms.service;
+
+import com.dms.domain.Document;
+import com.dms.exception.ValidationException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Keyset position in the {@code (created_at DESC, id DESC)} document order. Clients only see the opaque
+ * token; the first page starts from a sentinel after every real row.
+ */
+record DocumentCursor(Instant createdAt, UUID id) {
+
+    static final DocumentCursor START = new DocumentCursor(Instant.parse("9999-12-31T23:59:59Z"), new UUID(-1L, -1L));
+
+    static DocumentCursor decode(String token) {
+        if (token == null || token.isBlank()) {
+            return START;
+        }
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = decoded.indexOf('|');
+            return new DocumentCursor(Instant.parse(decoded.substring(0, separator)), UUID.fromString(decoded.substring(separator + 1)));
+        } catch (RuntimeException e) {
+            throw new ValidationException("Invalid cursor");
+        }
+    }
+
+    String encode() {
+        return Base64.getUrlEncoder().withoutPadding()
+            .encodeToString((createdAt + "|" + id).getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Callers fetch one row more than the page size; when that extra row exists the page is trimmed and
+     * the cursor of its last row returned, otherwise there is no next page.
+     */
+    static String nextCursor(List<Document> rows, int pageSize) {
+        if (rows.size() <= pageSize) {
+            return null;
+        }
+        Document last = rows.get(pageSize - 1);
+        return new DocumentCursor(last.getCreatedAt(), last.getId()).encode();
+    }
+}
@@ -4,15 +4,20 @@ import com.dms.domain.Document;
 import com.dms.domain.DocumentType;
 import com.dms.domain.DocumentVersion;
 import com.dms.dto.request.DocumentUploadRequest;
+import com.dms.dto.response.CursorPageResponse;
 import com.dms.dto.response.DocumentResponse;
 import com.dms.exception.DocumentNotFoundException;
 import com.dms.exception.RetentionNotExpiredException;
 import com.dms.repository.DocumentRepository;
+import com.dms.repository.DocumentSearchCriteria;
 import com.dms.repository.DocumentTypeRepository;
 import com.dms.repository.DocumentVersionRepository;
+import com.dms.storage.BlobRangeReader;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.Resource;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -24,6 +29,7 @@ import java.time.Instant;
 import java.time.temporal.ChronoUnit;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
 
 @Service
@@ -31,11 +37,14 @@ import java.util.UUID;
 @Slf4j
 public class DocumentService {
 
+    private static final int MAX_CURSOR_PAGE_SIZE = 100;
+
     private final DocumentRepository documentRepository;
     private final DocumentTypeRepository documentTypeRepository;
     private final DocumentVersionRepository documentVersionRepository;
     private final TenantContext tenantContext;
     private final BlobStorageService blobStorageService;
+    private final BlobReferenceService blobReferenceService;
     private final MetadataValidationService metadataValidationService;
     private final AuditService auditService;
     private final AuthorizationService authorizationService;
@@ -44,61 +53,26 @@ public class DocumentService {
     @Transactional
     public DocumentResponse uploadDocument(DocumentUploadRequest request, MultipartFile file) {
         UUID tenantId = tenantContext.getCurrentTenantId();
-        String userId = tenantContext.getCurrentUserId();
-        String idempotencyKey = request.getIdempotencyKey() == null ? null : request.getIdempotencyKey().trim();
-
-        if (idempotencyKey != null && !idempotencyKey.isBlank()) {
-            Document existing = documentRepository.findByTenantIdAndIdempotencyKey(tenantId, idempotencyKey).orElse(null);
-            if (existing != null) {
-                authorizationService.assertCanAccessDocument(existing);
-                return mapToResponse(existing);
-            }
-        }
-
-        DocumentType documentType = documentTypeRepository
-            .findByIdAndTenantId(request.getDocumentTypeId(), tenantId)
-            .orElseThrow(() -> new DocumentNotFoundException("Document type not found"));
+        String idempotencyKey = normalizeIdempotencyKey(request);
 
-        if (Boolean.FALSE.equals(documentType.getActive())) {
-            throw new com.dms.exception.ValidationException("Document type is deactivated");
+        Document existing = findByIdempotencyKey(tenantId, idempotencyKey);
+        if (existing != null) {
+            return mapToResponse(existing);
         }
 
-        if (!authorizationService.canUploadToType(documentType.getAllowedGroups())) {
-            throw new com.dms.exception.UnauthorizedAccessException("User cannot upload to this document type");
-        }
-
-        metadataValidationService.validate(request.getMetadata(), documentType.getMetadataSchema());
+        DocumentType documentType = resolveUploadType(tenantId, request);
 
         Instant now = Instant.now();
         UUID documentId = UUID.randomUUID();
         String blobPath = generateBlobPath(tenantId, documentType.getName(), now, documentId, 1);
 
+        BlobReferenceService.StoredBlob stored = null;
         try {
-            String contentHash = blobStorageService.uploadValidatedPdf(blobPath, file);
-            Instant retentionExpiresAt = now.plus(documentType.getRetentionDays(), ChronoUnit.DAYS);
-
-            Document document = Document.builder()
-                .id(documentId)
-                .tenantId(tenantId)
-                .documentType(documentType)
-                .currentVersion(1)
-                .metadata(request.getMetadata())
-                .blobPath(blobPath)
-                .fileSizeBytes(file.getSize())
-                .contentType(file.getContentType() == null ? "application/pdf" : file.getContentType())
-                .contentHash(contentHash)
-                .idempotencyKey(idempotencyKey == null || idempotencyKey.isBlank() ? null : idempotencyKey)
-                .createdAt(now)
-                .createdBy(userId)
-                .retentionExpiresAt(retentionExpiresAt)
-                .build();
-
-            document = documentRepository.save(document);
-            auditService.logDocumentUpload(document);
-            return mapToResponse(document);
+            stored = blobReferenceService.store(tenantId, blobPath, file);
+            return createDocument(documentId, documentType, request, idempotencyKey, stored, file.getSize(), file.getContentType(), now);
         } catch (Exception ex) {
             try {
-                blobStorageService.deleteBlob(blobPath);
+                blobReferenceService.discard(blobPath, stored);
             } catch (Exception cleanupEx) {
                 log.warn("Failed to clean up orphaned blob: {}", blobPath, cleanupEx);
             }
@@ -106,6 +80,52 @@ public class DocumentService {
         }
     }
 
+    /**
+     * Validates an upload request before any content is sent and reserves the document id and blob path
+     * that a resumable upload session stages its blocks under.
+     */
+    @Transactional(readOnly = true)
+    public StagedUploadTarget prepareStagedUpload(DocumentUploadRequest request) {
+        UUID tenantId = tenantContext.getCurrentTenantId();
+        DocumentType documentType = resolveUploadType(tenantId, request);
+        UUID documentId = UUID.randomUUID();
+        return new StagedUploadTarget(documentId, generateBlobPath(tenantId, documentType.getName(), Instant.now(), documentId, 1));
+    }
+
+    /**
+     * Creates the document for content already committed at {@code target.blobPath()} by an upload session.
+     * Type, permission and metadata checks run again because they may have changed while parts were uploading.
+     */
+    @Transactional
+    public DocumentResponse completeStagedUpload(DocumentUploadRequest request, StagedUploadTarget target,
+            long fileSizeBytes, String contentType, String contentHash) {
+        UUID tenantId = tenantContext.getCurrentTenantId();
+        String idempotencyKey = normalizeIdempotencyKey(request);
+
+        BlobReferenceService.StoredBlob stored = null;
+        try {
+            Document existing = findByIdempotencyKey(tenantId, idempotencyKey);
+            if (existing != null) {
+                blobStorageService.deleteBlob(target.blobPath());
+                return mapToResponse(existing);
+            }
+            DocumentType documentType = resolveUploadType(tenantId, request);
+            stored = blobReferenceService.adopt(tenantId, target.blobPath(), contentHash, fileSizeBytes);
+            return createDocument(target.documentId(), documentType, request, idempotencyKey, stored, fileSizeBytes, contentType, Instant.now());
+        } catch (Exception ex) {
+            try {
+                if (stored == null) {
+                    blobStorageService.deleteBlob(target.blobPath());
+                } else {
+                    blobReferenceService.discard(target.blobPath(), stored);
+                }
+            } catch (Exception cleanupEx) {
+                log.warn("Failed to clean up orphaned blob: {}", target.blobPath(), cleanupEx);
+            }
+            throw ex;
+        }
+    }
+
     @Transactional(readOnly = true)
     public DocumentResponse getDocument(UUID documentId) {
         UUID tenantId = tenantContext.getCurrentTenantId();
@@ -119,11 +139,49 @@ public class DocumentService {
         return mapToResponse(document);
     }
 
+    /**
+     * Offset-paged listing, newest first. The caller's group access is part of the query, as in
+     * {@link SearchService}, so pages are full and the total counts only documents the caller can read.
+     */
     @Transactional(readOnly = true)
     public Page<DocumentResponse> listDocuments(Pageable pageable) {
-        UUID tenantId = tenantContext.getCurrentTenantId();
-        return documentRepository.findByTenantIdAndDeletedAtIsNull(tenantId, pageable)
-            .map(this::mapToResponse);
+        DocumentSearchCriteria criteria = accessibleDocuments()
+            .offset((int) pageable.getOffset())
+            .limit(pageable.getPageSize())
+            .build();
+        List<Document> page = documentRepository.search(criteria);
+        Set<UUID> heldDocumentIds = legalHoldService.findDocumentsWithActiveHolds(
+            page.stream().map(Document::getId).toList());
+        return new PageImpl<>(
+            page.stream().map(document -> mapToResponse(document, heldDocumentIds.contains(document.getId()))).toList(),
+            pageable, documentRepository.count(criteria));
+    }
+
+    /**
+     * Cursor-paged listing, newest first. Unlike {@link #listDocuments(Pageable)} it never runs an OFFSET
+     * scan, and the total is only counted when asked for.
+     */
+    @Transactional(readOnly = true)
+    public CursorPageResponse listDocuments(String cursor, int pageSize, boolean includeTotal) {
+        int size = Math.max(1, Math.min(pageSize, MAX_CURSOR_PAGE_SIZE));
+        DocumentCursor after = DocumentCursor.decode(cursor);
+        DocumentSearchCriteria criteria = accessibleDocuments()
+            .afterCreatedAt(after.createdAt())
+            .afterId(after.id())
+            .limit(size + 1)
+            .build();
+
+        List<Document> rows = documentRepository.search(criteria);
+        String nextCursor = DocumentCursor.nextCursor(rows, size);
+        List<Document> page = rows.size() > size ? rows.subList(0, size) : rows;
+        Set<UUID> heldDocumentIds = legalHoldService.findDocumentsWithActiveHolds(page.stream().map(Document::getId).toList());
+
+        return CursorPageResponse.builder()
+            .results(page.stream().map(document -> mapToResponse(document, heldDocumentIds.contains(document.getId()))).toList())
+            .nextCursor(nextCursor)
+            .pageSize(size)
+            .totalCount(includeTotal ? documentRepository.count(criteria) : null)
+            .build();
     }
 
     @Transactional
@@ -203,7 +261,7 @@ public class DocumentService {
     }
 
     @Transactional(readOnly = true)
-    public InputStream downloadDocument(UUID documentId) {
+    public Resource downloadDocument(UUID documentId) {
         UUID tenantId = tenantContext.getCurrentTenantId();
 
         Document document = documentRepository
@@ -213,11 +271,16 @@ public class DocumentService {
         authorizationService.assertCanAccessDocument(document);
         auditService.logDocumentDownload(document.getId());
 
-        return blobStorageService.downloadBlob(document.getBlobPath());
+        return blobStorageService.openBlobResource(document.getBlobPath(), document.getContentHash());
     }
 
     @Transactional(readOnly = true)
-    public byte[] downloadDocumentRange(UUID documentId, long start, long end) {
+    public InputStream downloadDocumentRange(UUID documentId, long start, long end) {
+        return openDocumentRanges(documentId).open(start, end);
+    }
+
+    @Transactional(readOnly = true)
+    public BlobRangeReader openDocumentRanges(UUID documentId) {
         UUID tenantId = tenantContext.getCurrentTenantId();
 
         Document document = documentRepository
@@ -227,11 +290,12 @@ public class DocumentService {
         authorizationService.assertCanAccessDocument(document);
         auditService.logDocumentDownload(document.getId());
 
-        return blobStorageService.downloadBlobRange(document.getBlobPath(), start, end);
+        String blobPath = document.getBlobPath();
+        return (start, end) -> blobStorageService.downloadBlobRange(blobPath, start, end);
     }
 
     @Transactional(readOnly = true)
-    public InputStream previewDocument(UUID documentId) {
+    public Resource previewDocument(UUID documentId) {
         UUID tenantId = tenantContext.getCurrentTenantId();
 
         Document document = documentRepository
@@ -241,7 +305,7 @@ public class DocumentService {
         authorizationService.assertCanAccessDocument(document);
         auditService.logDocumentPreview(document.getId());
 
-        return blobStorageService.downloadBlob(document.getBlobPath());
+        return blobStorageService.openBlobResource(document.getBlobPath(), document.getContentHash());
     }
 
     @Transactional
@@ -266,9 +330,9 @@ public class DocumentService {
 
         List<DocumentVersion> versions = documentVersionRepository.findAllByDocumentOrderByVersionNumberDesc(document);
         for (DocumentVersion version : versions) {
-            blobStorageService.deleteBlob(version.getBlobPath());
+            blobReferenceService.release(tenantId, version.getBlobPath());
         }
-        blobStorageService.deleteBlob(document.getBlobPath());
+        blobReferenceService.release(tenantId, document.getBlobPath());
 
         documentRepository.delete(document);
         auditService.logHardDelete(documentId, document.getDeleteReason(), versions.size());
@@ -286,6 +350,64 @@ public class DocumentService {
         return blobStorageService.generateReadSasUrl(document.getBlobPath(), Duration.ofMinutes(60));
     }
 
+    private String normalizeIdempotencyKey(DocumentUploadRequest request) {
+        String idempotencyKey = request.getIdempotencyKey() == null ? null : request.getIdempotencyKey().trim();
+        return idempotencyKey == null || idempotencyKey.isBlank() ? null : idempotencyKey;
+    }
+
+    private Document findByIdempotencyKey(UUID tenantId, String idempotencyKey) {
+        if (idempotencyKey == null) {
+            return null;
+        }
+        Document existing = documentRepository.findByTenantIdAndIdempotencyKey(tenantId, idempotencyKey).orElse(null);
+        if (existing != null) {
+            authorizationService.assertCanAccessDocument(existing);
+        }
+        return existing;
+    }
+
+    private DocumentType resolveUploadType(UUID tenantId, DocumentUploadRequest request) {
+        DocumentType documentType = documentTypeRepository
+            .findByIdAndTenantId(request.getDocumentTypeId(), tenantId)
+            .orElseThrow(() -> new DocumentNotFoundException("Document type not found"));
+
+        if (Boolean.FALSE.equals(documentType.getActive())) {
+            throw new com.dms.exception.ValidationException("Document type is deactivated");
+        }
+
+        if (!authorizationService.canUploadToType(documentType.getAllowedGroups())) {
+            throw new com.dms.exception.UnauthorizedAccessException("User cannot upload to this document type");
+        }
+
+        metadataValidationService.validate(request.getMetadata(), documentType.getMetadataSchema());
+        return documentType;
+    }
+
+    private DocumentResponse createDocument(UUID documentId, DocumentType documentType, DocumentUploadRequest request,
+            String idempotencyKey, BlobReferenceService.StoredBlob stored, long fileSizeBytes, String contentType, Instant now) {
+        Instant retentionExpiresAt = now.plus(documentType.getRetentionDays(), ChronoUnit.DAYS);
+
+        Document document = Document.builder()
+            .id(documentId)
+            .tenantId(tenantContext.getCurrentTenantId())
+            .documentType(documentType)
+            .currentVersion(1)
+            .metadata(request.getMetadata())
+            .blobPath(stored.blobPath())
+            .fileSizeBytes(fileSizeBytes)
+            .contentType(contentType == null ? "application/pdf" : contentType)
+            .contentHash(stored.contentHash())
+            .idempotencyKey(idempotencyKey)
+            .createdAt(now)
+            .createdBy(tenantContext.getCurrentUserId())
+            .retentionExpiresAt(retentionExpiresAt)
+            .build();
+
+        document = documentRepository.save(document);
+        auditService.logDocumentUpload(document);
+        return mapToResponse(document);
+    }
+
     private String generateBlobPath(UUID tenantId, String documentType, Instant timestamp, UUID documentId, int version) {
         int year = timestamp.atZone(java.time.ZoneOffset.UTC).getYear();
         int month = timestamp.atZone(java.time.ZoneOffset.UTC).getMonthValue();
@@ -293,7 +415,17 @@ public class DocumentService {
             tenantId, documentType, year, month, documentId, version);
     }
 
+    private DocumentSearchCriteria.DocumentSearchCriteriaBuilder accessibleDocuments() {
+        return DocumentSearchCriteria.builder()
+            .tenantId(tenantContext.getCurrentTenantId())
+            .effectiveGroupIds(authorizationService.currentEffectiveGroups());
+    }
+
     private DocumentResponse mapToResponse(Document document) {
+        return mapToResponse(document, legalHoldService.hasActiveLegalHolds(document.getId()));
+    }
+
+    private DocumentResponse mapToResponse(Document document, boolean hasActiveLegalHold) {
         return DocumentResponse.builder()
             .id(document.getId())
             .documentTypeName(document.getDocumentType().getName())
@@ -304,8 +436,11 @@ public class DocumentService {
             .createdBy(document.getCreatedBy())
             .modifiedAt(document.getModifiedAt())
             .modifiedBy(document.getModifiedBy())
-            .hasActiveLegalHold(legalHoldService.hasActiveLegalHolds(document.getId()))
+            .hasActiveLegalHold(hasActiveLegalHold)
             .retentionExpiresAt(document.getRetentionExpiresAt())
             .build();
     }
+
+    public record StagedUploadTarget(UUID documentId, String blobPath) {
+    }
 }
@@ -0,0 +1,359 @@
+package com.dms.service;
+
+import com.dms.domain.EmbeddingCacheEntry;
+import com.dms.exception.EmbeddingGenerationException;
+import com.dms.repository.EmbeddingCacheRepository;
+import com.dms.search.Embedding;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.text.Normalizer;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Pattern;
+
+/**
+ * Single path to the {@link EmbeddingProvider}. Texts are normalized and keyed by their SHA-256, then
+ * served from a bounded in-memory LRU, from {@code embedding_cache} (keyed by model and hash), or from
+ * a request already in flight for the same key. Only the remaining texts are queued.
+ * <p>
+ * A dispatcher thread coalesces queued texts from all callers into batches of up to
+ * {@code batch.max-size}, waiting at most {@code batch.max-wait-millis} for a batch to fill. Calls to the
+ * provider are paced to {@code provider.requests-per-second} and at most
+ * {@code provider.max-concurrent-batches} run at once. When the provider falls behind the queue fills
+ * and callers wait for room, failing once {@code batch.request-timeout-millis} has passed.
+ * <p>
+ * Rows in {@code embedding_cache} are dropped once they are older than {@code cache.retention-days}; a
+ * text that is still in use is simply embedded and stored again.
+ */
+@Component
+@Slf4j
+public class EmbeddingGateway {
+
+    private static final int MAX_INPUT_CHARS = 8000;
+    private static final int LOOKUP_CHUNK = 500;
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private final EmbeddingProvider provider;
+    private final EmbeddingCacheRepository embeddingCacheRepository;
+    private final int maxBatchSize;
+    private final long maxWaitNanos;
+    private final long requestTimeoutMillis;
+    private final long minIntervalNanos;
+    private final Duration cacheRetention;
+    private final BlockingQueue<Pending> queue;
+    private final Map<String, CompletableFuture<Embedding>> inFlight = new ConcurrentHashMap<>();
+    private final Map<String, Embedding> recent;
+    private final Semaphore batchPermits;
+    private final ExecutorService executor;
+    private final Thread dispatcher;
+    private long nextCallNanos;
+    private volatile boolean running = true;
+
+    public EmbeddingGateway(
+            EmbeddingProvider provider,
+            EmbeddingCacheRepository embeddingCacheRepository,
+            @Value("${dms.embedding.batch.max-size:64}") int maxBatchSize,
+            @Value("${dms.embedding.batch.max-wait-millis:10}") long maxWaitMillis,
+            @Value("${dms.embedding.batch.queue-capacity:4096}") int queueCapacity,
+            @Value("${dms.embedding.batch.request-timeout-millis:30000}") long requestTimeoutMillis,
+            @Value("${dms.embedding.cache.max-entries:10000}") int cacheMaxEntries,
+            @Value("${dms.embedding.provider.max-concurrent-batches:4}") int maxConcurrentBatches,
+            @Value("${dms.embedding.provider.requests-per-second:20}") double requestsPerSecond,
+            @Value("${dms.embedding.cache.retention-days:180}") long cacheRetentionDays) {
+        this.provider = provider;
+        this.embeddingCacheRepository = embeddingCacheRepository;
+        this.maxBatchSize = Math.max(1, Math.min(maxBatchSize, provider.maxBatchSize()));
+        this.maxWaitNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, maxWaitMillis));
+        this.requestTimeoutMillis = Math.max(1, requestTimeoutMillis);
+        this.minIntervalNanos = requestsPerSecond > 0 ? (long) (1_000_000_000L / requestsPerSecond) : 0;
+        this.cacheRetention = Duration.ofDays(Math.max(1, cacheRetentionDays));
+        this.queue = new ArrayBlockingQueue<>(Math.max(1, queueCapacity));
+        int maxEntries = Math.max(0, cacheMaxEntries);
+        this.recent = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Embedding> eldest) {
+                return size() > maxEntries;
+            }
+        };
+        int concurrency = Math.max(1, maxConcurrentBatches);
+        this.batchPermits = new Semaphore(concurrency);
+        AtomicInteger threadCounter = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(concurrency, runnable -> {
+            Thread thread = new Thread(runnable, "embedding-batch-" + threadCounter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.dispatcher = new Thread(this::dispatch, "embedding-dispatcher");
+        this.dispatcher.setDaemon(true);
+        this.dispatcher.start();
+    }
+
+    /**
+     * One embedding per text, in order. Blocks until every text is resolved.
+     */
+    public List<Embedding> embed(List<String> texts) {
+        String[] hashes = new String[texts.size()];
+        Map<String, Embedding> resolved = new HashMap<>();
+        Map<String, String> missing = new LinkedHashMap<>();
+        for (int i = 0; i < hashes.length; i++) {
+            String normalized = normalize(texts.get(i));
+            if (normalized.isEmpty()) {
+                throw new IllegalArgumentException("Text for embedding cannot be null or empty");
+            }
+            String hash = sha256(normalized);
+            hashes[i] = hash;
+            if (resolved.containsKey(hash) || missing.containsKey(hash)) {
+                continue;
+            }
+            Embedding cached = cached(hash);
+            if (cached != null) {
+                resolved.put(hash, cached);
+            } else {
+                missing.put(hash, normalized);
+            }
+        }
+        if (!missing.isEmpty()) {
+            loadPersisted(missing, resolved);
+        }
+
+        Map<String, CompletableFuture<Embedding>> pending = new LinkedHashMap<>();
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(requestTimeoutMillis);
+        missing.forEach((hash, text) -> pending.put(hash, submit(hash, text, deadline)));
+        pending.forEach((hash, future) -> resolved.put(hash, await(future, deadline)));
+
+        List<Embedding> embeddings = new ArrayList<>(hashes.length);
+        for (String hash : hashes) {
+            embeddings.add(resolved.get(hash));
+        }
+        return embeddings;
+    }
+
+    /**
+     * The text as it is hashed and sent to the provider: NFC, whitespace runs collapsed to one space,
+     * trimmed and cut to the provider's input limit.
+     */
+    static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        String normalized = WHITESPACE.matcher(Normalizer.normalize(text, Normalizer.Form.NFC)).replaceAll(" ").strip();
+        return normalized.length() > MAX_INPUT_CHARS ? normalized.substring(0, MAX_INPUT_CHARS) : normalized;
+    }
+
+    @Scheduled(cron = "${dms.embedding.cache.cleanup-cron:0 30 3 * * ?}")
+    public void expireCacheEntries() {
+        int removed = embeddingCacheRepository.deleteCreatedBefore(Instant.now().minus(cacheRetention));
+        if (removed > 0) {
+            log.info("Removed {} embedding cache entries older than {} days", removed, cacheRetention.toDays());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        running = false;
+        dispatcher.interrupt();
+        executor.shutdown();
+        List<Pending> abandoned = new ArrayList<>();
+        queue.drainTo(abandoned);
+        fail(abandoned, new EmbeddingGenerationException("Embedding gateway is shutting down"));
+    }
+
+    private void loadPersisted(Map<String, String> missing, Map<String, Embedding> resolved) {
+        List<String> hashes = new ArrayList<>(missing.keySet());
+        try {
+            for (int from = 0; from < hashes.size(); from += LOOKUP_CHUNK) {
+                List<String> chunk = hashes.subList(from, Math.min(hashes.size(), from + LOOKUP_CHUNK));
+                for (EmbeddingCacheEntry entry : embeddingCacheRepository.findByModelAndTextHashIn(provider.model(), chunk)) {
+                    Embedding embedding = Embedding.of(entry.toVector());
+                    remember(entry.getTextHash(), embedding);
+                    resolved.put(entry.getTextHash(), embedding);
+                    missing.remove(entry.getTextHash());
+                }
+            }
+        } catch (DataAccessException e) {
+            // The cache is an optimisation; the provider can still answer.
+            log.warn("Embedding cache lookup failed: {}", e.getMessage());
+        }
+    }
+
+    private CompletableFuture<Embedding> submit(String hash, String text, long deadline) {
+        CompletableFuture<Embedding> created = new CompletableFuture<>();
+        CompletableFuture<Embedding> existing = inFlight.putIfAbsent(hash, created);
+        if (existing != null) {
+            return existing;
+        }
+        created.whenComplete((embedding, error) -> inFlight.remove(hash, created));
+        try {
+            long wait = Math.max(0, deadline - System.nanoTime());
+            if (!running || !queue.offer(new Pending(hash, text, created), wait, TimeUnit.NANOSECONDS)) {
+                created.completeExceptionally(new EmbeddingGenerationException("Embedding queue is full"));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            created.completeExceptionally(new EmbeddingGenerationException("Interrupted while queueing embedding", e));
+        }
+        return created;
+    }
+
+    private Embedding await(CompletableFuture<Embedding> future, long deadline) {
+        try {
+            return future.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (ExecutionException e) {
+            // Every caller waiting on the batch sees the same failure; each gets its own exception around it.
+            Throwable cause = e.getCause();
+            throw new EmbeddingGenerationException(cause instanceof EmbeddingGenerationException
+                ? cause.getMessage()
+                : "Failed to generate embedding", cause);
+        } catch (TimeoutException e) {
+            throw new EmbeddingGenerationException("Timed out waiting for embedding", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new EmbeddingGenerationException("Interrupted while waiting for embedding", e);
+        }
+    }
+
+    private void dispatch() {
+        List<Pending> batch = new ArrayList<>(maxBatchSize);
+        while (running) {
+            try {
+                batch.add(queue.take());
+                long batchDeadline = System.nanoTime() + maxWaitNanos;
+                while (batch.size() < maxBatchSize) {
+                    queue.drainTo(batch, maxBatchSize - batch.size());
+                    long wait = batchDeadline - System.nanoTime();
+                    if (batch.size() >= maxBatchSize || wait <= 0) {
+                        break;
+                    }
+                    Pending next = queue.poll(wait, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                batchPermits.acquire();
+                pace();
+                List<Pending> submitted = List.copyOf(batch);
+                executor.execute(() -> {
+                    try {
+                        call(submitted);
+                    } finally {
+                        batchPermits.release();
+                    }
+                });
+                batch.clear();
+            } catch (InterruptedException e) {
+                fail(batch, new EmbeddingGenerationException("Embedding gateway is shutting down"));
+                return;
+            } catch (RuntimeException e) {
+                // Rejected by a shut-down executor; the batch would otherwise wait for its timeout.
+                fail(batch, new EmbeddingGenerationException("Failed to schedule embedding batch", e));
+                batch.clear();
+                batchPermits.release();
+            }
+        }
+    }
+
+    private void pace() throws InterruptedException {
+        if (minIntervalNanos == 0) {
+            return;
+        }
+        long now = System.nanoTime();
+        long wait = nextCallNanos - now;
+        if (wait > 0) {
+            TimeUnit.NANOSECONDS.sleep(wait);
+        }
+        nextCallNanos = Math.max(now, nextCallNanos) + minIntervalNanos;
+    }
+
+    private void call(List<Pending> batch) {
+        List<Embedding> embeddings = new ArrayList<>(batch.size());
+        try {
+            List<float[]> vectors = provider.embed(batch.stream().map(Pending::text).toList());
+            if (vectors.size() != batch.size()) {
+                throw new EmbeddingGenerationException(
+                    "Embedding provider returned " + vectors.size() + " vectors for " + batch.size() + " texts");
+            }
+            for (int i = 0; i < batch.size(); i++) {
+                Embedding embedding = Embedding.of(vectors.get(i));
+                remember(batch.get(i).hash(), embedding);
+                embeddings.add(embedding);
+            }
+        } catch (RuntimeException e) {
+            log.error("Embedding batch of {} texts failed", batch.size(), e);
+            fail(batch, e instanceof EmbeddingGenerationException
+                ? e
+                : new EmbeddingGenerationException("Failed to generate embedding", e));
+            return;
+        }
+        for (int i = 0; i < batch.size(); i++) {
+            batch.get(i).result().complete(embeddings.get(i));
+        }
+        persist(batch, embeddings);
+    }
+
+    private void persist(List<Pending> batch, List<Embedding> embeddings) {
+        List<EmbeddingCacheEntry> entries = new ArrayList<>(batch.size());
+        for (int i = 0; i < batch.size(); i++) {
+            entries.add(EmbeddingCacheEntry.of(provider.model(), batch.get(i).hash(), embeddings.get(i).toArray()));
+        }
+        try {
+            embeddingCacheRepository.insertIfAbsent(entries);
+        } catch (DataAccessException e) {
+            // The cache is an optimisation; the next miss simply embeds again.
+            log.warn("Failed to persist {} embeddings: {}", entries.size(), e.getMessage());
+        }
+    }
+
+    private static void fail(List<Pending> batch, RuntimeException error) {
+        batch.forEach(pending -> pending.result().completeExceptionally(error));
+    }
+
+    private Embedding cached(String hash) {
+        synchronized (recent) {
+            return recent.get(hash);
+        }
+    }
+
+    private void remember(String hash, Embedding embedding) {
+        synchronized (recent) {
+            recent.put(hash, embedding);
+        }
+    }
+
+    private static String sha256(String text) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(text.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private record Pending(String hash, String text, CompletableFuture<Embedding> result) {
+    }
+}
@@ -0,0 +1,24 @@
+package com.dms.service;
+
+import java.util.List;
+
+/**
+ * A text embedding model. Only {@link EmbeddingGateway} calls it, with deduplicated, size-bounded batches.
+ */
+public interface EmbeddingProvider {
+
+    /**
+     * Identifies the model and its settings; persisted embeddings are only reused under the same name.
+     */
+    String model();
+
+    /**
+     * The most texts accepted in one {@link #embed(List)} call.
+     */
+    int maxBatchSize();
+
+    /**
+     * One vector per text, in order.
+     */
+    List<float[]> embed(List<String> texts);
+}
@@ -0,0 +1,225 @@
+package com.dms.service;
+
+import com.dms.repository.GroupRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Per-tenant view of the group hierarchy for authorization. Groups are numbered densely on load and a
+ * user's effective groups, resolved once through {@code group_closure}, are cached as a {@link BitSet}
+ * over those numbers. Access checks become bit tests instead of a query per document.
+ * <p>
+ * {@link GroupService} invalidates after its transaction commits: structural changes drop the tenant,
+ * membership changes drop only that user. Loads that overlap an invalidation are not cached, so a reader
+ * cannot reinstate data from before the change. Every invalidation also bumps the tenant's row in
+ * {@code group_hierarchy_generations} inside the writing transaction; other nodes compare it with the
+ * generation they loaded at most once per check interval and reload the tenant when it moved. Each tenant
+ * keeps the closures of its most recently seen users only.
+ */
+@Component
+@Slf4j
+public class GroupHierarchyCache {
+
+    private final GroupRepository groupRepository;
+    private final Duration ttl;
+    private final Duration checkInterval;
+    private final int maxUsersPerTenant;
+    private final Map<UUID, TenantHierarchy> tenants = new ConcurrentHashMap<>();
+    private final Map<UUID, AtomicLong> generations = new ConcurrentHashMap<>();
+
+    public GroupHierarchyCache(
+            GroupRepository groupRepository,
+            @Value("${dms.authorization.group-cache.ttl-seconds:300}") long ttlSeconds,
+            @Value("${dms.authorization.group-cache.check-interval-ms:5000}") long checkIntervalMillis,
+            @Value("${dms.authorization.group-cache.max-users-per-tenant:10000}") int maxUsersPerTenant) {
+        this.groupRepository = groupRepository;
+        this.ttl = Duration.ofSeconds(Math.max(0, ttlSeconds));
+        this.checkInterval = Duration.ofMillis(Math.max(0, checkIntervalMillis));
+        this.maxUsersPerTenant = Math.max(1, maxUsersPerTenant);
+    }
+
+    /**
+     * The user's direct and inherited groups.
+     */
+    public Set<UUID> effectiveGroups(UUID tenantId, String userId) {
+        TenantHierarchy hierarchy = hierarchy(tenantId);
+        BitSet closure = hierarchy.closure(userId);
+        Set<UUID> groups = new HashSet<>(closure.cardinality() * 2);
+        for (int index = closure.nextSetBit(0); index >= 0; index = closure.nextSetBit(index + 1)) {
+            groups.add(hierarchy.idByIndex[index]);
+        }
+        return Collections.unmodifiableSet(groups);
+    }
+
+    /**
+     * True when any of {@code groupIds} is one of the user's effective groups.
+     */
+    public boolean isMemberOfAny(UUID tenantId, String userId, UUID[] groupIds) {
+        TenantHierarchy hierarchy = hierarchy(tenantId);
+        BitSet closure = hierarchy.closure(userId);
+        for (UUID groupId : groupIds) {
+            Integer index = hierarchy.indexById.get(groupId);
+            if (index != null && closure.get(index)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Drops the tenant's hierarchy and every cached user closure; use when groups or parents change.
+     */
+    public void invalidateTenant(UUID tenantId) {
+        groupRepository.bumpHierarchyGeneration(tenantId);
+        afterCommit(() -> tenants.compute(tenantId, (id, hierarchy) -> {
+            generation(id).incrementAndGet();
+            return null;
+        }));
+    }
+
+    /**
+     * Drops one user's closure; use when their memberships change.
+     */
+    public void invalidateUser(UUID tenantId, String userId) {
+        groupRepository.bumpHierarchyGeneration(tenantId);
+        afterCommit(() -> tenants.compute(tenantId, (id, hierarchy) -> {
+            if (hierarchy == null) {
+                // A hierarchy being loaded right now may hold the old closure; keep it from being cached.
+                generation(id).incrementAndGet();
+            } else {
+                hierarchy.membershipGeneration.incrementAndGet();
+                synchronized (hierarchy.closures) {
+                    hierarchy.closures.remove(userId);
+                }
+            }
+            return hierarchy;
+        }));
+    }
+
+    private TenantHierarchy hierarchy(UUID tenantId) {
+        Instant now = Instant.now();
+        TenantHierarchy cached = tenants.get(tenantId);
+        if (cached != null && cached.expiresAt.isAfter(now) && isCurrent(cached, now)) {
+            return cached;
+        }
+        AtomicLong generation = generation(tenantId);
+        long loadedAt = generation.get();
+        TenantHierarchy loaded = load(tenantId, now);
+        tenants.compute(tenantId, (id, existing) -> generation.get() == loadedAt ? loaded : existing);
+        return loaded;
+    }
+
+    /**
+     * Compares the hierarchy with the stored generation at most once per check interval, which bounds how
+     * long a change committed on another node goes unnoticed here.
+     */
+    private boolean isCurrent(TenantHierarchy hierarchy, Instant now) {
+        if (hierarchy.nextCheckAt.isAfter(now)) {
+            return true;
+        }
+        if (groupRepository.findHierarchyGeneration(hierarchy.tenantId) != hierarchy.storedGeneration) {
+            return false;
+        }
+        hierarchy.nextCheckAt = now.plus(checkInterval);
+        return true;
+    }
+
+    private TenantHierarchy load(UUID tenantId, Instant now) {
+        // Read before the groups, so a change committed in between shows up at the next check.
+        long storedGeneration = groupRepository.findHierarchyGeneration(tenantId);
+        List<UUID> groupIds = groupRepository.findIdsByTenantId(tenantId);
+        UUID[] idByIndex = groupIds.toArray(UUID[]::new);
+        Map<UUID, Integer> indexById = new HashMap<>(idByIndex.length * 2);
+        for (int i = 0; i < idByIndex.length; i++) {
+            indexById.put(idByIndex[i], i);
+        }
+        log.debug("Loaded group index for tenant {} ({} groups)", tenantId, idByIndex.length);
+        return new TenantHierarchy(tenantId, storedGeneration, idByIndex, indexById, now.plus(ttl), now.plus(checkInterval));
+    }
+
+    private AtomicLong generation(UUID tenantId) {
+        return generations.computeIfAbsent(tenantId, ignored -> new AtomicLong());
+    }
+
+    private static void afterCommit(Runnable invalidation) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            invalidation.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                invalidation.run();
+            }
+        });
+    }
+
+    private final class TenantHierarchy {
+
+        private final UUID tenantId;
+        private final long storedGeneration;
+        private final UUID[] idByIndex;
+        private final Map<UUID, Integer> indexById;
+        private final Instant expiresAt;
+        private volatile Instant nextCheckAt;
+        // Access-ordered, so the least recently seen user is dropped first; guarded by its own monitor.
+        private final Map<String, BitSet> closures = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, BitSet> eldest) {
+                return size() > maxUsersPerTenant;
+            }
+        };
+        private final AtomicLong membershipGeneration = new AtomicLong();
+
+        private TenantHierarchy(UUID tenantId, long storedGeneration, UUID[] idByIndex, Map<UUID, Integer> indexById,
+                                Instant expiresAt, Instant nextCheckAt) {
+            this.tenantId = tenantId;
+            this.storedGeneration = storedGeneration;
+            this.idByIndex = idByIndex;
+            this.indexById = indexById;
+            this.expiresAt = expiresAt;
+            this.nextCheckAt = nextCheckAt;
+        }
+
+        private BitSet closure(String userId) {
+            BitSet cached;
+            synchronized (closures) {
+                cached = closures.get(userId);
+            }
+            if (cached != null) {
+                return cached;
+            }
+            long loadedAt = membershipGeneration.get();
+            BitSet closure = new BitSet(idByIndex.length);
+            for (UUID groupId : groupRepository.findEffectiveGroupIds(tenantId, userId)) {
+                Integer index = indexById.get(groupId);
+                if (index != null) {
+                    closure.set(index);
+                }
+            }
+            synchronized (closures) {
+                if (membershipGeneration.get() == loadedAt) {
+                    closures.put(userId, closure);
+                }
+            }
+            return closure;
+        }
+    }
+}
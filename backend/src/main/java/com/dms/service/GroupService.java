@@ -13,11 +13,9 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.Instant;
-import java.util.ArrayDeque;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.Set;
+import java.util.Objects;
 import java.util.UUID;
 
 @Service
@@ -28,6 +26,7 @@ public class GroupService {
     private final UserGroupRepository userGroupRepository;
     private final TenantContext tenantContext;
     private final AuditService auditService;
+    private final GroupHierarchyCache groupHierarchyCache;
 
     @Transactional
     public Group createGroup(String name, String displayName, String description, UUID parentGroupId) {
@@ -52,7 +51,13 @@ public class GroupService {
             .modifiedAt(Instant.now())
             .modifiedBy(userId)
             .build();
-        Group saved = groupRepository.save(group);
+        // Flushed so the closure rows can reference the new group.
+        Group saved = groupRepository.saveAndFlush(group);
+        groupRepository.insertClosureSelf(tenantId, saved.getId());
+        if (parentGroup != null) {
+            groupRepository.attachClosure(saved.getId(), parentGroup.getId());
+        }
+        groupHierarchyCache.invalidateTenant(tenantId);
         auditService.logMetadataUpdate(saved.getId(), Map.of(), Map.of("action", "GROUP_CREATE", "name", saved.getName()));
         return saved;
     }
@@ -69,12 +74,20 @@ public class GroupService {
                 .orElseThrow(() -> new DocumentNotFoundException("Parent group not found"));
             ensureNoCycle(group, parentGroup);
         }
+        UUID previousParentId = group.getParentGroup() == null ? null : group.getParentGroup().getId();
         group.setDisplayName(displayName == null || displayName.isBlank() ? group.getDisplayName() : displayName);
         group.setDescription(description == null ? group.getDescription() : description);
         group.setParentGroup(parentGroup);
         group.setModifiedAt(Instant.now());
         group.setModifiedBy(userId);
         Group saved = groupRepository.save(group);
+        if (!Objects.equals(previousParentId, parentGroupId)) {
+            groupRepository.detachClosure(groupId);
+            if (parentGroup != null) {
+                groupRepository.attachClosure(groupId, parentGroup.getId());
+            }
+            groupHierarchyCache.invalidateTenant(tenantId);
+        }
         auditService.logMetadataUpdate(saved.getId(), Map.of(), Map.of("action", "GROUP_UPDATE"));
         return saved;
     }
@@ -91,6 +104,7 @@ public class GroupService {
             throw new ValidationException("Cannot delete group with members");
         }
         groupRepository.delete(group);
+        groupHierarchyCache.invalidateTenant(tenantId);
         auditService.logMetadataUpdate(groupId, Map.of(), Map.of("action", "GROUP_DELETE"));
     }
 
@@ -111,6 +125,7 @@ public class GroupService {
             .assignedBy(currentUserId)
             .build();
         userGroupRepository.save(userGroup);
+        groupHierarchyCache.invalidateUser(tenantId, userId);
         auditService.logMetadataUpdate(groupId, Map.of(), Map.of("action", "GROUP_ADD_MEMBER", "userId", userId));
     }
 
@@ -120,6 +135,7 @@ public class GroupService {
         UserGroup userGroup = userGroupRepository.findByTenantIdAndUserIdAndGroupId(tenantId, userId, groupId)
             .orElseThrow(() -> new DocumentNotFoundException("Membership not found"));
         userGroupRepository.delete(userGroup);
+        groupHierarchyCache.invalidateUser(tenantId, userId);
         auditService.logMetadataUpdate(groupId, Map.of(), Map.of("action", "GROUP_REMOVE_MEMBER", "userId", userId));
     }
 
@@ -140,14 +156,7 @@ public class GroupService {
         Group start = groupRepository.findByIdAndTenantId(groupId, tenantId)
             .orElseThrow(() -> new DocumentNotFoundException("Group not found"));
         List<Group> children = groupRepository.findByParentGroupId(groupId);
-
-        Set<UUID> visited = new HashSet<>();
-        ArrayDeque<Group> parents = new ArrayDeque<>();
-        Group current = start.getParentGroup();
-        while (current != null && visited.add(current.getId())) {
-            parents.push(current);
-            current = current.getParentGroup();
-        }
+        List<Group> parents = groupRepository.findAncestors(groupId);
         return Map.of("group", start, "children", children, "parents", parents);
     }
 
@@ -164,12 +173,9 @@ public class GroupService {
     }
 
     private void ensureNoCycle(Group group, Group newParent) {
-        Group current = newParent;
-        while (current != null) {
-            if (current.getId().equals(group.getId())) {
-                throw new ValidationException("Parent assignment creates a cycle");
-            }
-            current = current.getParentGroup();
+        // The closure holds each group at depth 0, so this also rejects a group becoming its own parent.
+        if (groupRepository.countClosure(group.getId(), newParent.getId()) > 0) {
+            throw new ValidationException("Parent assignment creates a cycle");
         }
     }
 }
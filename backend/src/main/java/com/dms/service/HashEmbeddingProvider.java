@@ -0,0 +1,51 @@
+package com.dms.service;
+
+import com.dms.exception.EmbeddingGenerationException;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Deterministic local stand-in for a hosted embedding model: each vector is derived from the SHA-256 of
+ * the text, so equal texts embed equally and nothing leaves the process.
+ */
+@Component
+public class HashEmbeddingProvider implements EmbeddingProvider {
+
+    private static final int DIMENSIONS = 256;
+
+    @Override
+    public String model() {
+        return "sha256-" + DIMENSIONS;
+    }
+
+    @Override
+    public int maxBatchSize() {
+        return 256;
+    }
+
+    @Override
+    public List<float[]> embed(List<String> texts) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new EmbeddingGenerationException("Failed to generate embedding", e);
+        }
+        List<float[]> vectors = new ArrayList<>(texts.size());
+        for (String text : texts) {
+            byte[] hash = digest.digest(text.getBytes(StandardCharsets.UTF_8));
+            float[] values = new float[DIMENSIONS];
+            for (int i = 0; i < values.length; i++) {
+                int b = hash[i % hash.length] & 0xFF;
+                values[i] = (float) ((b / 255.0) * 2.0 - 1.0);
+            }
+            vectors.add(values);
+        }
+        return vectors;
+    }
+}
@@ -1,8 +1,6 @@
 package com.dms.service;
 
-import com.dms.domain.Document;
 import com.dms.dto.response.HybridSearchResult;
-import com.dms.repository.DocumentRepository;
 import com.dms.search.HybridSearchRouter;
 import com.dms.search.SearchFallbackHandler;
 import com.dms.search.SearchScoreMerger;
@@ -32,7 +30,6 @@ public class HybridSearchService {
     private final SearchSecurityTrimmer searchSecurityTrimmer;
     private final SearchScoreMerger searchScoreMerger;
     private final SearchFallbackHandler searchFallbackHandler;
-    private final DocumentRepository documentRepository;
     private final AuthorizationService authorizationService;
     private final TenantContext tenantContext;
     private final AuditService auditService;
@@ -61,13 +58,10 @@ public class HybridSearchService {
 
         List<HybridSearchResult> merged = searchScoreMerger.merge(keywordResults, vectorResults, keywordWeight, vectorWeight, maxResults);
 
-        Set<UUID> allowedDocumentIds = merged.stream()
+        Set<UUID> allowedDocumentIds = authorizationService.accessibleIds(merged.stream()
             .map(HybridSearchResult::getDocumentId)
             .filter(id -> id != null)
-            .filter(id -> documentRepository.findByIdAndTenantId(id, tenantId)
-                .map(this::canAccess)
-                .orElse(false))
-            .collect(Collectors.toSet());
+            .collect(Collectors.toSet()));
 
         List<HybridSearchResult> secured = searchSecurityTrimmer.trimByAllowedDocuments(merged, allowedDocumentIds);
         if (secured.isEmpty()) {
@@ -88,12 +82,4 @@ public class HybridSearchService {
     public void evictCache() {
         // Explicit invalidation endpoint hook for operations/index changes.
     }
-
-    private boolean canAccess(Document document) {
-        try {
-            return authorizationService.canAccessDocument(document);
-        } catch (Exception ex) {
-            return false;
-        }
-    }
 }
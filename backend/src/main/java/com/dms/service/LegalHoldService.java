@@ -13,8 +13,10 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
 
 @Service
@@ -82,6 +84,18 @@ public class LegalHoldService {
         return !legalHoldRepository.findByTenantIdAndDocumentIdAndReleasedAtIsNull(tenantId, documentId).isEmpty();
     }
 
+    /**
+     * Returns the subset of {@code documentIds} with at least one active hold, in a single query.
+     */
+    @Transactional(readOnly = true)
+    public Set<UUID> findDocumentsWithActiveHolds(Collection<UUID> documentIds) {
+        if (documentIds.isEmpty()) {
+            return Set.of();
+        }
+        UUID tenantId = tenantContext.getCurrentTenantId();
+        return legalHoldRepository.findDocumentIdsWithActiveHolds(tenantId, documentIds);
+    }
+
     @Transactional(readOnly = true)
     public List<LegalHold> getDocumentsUnderHold(String caseReference) {
         UUID tenantId = tenantContext.getCurrentTenantId();
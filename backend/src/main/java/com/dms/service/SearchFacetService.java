@@ -0,0 +1,121 @@
+package com.dms.service;
+
+import com.dms.dto.response.FacetBucket;
+import com.dms.dto.response.SearchFacetsResponse;
+import com.dms.repository.DocumentFacets;
+import com.dms.repository.DocumentRepository;
+import com.dms.repository.DocumentSearchCriteria;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Facet counts for the search API, computed in one statement over the same filtered and access-trimmed
+ * set as the results. Dashboards refresh the same filters repeatedly, so results are kept for a short TTL
+ * per filter set; the key includes the tenant and the caller's effective groups, so trimmed counts are
+ * never shared between users who see different documents.
+ */
+@Service
+@Slf4j
+public class SearchFacetService {
+
+    private final DocumentRepository documentRepository;
+    private final List<String> metadataKeys;
+    private final int topN;
+    private final Duration ttl;
+    private final int maxEntries;
+    private final Map<DocumentSearchCriteria, CachedFacets> cache = new ConcurrentHashMap<>();
+
+    public SearchFacetService(
+            DocumentRepository documentRepository,
+            @Value("${dms.search.facets.metadata-keys:}") String metadataKeys,
+            @Value("${dms.search.facets.top-n:10}") int topN,
+            @Value("${dms.search.facets.cache-ttl-seconds:30}") long ttlSeconds,
+            @Value("${dms.search.facets.cache-max-entries:1000}") int maxEntries) {
+        this.documentRepository = documentRepository;
+        this.metadataKeys = Arrays.stream(metadataKeys.split(","))
+            .map(String::trim)
+            .filter(key -> !key.isEmpty())
+            .distinct()
+            .toList();
+        this.topN = Math.max(1, topN);
+        this.ttl = Duration.ofSeconds(Math.max(0, ttlSeconds));
+        this.maxEntries = maxEntries;
+    }
+
+    /**
+     * Returns the facets for {@code criteria}; its paging fields are ignored.
+     */
+    @Transactional(readOnly = true)
+    public SearchFacetsResponse facets(DocumentSearchCriteria criteria) {
+        DocumentSearchCriteria key = DocumentSearchCriteria.builder()
+            .tenantId(criteria.getTenantId())
+            .documentTypeId(criteria.getDocumentTypeId())
+            .createdFrom(criteria.getCreatedFrom())
+            .createdTo(criteria.getCreatedTo())
+            .includeDeleted(criteria.isIncludeDeleted())
+            .metadata(criteria.getMetadata() == null ? null : new LinkedHashMap<>(criteria.getMetadata()))
+            .effectiveGroupIds(criteria.getEffectiveGroupIds() == null ? null : Set.copyOf(criteria.getEffectiveGroupIds()))
+            .build();
+        Instant now = Instant.now();
+        CachedFacets cached = cache.get(key);
+        if (cached != null && cached.expiresAt().isAfter(now)) {
+            return cached.facets();
+        }
+
+        SearchFacetsResponse facets = toResponse(documentRepository.facets(key, metadataKeys, topN));
+        if (!ttl.isZero()) {
+            if (cache.size() >= maxEntries) {
+                evictExpired();
+            }
+            if (cache.size() < maxEntries) {
+                cache.put(key, new CachedFacets(now.plus(ttl), facets));
+            }
+        }
+        return facets;
+    }
+
+    @Scheduled(fixedDelayString = "${dms.search.facets.cleanup-interval-ms:60000}")
+    public void evictExpired() {
+        Instant now = Instant.now();
+        int before = cache.size();
+        cache.values().removeIf(entry -> !entry.expiresAt().isAfter(now));
+        if (before != cache.size()) {
+            log.debug("Evicted {} expired facet entries", before - cache.size());
+        }
+    }
+
+    private static SearchFacetsResponse toResponse(DocumentFacets facets) {
+        Map<String, List<FacetBucket>> metadata = new LinkedHashMap<>();
+        facets.metadata().forEach((key, counts) -> metadata.put(key, toBuckets(counts)));
+        return SearchFacetsResponse.builder()
+            .documentTypes(toBuckets(facets.documentTypes()))
+            .createdMonths(toBuckets(facets.createdMonths()))
+            .metadata(metadata)
+            .build();
+    }
+
+    private static List<FacetBucket> toBuckets(List<DocumentFacets.FacetCount> counts) {
+        return counts.stream()
+            .map(count -> FacetBucket.builder()
+                .key(count.key())
+                .label(count.label())
+                .count(count.count())
+                .build())
+            .toList();
+    }
+
+    private record CachedFacets(Instant expiresAt, SearchFacetsResponse facets) {
+    }
+}
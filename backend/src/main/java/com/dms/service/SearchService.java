@@ -4,27 +4,30 @@ import com.dms.domain.Document;
 import com.dms.dto.request.SearchRequest;
 import com.dms.dto.response.DocumentResponse;
 import com.dms.dto.response.SearchResultResponse;
+import com.dms.exception.ValidationException;
 import com.dms.repository.DocumentRepository;
+import com.dms.repository.DocumentSearchCriteria;
 import com.dms.repository.DocumentTypeRepository;
+import com.dms.repository.FullTextHit;
+import com.dms.storage.BulkArchiveWriter;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.io.ByteArrayOutputStream;
-import java.io.InputStream;
 import java.time.ZoneOffset;
 import java.time.Instant;
-import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
+import java.util.function.Function;
 import java.util.stream.Collectors;
-import java.util.zip.ZipEntry;
-import java.util.zip.ZipOutputStream;
 
 @Service
 @RequiredArgsConstructor
@@ -37,6 +40,12 @@ public class SearchService {
     private final TenantContext tenantContext;
     private final AuditService auditService;
     private final BlobStorageService blobStorageService;
+    private final BulkArchiveWriter bulkArchiveWriter;
+    private final LegalHoldService legalHoldService;
+    private final SearchFacetService searchFacetService;
+
+    @Value("${dms.bulk-download.max-documents:5000}")
+    private int maxBulkDownloadDocuments;
     
     private static final int DEFAULT_PAGE_SIZE = 20;
     private static final int MAX_PAGE_SIZE = 100;
@@ -51,32 +60,27 @@ public class SearchService {
         int pageSize = validatePageSize(pageable.getPageSize());
         Pageable validatedPageable = Pageable.ofSize(pageSize).withPage(pageable.getPageNumber());
         
-        Page<Document> page;
-        
-        if (documentTypeId != null) {
-            // Type-specific search
-            page = documentRepository.findByTenantIdAndDocumentTypeId(tenantId, documentTypeId, validatedPageable);
-        } else if (query != null && !query.isBlank()) {
-            page = documentRepository.searchFullText(tenantId, query, validatedPageable);
-        } else if (startDate != null && endDate != null) {
-            // Date range search
-            page = documentRepository.findByTenantIdAndDateRange(tenantId, startDate, endDate, validatedPageable);
-        } else {
-            // General search - all active documents
-            page = documentRepository.findByTenantIdAndDeletedAtIsNull(tenantId, validatedPageable);
+        if (documentTypeId == null && query != null && !query.isBlank()) {
+            return searchKeywords(tenantId, userId, query.trim(), validatedPageable);
         }
-        
-        // Apply RBAC filtering - try access, filter out unauthorized ones
-        List<Document> results = page.getContent().stream()
-            .filter(doc -> {
-                try {
-                    authorizationService.assertCanAccessDocument(doc);
-                    return true;
-                } catch (Exception e) {
-                    return false;
-                }
-            })
-            .toList();
+
+        // Type, date range and access are SQL predicates, so pages are full and the total counts only
+        // documents the caller may see. The type listing has always included deleted documents.
+        boolean dateRange = documentTypeId == null && startDate != null && endDate != null;
+        DocumentSearchCriteria criteria = DocumentSearchCriteria.builder()
+            .tenantId(tenantId)
+            .documentTypeId(documentTypeId)
+            .createdFrom(dateRange ? startDate : null)
+            .createdTo(dateRange ? endDate : null)
+            .includeDeleted(documentTypeId != null)
+            .effectiveGroupIds(authorizationService.currentEffectiveGroups())
+            .offset((int) validatedPageable.getOffset())
+            .limit(pageSize)
+            .build();
+        List<Document> results = documentRepository.search(criteria);
+        // Like Spring Data, a short page already tells the total; only full or empty-beyond-start pages count.
+        boolean lastPage = results.size() < pageSize && (validatedPageable.getOffset() == 0 || !results.isEmpty());
+        long total = lastPage ? validatedPageable.getOffset() + results.size() : documentRepository.count(criteria);
         
         // Convert to response format
         List<Map<String, Object>> responseList = results.stream()
@@ -88,73 +92,121 @@ public class SearchService {
         
         log.info("Search executed: query={}, results={}, userId={}", query, responseList.size(), userId);
         
-        return new PageImpl<>(responseList, validatedPageable, page.getTotalElements());
+        return new PageImpl<>(responseList, validatedPageable, total);
+    }
+
+    /**
+     * Keyword search against the {@code metadata_tsv} index, most relevant first. Access is part of the
+     * query, so pages are full and the total is exact; each result carries its {@code score} and, on
+     * PostgreSQL, a {@code highlight} with the matched terms wrapped in {@code <mark>}.
+     */
+    private Page<Map<String, Object>> searchKeywords(UUID tenantId, String userId, String query, Pageable pageable) {
+        Set<UUID> effectiveGroups = authorizationService.currentEffectiveGroups();
+        List<FullTextHit> hits = documentRepository.searchFullTextRanked(
+            tenantId, query, effectiveGroups, (int) pageable.getOffset(), pageable.getPageSize());
+        // Like Spring Data, a short page already tells the total; only full or empty-beyond-start pages count.
+        boolean lastPage = hits.size() < pageable.getPageSize() && (pageable.getOffset() == 0 || !hits.isEmpty());
+        long total = lastPage
+            ? pageable.getOffset() + hits.size()
+            : documentRepository.countFullText(tenantId, query, effectiveGroups);
+
+        List<Map<String, Object>> responseList = hits.stream()
+            .map(this::mapToSearchResult)
+            .collect(Collectors.toList());
+
+        auditService.logSearch(query, responseList.size());
+        log.info("Search executed: query={}, results={}, userId={}", query, responseList.size(), userId);
+
+        return new PageImpl<>(responseList, pageable, total);
     }
 
+    /**
+     * Structured search compiled into one statement: type, date range, deleted flag, metadata equality and
+     * the caller's group access are all SQL predicates, so every page is full and {@code totalCount}
+     * matches what can be paged through. The first page and every request carrying a {@code cursor} use
+     * keyset pagination in {@code (createdAt DESC, id DESC)} order; {@code page > 0} without a cursor
+     * keeps OFFSET paging for existing clients. Keyset requests count the total only with
+     * {@code includeTotal}, like {@link DocumentService#listDocuments(String, int, boolean)}; OFFSET pages
+     * always do. With {@code includeFacets} the response also carries type, month and metadata counts over
+     * the same filtered set.
+     */
     @Transactional(readOnly = true)
     public SearchResultResponse search(SearchRequest request) {
         UUID tenantId = tenantContext.getCurrentTenantId();
-        Pageable pageable = Pageable.ofSize(validatePageSize(request.getPageSize())).withPage(Math.max(0, request.getPage()));
-        Page<Document> page;
-        if (request.getDocumentType() != null && !request.getDocumentType().isBlank()) {
-            UUID typeId = resolveDocumentTypeId(tenantId, request.getDocumentType());
-            page = documentRepository.findByTenantIdAndDocumentTypeId(tenantId, typeId, pageable);
-        } else if (request.getDateFrom() != null && request.getDateTo() != null) {
-            Instant from = request.getDateFrom().atStartOfDay().toInstant(ZoneOffset.UTC);
-            Instant to = request.getDateTo().plusDays(1).atStartOfDay().toInstant(ZoneOffset.UTC).minusSeconds(1);
-            page = documentRepository.findByTenantIdAndDateRange(tenantId, from, to, pageable);
-        } else {
-            page = documentRepository.findByTenantIdAndDeletedAtIsNull(tenantId, pageable);
-        }
+        int pageSize = validatePageSize(request.getPageSize());
+        boolean keyset = request.getCursor() != null || request.getPage() <= 0;
+        DocumentCursor after = DocumentCursor.decode(request.getCursor());
 
-        List<DocumentResponse> filtered = page.getContent().stream()
-            .filter(document -> request.isIncludeDeleted() || document.getDeletedAt() == null)
-            .filter(document -> {
-                try {
-                    return authorizationService.canAccessDocument(document);
-                } catch (Exception ignored) {
-                    return false;
-                }
-            })
-            .filter(document -> matchesMetadata(document, request.getMetadata()))
-            .map(this::mapToDocumentResponse)
+        DocumentSearchCriteria criteria = DocumentSearchCriteria.builder()
+            .tenantId(tenantId)
+            .documentTypeId(request.getDocumentType() != null && !request.getDocumentType().isBlank()
+                ? resolveDocumentTypeId(tenantId, request.getDocumentType())
+                : null)
+            .createdFrom(request.getDateFrom() == null ? null : request.getDateFrom().atStartOfDay().toInstant(ZoneOffset.UTC))
+            .createdTo(request.getDateTo() == null ? null
+                : request.getDateTo().plusDays(1).atStartOfDay().toInstant(ZoneOffset.UTC).minusSeconds(1))
+            .includeDeleted(request.isIncludeDeleted())
+            .metadata(request.getMetadata())
+            .effectiveGroupIds(authorizationService.currentEffectiveGroups())
+            .afterCreatedAt(keyset ? after.createdAt() : null)
+            .afterId(keyset ? after.id() : null)
+            .offset(keyset ? 0 : request.getPage() * pageSize)
+            .limit(keyset ? pageSize + 1 : pageSize)
+            .build();
+
+        List<Document> rows = documentRepository.search(criteria);
+        String nextCursor = keyset ? DocumentCursor.nextCursor(rows, pageSize) : null;
+        List<Document> page = rows.size() > pageSize ? rows.subList(0, pageSize) : rows;
+        Set<UUID> heldDocumentIds = legalHoldService.findDocumentsWithActiveHolds(page.stream().map(Document::getId).toList());
+        List<DocumentResponse> results = page.stream()
+            .map(document -> mapToDocumentResponse(document, heldDocumentIds.contains(document.getId())))
             .toList();
 
-        auditService.logSearch(request.getDocumentType(), filtered.size());
-        return SearchResultResponse.builder()
-            .results(filtered)
-            .totalCount(page.getTotalElements())
-            .page(pageable.getPageNumber())
-            .pageSize(pageable.getPageSize())
-            .totalPages(page.getTotalPages())
-            .build();
+        SearchResultResponse.SearchResultResponseBuilder response = SearchResultResponse.builder()
+            .results(results)
+            .page(Math.max(0, request.getPage()))
+            .pageSize(pageSize)
+            .nextCursor(nextCursor);
+        if (request.isIncludeTotal() || !keyset) {
+            long total = documentRepository.count(criteria);
+            response.totalCount(total).totalPages((int) ((total + pageSize - 1) / pageSize));
+        } else {
+            response.totalCount(-1).totalPages(-1);
+        }
+        if (request.isIncludeFacets()) {
+            response.facets(searchFacetService.facets(criteria));
+        }
+        auditService.logSearch(request.getDocumentType(), results.size());
+        return response.build();
     }
 
+    /**
+     * Resolves and authorizes every requested document in one query; the returned archive streams the
+     * blobs afterwards without touching the persistence context or the caller's security context.
+     */
     @Transactional(readOnly = true)
-    public byte[] bulkDownload(List<UUID> documentIds) {
+    public BulkArchiveWriter.Archive bulkDownload(List<UUID> documentIds) {
         UUID tenantId = tenantContext.getCurrentTenantId();
-        List<Document> documents = new ArrayList<>();
-        for (UUID documentId : documentIds) {
-            Document document = documentRepository.findByIdAndTenantId(documentId, tenantId)
-                .orElseThrow(() -> new com.dms.exception.DocumentNotFoundException("Document not found: " + documentId));
-            authorizationService.assertCanAccessDocument(document);
-            documents.add(document);
+        List<UUID> requestedIds = documentIds.stream().distinct().toList();
+        if (requestedIds.size() > maxBulkDownloadDocuments) {
+            throw new ValidationException("Bulk download is limited to " + maxBulkDownloadDocuments + " documents");
         }
-        try (ByteArrayOutputStream baos = new ByteArrayOutputStream();
-             ZipOutputStream zos = new ZipOutputStream(baos)) {
-            for (Document document : documents) {
-                try (InputStream fileStream = blobStorageService.downloadBlob(document.getBlobPath())) {
-                    ZipEntry entry = new ZipEntry(document.getId() + ".pdf");
-                    zos.putNextEntry(entry);
-                    fileStream.transferTo(zos);
-                    zos.closeEntry();
-                }
+
+        Map<UUID, Document> documentsById = documentRepository.findAllByIdInAndTenantId(requestedIds, tenantId).stream()
+            .collect(Collectors.toMap(Document::getId, Function.identity()));
+        for (UUID documentId : requestedIds) {
+            if (!documentsById.containsKey(documentId)) {
+                throw new com.dms.exception.DocumentNotFoundException("Document not found: " + documentId);
             }
-            zos.finish();
-            return baos.toByteArray();
-        } catch (Exception ex) {
-            throw new RuntimeException("Failed to create bulk download archive", ex);
         }
+        authorizationService.assertCanAccessDocuments(documentsById.values());
+
+        List<BulkArchiveWriter.ArchiveEntry> entries = requestedIds.stream()
+            .map(documentsById::get)
+            .map(document -> new BulkArchiveWriter.ArchiveEntry(document.getId() + ".pdf", document.getBlobPath(),
+                document.getContentHash(), document.getFileSizeBytes() == null ? -1 : document.getFileSizeBytes()))
+            .toList();
+        return bulkArchiveWriter.prepare(entries, entry -> blobStorageService.downloadBlob(entry.blobPath(), entry.contentHash()));
     }
     
     private int validatePageSize(int pageSize) {
@@ -175,27 +227,22 @@ public class SearchService {
         );
     }
 
+    private Map<String, Object> mapToSearchResult(FullTextHit hit) {
+        Map<String, Object> result = new LinkedHashMap<>(mapToSearchResult(hit.document()));
+        result.put("score", hit.rank());
+        if (hit.highlight() != null) {
+            result.put("highlight", hit.highlight());
+        }
+        return result;
+    }
+
     private UUID resolveDocumentTypeId(UUID tenantId, String documentTypeName) {
         return documentTypeRepository.findByNameAndTenantId(documentTypeName, tenantId)
             .map(type -> type.getId())
             .orElseThrow(() -> new com.dms.exception.DocumentNotFoundException("Document type not found"));
     }
 
-    private boolean matchesMetadata(Document document, Map<String, Object> requestedMetadata) {
-        if (requestedMetadata == null || requestedMetadata.isEmpty()) {
-            return true;
-        }
-        Map<String, Object> currentMetadata = document.getMetadata();
-        for (Map.Entry<String, Object> entry : requestedMetadata.entrySet()) {
-            Object currentValue = currentMetadata.get(entry.getKey());
-            if (currentValue == null || !currentValue.equals(entry.getValue())) {
-                return false;
-            }
-        }
-        return true;
-    }
-
-    private DocumentResponse mapToDocumentResponse(Document document) {
+    private DocumentResponse mapToDocumentResponse(Document document, boolean hasActiveLegalHold) {
         return DocumentResponse.builder()
             .id(document.getId())
             .documentTypeName(document.getDocumentType().getName())
@@ -206,7 +253,7 @@ public class SearchService {
             .createdBy(document.getCreatedBy())
             .modifiedAt(document.getModifiedAt())
             .modifiedBy(document.getModifiedBy())
-            .hasActiveLegalHold(document.getLegalHolds() != null && document.getLegalHolds().stream().anyMatch(hold -> hold.getReleasedAt() == null))
+            .hasActiveLegalHold(hasActiveLegalHold)
             .retentionExpiresAt(document.getRetentionExpiresAt())
             .build();
     }
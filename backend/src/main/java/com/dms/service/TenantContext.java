@@ -1,43 +1,46 @@
 package com.dms.service;
 
+import com.dms.security.TenantPrincipal;
+import com.dms.security.TenantPrincipalHolder;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
 import org.springframework.stereotype.Service;
 
 import java.util.UUID;
 
+/**
+ * Current tenant and user. Reads the {@link TenantPrincipal} bound by {@code TenantPrincipalFilter} (or
+ * carried into {@code @Async} work) and only resolves claims itself when nothing is bound for the current
+ * authentication. Work without an authentication, such as scheduled jobs, runs as the system user of the
+ * default tenant.
+ */
 @Service
 public class TenantContext {
 
     private final UUID defaultTenantId;
+    private final TenantPrincipal systemPrincipal;
 
     public TenantContext(@Value("${dms.security.default-tenant-id:00000000-0000-0000-0000-000000000001}") UUID defaultTenantId) {
         this.defaultTenantId = defaultTenantId;
+        this.systemPrincipal = TenantPrincipal.system(defaultTenantId);
     }
 
-    public UUID getCurrentTenantId() {
+    public TenantPrincipal current() {
         Authentication auth = SecurityContextHolder.getContext().getAuthentication();
-        if (auth instanceof JwtAuthenticationToken jwtAuth) {
-            String tenantId = jwtAuth.getToken().getClaimAsString("tenant_id");
-            if (tenantId == null || tenantId.isBlank()) {
-                tenantId = jwtAuth.getToken().getClaimAsString("tid");
-            }
-            if (tenantId != null && !tenantId.isBlank()) {
-                try {
-                    return UUID.fromString(tenantId);
-                } catch (IllegalArgumentException ignored) {
-                    // fall back to configured default tenant when claim format is invalid
-                }
-            }
-        }
-
-        return defaultTenantId;
+        TenantPrincipal bound = TenantPrincipalHolder.get(auth);
+        return bound != null ? bound : resolve(auth);
+    }
+
+    public TenantPrincipal resolve(Authentication authentication) {
+        return authentication == null ? systemPrincipal : TenantPrincipal.from(authentication, defaultTenantId);
+    }
+
+    public UUID getCurrentTenantId() {
+        return current().tenantId();
     }
 
     public String getCurrentUserId() {
-        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
-        return auth != null ? auth.getName() : "system";
+        return current().userId();
     }
 }
@@ -0,0 +1,252 @@
+package com.dms.service;
+
+import com.dms.domain.UploadSession;
+import com.dms.dto.request.DocumentUploadRequest;
+import com.dms.dto.response.DocumentResponse;
+import com.dms.dto.response.UploadSessionResponse;
+import com.dms.exception.BlobStorageException;
+import com.dms.exception.ConcurrentModificationException;
+import com.dms.exception.DocumentNotFoundException;
+import com.dms.repository.UploadSessionRepository;
+import com.dms.storage.StagedUpload;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Resumable uploads for large PDFs: a session reserves the document id and blob path, parts are
+ * streamed straight into staged blocks, and completing the session commits the blocks and creates the
+ * document through {@link DocumentService}. Sessions are stored in {@code upload_sessions}, so any
+ * instance can take the next part, and expire after {@code dms.upload-session.ttl-minutes} of inactivity.
+ * <p>
+ * The running SHA-256 state is recorded with every part, so whichever instance completes the session
+ * finishes the hash without reading the committed blob back.
+ */
+@Service
+@Slf4j
+public class UploadSessionService {
+
+    private static final int EXPIRY_BATCH_SIZE = 100;
+
+    private final DocumentService documentService;
+    private final BlobStorageService blobStorageService;
+    private final UploadSessionRepository uploadSessionRepository;
+    private final TenantContext tenantContext;
+    private final int blockSizeBytes;
+    private final long maxPartBytes;
+    private final long maxBytes;
+    private final Duration ttl;
+    private final Map<UUID, LiveUpload> liveUploads = new ConcurrentHashMap<>();
+
+    public UploadSessionService(
+            DocumentService documentService,
+            BlobStorageService blobStorageService,
+            UploadSessionRepository uploadSessionRepository,
+            TenantContext tenantContext,
+            @Value("${dms.upload-session.block-size-bytes:4194304}") int blockSizeBytes,
+            @Value("${dms.upload-session.max-part-bytes:67108864}") long maxPartBytes,
+            @Value("${dms.upload-session.max-bytes:2147483648}") long maxBytes,
+            @Value("${dms.upload-session.ttl-minutes:60}") long ttlMinutes) {
+        this.documentService = documentService;
+        this.blobStorageService = blobStorageService;
+        this.uploadSessionRepository = uploadSessionRepository;
+        this.tenantContext = tenantContext;
+        this.blockSizeBytes = blockSizeBytes;
+        this.maxPartBytes = maxPartBytes;
+        this.maxBytes = maxBytes;
+        this.ttl = Duration.ofMinutes(Math.max(1, ttlMinutes));
+    }
+
+    /**
+     * Validates the request up front (type, permissions, metadata) so a client learns about problems
+     * before sending any content.
+     */
+    public UploadSessionResponse createSession(DocumentUploadRequest request) {
+        DocumentService.StagedUploadTarget target = documentService.prepareStagedUpload(request);
+        Instant now = Instant.now();
+        UploadSession session = uploadSessionRepository.save(UploadSession.builder()
+            .tenantId(tenantContext.getCurrentTenantId())
+            .userId(tenantContext.getCurrentUserId())
+            .documentId(target.documentId())
+            .blobPath(target.blobPath())
+            .documentTypeId(request.getDocumentTypeId())
+            .metadata(request.getMetadata())
+            .idempotencyKey(request.getIdempotencyKey())
+            .partBlocks(List.of())
+            .totalBytes(0L)
+            .bytesBeforeLastPart(0L)
+            .lastPartAttempt(0)
+            .expiresAt(now.plus(ttl))
+            .createdAt(now)
+            .build());
+        log.info("Opened upload session {} for document {}", session.getId(), target.documentId());
+        return toResponse(session);
+    }
+
+    /**
+     * Stages one part and records it on the session. If another request changed the session in the
+     * meantime the part is not recorded and the caller gets a conflict; re-reading the session shows
+     * which part to send next.
+     */
+    public UploadSessionResponse uploadPart(UUID sessionId, int partNumber, InputStream content) {
+        UploadSession session = requireSession(sessionId);
+        StagedUpload upload = attach(session);
+        synchronized (upload) {
+            try {
+                upload.uploadPart(partNumber, content);
+            } catch (IOException e) {
+                throw new BlobStorageException("Failed to read upload part " + partNumber, e);
+            }
+            return toResponse(record(session, upload));
+        }
+    }
+
+    public UploadSessionResponse getSession(UUID sessionId) {
+        return toResponse(requireSession(sessionId));
+    }
+
+    /**
+     * Commits the staged blocks and creates the document. A failed commit leaves the session open for a
+     * retry; once the blocks are committed the session is closed whether or not the document is created,
+     * because {@link DocumentService} removes the blob on failure.
+     */
+    public DocumentResponse complete(UUID sessionId, String contentType) {
+        UploadSession session = requireSession(sessionId);
+        StagedUpload upload = attach(session);
+        synchronized (upload) {
+            String contentHash = upload.complete(contentType);
+            liveUploads.remove(sessionId);
+            close(session);
+            DocumentResponse response = documentService.completeStagedUpload(toRequest(session), toTarget(session),
+                session.getTotalBytes(), contentType, contentHash);
+            log.info("Completed upload session {} ({} bytes)", sessionId, session.getTotalBytes());
+            return response;
+        }
+    }
+
+    public void abort(UUID sessionId) {
+        UploadSession session = requireSession(sessionId);
+        liveUploads.remove(sessionId);
+        close(session);
+        discard(session);
+    }
+
+    @Scheduled(fixedDelayString = "${dms.upload-session.cleanup-interval-ms:300000}")
+    public void expireSessions() {
+        Instant now = Instant.now();
+        List<UploadSession> expired;
+        do {
+            expired = uploadSessionRepository.findTop100ByExpiresAtBeforeOrderByExpiresAt(now);
+            for (UploadSession session : expired) {
+                // Every instance runs this job; only the one that removes the row discards the blocks.
+                if (uploadSessionRepository.deleteIfUnchanged(session.getId(), session.getEntityVersion()) == 1) {
+                    log.info("Expiring idle upload session {}", session.getId());
+                    discard(session);
+                }
+            }
+        } while (expired.size() == EXPIRY_BATCH_SIZE);
+        liveUploads.values().removeIf(live -> !live.expiresAt().isAfter(now));
+    }
+
+    private UploadSession requireSession(UUID sessionId) {
+        return uploadSessionRepository.findById(sessionId)
+            .filter(session -> session.getTenantId().equals(tenantContext.getCurrentTenantId())
+                && session.getUserId().equals(tenantContext.getCurrentUserId())
+                && session.getExpiresAt().isAfter(Instant.now()))
+            .orElseThrow(() -> new DocumentNotFoundException("Upload session not found"));
+    }
+
+    /**
+     * Returns this instance's upload for the session if it staged the session's latest part, otherwise
+     * picks the upload up from the recorded progress.
+     */
+    private StagedUpload attach(UploadSession session) {
+        LiveUpload live = liveUploads.get(session.getId());
+        if (live != null && live.entityVersion() == session.getEntityVersion()) {
+            return live.upload();
+        }
+        return StagedUpload.resume(blobStorageService.openBlockStaging(session.getBlobPath()), blockSizeBytes,
+            maxPartBytes, maxBytes, new StagedUpload.Progress(session.getPartBlocks(), session.getTotalBytes(),
+                session.getBytesBeforeLastPart(), session.getLastPartAttempt(), session.getHashState(),
+                session.getHashStateBeforeLastPart()));
+    }
+
+    private UploadSession record(UploadSession session, StagedUpload upload) {
+        StagedUpload.Progress progress = upload.progress();
+        session.setPartBlocks(progress.partBlocks());
+        session.setTotalBytes(progress.totalBytes());
+        session.setBytesBeforeLastPart(progress.bytesBeforeLastPart());
+        session.setLastPartAttempt(progress.lastPartAttempt());
+        session.setHashState(progress.digestState());
+        session.setHashStateBeforeLastPart(progress.digestStateBeforeLastPart());
+        session.setExpiresAt(Instant.now().plus(ttl));
+        UploadSession saved;
+        try {
+            saved = uploadSessionRepository.saveAndFlush(session);
+        } catch (OptimisticLockingFailureException e) {
+            liveUploads.remove(session.getId());
+            throw new ConcurrentModificationException("Upload session " + session.getId()
+                + " was changed by another request; fetch it and resend the next part");
+        }
+        liveUploads.put(saved.getId(), new LiveUpload(saved.getEntityVersion(), upload, saved.getExpiresAt()));
+        return saved;
+    }
+
+    /**
+     * Removes the session row, failing if another request changed or closed it since it was read.
+     */
+    private void close(UploadSession session) {
+        if (uploadSessionRepository.deleteIfUnchanged(session.getId(), session.getEntityVersion()) == 0) {
+            throw new ConcurrentModificationException("Upload session " + session.getId()
+                + " was changed by another request");
+        }
+    }
+
+    private void discard(UploadSession session) {
+        try {
+            blobStorageService.openBlockStaging(session.getBlobPath()).abort();
+            // The blocks may already have been committed by a completion that never got to create the document.
+            blobStorageService.deleteBlob(session.getBlobPath());
+        } catch (Exception e) {
+            log.warn("Failed to discard staged upload {}: {}", session.getBlobPath(), e.getMessage());
+        }
+    }
+
+    private static DocumentUploadRequest toRequest(UploadSession session) {
+        return DocumentUploadRequest.builder()
+            .documentTypeId(session.getDocumentTypeId())
+            .metadata(session.getMetadata())
+            .idempotencyKey(session.getIdempotencyKey())
+            .build();
+    }
+
+    private static DocumentService.StagedUploadTarget toTarget(UploadSession session) {
+        return new DocumentService.StagedUploadTarget(session.getDocumentId(), session.getBlobPath());
+    }
+
+    private UploadSessionResponse toResponse(UploadSession session) {
+        return UploadSessionResponse.builder()
+            .sessionId(session.getId())
+            .documentId(session.getDocumentId())
+            .nextPartNumber(session.getPartBlocks().size() + 1)
+            .receivedBytes(session.getTotalBytes())
+            .maxPartBytes(maxPartBytes)
+            .maxBytes(maxBytes)
+            .expiresAt(session.getExpiresAt())
+            .build();
+    }
+
+    private record LiveUpload(long entityVersion, StagedUpload upload, Instant expiresAt) {
+    }
+}
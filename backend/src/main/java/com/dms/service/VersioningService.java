@@ -8,16 +8,12 @@ import com.dms.repository.DocumentRepository;
 import com.dms.repository.DocumentVersionRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.Resource;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
 
-import java.io.IOException;
-import java.io.InputStream;
-import java.security.MessageDigest;
-import java.security.NoSuchAlgorithmException;
 import java.time.Instant;
-import java.util.HexFormat;
 import java.util.List;
 import java.util.UUID;
 
@@ -29,6 +25,7 @@ public class VersioningService {
 	private final DocumentRepository documentRepository;
 	private final DocumentVersionRepository documentVersionRepository;
 	private final BlobStorageService blobStorageService;
+	private final BlobReferenceService blobReferenceService;
 	private final TenantContext tenantContext;
     private final AuthorizationService authorizationService;
     private final AuditService auditService;
@@ -47,31 +44,59 @@ public class VersioningService {
 		String blobPath = String.format("%s/%s/%d/%02d/%s_v%d.pdf",
 			document.getTenantId(), document.getDocumentType().getName(), now.atZone(java.time.ZoneOffset.UTC).getYear(), now.atZone(java.time.ZoneOffset.UTC).getMonthValue(), document.getId(), newVersion);
 
-		// upload blob
-		blobStorageService.uploadBlob(blobPath, file);
-		String contentHash = calculateSha256(file);
-
-		// persist version entity
-		DocumentVersion version = DocumentVersion.builder()
-			.id(UUID.randomUUID())
-			.document(document)
-			.tenantId(document.getTenantId())
-			.versionNumber(newVersion)
-			.blobPath(blobPath)
-			.fileSizeBytes(file.getSize())
-			.contentType(file.getContentType())
-			.contentHash(contentHash)
-			.createdAt(now)
-			.createdBy(tenantContext.getCurrentUserId())
-			.build();
-
-		documentVersionRepository.save(version);
+		// one streaming pass validates, hashes and stages the upload; its hash then decides whether the
+		// staged blob becomes the new version or is discarded as a no-op
+		String stagedPath = blobPath;
+		String contentHash = blobStorageService.uploadValidatedPdf(stagedPath, file);
+		DocumentVersion current = currentVersion(document);
+		String currentHash = current == null ? document.getContentHash() : current.getContentHash();
+		boolean unchanged = contentHash.equals(currentHash);
+		BlobReferenceService.StoredBlob stored = null;
+		try {
+			if (unchanged) {
+				blobStorageService.deleteBlob(stagedPath);
+				blobPath = current == null ? document.getBlobPath() : current.getBlobPath();
+				// a reference-counted blob gains a reference for the new version; others are simply shared
+				blobReferenceService.retain(document.getTenantId(), blobPath);
+			} else {
+				stored = blobReferenceService.adopt(document.getTenantId(), stagedPath, contentHash, file.getSize());
+				blobPath = stored.blobPath();
+			}
 
-		document.setCurrentVersion(newVersion);
-		documentRepository.save(document);
-        auditService.logMetadataUpdate(document.getId(), java.util.Map.of("version", newVersion - 1), java.util.Map.of("version", newVersion));
+			// persist version entity
+			DocumentVersion version = DocumentVersion.builder()
+				.id(UUID.randomUUID())
+				.document(document)
+				.tenantId(document.getTenantId())
+				.versionNumber(newVersion)
+				.blobPath(blobPath)
+				.fileSizeBytes(file.getSize())
+				.contentType(file.getContentType())
+				.contentHash(contentHash)
+				.createdAt(now)
+				.createdBy(tenantContext.getCurrentUserId())
+				.build();
+
+			documentVersionRepository.save(version);
+
+			document.setCurrentVersion(newVersion);
+			documentRepository.save(document);
+		} catch (Exception ex) {
+			try {
+				if (stored == null) {
+					blobStorageService.deleteBlob(stagedPath);
+				} else {
+					blobReferenceService.discard(stagedPath, stored);
+				}
+			} catch (Exception cleanupEx) {
+				log.warn("Failed to clean up orphaned blob: {}", stagedPath, cleanupEx);
+			}
+			throw ex;
+		}
+        auditService.logMetadataUpdate(document.getId(), java.util.Map.of("version", newVersion - 1),
+            java.util.Map.of("version", newVersion, "contentUnchanged", unchanged));
 
-		log.info("Uploaded new version {} for document {}", newVersion, documentId);
+		log.info("Uploaded new version {} for document {} (contentUnchanged={})", newVersion, documentId, unchanged);
 	}
 
 	@Transactional(readOnly = true)
@@ -85,7 +110,7 @@ public class VersioningService {
 	}
 
 	@Transactional(readOnly = true)
-	public InputStream getVersionContent(UUID documentId, int versionNumber) {
+	public Resource getVersionContent(UUID documentId, int versionNumber) {
 		UUID tenantId = tenantContext.getCurrentTenantId();
 		Document document = documentRepository.findByIdAndTenantId(documentId, tenantId)
 			.orElseThrow(() -> new DocumentNotFoundException("Document not found"));
@@ -94,7 +119,7 @@ public class VersioningService {
 		DocumentVersion v = documentVersionRepository.findByDocumentAndVersionNumber(document, versionNumber)
 			.orElseThrow(() -> new DocumentNotFoundException("Version not found"));
 
-		return blobStorageService.downloadBlob(v.getBlobPath());
+		return blobStorageService.openBlobResource(v.getBlobPath(), v.getContentHash());
 	}
 
 	@Transactional
@@ -114,11 +139,15 @@ public class VersioningService {
 		String newBlobPath = String.format("%s/%s/%d/%02d/%s_v%d.pdf",
 			document.getTenantId(), document.getDocumentType().getName(), now.atZone(java.time.ZoneOffset.UTC).getYear(), now.atZone(java.time.ZoneOffset.UTC).getMonthValue(), document.getId(), newVersion);
 
-		// Copy blob by streaming from previous path to new path
-		try (InputStream is = blobStorageService.downloadBlob(previous.getBlobPath())) {
-			blobStorageService.uploadBlob(newBlobPath, is, previous.getFileSizeBytes(), previous.getContentType());
-		} catch (Exception ex) {
-			throw new ValidationException("Failed to restore version");
+		// Content-addressed blobs are shared by reference; anything else is copied server-side
+		if (blobReferenceService.retain(document.getTenantId(), previous.getBlobPath())) {
+			newBlobPath = previous.getBlobPath();
+		} else {
+			try {
+				blobStorageService.copyBlob(previous.getBlobPath(), newBlobPath);
+			} catch (Exception ex) {
+				throw new ValidationException("Failed to restore version");
+			}
 		}
 
 		DocumentVersion newVer = DocumentVersion.builder()
@@ -140,17 +169,10 @@ public class VersioningService {
         auditService.logMetadataUpdate(document.getId(), java.util.Map.of("restoredFrom", versionNumber), java.util.Map.of("newVersion", newVersion));
 	}
 
-	private String calculateSha256(MultipartFile file) {
-		try (InputStream inputStream = file.getInputStream()) {
-			MessageDigest digest = MessageDigest.getInstance("SHA-256");
-			byte[] buffer = new byte[8192];
-			int read;
-			while ((read = inputStream.read(buffer)) != -1) {
-				digest.update(buffer, 0, read);
-			}
-			return HexFormat.of().formatHex(digest.digest());
-		} catch (IOException | NoSuchAlgorithmException ex) {
-			throw new ValidationException("Failed to calculate content hash");
+	private DocumentVersion currentVersion(Document document) {
+		if (document.getCurrentVersion() == null || document.getCurrentVersion() <= 1) {
+			return null;
 		}
+		return documentVersionRepository.findByDocumentAndVersionNumber(document, document.getCurrentVersion()).orElse(null);
 	}
 }
@@ -0,0 +1,30 @@
+package com.dms.storage;
+
+import com.azure.core.util.Context;
+import com.azure.storage.blob.models.BlobHttpHeaders;
+import com.azure.storage.blob.options.BlockBlobCommitBlockListOptions;
+import com.azure.storage.blob.specialized.BlockBlobClient;
+import lombok.RequiredArgsConstructor;
+
+import java.io.ByteArrayInputStream;
+import java.util.List;
+
+@RequiredArgsConstructor
+public class AzureBlockStagingClient implements BlockStagingClient {
+
+    private final BlockBlobClient blockBlobClient;
+
+    @Override
+    public void stageBlock(String blockId, byte[] data, int length) {
+        blockBlobClient.stageBlock(blockId, new ByteArrayInputStream(data, 0, length), length);
+    }
+
+    @Override
+    public void commitBlockList(List<String> blockIds, String contentType) {
+        BlockBlobCommitBlockListOptions options = new BlockBlobCommitBlockListOptions(blockIds);
+        if (contentType != null) {
+            options.setHeaders(new BlobHttpHeaders().setContentType(contentType));
+        }
+        blockBlobClient.commitBlockListWithResponse(options, null, Context.NONE);
+    }
+}
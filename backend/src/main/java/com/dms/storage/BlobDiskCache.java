@@ -0,0 +1,282 @@
+package com.dms.storage;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+/**
+ * Bounded read-through disk cache for remote blobs. Entries live under
+ * {@code <directory>/<sha256(blobPath)>/<contentHash>.blob}, so a new version of a blob never
+ * serves stale bytes and {@link #invalidate(String)} can drop every entry of a path at once.
+ * Concurrent misses for the same entry share one fetch; eviction is least-recently-used by size.
+ */
+@Component
+@Slf4j
+public class BlobDiskCache {
+
+    private static final String SUFFIX = ".blob";
+
+    private final boolean enabled;
+    private final Path directory;
+    private final long maxBytes;
+    private final LinkedHashMap<String, Long> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final ConcurrentHashMap<String, CompletableFuture<Path>> inFlight = new ConcurrentHashMap<>();
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter evictions;
+    private long cachedBytes;
+
+    @Autowired
+    public BlobDiskCache(
+            @Value("${dms.blob.disk-cache.enabled:false}") boolean enabled,
+            @Value("${dms.blob.disk-cache.directory:./target/blob-cache}") String directory,
+            @Value("${dms.blob.disk-cache.max-bytes:1073741824}") long maxBytes,
+            MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        this.directory = Path.of(directory).toAbsolutePath().normalize();
+        this.maxBytes = Math.max(0, maxBytes);
+        this.hits = meterRegistry.counter("dms.blob.cache.requests", "result", "hit");
+        this.misses = meterRegistry.counter("dms.blob.cache.requests", "result", "miss");
+        this.evictions = meterRegistry.counter("dms.blob.cache.evictions");
+        Gauge.builder("dms.blob.cache.size", this, BlobDiskCache::getCachedBytes)
+            .baseUnit("bytes")
+            .register(meterRegistry);
+        if (enabled) {
+            loadExistingEntries();
+        }
+    }
+
+    public static BlobDiskCache disabled() {
+        return new BlobDiskCache(false, "./target/blob-cache", 0, new SimpleMeterRegistry());
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Returns the cached file for the blob, fetching it through {@code loader} on a miss.
+     * Callers check {@link #isEnabled()} first.
+     */
+    public Path fetch(String blobPath, String contentHash, BlobLoader loader) throws IOException {
+        String key = key(blobPath, contentHash);
+        Path cached = lookup(key);
+        if (cached != null) {
+            hits.increment();
+            return cached;
+        }
+
+        misses.increment();
+        CompletableFuture<Path> pending = new CompletableFuture<>();
+        CompletableFuture<Path> existing = inFlight.putIfAbsent(key, pending);
+        if (existing != null) {
+            return await(existing);
+        }
+        try {
+            // Another caller may have finished populating between our lookup and claiming the key.
+            Path populated = lookup(key);
+            pending.complete(populated != null ? populated : populate(key, loader));
+        } catch (IOException | RuntimeException e) {
+            pending.completeExceptionally(e);
+        } finally {
+            inFlight.remove(key, pending);
+        }
+        return await(pending);
+    }
+
+    /**
+     * Drops every cached version of the blob.
+     */
+    public void invalidate(String blobPath) {
+        if (!enabled) {
+            return;
+        }
+        String prefix = pathKey(blobPath) + "/";
+        List<String> removed = new ArrayList<>();
+        synchronized (this) {
+            entries.keySet().removeIf(key -> {
+                if (key.startsWith(prefix)) {
+                    removed.add(key);
+                    return true;
+                }
+                return false;
+            });
+        }
+        for (String key : removed) {
+            deleteQuietly(key, true);
+        }
+    }
+
+    public synchronized long getCachedBytes() {
+        return cachedBytes;
+    }
+
+    private synchronized Path lookup(String key) {
+        if (entries.get(key) == null) {
+            return null;
+        }
+        Path cached = resolve(key);
+        if (Files.exists(cached)) {
+            return cached;
+        }
+        remove(key);
+        return null;
+    }
+
+    private Path populate(String key, BlobLoader loader) throws IOException {
+        Path target = resolve(key);
+        Path partial = target.resolveSibling(target.getFileName() + "." + UUID.randomUUID() + ".part");
+        Files.createDirectories(target.getParent());
+        try (InputStream content = loader.open()) {
+            Files.copy(content, partial, StandardCopyOption.REPLACE_EXISTING);
+            Files.move(partial, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(partial);
+        }
+        long size = Files.size(target);
+        synchronized (this) {
+            Long previous = entries.put(key, size);
+            cachedBytes += size - (previous == null ? 0 : previous);
+            evictOverflow(key);
+        }
+        return target;
+    }
+
+    private void evictOverflow(String keep) {
+        List<String> evicted = new ArrayList<>();
+        Iterator<Map.Entry<String, Long>> iterator = entries.entrySet().iterator();
+        while (cachedBytes > maxBytes && iterator.hasNext()) {
+            Map.Entry<String, Long> eldest = iterator.next();
+            if (eldest.getKey().equals(keep)) {
+                continue;
+            }
+            cachedBytes -= eldest.getValue();
+            iterator.remove();
+            evicted.add(eldest.getKey());
+        }
+        for (String key : evicted) {
+            evictions.increment();
+            // Readers that already opened the file keep their handle; only the directory entry goes.
+            deleteQuietly(key, false);
+        }
+    }
+
+    private void remove(String key) {
+        Long size = entries.remove(key);
+        if (size != null) {
+            cachedBytes -= size;
+        }
+    }
+
+    private void loadExistingEntries() {
+        try {
+            Files.createDirectories(directory);
+            List<Path> files;
+            try (Stream<Path> walk = Files.walk(directory, 2)) {
+                files = walk.filter(path -> path.getFileName().toString().endsWith(SUFFIX))
+                    .sorted(Comparator.comparingLong(BlobDiskCache::lastModified))
+                    .toList();
+            }
+            synchronized (this) {
+                for (Path file : files) {
+                    String key = directory.relativize(file).toString().replace('\\', '/');
+                    key = key.substring(0, key.length() - SUFFIX.length());
+                    long size = Files.size(file);
+                    entries.put(key, size);
+                    cachedBytes += size;
+                }
+                evictOverflow(null);
+            }
+            log.info("Blob disk cache at {} holds {} entries ({} bytes)", directory, entries.size(), cachedBytes);
+        } catch (IOException | UncheckedIOException e) {
+            log.warn("Could not scan blob disk cache at {}: {}", directory, e.getMessage());
+        }
+    }
+
+    private void deleteQuietly(String key, boolean pruneDirectory) {
+        Path file = resolve(key);
+        try {
+            Files.deleteIfExists(file);
+            if (pruneDirectory) {
+                try (Stream<Path> remaining = Files.list(file.getParent())) {
+                    if (remaining.findAny().isEmpty()) {
+                        Files.deleteIfExists(file.getParent());
+                    }
+                }
+            }
+        } catch (IOException e) {
+            log.debug("Could not delete cached blob {}: {}", file, e.getMessage());
+        }
+    }
+
+    private Path resolve(String key) {
+        return directory.resolve(key + SUFFIX);
+    }
+
+    private static String key(String blobPath, String contentHash) {
+        return pathKey(blobPath) + "/" + contentHash.replaceAll("[^A-Za-z0-9]", "");
+    }
+
+    private static String pathKey(String blobPath) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(blobPath.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 algorithm unavailable", e);
+        }
+    }
+
+    private static long lastModified(Path path) {
+        try {
+            return Files.getLastModifiedTime(path).toMillis();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static Path await(CompletableFuture<Path> future) throws IOException {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof IOException io) {
+                throw io;
+            }
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw e;
+        }
+    }
+
+    @FunctionalInterface
+    public interface BlobLoader {
+        InputStream open() throws IOException;
+    }
+}
@@ -0,0 +1,12 @@
+package com.dms.storage;
+
+import java.io.InputStream;
+
+/**
+ * Opens byte ranges of one blob whose access has already been authorized.
+ */
+@FunctionalInterface
+public interface BlobRangeReader {
+
+    InputStream open(long startInclusive, long endInclusive);
+}
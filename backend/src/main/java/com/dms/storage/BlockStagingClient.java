@@ -0,0 +1,21 @@
+package com.dms.storage;
+
+import java.util.List;
+
+/**
+ * Minimal block-blob surface used by {@link BlockUploadEngine}, so the engine can run
+ * against Azure or a local stand-in.
+ */
+public interface BlockStagingClient {
+
+    void stageBlock(String blockId, byte[] data, int length);
+
+    void commitBlockList(List<String> blockIds, String contentType);
+
+    /**
+     * Discards blocks that were staged but never committed. Azure garbage-collects uncommitted
+     * blocks on its own, so the default does nothing.
+     */
+    default void abort() {
+    }
+}
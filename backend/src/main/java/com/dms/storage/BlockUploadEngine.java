@@ -0,0 +1,151 @@
+package com.dms.storage;
+
+import com.dms.exception.BlobStorageException;
+import com.dms.exception.DmsException;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Splits a stream into fixed-size blocks, stages them in parallel and commits the block list
+ * (with content-type headers) in a single call. Only blocks that fail are retried.
+ * Heap per upload is bounded by {@code parallelism * blockSizeBytes}.
+ */
+@Component
+@Slf4j
+public class BlockUploadEngine {
+
+    private static final long RETRY_BACKOFF_MILLIS = 200;
+
+    private final int blockSizeBytes;
+    private final int parallelism;
+    private final int maxRetries;
+    private final ExecutorService executor;
+
+    public BlockUploadEngine(
+            @Value("${dms.blob.block-upload.block-size-bytes:4194304}") int blockSizeBytes,
+            @Value("${dms.blob.block-upload.parallelism:4}") int parallelism,
+            @Value("${dms.blob.block-upload.max-retries:3}") int maxRetries,
+            @Value("${dms.blob.block-upload.threads:16}") int threads) {
+        this.blockSizeBytes = Math.max(64 * 1024, blockSizeBytes);
+        this.parallelism = Math.max(1, parallelism);
+        this.maxRetries = Math.max(0, maxRetries);
+        AtomicInteger threadCounter = new AtomicInteger();
+        int poolSize = Math.max(1, threads);
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(),
+            runnable -> {
+                Thread thread = new Thread(runnable, "blob-block-upload-" + threadCounter.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        ((ThreadPoolExecutor) executor).allowCoreThreadTimeOut(true);
+    }
+
+    public int getBlockSizeBytes() {
+        return blockSizeBytes;
+    }
+
+    /**
+     * Stages the stream as blocks and commits them; returns the number of bytes uploaded.
+     */
+    public long upload(InputStream content, BlockStagingClient target, String contentType) {
+        BlockingQueue<byte[]> buffers = new ArrayBlockingQueue<>(parallelism);
+        for (int i = 0; i < parallelism; i++) {
+            buffers.add(new byte[blockSizeBytes]);
+        }
+
+        List<String> blockIds = new ArrayList<>();
+        List<CompletableFuture<Void>> staged = new ArrayList<>();
+        AtomicBoolean failed = new AtomicBoolean(false);
+        long totalBytes = 0;
+        try {
+            while (!failed.get()) {
+                byte[] buffer = buffers.take();
+                int length = content.readNBytes(buffer, 0, blockSizeBytes);
+                if (length == 0) {
+                    buffers.add(buffer);
+                    break;
+                }
+                String blockId = blockId(blockIds.size());
+                blockIds.add(blockId);
+                totalBytes += length;
+                staged.add(CompletableFuture.runAsync(() -> stageWithRetry(target, blockId, buffer, length), executor)
+                    .whenComplete((ignored, error) -> {
+                        if (error != null) {
+                            failed.set(true);
+                        }
+                        buffers.add(buffer);
+                    }));
+                if (length < blockSizeBytes) {
+                    break;
+                }
+            }
+            CompletableFuture.allOf(staged.toArray(new CompletableFuture[0])).join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new BlobStorageException("Block upload interrupted", e);
+        } catch (IOException e) {
+            throw new BlobStorageException("Failed to read upload stream", e);
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause() == null ? e : e.getCause();
+            if (cause instanceof DmsException dmsException) {
+                throw dmsException;
+            }
+            throw new BlobStorageException("Block staging failed", cause);
+        }
+
+        target.commitBlockList(blockIds, contentType);
+        log.debug("Committed {} blocks ({} bytes)", blockIds.size(), totalBytes);
+        return totalBytes;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    private void stageWithRetry(BlockStagingClient target, String blockId, byte[] buffer, int length) {
+        int attempt = 0;
+        while (true) {
+            try {
+                target.stageBlock(blockId, buffer, length);
+                return;
+            } catch (RuntimeException ex) {
+                if (attempt >= maxRetries) {
+                    throw ex;
+                }
+                attempt++;
+                log.warn("Retrying block {} (attempt {}/{}): {}", blockId, attempt, maxRetries, ex.getMessage());
+                try {
+                    Thread.sleep(RETRY_BACKOFF_MILLIS * attempt);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    throw ex;
+                }
+            }
+        }
+    }
+
+    static String blockId(int index) {
+        // Azure requires all block ids of a blob to have the same encoded length.
+        return Base64.getEncoder().encodeToString(String.format("block-%08d", index).getBytes(StandardCharsets.US_ASCII));
+    }
+}
@@ -0,0 +1,225 @@
+package com.dms.storage;
+
+import com.dms.exception.BlobStorageException;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PushbackInputStream;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Streams a ZIP archive of blobs straight to the response. While one entry is written the next
+ * {@code prefetch} blobs are opened and buffered in parallel; a blob that fits its buffer becomes a
+ * STORED entry (PDFs are already compressed), larger blobs are streamed through after their buffered
+ * prefix. Heap per archive is bounded by {@code prefetch * bufferBytes} regardless of the entry count.
+ */
+@Component
+@Slf4j
+public class BulkArchiveWriter {
+
+    private final int prefetch;
+    private final int bufferBytes;
+    private final ExecutorService executor;
+
+    public BulkArchiveWriter(
+            @Value("${dms.bulk-download.prefetch:4}") int prefetch,
+            @Value("${dms.bulk-download.buffer-bytes:8388608}") int bufferBytes,
+            @Value("${dms.bulk-download.threads:8}") int threads) {
+        this.prefetch = Math.max(1, prefetch);
+        this.bufferBytes = Math.max(64 * 1024, bufferBytes);
+        AtomicInteger threadCounter = new AtomicInteger();
+        int poolSize = Math.max(1, threads);
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(),
+            runnable -> {
+                Thread thread = new Thread(runnable, "bulk-archive-prefetch-" + threadCounter.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        ((ThreadPoolExecutor) executor).allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * Binds the entries to a loader; nothing is read until {@link Archive#writeTo(OutputStream)}.
+     */
+    public Archive prepare(List<ArchiveEntry> entries, EntryLoader loader) {
+        return new Archive(List.copyOf(entries), loader);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    private void write(List<ArchiveEntry> entries, EntryLoader loader, OutputStream out) throws IOException {
+        ZipOutputStream zip = new ZipOutputStream(out);
+        // Only oversized entries are deflated, and those are PDFs too; don't spend CPU recompressing them.
+        zip.setLevel(Deflater.NO_COMPRESSION);
+        Deque<CompletableFuture<PrefetchedEntry>> window = new ArrayDeque<>();
+        int next = 0;
+        try {
+            while (next < entries.size() && window.size() < prefetch) {
+                window.add(submit(entries.get(next++), loader));
+            }
+            while (!window.isEmpty()) {
+                PrefetchedEntry entry = await(window.poll());
+                if (next < entries.size()) {
+                    window.add(submit(entries.get(next++), loader));
+                }
+                try (entry) {
+                    writeEntry(zip, entry);
+                }
+            }
+            zip.finish();
+            zip.flush();
+        } finally {
+            // A client that disconnects mid-archive must not leave prefetched streams open.
+            for (CompletableFuture<PrefetchedEntry> pending : window) {
+                pending.thenAccept(PrefetchedEntry::close);
+            }
+        }
+    }
+
+    private CompletableFuture<PrefetchedEntry> submit(ArchiveEntry entry, EntryLoader loader) {
+        return CompletableFuture.supplyAsync(() -> prefetch(entry, loader), executor);
+    }
+
+    private PrefetchedEntry prefetch(ArchiveEntry entry, EntryLoader loader) {
+        InputStream content = null;
+        try {
+            content = loader.open(entry);
+            int capacity = entry.sizeHint() > 0 ? (int) Math.min(bufferBytes, entry.sizeHint()) : bufferBytes;
+            byte[] buffer = content.readNBytes(capacity);
+            if (buffer.length < capacity) {
+                content.close();
+                return PrefetchedEntry.complete(entry, buffer);
+            }
+            PushbackInputStream rest = new PushbackInputStream(content, 1);
+            int nextByte = rest.read();
+            if (nextByte < 0) {
+                rest.close();
+                return PrefetchedEntry.complete(entry, buffer);
+            }
+            rest.unread(nextByte);
+            return new PrefetchedEntry(entry, buffer, 0, rest);
+        } catch (IOException | RuntimeException e) {
+            closeQuietly(content);
+            throw new BlobStorageException("Failed to read " + entry.name() + " for archive", e);
+        }
+    }
+
+    private static void writeEntry(ZipOutputStream zip, PrefetchedEntry entry) throws IOException {
+        ZipEntry zipEntry = new ZipEntry(entry.entry.name());
+        if (entry.remainder == null) {
+            zipEntry.setMethod(ZipEntry.STORED);
+            zipEntry.setSize(entry.buffer.length);
+            zipEntry.setCompressedSize(entry.buffer.length);
+            zipEntry.setCrc(entry.crc);
+            zip.putNextEntry(zipEntry);
+            zip.write(entry.buffer);
+        } else {
+            zipEntry.setMethod(ZipEntry.DEFLATED);
+            zip.putNextEntry(zipEntry);
+            zip.write(entry.buffer);
+            entry.remainder.transferTo(zip);
+        }
+        zip.closeEntry();
+    }
+
+    private static PrefetchedEntry await(CompletableFuture<PrefetchedEntry> future) throws IOException {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IOException(e.getCause());
+        }
+    }
+
+    private static void closeQuietly(InputStream content) {
+        if (content == null) {
+            return;
+        }
+        try {
+            content.close();
+        } catch (IOException e) {
+            log.debug("Could not close archive source: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * One archive entry; {@code sizeHint} (the stored file size, or a negative value when unknown) sizes the
+     * prefetch buffer so small documents don't reserve a full buffer.
+     */
+    public record ArchiveEntry(String name, String blobPath, String contentHash, long sizeHint) {
+    }
+
+    @FunctionalInterface
+    public interface EntryLoader {
+        InputStream open(ArchiveEntry entry) throws IOException;
+    }
+
+    public final class Archive {
+
+        private final List<ArchiveEntry> entries;
+        private final EntryLoader loader;
+
+        private Archive(List<ArchiveEntry> entries, EntryLoader loader) {
+            this.entries = entries;
+            this.loader = loader;
+        }
+
+        public int getEntryCount() {
+            return entries.size();
+        }
+
+        public void writeTo(OutputStream out) throws IOException {
+            write(entries, loader, out);
+        }
+    }
+
+    private static final class PrefetchedEntry implements AutoCloseable {
+
+        private final ArchiveEntry entry;
+        private final byte[] buffer;
+        private final long crc;
+        private final InputStream remainder;
+
+        private PrefetchedEntry(ArchiveEntry entry, byte[] buffer, long crc, InputStream remainder) {
+            this.entry = entry;
+            this.buffer = buffer;
+            this.crc = crc;
+            this.remainder = remainder;
+        }
+
+        private static PrefetchedEntry complete(ArchiveEntry entry, byte[] buffer) {
+            // Computed on the prefetch thread so the writer only copies bytes.
+            CRC32 crc = new CRC32();
+            crc.update(buffer);
+            return new PrefetchedEntry(entry, buffer, crc.getValue(), null);
+        }
+
+        @Override
+        public void close() {
+            closeQuietly(remainder);
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package com.dms.storage;
+
+import org.springframework.core.io.AbstractResource;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * A blob on the local store. Whole-file writes go through {@link FileChannel#transferTo} and partial
+ * writes come straight from a cached mapping when there is one, so neither stages bytes in user-space
+ * buffers. The file path is exposed so the servlet container can serve it with sendfile.
+ */
+public class LocalBlobResource extends AbstractResource {
+
+    private final Path path;
+    private final long size;
+    private final ByteBuffer mapped;
+
+    public LocalBlobResource(Path path, long size, ByteBuffer mapped) {
+        this.path = path;
+        this.size = size;
+        this.mapped = mapped;
+    }
+
+    public Path getPath() {
+        return path;
+    }
+
+    @Override
+    public boolean exists() {
+        return mapped != null || Files.exists(path);
+    }
+
+    @Override
+    public boolean isFile() {
+        return true;
+    }
+
+    @Override
+    public File getFile() {
+        return path.toFile();
+    }
+
+    @Override
+    public long contentLength() {
+        return size;
+    }
+
+    @Override
+    public String getDescription() {
+        return "local blob [" + path + "]";
+    }
+
+    @Override
+    public InputStream getInputStream() throws IOException {
+        if (mapped != null) {
+            return new ByteBufferInputStream(mapped);
+        }
+        return Files.newInputStream(path);
+    }
+
+    @Override
+    public ReadableByteChannel readableChannel() throws IOException {
+        if (mapped != null) {
+            return Channels.newChannel(new ByteBufferInputStream(mapped));
+        }
+        return FileChannel.open(path, StandardOpenOption.READ);
+    }
+
+    /**
+     * Copies the whole file to the stream with {@link FileChannel#transferTo}, mapped or not: the kernel
+     * moves the pages directly, where writing a mapping would copy them through the JVM.
+     */
+    public void writeTo(OutputStream out) throws IOException {
+        transferTo(Channels.newChannel(out), 0, size);
+    }
+
+    /**
+     * Copies {@code count} bytes starting at {@code position} to the stream without staging them on the heap.
+     */
+    public void writeTo(OutputStream out, long position, long count) throws IOException {
+        WritableByteChannel target = Channels.newChannel(out);
+        if (mapped != null) {
+            ByteBuffer slice = mapped.duplicate();
+            slice.position((int) position).limit((int) Math.min(size, position + count));
+            while (slice.hasRemaining()) {
+                target.write(slice);
+            }
+            return;
+        }
+        transferTo(target, position, count);
+    }
+
+    private void transferTo(WritableByteChannel target, long position, long count) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long end = Math.min(size, position + count);
+            long offset = position;
+            while (offset < end) {
+                long transferred = channel.transferTo(offset, end - offset, target);
+                if (transferred <= 0) {
+                    break;
+                }
+                offset += transferred;
+            }
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.dms.storage;
+
+import com.dms.exception.BlobStorageException;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * File-system stand-in for Azure block staging: each block is written to
+ * {@code <target>.blocks/<hex(blockId)>} and committing concatenates the listed blocks into the target.
+ */
+@Slf4j
+public class LocalBlockStagingClient implements BlockStagingClient {
+
+    private final Path target;
+    private final Path blockDirectory;
+
+    public LocalBlockStagingClient(Path target) {
+        this.target = target;
+        this.blockDirectory = target.resolveSibling(target.getFileName() + ".blocks");
+    }
+
+    @Override
+    public void stageBlock(String blockId, byte[] data, int length) {
+        try {
+            Files.createDirectories(blockDirectory);
+            Path block = blockFile(blockId);
+            try (OutputStream out = Files.newOutputStream(block)) {
+                out.write(data, 0, length);
+            }
+        } catch (IOException e) {
+            throw new BlobStorageException("Failed to stage block " + blockId, e);
+        }
+    }
+
+    @Override
+    public void commitBlockList(List<String> blockIds, String contentType) {
+        Path partial = target.resolveSibling(target.getFileName() + ".part");
+        try {
+            Files.createDirectories(target.getParent());
+            try (FileChannel out = FileChannel.open(partial,
+                    StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+                for (String blockId : blockIds) {
+                    try (FileChannel in = FileChannel.open(blockFile(blockId), StandardOpenOption.READ)) {
+                        long size = in.size();
+                        long position = 0;
+                        while (position < size) {
+                            position += in.transferTo(position, size - position, out);
+                        }
+                    }
+                }
+            }
+            Files.move(partial, target, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            throw new BlobStorageException("Failed to commit staged blocks", e);
+        } finally {
+            deleteQuietly(partial);
+        }
+        abort();
+    }
+
+    @Override
+    public void abort() {
+        if (!Files.isDirectory(blockDirectory)) {
+            return;
+        }
+        try (Stream<Path> blocks = Files.walk(blockDirectory)) {
+            blocks.sorted(Comparator.reverseOrder()).forEach(LocalBlockStagingClient::deleteQuietly);
+        } catch (IOException e) {
+            log.warn("Could not remove staged blocks in {}: {}", blockDirectory, e.getMessage());
+        }
+    }
+
+    private Path blockFile(String blockId) {
+        // Block ids are Base64 and may contain '/', so they are hex-encoded for the file name.
+        return blockDirectory.resolve(HexFormat.of().formatHex(blockId.getBytes(StandardCharsets.US_ASCII)));
+    }
+
+    private static void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            log.debug("Could not delete {}: {}", path, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package com.dms.storage;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * LRU cache of read-only memory mappings for hot local blobs, bounded by total mapped bytes.
+ * Entries are keyed by path and trusted until {@link #invalidate} drops them; every write and delete
+ * in the blob store invalidates its path, so a lookup costs no file-system call.
+ * Evicted mappings are released by the garbage collector; the JDK has no supported explicit unmap.
+ */
+@Component
+@Slf4j
+public class MappedRegionCache {
+
+    private final boolean enabled;
+    private final long maxBytes;
+    private final long maxFileBytes;
+    private final LinkedHashMap<Path, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long mappedBytes;
+
+    public MappedRegionCache(
+            @Value("${dms.local-storage.mmap-cache.enabled:false}") boolean enabled,
+            @Value("${dms.local-storage.mmap-cache.max-bytes:268435456}") long maxBytes,
+            @Value("${dms.local-storage.mmap-cache.max-file-bytes:16777216}") long maxFileBytes) {
+        this.enabled = enabled;
+        this.maxBytes = Math.max(0, maxBytes);
+        this.maxFileBytes = Math.min(Math.max(0, maxFileBytes), Integer.MAX_VALUE);
+    }
+
+    public static MappedRegionCache disabled() {
+        return new MappedRegionCache(false, 0, 0);
+    }
+
+    /**
+     * Returns a read-only view of the mapped file, mapping it on first access.
+     * Returns {@code null} when caching is disabled or the file is too large to map.
+     */
+    public ByteBuffer get(Path path) throws IOException {
+        if (!enabled) {
+            return null;
+        }
+        synchronized (this) {
+            Entry cached = entries.get(path);
+            if (cached != null) {
+                return cached.buffer.asReadOnlyBuffer();
+            }
+        }
+
+        MappedByteBuffer mapped;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size == 0 || size > maxFileBytes || size > maxBytes) {
+                return null;
+            }
+            mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+        }
+
+        synchronized (this) {
+            Entry existing = entries.get(path);
+            if (existing != null) {
+                return existing.buffer.asReadOnlyBuffer();
+            }
+            entries.put(path, new Entry(mapped, mapped.capacity()));
+            mappedBytes += mapped.capacity();
+            evictOverflow();
+        }
+        return mapped.asReadOnlyBuffer();
+    }
+
+    public synchronized void invalidate(Path path) {
+        remove(path);
+    }
+
+    public synchronized long getMappedBytes() {
+        return mappedBytes;
+    }
+
+    private void remove(Path path) {
+        Entry removed = entries.remove(path);
+        if (removed != null) {
+            mappedBytes -= removed.size;
+        }
+    }
+
+    private void evictOverflow() {
+        Iterator<Map.Entry<Path, Entry>> iterator = entries.entrySet().iterator();
+        while (mappedBytes > maxBytes && iterator.hasNext()) {
+            Map.Entry<Path, Entry> eldest = iterator.next();
+            mappedBytes -= eldest.getValue().size;
+            iterator.remove();
+            log.debug("Evicted mapped blob {}", eldest.getKey());
+        }
+    }
+
+    private record Entry(MappedByteBuffer buffer, long size) {
+    }
+}
@@ -0,0 +1,115 @@
+package com.dms.storage;
+
+import com.dms.exception.BlobStorageException;
+import com.dms.exception.ValidationException;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PushbackInputStream;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * Single-pass upload stream: validates the PDF magic bytes from a peeked prefix,
+ * enforces the upload size limit and computes SHA-256 while the bytes flow to storage.
+ */
+public final class PdfUploadStream extends FilterInputStream {
+
+    private static final byte[] PDF_MAGIC_BYTES = new byte[] { '%', 'P', 'D', 'F', '-' };
+
+    private final MessageDigest digest;
+    private final long maxBytes;
+    private long bytesRead;
+    private boolean limitExceeded;
+    private String sha256;
+
+    private PdfUploadStream(InputStream source, MessageDigest digest, long maxBytes) {
+        super(new DigestInputStream(source, digest));
+        this.digest = digest;
+        this.maxBytes = maxBytes;
+    }
+
+    public static PdfUploadStream open(InputStream source, long maxBytes) throws IOException {
+        PushbackInputStream pushback = new PushbackInputStream(source, PDF_MAGIC_BYTES.length);
+        byte[] prefix = pushback.readNBytes(PDF_MAGIC_BYTES.length);
+        if (prefix.length < PDF_MAGIC_BYTES.length) {
+            source.close();
+            throw new ValidationException("Invalid PDF file");
+        }
+        for (int i = 0; i < PDF_MAGIC_BYTES.length; i++) {
+            if (prefix[i] != PDF_MAGIC_BYTES[i]) {
+                source.close();
+                throw new ValidationException("Uploaded file must be a PDF");
+            }
+        }
+        pushback.unread(prefix);
+        try {
+            return new PdfUploadStream(pushback, MessageDigest.getInstance("SHA-256"), maxBytes);
+        } catch (NoSuchAlgorithmException e) {
+            source.close();
+            throw new BlobStorageException("SHA-256 algorithm unavailable", e);
+        }
+    }
+
+    @Override
+    public int read() throws IOException {
+        int value = super.read();
+        if (value >= 0) {
+            count(1);
+        }
+        return value;
+    }
+
+    @Override
+    public int read(byte[] buffer, int offset, int length) throws IOException {
+        int read = super.read(buffer, offset, length);
+        if (read > 0) {
+            count(read);
+        }
+        return read;
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+        // Skipping would bypass the digest; storage clients must consume every byte.
+        throw new IOException("Skipping is not supported on upload streams");
+    }
+
+    @Override
+    public boolean markSupported() {
+        return false;
+    }
+
+    public long getBytesRead() {
+        return bytesRead;
+    }
+
+    public boolean isLimitExceeded() {
+        return limitExceeded;
+    }
+
+    /**
+     * Drains any bytes the storage client left unread and returns the hex digest of the full stream.
+     */
+    public String getSha256() throws IOException {
+        if (sha256 == null) {
+            byte[] buffer = new byte[8192];
+            while (read(buffer, 0, buffer.length) >= 0) {
+                // consume remaining bytes so the digest covers the whole upload
+            }
+            sha256 = HexFormat.of().formatHex(digest.digest());
+        }
+        return sha256;
+    }
+
+    private void count(int read) {
+        bytesRead += read;
+        if (bytesRead > maxBytes) {
+            limitExceeded = true;
+            throw new ValidationException("File exceeds maximum upload size of " + maxBytes + " bytes");
+        }
+    }
+}
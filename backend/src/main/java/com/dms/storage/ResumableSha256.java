@@ -0,0 +1,185 @@
+package com.dms.storage;
+
+import com.dms.exception.ValidationException;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.HexFormat;
+
+/**
+ * SHA-256 (FIPS 180-4) whose running state can be exported after any number of bytes and restored in
+ * another process. {@link java.security.MessageDigest} keeps its state private, which ties a hash built
+ * across requests to the instance that started it.
+ * <p>
+ * The exported state is the eight chaining words, the byte count and the unprocessed tail of the last
+ * block: at most 103 bytes before Base64.
+ */
+public final class ResumableSha256 {
+
+    private static final int[] INITIAL = {
+        0x6a09e667, 0xbb67ae85, 0x3c6ef372, 0xa54ff53a, 0x510e527f, 0x9b05688c, 0x1f83d9ab, 0x5be0cd19
+    };
+
+    private static final int[] K = {
+        0x428a2f98, 0x71374491, 0xb5c0fbcf, 0xe9b5dba5, 0x3956c25b, 0x59f111f1, 0x923f82a4, 0xab1c5ed5,
+        0xd807aa98, 0x12835b01, 0x243185be, 0x550c7dc3, 0x72be5d74, 0x80deb1fe, 0x9bdc06a7, 0xc19bf174,
+        0xe49b69c1, 0xefbe4786, 0x0fc19dc6, 0x240ca1cc, 0x2de92c6f, 0x4a7484aa, 0x5cb0a9dc, 0x76f988da,
+        0x983e5152, 0xa831c66d, 0xb00327c8, 0xbf597fc7, 0xc6e00bf3, 0xd5a79147, 0x06ca6351, 0x14292967,
+        0x27b70a85, 0x2e1b2138, 0x4d2c6dfc, 0x53380d13, 0x650a7354, 0x766a0abb, 0x81c2c92e, 0x92722c85,
+        0xa2bfe8a1, 0xa81a664b, 0xc24b8b70, 0xc76c51a3, 0xd192e819, 0xd6990624, 0xf40e3585, 0x106aa070,
+        0x19a4c116, 0x1e376c08, 0x2748774c, 0x34b0bcb5, 0x391c0cb3, 0x4ed8aa4a, 0x5b9cca4f, 0x682e6ff3,
+        0x748f82ee, 0x78a5636f, 0x84c87814, 0x8cc70208, 0x90befffa, 0xa4506ceb, 0xbef9a3f7, 0xc67178f2
+    };
+
+    private static final int BLOCK_BYTES = 64;
+    private static final int STATE_HEADER_BYTES = Long.BYTES + INITIAL.length * Integer.BYTES;
+
+    private final int[] h;
+    private final byte[] block = new byte[BLOCK_BYTES];
+    private final int[] w = new int[64];
+    private long length;
+
+    public ResumableSha256() {
+        this.h = INITIAL.clone();
+    }
+
+    private ResumableSha256(int[] h, long length, byte[] tail) {
+        this.h = h;
+        this.length = length;
+        System.arraycopy(tail, 0, block, 0, tail.length);
+    }
+
+    /**
+     * Restores a hash from {@link #exportState()}.
+     */
+    public static ResumableSha256 restore(String state) {
+        byte[] bytes;
+        try {
+            bytes = Base64.getDecoder().decode(state);
+        } catch (IllegalArgumentException e) {
+            throw new ValidationException("Invalid SHA-256 state");
+        }
+        if (bytes.length < STATE_HEADER_BYTES) {
+            throw new ValidationException("Invalid SHA-256 state");
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        long length = buffer.getLong();
+        int[] h = new int[INITIAL.length];
+        for (int i = 0; i < h.length; i++) {
+            h[i] = buffer.getInt();
+        }
+        if (length < 0 || buffer.remaining() != (int) (length % BLOCK_BYTES)) {
+            throw new ValidationException("Invalid SHA-256 state");
+        }
+        byte[] tail = new byte[buffer.remaining()];
+        buffer.get(tail);
+        return new ResumableSha256(h, length, tail);
+    }
+
+    public void update(byte[] data, int offset, int count) {
+        int buffered = (int) (length % BLOCK_BYTES);
+        length += count;
+        int position = offset;
+        int end = offset + count;
+        if (buffered > 0) {
+            int take = Math.min(BLOCK_BYTES - buffered, count);
+            System.arraycopy(data, position, block, buffered, take);
+            position += take;
+            if (buffered + take < BLOCK_BYTES) {
+                return;
+            }
+            compress(block, 0);
+        }
+        for (; end - position >= BLOCK_BYTES; position += BLOCK_BYTES) {
+            compress(data, position);
+        }
+        System.arraycopy(data, position, block, 0, end - position);
+    }
+
+    public long length() {
+        return length;
+    }
+
+    public ResumableSha256 copy() {
+        return restore(exportState());
+    }
+
+    /**
+     * The state after the bytes seen so far, for {@link #restore(String)}.
+     */
+    public String exportState() {
+        int buffered = (int) (length % BLOCK_BYTES);
+        ByteBuffer buffer = ByteBuffer.allocate(STATE_HEADER_BYTES + buffered);
+        buffer.putLong(length);
+        for (int word : h) {
+            buffer.putInt(word);
+        }
+        buffer.put(block, 0, buffered);
+        return Base64.getEncoder().encodeToString(buffer.array());
+    }
+
+    /**
+     * Hex digest of the bytes seen so far; the hash itself can keep going.
+     */
+    public String hexDigest() {
+        int buffered = (int) (length % BLOCK_BYTES);
+        int paddedLength = buffered < BLOCK_BYTES - Long.BYTES ? BLOCK_BYTES : BLOCK_BYTES * 2;
+        byte[] padding = new byte[paddedLength];
+        System.arraycopy(block, 0, padding, 0, buffered);
+        padding[buffered] = (byte) 0x80;
+        ByteBuffer.wrap(padding).putLong(paddedLength - Long.BYTES, length * 8);
+
+        ResumableSha256 finished = new ResumableSha256(h.clone(), 0, new byte[0]);
+        for (int offset = 0; offset < paddedLength; offset += BLOCK_BYTES) {
+            finished.compress(padding, offset);
+        }
+        ByteBuffer digest = ByteBuffer.allocate(INITIAL.length * Integer.BYTES);
+        Arrays.stream(finished.h).forEach(digest::putInt);
+        return HexFormat.of().formatHex(digest.array());
+    }
+
+    private void compress(byte[] data, int offset) {
+        for (int i = 0; i < 16; i++) {
+            int base = offset + i * 4;
+            w[i] = (data[base] & 0xff) << 24 | (data[base + 1] & 0xff) << 16 | (data[base + 2] & 0xff) << 8 | (data[base + 3] & 0xff);
+        }
+        for (int i = 16; i < 64; i++) {
+            int s0 = Integer.rotateRight(w[i - 15], 7) ^ Integer.rotateRight(w[i - 15], 18) ^ (w[i - 15] >>> 3);
+            int s1 = Integer.rotateRight(w[i - 2], 17) ^ Integer.rotateRight(w[i - 2], 19) ^ (w[i - 2] >>> 10);
+            w[i] = w[i - 16] + s0 + w[i - 7] + s1;
+        }
+        int a = h[0];
+        int b = h[1];
+        int c = h[2];
+        int d = h[3];
+        int e = h[4];
+        int f = h[5];
+        int g = h[6];
+        int hh = h[7];
+        for (int i = 0; i < 64; i++) {
+            int s1 = Integer.rotateRight(e, 6) ^ Integer.rotateRight(e, 11) ^ Integer.rotateRight(e, 25);
+            int ch = (e & f) ^ (~e & g);
+            int t1 = hh + s1 + ch + K[i] + w[i];
+            int s0 = Integer.rotateRight(a, 2) ^ Integer.rotateRight(a, 13) ^ Integer.rotateRight(a, 22);
+            int maj = (a & b) ^ (a & c) ^ (b & c);
+            int t2 = s0 + maj;
+            hh = g;
+            g = f;
+            f = e;
+            e = d + t1;
+            d = c;
+            c = b;
+            b = a;
+            a = t1 + t2;
+        }
+        h[0] += a;
+        h[1] += b;
+        h[2] += c;
+        h[3] += d;
+        h[4] += e;
+        h[5] += f;
+        h[6] += g;
+        h[7] += hh;
+    }
+}
@@ -0,0 +1,202 @@
+package com.dms.storage;
+
+import com.dms.exception.ValidationException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * One resumable upload: numbered parts are streamed into staged blocks as they arrive and the SHA-256
+ * is advanced part by part, so completing the upload needs neither a re-read nor a full copy in memory.
+ * Parts must arrive in order; re-sending the last accepted part replaces it, which lets clients retry a
+ * part whose response was lost. Nothing becomes visible until {@link #complete(String)} commits the blocks.
+ * <p>
+ * The staged state can be captured with {@link #progress()} and picked up elsewhere with
+ * {@link #resume}. The progress carries the exported SHA-256 state, so a resumed upload keeps hashing
+ * where the previous instance stopped.
+ */
+public final class StagedUpload {
+
+    public static final int MAX_PARTS = 10000;
+
+    private static final byte[] PDF_MAGIC_BYTES = new byte[] { '%', 'P', 'D', 'F', '-' };
+
+    private final BlockStagingClient target;
+    private final int blockSizeBytes;
+    private final long maxPartBytes;
+    private final long maxTotalBytes;
+    private final Map<Integer, List<String>> partBlocks = new TreeMap<>();
+    private ResumableSha256 digest = new ResumableSha256();
+    private ResumableSha256 digestBeforeLastPart;
+    private long totalBytes;
+    private long bytesBeforeLastPart;
+    private int lastPartNumber;
+    private int lastPartAttempt;
+    private boolean completed;
+    private String sha256;
+
+    public StagedUpload(BlockStagingClient target, int blockSizeBytes, long maxPartBytes, long maxTotalBytes) {
+        this.target = target;
+        this.blockSizeBytes = Math.max(64 * 1024, blockSizeBytes);
+        this.maxPartBytes = maxPartBytes;
+        this.maxTotalBytes = maxTotalBytes;
+    }
+
+    /**
+     * Picks up an upload staged elsewhere. Blocks already staged stay where they are and hashing continues
+     * from the recorded digest state; progress recorded without that state cannot be resumed.
+     */
+    public static StagedUpload resume(BlockStagingClient target, int blockSizeBytes, long maxPartBytes,
+                                      long maxTotalBytes, Progress progress) {
+        StagedUpload upload = new StagedUpload(target, blockSizeBytes, maxPartBytes, maxTotalBytes);
+        for (int i = 0; i < progress.partBlocks().size(); i++) {
+            upload.partBlocks.put(i + 1, List.copyOf(progress.partBlocks().get(i)));
+        }
+        if (!progress.partBlocks().isEmpty()) {
+            if (progress.digestState() == null || progress.digestStateBeforeLastPart() == null) {
+                throw new ValidationException("Upload was started before resumable hashing; start a new upload");
+            }
+            upload.digest = ResumableSha256.restore(progress.digestState());
+            upload.digestBeforeLastPart = ResumableSha256.restore(progress.digestStateBeforeLastPart());
+        }
+        upload.totalBytes = progress.totalBytes();
+        upload.bytesBeforeLastPart = progress.bytesBeforeLastPart();
+        upload.lastPartNumber = progress.partBlocks().size();
+        upload.lastPartAttempt = progress.lastPartAttempt();
+        return upload;
+    }
+
+    /**
+     * Streams one part into staged blocks and returns its size. Every attempt stages under its own block
+     * ids and the part's block list is swapped in only once the whole part is staged, so a failed part,
+     * including a failed retry of the last one, leaves the recorded blocks untouched.
+     */
+    public synchronized long uploadPart(int partNumber, InputStream content) throws IOException {
+        if (completed) {
+            throw new ValidationException("Upload is already completed");
+        }
+        if (partNumber < 1 || partNumber > MAX_PARTS) {
+            throw new ValidationException("Part number must be between 1 and " + MAX_PARTS);
+        }
+        boolean replacesLastPart = partNumber == lastPartNumber;
+        if (!replacesLastPart && partNumber != lastPartNumber + 1) {
+            throw new ValidationException("Expected part " + (lastPartNumber + 1) + " but received part " + partNumber);
+        }
+
+        ResumableSha256 working = (replacesLastPart ? digestBeforeLastPart : digest).copy();
+        long offset = replacesLastPart ? bytesBeforeLastPart : totalBytes;
+        int attempt = replacesLastPart ? lastPartAttempt + 1 : 0;
+        List<String> blockIds = new ArrayList<>();
+        byte[] buffer = new byte[blockSizeBytes];
+        long partBytes = 0;
+        while (true) {
+            int length = content.readNBytes(buffer, 0, blockSizeBytes);
+            if (length == 0) {
+                break;
+            }
+            if (partNumber == 1 && partBytes == 0) {
+                requirePdfPrefix(buffer, length);
+            }
+            partBytes += length;
+            if (partBytes > maxPartBytes) {
+                throw new ValidationException("Part exceeds maximum size of " + maxPartBytes + " bytes");
+            }
+            if (offset + partBytes > maxTotalBytes) {
+                throw new ValidationException("File exceeds maximum upload size of " + maxTotalBytes + " bytes");
+            }
+            working.update(buffer, 0, length);
+            String blockId = blockId(partNumber, attempt, blockIds.size());
+            target.stageBlock(blockId, buffer, length);
+            blockIds.add(blockId);
+            if (length < blockSizeBytes) {
+                break;
+            }
+        }
+        if (partBytes == 0) {
+            throw new ValidationException("Part must not be empty");
+        }
+
+        if (!replacesLastPart) {
+            digestBeforeLastPart = digest;
+            bytesBeforeLastPart = totalBytes;
+            lastPartNumber = partNumber;
+        }
+        digest = working;
+        totalBytes = offset + partBytes;
+        lastPartAttempt = attempt;
+        partBlocks.put(partNumber, blockIds);
+        return partBytes;
+    }
+
+    /**
+     * Commits every staged block in part order and returns the hex SHA-256 of the assembled content.
+     */
+    public synchronized String complete(String contentType) {
+        if (completed) {
+            return sha256;
+        }
+        if (lastPartNumber == 0) {
+            throw new ValidationException("No parts were uploaded");
+        }
+        List<String> blockIds = new ArrayList<>();
+        partBlocks.values().forEach(blockIds::addAll);
+        target.commitBlockList(blockIds, contentType);
+        sha256 = digest.hexDigest();
+        completed = true;
+        return sha256;
+    }
+
+    public void abort() {
+        target.abort();
+    }
+
+    public synchronized long getTotalBytes() {
+        return totalBytes;
+    }
+
+    public synchronized int getLastPartNumber() {
+        return lastPartNumber;
+    }
+
+    public synchronized boolean isCompleted() {
+        return completed;
+    }
+
+    public synchronized Progress progress() {
+        return new Progress(partBlocks.values().stream().map(List::copyOf).toList(), totalBytes,
+            bytesBeforeLastPart, lastPartAttempt, digest.exportState(),
+            digestBeforeLastPart == null ? null : digestBeforeLastPart.exportState());
+    }
+
+    static String blockId(int partNumber, int attempt, int blockIndex) {
+        // Fixed-width so every id of the blob has the same encoded length, as Azure requires.
+        return Base64.getEncoder().encodeToString(String.format("part-%05d-%05d-%05d", partNumber,
+            attempt % 100000, blockIndex).getBytes(StandardCharsets.US_ASCII));
+    }
+
+    private static void requirePdfPrefix(byte[] buffer, int length) {
+        if (length < PDF_MAGIC_BYTES.length) {
+            throw new ValidationException("Invalid PDF file");
+        }
+        for (int i = 0; i < PDF_MAGIC_BYTES.length; i++) {
+            if (buffer[i] != PDF_MAGIC_BYTES[i]) {
+                throw new ValidationException("Uploaded file must be a PDF");
+            }
+        }
+    }
+
+    /**
+     * What has been staged so far: the block ids of parts 1..n in order, the byte counts, the attempt
+     * number of the last part so a resumed retry does not reuse its block ids, and the exported SHA-256
+     * state after all parts and before the last one.
+     */
+    public record Progress(List<List<String>> partBlocks, long totalBytes, long bytesBeforeLastPart,
+                           int lastPartAttempt, String digestState, String digestStateBeforeLastPart) {
+    }
+}
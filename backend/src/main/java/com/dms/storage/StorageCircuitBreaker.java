@@ -0,0 +1,307 @@
+package com.dms.storage;
+
+import com.dms.exception.BlobStorageException;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Count-based sliding-window circuit breaker with half-open probing, plus a semaphore bulkhead
+ * that caps concurrent calls so a slow storage account sheds load instead of pinning threads.
+ */
+public class StorageCircuitBreaker {
+
+    public enum State {
+        CLOSED,
+        OPEN,
+        HALF_OPEN
+    }
+
+    private final StorageOperation operation;
+    private final boolean[] window;
+    private final int minimumNumberOfCalls;
+    private final float failureRateThreshold;
+    private final long openDurationMillis;
+    private final int halfOpenPermittedCalls;
+    private final int maxConcurrentCalls;
+    private final long maxWaitMillis;
+    private final Semaphore bulkhead;
+    private final Clock clock;
+    private final AtomicLong rejectedCalls = new AtomicLong();
+
+    private State state = State.CLOSED;
+    private int windowIndex;
+    private int bufferedCalls;
+    private int failedCalls;
+    private long openedAtMillis;
+    private int halfOpenInFlight;
+    private int halfOpenSucceeded;
+
+    public StorageCircuitBreaker(StorageOperation operation, int slidingWindowSize, int minimumNumberOfCalls,
+            float failureRateThreshold, Duration openDuration, int halfOpenPermittedCalls,
+            int maxConcurrentCalls, long maxWaitMillis, Clock clock) {
+        this.operation = operation;
+        this.window = new boolean[Math.max(1, slidingWindowSize)];
+        this.minimumNumberOfCalls = Math.max(1, Math.min(minimumNumberOfCalls, window.length));
+        this.failureRateThreshold = failureRateThreshold;
+        this.openDurationMillis = openDuration.toMillis();
+        this.halfOpenPermittedCalls = Math.max(1, halfOpenPermittedCalls);
+        this.maxConcurrentCalls = Math.max(1, maxConcurrentCalls);
+        this.maxWaitMillis = Math.max(0, maxWaitMillis);
+        this.bulkhead = new Semaphore(this.maxConcurrentCalls, true);
+        this.clock = clock;
+    }
+
+    public <T> T execute(StorageCall<T> call, FailureClassifier classifier) throws Exception {
+        acquirePermission();
+        try {
+            acquireBulkhead();
+        } catch (RuntimeException ex) {
+            releaseProbe();
+            throw ex;
+        }
+        try {
+            T result = call.run();
+            onResult(true);
+            return result;
+        } catch (Exception ex) {
+            onResult(!classifier.isServiceFailure(ex));
+            throw ex;
+        } finally {
+            bulkhead.release();
+        }
+    }
+
+    /**
+     * Like {@link #execute} for a call that opens a stream. The bulkhead permit is held until the stream is
+     * closed, so slow readers count against the concurrency cap, and the outcome is recorded then: a failed
+     * read counts against the window like a failed open, a stream closed without one as a success.
+     */
+    public InputStream executeStream(StorageCall<InputStream> call, FailureClassifier classifier) throws Exception {
+        acquirePermission();
+        try {
+            acquireBulkhead();
+        } catch (RuntimeException ex) {
+            releaseProbe();
+            throw ex;
+        }
+        InputStream stream;
+        try {
+            stream = call.run();
+        } catch (Exception ex) {
+            onResult(!classifier.isServiceFailure(ex));
+            bulkhead.release();
+            throw ex;
+        }
+        return new GuardedInputStream(stream, classifier);
+    }
+
+    public synchronized State getState() {
+        currentState();
+        return state;
+    }
+
+    public synchronized float getFailureRate() {
+        return bufferedCalls < minimumNumberOfCalls ? -1f : failedCalls * 100f / bufferedCalls;
+    }
+
+    public synchronized void reset() {
+        transitionTo(State.CLOSED);
+    }
+
+    public synchronized Map<String, Object> snapshot() {
+        currentState();
+        Map<String, Object> details = new LinkedHashMap<>();
+        details.put("state", state.name());
+        details.put("failureRate", getFailureRate());
+        details.put("bufferedCalls", bufferedCalls);
+        details.put("failedCalls", failedCalls);
+        details.put("rejectedCalls", rejectedCalls.get());
+        details.put("concurrentCalls", maxConcurrentCalls - bulkhead.availablePermits());
+        details.put("maxConcurrentCalls", maxConcurrentCalls);
+        if (state == State.OPEN) {
+            details.put("retryAfterMillis", Math.max(0, openedAtMillis + openDurationMillis - clock.millis()));
+        }
+        return details;
+    }
+
+    private synchronized void acquirePermission() {
+        switch (currentState()) {
+            case OPEN -> reject("Blob storage circuit breaker for " + operation + " is OPEN");
+            case HALF_OPEN -> {
+                if (halfOpenInFlight + halfOpenSucceeded >= halfOpenPermittedCalls) {
+                    reject("Blob storage circuit breaker for " + operation + " is HALF_OPEN and probing");
+                }
+                halfOpenInFlight++;
+            }
+            case CLOSED -> {
+            }
+        }
+    }
+
+    private void acquireBulkhead() {
+        boolean acquired;
+        try {
+            acquired = maxWaitMillis == 0
+                ? bulkhead.tryAcquire()
+                : bulkhead.tryAcquire(maxWaitMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            acquired = false;
+        }
+        if (!acquired) {
+            rejectedCalls.incrementAndGet();
+            throw new BlobStorageException("Blob storage " + operation + " bulkhead is full");
+        }
+    }
+
+    private synchronized void releaseProbe() {
+        if (state == State.HALF_OPEN && halfOpenInFlight > 0) {
+            halfOpenInFlight--;
+        }
+    }
+
+    private synchronized void onResult(boolean success) {
+        if (state == State.HALF_OPEN) {
+            halfOpenInFlight = Math.max(0, halfOpenInFlight - 1);
+            if (!success) {
+                transitionTo(State.OPEN);
+                return;
+            }
+            halfOpenSucceeded++;
+            if (halfOpenSucceeded >= halfOpenPermittedCalls) {
+                transitionTo(State.CLOSED);
+            }
+            return;
+        }
+        if (state == State.OPEN) {
+            // A call admitted before the breaker opened; its outcome no longer matters.
+            return;
+        }
+        record(!success);
+        if (bufferedCalls >= minimumNumberOfCalls && failedCalls * 100f / bufferedCalls >= failureRateThreshold) {
+            transitionTo(State.OPEN);
+        }
+    }
+
+    private void record(boolean failure) {
+        if (bufferedCalls == window.length) {
+            if (window[windowIndex]) {
+                failedCalls--;
+            }
+        } else {
+            bufferedCalls++;
+        }
+        window[windowIndex] = failure;
+        if (failure) {
+            failedCalls++;
+        }
+        windowIndex = (windowIndex + 1) % window.length;
+    }
+
+    private State currentState() {
+        if (state == State.OPEN && clock.millis() - openedAtMillis >= openDurationMillis) {
+            transitionTo(State.HALF_OPEN);
+        }
+        return state;
+    }
+
+    private void transitionTo(State next) {
+        state = next;
+        halfOpenInFlight = 0;
+        halfOpenSucceeded = 0;
+        if (next == State.OPEN) {
+            openedAtMillis = clock.millis();
+        }
+        if (next == State.CLOSED) {
+            windowIndex = 0;
+            bufferedCalls = 0;
+            failedCalls = 0;
+        }
+    }
+
+    private void reject(String message) {
+        rejectedCalls.incrementAndGet();
+        throw new BlobStorageException(message);
+    }
+
+    /**
+     * Reports the stream's outcome and returns the bulkhead permit exactly once: on the first failed read
+     * or on close.
+     */
+    private final class GuardedInputStream extends FilterInputStream {
+
+        private final FailureClassifier classifier;
+        private final AtomicBoolean finished = new AtomicBoolean();
+
+        private GuardedInputStream(InputStream in, FailureClassifier classifier) {
+            super(in);
+            this.classifier = classifier;
+        }
+
+        @Override
+        public int read() throws IOException {
+            try {
+                return super.read();
+            } catch (IOException | RuntimeException ex) {
+                finish(!classifier.isServiceFailure(ex));
+                throw ex;
+            }
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            try {
+                return super.read(buffer, offset, length);
+            } catch (IOException | RuntimeException ex) {
+                finish(!classifier.isServiceFailure(ex));
+                throw ex;
+            }
+        }
+
+        @Override
+        public long skip(long count) throws IOException {
+            try {
+                return super.skip(count);
+            } catch (IOException | RuntimeException ex) {
+                finish(!classifier.isServiceFailure(ex));
+                throw ex;
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                super.close();
+            } finally {
+                finish(true);
+            }
+        }
+
+        private void finish(boolean success) {
+            if (finished.compareAndSet(false, true)) {
+                onResult(success);
+                bulkhead.release();
+            }
+        }
+    }
+
+    @FunctionalInterface
+    public interface StorageCall<T> {
+        T run() throws Exception;
+    }
+
+    @FunctionalInterface
+    public interface FailureClassifier {
+        boolean isServiceFailure(Exception ex);
+    }
+}
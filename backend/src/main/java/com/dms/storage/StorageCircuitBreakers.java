@@ -0,0 +1,75 @@
+package com.dms.storage;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * One {@link StorageCircuitBreaker} per {@link StorageOperation}, so failing deletes cannot open the
+ * circuit for downloads. Bulkhead sizes default to {@code max-concurrent-calls} and can be overridden
+ * per operation as {@code upload:8,download:64}.
+ */
+@Component
+@Slf4j
+public class StorageCircuitBreakers {
+
+    private final Map<StorageOperation, StorageCircuitBreaker> breakers = new EnumMap<>(StorageOperation.class);
+
+    public StorageCircuitBreakers(
+            @Value("${dms.resilience.circuit-breaker.sliding-window-size:20}") int slidingWindowSize,
+            @Value("${dms.resilience.circuit-breaker.minimum-number-of-calls:10}") int minimumNumberOfCalls,
+            @Value("${dms.resilience.circuit-breaker.failure-rate-threshold:50}") float failureRateThreshold,
+            @Value("${dms.resilience.circuit-breaker.open-duration-seconds:60}") long openDurationSeconds,
+            @Value("${dms.resilience.circuit-breaker.half-open-permitted-calls:3}") int halfOpenPermittedCalls,
+            @Value("${dms.resilience.bulkhead.max-concurrent-calls:32}") int maxConcurrentCalls,
+            @Value("${dms.resilience.bulkhead.max-wait-millis:0}") long maxWaitMillis,
+            @Value("${dms.resilience.bulkhead.overrides:}") String bulkheadOverrides) {
+        Map<StorageOperation, Integer> limits = parseOverrides(bulkheadOverrides);
+        Duration openDuration = Duration.ofSeconds(Math.max(1, openDurationSeconds));
+        for (StorageOperation operation : StorageOperation.values()) {
+            breakers.put(operation, new StorageCircuitBreaker(operation, slidingWindowSize, minimumNumberOfCalls,
+                failureRateThreshold, openDuration, halfOpenPermittedCalls,
+                limits.getOrDefault(operation, maxConcurrentCalls), maxWaitMillis, Clock.systemUTC()));
+        }
+    }
+
+    public static StorageCircuitBreakers withDefaults() {
+        return new StorageCircuitBreakers(20, 10, 50, 60, 3, 32, 0, "");
+    }
+
+    public StorageCircuitBreaker get(StorageOperation operation) {
+        return breakers.get(operation);
+    }
+
+    public Map<String, Map<String, Object>> snapshot() {
+        Map<String, Map<String, Object>> states = new LinkedHashMap<>();
+        breakers.forEach((operation, breaker) -> states.put(operation.name().toLowerCase(Locale.ROOT), breaker.snapshot()));
+        return states;
+    }
+
+    private static Map<StorageOperation, Integer> parseOverrides(String overrides) {
+        Map<StorageOperation, Integer> limits = new EnumMap<>(StorageOperation.class);
+        if (overrides == null || overrides.isBlank()) {
+            return limits;
+        }
+        for (String entry : overrides.split(",")) {
+            String[] parts = entry.trim().split(":");
+            if (parts.length != 2) {
+                continue;
+            }
+            try {
+                limits.put(StorageOperation.valueOf(parts[0].trim().toUpperCase(Locale.ROOT)), Integer.parseInt(parts[1].trim()));
+            } catch (IllegalArgumentException ignored) {
+                log.warn("Ignoring invalid bulkhead override '{}'", entry);
+            }
+        }
+        return limits;
+    }
+}
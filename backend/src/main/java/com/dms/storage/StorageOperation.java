@@ -0,0 +1,11 @@
+package com.dms.storage;
+
+/**
+ * Blob storage operation classes; each gets its own circuit breaker and bulkhead.
+ */
+public enum StorageOperation {
+    UPLOAD,
+    DOWNLOAD,
+    DELETE,
+    COPY
+}
@@ -0,0 +1,18 @@
+-- ============================================================
+-- Flyway migration: V004__blob_references.sql (H2)
+-- Reference counts for content-addressed blobs (one blob per tenant per SHA-256)
+-- ============================================================
+
+CREATE TABLE blob_references (
+    id                  UUID DEFAULT random_uuid() PRIMARY KEY,
+    tenant_id           UUID NOT NULL,
+    content_hash        VARCHAR(128) NOT NULL,
+    blob_path           VARCHAR(500) NOT NULL,
+    file_size_bytes     BIGINT NOT NULL,
+    ref_count           INTEGER NOT NULL DEFAULT 1,
+    created_at          TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT CURRENT_TIMESTAMP(),
+    CONSTRAINT uq_blob_references_tenant_hash UNIQUE (tenant_id, content_hash),
+    CONSTRAINT ck_blob_references_ref_count CHECK (ref_count >= 0)
+);
+
+CREATE INDEX idx_blob_references_blob_path ON blob_references (tenant_id, blob_path);
@@ -0,0 +1,30 @@
+-- ============================================================
+-- Flyway migration: V005__group_closure.sql (H2)
+-- Transitive closure of the group hierarchy: one row per (ancestor, descendant) pair, including each
+-- group with itself at depth 0. Maintained by GroupService in the same transaction as the groups.
+-- ============================================================
+
+CREATE TABLE group_closure (
+    tenant_id           UUID NOT NULL,
+    ancestor_id         UUID NOT NULL,
+    descendant_id       UUID NOT NULL,
+    depth               INTEGER NOT NULL,
+    CONSTRAINT pk_group_closure PRIMARY KEY (ancestor_id, descendant_id),
+    CONSTRAINT fk_group_closure_ancestor FOREIGN KEY (ancestor_id) REFERENCES groups (id) ON DELETE CASCADE,
+    CONSTRAINT fk_group_closure_descendant FOREIGN KEY (descendant_id) REFERENCES groups (id) ON DELETE CASCADE,
+    CONSTRAINT ck_group_closure_depth CHECK (depth >= 0)
+);
+
+-- Effective groups of a member: user_groups.group_id -> every ancestor
+CREATE INDEX idx_group_closure_descendant ON group_closure (descendant_id, depth, ancestor_id);
+
+INSERT INTO group_closure (tenant_id, ancestor_id, descendant_id, depth)
+WITH RECURSIVE closure (tenant_id, ancestor_id, descendant_id, depth) AS (
+    SELECT tenant_id, id, id, 0 FROM groups
+    UNION ALL
+    SELECT c.tenant_id, g.parent_group_id, c.descendant_id, c.depth + 1
+    FROM closure c
+    JOIN groups g ON g.id = c.ancestor_id
+    WHERE g.parent_group_id IS NOT NULL
+)
+SELECT tenant_id, ancestor_id, descendant_id, depth FROM closure;
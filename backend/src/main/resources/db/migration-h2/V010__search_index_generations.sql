@@ -0,0 +1,10 @@
+-- ============================================================
+-- Flyway migration: V010__search_index_generations.sql (H2)
+-- Per-tenant counter bumped in the same transaction as every change to the indexed chunks. Each
+-- instance compares it with the generation its in-memory search indexes are at and reloads on a gap.
+-- ============================================================
+
+CREATE TABLE search_index_generations (
+    tenant_id           UUID PRIMARY KEY,
+    generation          BIGINT NOT NULL
+);
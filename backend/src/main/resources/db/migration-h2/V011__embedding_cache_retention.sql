@@ -0,0 +1,6 @@
+-- ============================================================
+-- Flyway migration: V011__embedding_cache_retention.sql (H2)
+-- Supports the scheduled removal of embedding_cache rows older than dms.embedding.cache.retention-days.
+-- ============================================================
+
+CREATE INDEX idx_embedding_cache_created_at ON embedding_cache (created_at);
@@ -0,0 +1,7 @@
+-- ============================================================
+-- Flyway migration: V012__upload_session_hash_state.sql (H2)
+-- Records the exported SHA-256 state of each upload session so any instance can finish the content hash.
+-- ============================================================
+
+ALTER TABLE upload_sessions ADD COLUMN hash_state VARCHAR(200);
+ALTER TABLE upload_sessions ADD COLUMN hash_state_before_last_part VARCHAR(200);
@@ -0,0 +1,17 @@
+-- ============================================================
+-- Flyway migration: V006__chunk_embeddings.sql
+-- Embedding of each requirement chunk, written by IndexingService and loaded into the per-tenant
+-- vector index. Vectors are stored as little-endian float32.
+-- Rollback: DROP TABLE chunk_embeddings;
+-- ============================================================
+
+CREATE TABLE chunk_embeddings (
+    chunk_id            UUID PRIMARY KEY,
+    tenant_id           UUID NOT NULL,
+    dimensions          INTEGER NOT NULL,
+    embedding           BYTEA NOT NULL,
+    created_at          TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT NOW(),
+    CONSTRAINT fk_chunk_embeddings_chunk FOREIGN KEY (chunk_id) REFERENCES requirement_chunks (id) ON DELETE CASCADE
+);
+
+CREATE INDEX idx_chunk_embeddings_tenant_id ON chunk_embeddings (tenant_id);
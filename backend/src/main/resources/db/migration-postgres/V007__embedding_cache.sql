@@ -0,0 +1,15 @@
+-- ============================================================
+-- Flyway migration: V007__embedding_cache.sql
+-- Embeddings by model and SHA-256 of the normalized input text, so identical texts are embedded once
+-- across restarts and instances. Vectors are stored as little-endian float32.
+-- Rollback: DROP TABLE embedding_cache;
+-- ============================================================
+
+CREATE TABLE embedding_cache (
+    model               VARCHAR(200) NOT NULL,
+    text_hash           VARCHAR(64) NOT NULL,
+    dimensions          INTEGER NOT NULL,
+    embedding           BYTEA NOT NULL,
+    created_at          TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT NOW(),
+    CONSTRAINT pk_embedding_cache PRIMARY KEY (model, text_hash)
+);
@@ -0,0 +1,26 @@
+-- ============================================================
+-- Flyway migration: V008__upload_sessions.sql
+-- Resumable upload sessions, so any instance can accept the next part or complete the upload.
+-- part_blocks holds the staged block ids of each accepted part in order.
+-- Rollback: DROP TABLE upload_sessions;
+-- ============================================================
+
+CREATE TABLE upload_sessions (
+    id                      UUID PRIMARY KEY,
+    tenant_id               UUID NOT NULL,
+    user_id                 VARCHAR(255) NOT NULL,
+    document_id             UUID NOT NULL,
+    blob_path               VARCHAR(500) NOT NULL,
+    document_type_id        UUID NOT NULL,
+    metadata                JSONB NOT NULL,
+    idempotency_key         VARCHAR(255),
+    part_blocks             JSONB NOT NULL,
+    total_bytes             BIGINT NOT NULL DEFAULT 0,
+    bytes_before_last_part  BIGINT NOT NULL DEFAULT 0,
+    last_part_attempt       INTEGER NOT NULL DEFAULT 0,
+    expires_at              TIMESTAMP WITH TIME ZONE NOT NULL,
+    created_at              TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT NOW(),
+    entity_version          BIGINT NOT NULL DEFAULT 0
+);
+
+CREATE INDEX idx_upload_sessions_expires_at ON upload_sessions (expires_at);
@@ -0,0 +1,11 @@
+-- ============================================================
+-- Flyway migration: V009__group_hierarchy_generations.sql
+-- Per-tenant counter bumped in the same transaction as every group or membership change. Each
+-- instance compares it with the generation its cached hierarchy was loaded at and reloads on a mismatch.
+-- Rollback: DROP TABLE group_hierarchy_generations;
+-- ============================================================
+
+CREATE TABLE group_hierarchy_generations (
+    tenant_id           UUID PRIMARY KEY,
+    generation          BIGINT NOT NULL
+);
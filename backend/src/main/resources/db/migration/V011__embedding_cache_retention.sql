@@ -0,0 +1,7 @@
+-- ============================================================
+-- Flyway migration: V011__embedding_cache_retention.sql
+-- Supports the scheduled removal of embedding_cache rows older than dms.embedding.cache.retention-days.
+-- Rollback: DROP INDEX idx_embedding_cache_created_at;
+-- ============================================================
+
+CREATE INDEX idx_embedding_cache_created_at ON embedding_cache (created_at);
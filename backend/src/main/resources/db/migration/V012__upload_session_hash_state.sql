@@ -0,0 +1,8 @@
+-- ============================================================
+-- Flyway migration: V012__upload_session_hash_state.sql
+-- Records the exported SHA-256 state of each upload session so any instance can finish the content hash.
+-- Rollback: ALTER TABLE upload_sessions DROP COLUMN hash_state_before_last_part; ALTER TABLE upload_sessions DROP COLUMN hash_state;
+-- ============================================================
+
+ALTER TABLE upload_sessions ADD COLUMN hash_state VARCHAR(200);
+ALTER TABLE upload_sessions ADD COLUMN hash_state_before_last_part VARCHAR(200);
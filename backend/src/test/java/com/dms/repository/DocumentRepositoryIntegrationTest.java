@@ -10,7 +10,10 @@ import org.springframework.data.domain.PageRequest;
 import org.springframework.test.context.ActiveProfiles;
 
 import java.time.Instant;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -88,20 +91,148 @@ class DocumentRepositoryIntegrationTest {
         createDocument(tenantId, type, Map.of("description", "alpha billing"), null);
         createDocument(tenantId, type, Map.of("description", "beta receipts"), null);
 
-        var page = documentRepository.searchFullText(tenantId, "alpha", PageRequest.of(0, 10));
+        List<FullTextHit> hits = documentRepository.searchFullTextRanked(tenantId, "alpha", null, 0, 10);
 
-        assertThat(page.getContent()).hasSize(1);
-        assertThat(page.getContent().get(0).getMetadata().get("description")).isEqualTo("alpha billing");
+        assertThat(hits).hasSize(1);
+        assertThat(hits.get(0).document().getMetadata().get("description")).isEqualTo("alpha billing");
+    }
+
+    @Test
+    void shouldRankFullTextWithinAccessibleTypes() {
+        UUID tenantId = UUID.randomUUID();
+        UUID financeGroup = UUID.randomUUID();
+        DocumentType open = createDocumentType(tenantId, "invoice");
+        DocumentType restricted = createDocumentType(tenantId, "contract", financeGroup);
+        createDocument(tenantId, open, Map.of("description", "Alpha billing"), null);
+        createDocument(tenantId, open, Map.of("description", "beta receipts"), null);
+        createDocument(tenantId, restricted, Map.of("description", "alpha contract"), null);
+
+        List<FullTextHit> hits = documentRepository.searchFullTextRanked(tenantId, "alpha", Set.of(), 0, 10);
+
+        assertThat(hits).hasSize(1);
+        assertThat(hits.get(0).document().getDocumentType().getId()).isEqualTo(open.getId());
+        assertThat(documentRepository.countFullText(tenantId, "alpha", Set.of())).isEqualTo(1);
+        assertThat(documentRepository.countFullText(tenantId, "alpha", Set.of(financeGroup))).isEqualTo(2);
     }
 
-    private DocumentType createDocumentType(UUID tenantId, String name) {
+    @Test
+    void shouldPageByKeysetWithoutSkippingTies() {
+        UUID tenantId = UUID.randomUUID();
+        DocumentType type = createDocumentType(tenantId, "invoice");
+        Instant sameInstant = Instant.parse("2024-01-01T00:00:00Z");
+        for (int i = 0; i < 5; i++) {
+            createDocument(tenantId, type, Map.of("invoiceNumber", "INV-" + i), null, i < 3 ? sameInstant : sameInstant.plusSeconds(i));
+        }
+
+        Set<UUID> seen = new HashSet<>();
+        Instant createdAt = Instant.parse("9999-12-31T23:59:59Z");
+        UUID id = new UUID(-1L, -1L);
+        for (int pageNumber = 0; pageNumber < 3; pageNumber++) {
+            List<Document> page = documentRepository.search(DocumentSearchCriteria.builder()
+                .tenantId(tenantId)
+                .afterCreatedAt(createdAt)
+                .afterId(id)
+                .limit(2)
+                .build());
+            page.forEach(document -> seen.add(document.getId()));
+            if (page.isEmpty()) {
+                break;
+            }
+            Document last = page.get(page.size() - 1);
+            createdAt = last.getCreatedAt();
+            id = last.getId();
+        }
+
+        assertThat(seen).hasSize(5);
+    }
+
+    @Test
+    void shouldFilterMetadataAndGroupsInTheQuery() {
+        UUID tenantId = UUID.randomUUID();
+        UUID financeGroup = UUID.randomUUID();
+        DocumentType open = createDocumentType(tenantId, "invoice");
+        DocumentType restricted = createDocumentType(tenantId, "contract", financeGroup);
+        for (int i = 0; i < 4; i++) {
+            createDocument(tenantId, open, Map.of("status", i % 2 == 0 ? "paid" : "open"), null);
+            createDocument(tenantId, restricted, Map.of("status", "paid"), null);
+        }
+
+        DocumentSearchCriteria outsider = DocumentSearchCriteria.builder()
+            .tenantId(tenantId)
+            .metadata(Map.of("status", "paid"))
+            .effectiveGroupIds(Set.of())
+            .limit(10)
+            .build();
+        DocumentSearchCriteria member = DocumentSearchCriteria.builder()
+            .tenantId(tenantId)
+            .metadata(Map.of("status", "paid"))
+            .effectiveGroupIds(Set.of(financeGroup))
+            .limit(3)
+            .build();
+
+        assertThat(documentRepository.search(outsider)).hasSize(2)
+            .allSatisfy(document -> assertThat(document.getDocumentType().getId()).isEqualTo(open.getId()));
+        assertThat(documentRepository.count(outsider)).isEqualTo(2);
+        assertThat(documentRepository.search(member)).hasSize(3);
+        assertThat(documentRepository.count(member)).isEqualTo(6);
+    }
+
+    @Test
+    void shouldMatchMetadataValuesAndKeywordsLiterally() {
+        UUID tenantId = UUID.randomUUID();
+        DocumentType type = createDocumentType(tenantId, "invoice");
+        createDocument(tenantId, type, Map.of("batch", 1, "code", "A_1", "note", "50% paid"), null);
+        createDocument(tenantId, type, Map.of("batch", 10, "code", "AB1", "note", "500 paid"), null);
+
+        DocumentSearchCriteria firstBatch = DocumentSearchCriteria.builder()
+            .tenantId(tenantId)
+            .metadata(Map.of("batch", 1))
+            .limit(10)
+            .build();
+        DocumentSearchCriteria underscoreCode = DocumentSearchCriteria.builder()
+            .tenantId(tenantId)
+            .metadata(Map.of("code", "A_1"))
+            .limit(10)
+            .build();
+
+        assertThat(documentRepository.count(firstBatch)).isEqualTo(1);
+        assertThat(documentRepository.count(underscoreCode)).isEqualTo(1);
+        assertThat(documentRepository.countFullText(tenantId, "50%", null)).isEqualTo(1);
+    }
+
+    @Test
+    void shouldCountFacetsOverTheAccessibleSet() {
+        UUID tenantId = UUID.randomUUID();
+        DocumentType open = createDocumentType(tenantId, "invoice");
+        DocumentType restricted = createDocumentType(tenantId, "contract", UUID.randomUUID());
+        Instant january = Instant.parse("2024-01-15T10:00:00Z");
+        Instant february = Instant.parse("2024-02-15T10:00:00Z");
+        createDocument(tenantId, open, Map.of("status", "paid"), null, january);
+        createDocument(tenantId, open, Map.of("status", "paid"), null, february);
+        createDocument(tenantId, open, Map.of("status", "open"), null, february);
+        createDocument(tenantId, restricted, Map.of("status", "paid"), null, february);
+
+        DocumentFacets facets = documentRepository.facets(DocumentSearchCriteria.builder()
+            .tenantId(tenantId)
+            .effectiveGroupIds(Set.of())
+            .build(), List.of("status"), 1);
+
+        assertThat(facets.documentTypes()).singleElement()
+            .isEqualTo(new DocumentFacets.FacetCount(open.getId().toString(), open.getName(), 3));
+        assertThat(facets.createdMonths()).containsExactly(
+            new DocumentFacets.FacetCount("2024-01", null, 1),
+            new DocumentFacets.FacetCount("2024-02", null, 2));
+        assertThat(facets.metadata().get("status")).containsExactly(new DocumentFacets.FacetCount("paid", "paid", 2));
+    }
+
+    private DocumentType createDocumentType(UUID tenantId, String name, UUID... allowedGroups) {
         DocumentType type = DocumentType.builder()
             .tenantId(tenantId)
             .name(name + "-" + UUID.randomUUID())
             .displayName(name)
             .description(name + " docs")
             .metadataSchema(Map.of())
-            .allowedGroups(new UUID[0])
+            .allowedGroups(allowedGroups)
             .retentionDays(365)
             .minRetentionDays(0)
             .active(true)
@@ -113,6 +244,10 @@ class DocumentRepositoryIntegrationTest {
     }
 
     private void createDocument(UUID tenantId, DocumentType type, Map<String, Object> metadata, Instant deletedAt) {
+        createDocument(tenantId, type, metadata, deletedAt, Instant.now());
+    }
+
+    private void createDocument(UUID tenantId, DocumentType type, Map<String, Object> metadata, Instant deletedAt, Instant createdAt) {
         Document document = Document.builder()
             .tenantId(tenantId)
             .documentType(type)
@@ -122,7 +257,7 @@ class DocumentRepositoryIntegrationTest {
             .fileSizeBytes(123L)
             .contentType("application/pdf")
             .contentHash("hash")
-            .createdAt(Instant.now())
+            .createdAt(createdAt)
             .createdBy("test")
             .deletedAt(deletedAt)
             .retentionExpiresAt(Instant.now().plusSeconds(86400))
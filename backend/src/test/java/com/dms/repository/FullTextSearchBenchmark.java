@@ -0,0 +1,167 @@
+package com.dms.repository;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Compares the old substring scan with {@link DocumentSearchRepository#searchFullTextRanked} on one million
+ * documents, so the timing covers the id query, the headlines and the page load the application runs.
+ * Not picked up by surefire; run with
+ * {@code mvn test -Dtest=FullTextSearchBenchmark -Ddms.benchmark=true -Dsurefire.failIfNoSpecifiedTests=false}.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@EnabledIfSystemProperty(named = "dms.benchmark", matches = "true")
+class FullTextSearchBenchmark {
+
+    private static final int DOCUMENTS = 1_000_000;
+    private static final int RUNS = 10;
+
+    private static final String LIKE_QUERY =
+        "SELECT d.id FROM documents d WHERE d.tenant_id = ? AND d.deleted_at IS NULL "
+            + "AND lower(CAST(d.metadata AS text)) LIKE ? ORDER BY d.created_at DESC LIMIT 20";
+
+    private static PostgreSQLContainer<?> postgres;
+    private static final UUID TENANT_ID = UUID.randomUUID();
+
+    @Autowired
+    private DocumentRepository documentRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", () -> postgres.getJdbcUrl());
+        registry.add("spring.datasource.username", () -> postgres.getUsername());
+        registry.add("spring.datasource.password", () -> postgres.getPassword());
+        registry.add("spring.datasource.driver-class-name", () -> "org.postgresql.Driver");
+    }
+
+    @BeforeAll
+    static void loadDocuments() throws SQLException {
+        postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+        postgres.start();
+        Flyway.configure()
+            .dataSource(postgres.getJdbcUrl(), postgres.getUsername(), postgres.getPassword())
+            .locations("classpath:db/migration-postgres")
+            .load()
+            .migrate();
+
+        try (Connection connection = connect(); Statement statement = connection.createStatement()) {
+            statement.execute("INSERT INTO document_types (id, tenant_id, name, metadata_schema, created_by) "
+                + "VALUES ('" + TENANT_ID + "', '" + TENANT_ID + "', 'invoice', '{}', 'benchmark')");
+            // One document in a thousand mentions the rare term; the rest share common vocabulary.
+            statement.execute("INSERT INTO documents (tenant_id, document_type_id, metadata, blob_path, "
+                + "file_size_bytes, created_by, created_at, retention_expires_at) "
+                + "SELECT '" + TENANT_ID + "', '" + TENANT_ID + "', "
+                + "jsonb_build_object('invoiceNumber', 'INV-' || n, 'customer', 'customer ' || (n % 5000), "
+                + "'description', CASE WHEN n % 1000 = 0 THEN 'overdue reminder for warehouse rental' "
+                + "ELSE 'monthly invoice for office supplies' END), "
+                + "'bench/' || n || '.pdf', 1024, 'benchmark', now() - n * interval '1 second', now() + interval '7 years' "
+                + "FROM generate_series(1, " + DOCUMENTS + ") AS n");
+            statement.execute("ANALYZE documents");
+        }
+    }
+
+    @AfterAll
+    static void stop() {
+        if (postgres != null) {
+            postgres.stop();
+        }
+    }
+
+    @Test
+    void compareSubstringScanWithTextSearchIndex() throws SQLException {
+        long likeMicros;
+        try (Connection connection = connect()) {
+            likeMicros = median(connection, LIKE_QUERY, statement -> {
+                statement.setObject(1, TENANT_ID);
+                statement.setString(2, "%warehouse rental%");
+            });
+        }
+        long rankedMicros = medianRanked("warehouse rental");
+
+        System.out.printf("Full-text search over %,d documents: LIKE %,d us, searchFullTextRanked %,d us (median of %d)%n",
+            DOCUMENTS, likeMicros, rankedMicros, RUNS);
+        assertThat(rankedMicros).isLessThan(likeMicros);
+    }
+
+    private long medianRanked(String query) {
+        long[] timings = new long[RUNS];
+        // Warm the buffer cache so both queries are measured against the same state.
+        searchRanked(query);
+        for (int i = 0; i < RUNS; i++) {
+            long start = System.nanoTime();
+            List<FullTextHit> hits = searchRanked(query);
+            timings[i] = (System.nanoTime() - start) / 1_000;
+            assertThat(hits).hasSize(20).allSatisfy(hit -> assertThat(hit.highlight()).contains("<mark>"));
+        }
+        Arrays.sort(timings);
+        return timings[RUNS / 2];
+    }
+
+    private List<FullTextHit> searchRanked(String query) {
+        // Start each run with an empty persistence context so the page load is measured too.
+        entityManager.clear();
+        return documentRepository.searchFullTextRanked(TENANT_ID, query, null, 0, 20);
+    }
+
+    private static long median(Connection connection, String sql, Binder binder) throws SQLException {
+        long[] timings = new long[RUNS];
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            binder.bind(statement);
+            // Warm the buffer cache so both queries are measured against the same state.
+            consume(statement);
+            for (int i = 0; i < RUNS; i++) {
+                long start = System.nanoTime();
+                int rows = consume(statement);
+                timings[i] = (System.nanoTime() - start) / 1_000;
+                assertThat(rows).isEqualTo(20);
+            }
+        }
+        Arrays.sort(timings);
+        return timings[RUNS / 2];
+    }
+
+    private static int consume(PreparedStatement statement) throws SQLException {
+        int rows = 0;
+        try (ResultSet resultSet = statement.executeQuery()) {
+            while (resultSet.next()) {
+                rows++;
+            }
+        }
+        return rows;
+    }
+
+    private static Connection connect() throws SQLException {
+        return DriverManager.getConnection(postgres.getJdbcUrl(), postgres.getUsername(), postgres.getPassword());
+    }
+
+    @FunctionalInterface
+    private interface Binder {
+        void bind(PreparedStatement statement) throws SQLException;
+    }
+}
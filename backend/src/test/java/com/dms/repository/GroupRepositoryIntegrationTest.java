@@ -0,0 +1,74 @@
+package com.dms.repository;
+
+import com.dms.domain.Group;
+import com.dms.domain.UserGroup;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.Instant;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("local")
+class GroupRepositoryIntegrationTest {
+
+    @Autowired
+    private GroupRepository groupRepository;
+
+    @Autowired
+    private UserGroupRepository userGroupRepository;
+
+    @Test
+    void shouldMaintainClosureWhenSubtreeMoves() {
+        UUID tenantId = UUID.randomUUID();
+        Group company = createGroup(tenantId, "company", null);
+        Group finance = createGroup(tenantId, "finance", company);
+        Group payroll = createGroup(tenantId, "payroll", finance);
+        Group sales = createGroup(tenantId, "sales", company);
+        userGroupRepository.saveAndFlush(UserGroup.builder()
+            .tenantId(tenantId)
+            .userId("alice")
+            .group(payroll)
+            .assignedAt(Instant.now())
+            .assignedBy("test")
+            .build());
+
+        assertThat(groupRepository.findEffectiveGroupIds(tenantId, "alice"))
+            .containsExactlyInAnyOrder(payroll.getId(), finance.getId(), company.getId());
+        assertThat(groupRepository.findAncestors(payroll.getId())).extracting(Group::getName)
+            .containsExactly("company", "finance");
+        assertThat(groupRepository.countClosure(finance.getId(), payroll.getId())).isEqualTo(1);
+
+        // Move finance (and payroll with it) under sales.
+        groupRepository.detachClosure(finance.getId());
+        groupRepository.attachClosure(finance.getId(), sales.getId());
+
+        assertThat(groupRepository.findAncestors(payroll.getId())).extracting(Group::getName)
+            .containsExactly("company", "sales", "finance");
+        assertThat(groupRepository.findEffectiveGroupIds(tenantId, "alice"))
+            .containsExactlyInAnyOrder(payroll.getId(), finance.getId(), sales.getId(), company.getId());
+        assertThat(groupRepository.countClosure(payroll.getId(), sales.getId())).isZero();
+    }
+
+    private Group createGroup(UUID tenantId, String name, Group parent) {
+        Group group = groupRepository.saveAndFlush(Group.builder()
+            .tenantId(tenantId)
+            .name(name)
+            .displayName(name)
+            .parentGroup(parent)
+            .createdAt(Instant.now())
+            .createdBy("test")
+            .build());
+        groupRepository.insertClosureSelf(tenantId, group.getId());
+        if (parent != null) {
+            groupRepository.attachClosure(group.getId(), parent.getId());
+        }
+        return group;
+    }
+}
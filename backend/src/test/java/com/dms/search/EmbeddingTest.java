@@ -0,0 +1,69 @@
+package com.dms.search;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class EmbeddingTest {
+
+    @Test
+    void shouldNormaliseOnCreationSoCosineIgnoresMagnitude() {
+        Embedding small = Embedding.of(new float[]{3f, 4f});
+        Embedding large = Embedding.of(new float[]{30f, 40f});
+        Embedding orthogonal = Embedding.of(new float[]{-4f, 3f});
+
+        assertThat(small.get(0)).isCloseTo(0.6f, within(1e-6f));
+        assertThat(small.get(1)).isCloseTo(0.8f, within(1e-6f));
+        assertThat(small.cosine(large)).isCloseTo(1.0f, within(1e-6f));
+        assertThat(small.cosine(orthogonal)).isCloseTo(0.0f, within(1e-6f));
+        assertThat(Embedding.of(new float[2]).cosine(small)).isZero();
+    }
+
+    @Test
+    void shouldNotExposeItsBackingArray() {
+        float[] raw = {1f, 0f};
+        Embedding embedding = Embedding.of(raw);
+
+        raw[0] = 0f;
+        embedding.toArray()[0] = 0f;
+
+        assertThat(embedding.get(0)).isEqualTo(1f);
+    }
+
+    @Test
+    void shouldComputeTheSameDotProductOnEveryKernel() {
+        Random random = new Random(3);
+        // Odd lengths and offsets exercise the tail loops after the unrolled or vectorised part.
+        for (int length : new int[]{1, 3, 7, 16, 255, 256, 1536}) {
+            float[] a = new float[length + 5];
+            float[] b = new float[length + 2];
+            for (int i = 0; i < a.length; i++) {
+                a[i] = (float) random.nextGaussian();
+            }
+            for (int i = 0; i < b.length; i++) {
+                b[i] = (float) random.nextGaussian();
+            }
+            double expected = 0.0;
+            for (int i = 0; i < length; i++) {
+                expected += (double) a[5 + i] * b[2 + i];
+            }
+
+            assertThat((double) VectorKernels.scalarDot(a, 5, b, 2, length)).isCloseTo(expected, within(1e-3 * length));
+            assertThat((double) VectorKernels.dot(a, 5, b, 2, length)).isCloseTo(expected, within(1e-3 * length));
+        }
+    }
+
+    /**
+     * The build runs this package twice, with and without {@code jdk.incubator.vector}; each run must
+     * exercise the kernels it was set up for.
+     */
+    @Test
+    @EnabledIfSystemProperty(named = "dms.vector.kernels", matches = "simd|scalar")
+    void shouldDispatchToTheKernelsTheJvmWasStartedWith() {
+        assertThat(VectorKernels.simdEnabled()).isEqualTo("simd".equals(System.getProperty("dms.vector.kernels")));
+    }
+}
@@ -0,0 +1,57 @@
+package com.dms.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class HnswGraphTest {
+
+    private static final int DIMENSIONS = 32;
+
+    @Test
+    void shouldFindMostTrueNeighboursOfRandomVectors() {
+        Random random = new Random(7);
+        HnswGraph graph = new HnswGraph(new FloatVectorStore(DIMENSIONS), 16, 100, 42);
+        for (int i = 0; i < 2_000; i++) {
+            graph.add(randomVector(random));
+        }
+
+        int k = 10;
+        int found = 0;
+        for (int q = 0; q < 50; q++) {
+            Embedding query = randomVector(random);
+            int[] approximate = graph.search(query, k, 64, new float[k]);
+            int[] exact = graph.bruteForce(query, k);
+            found += (int) Arrays.stream(approximate).filter(node -> Arrays.stream(exact).anyMatch(e -> e == node)).count();
+        }
+
+        assertThat(found / (50.0 * k)).isGreaterThanOrEqualTo(0.9);
+    }
+
+    @Test
+    void shouldRankByCosineAndSkipDeletedNodes() {
+        HnswGraph graph = new HnswGraph(new FloatVectorStore(2), 4, 16, 1);
+        int east = graph.add(Embedding.of(new float[]{10f, 0f}));
+        int northEast = graph.add(Embedding.of(new float[]{1f, 1f}));
+        int north = graph.add(Embedding.of(new float[]{0f, 3f}));
+        float[] similarities = new float[3];
+
+        assertThat(graph.search(Embedding.of(new float[]{1f, 0.1f}), 3, 8, similarities)).containsExactly(east, northEast, north);
+        assertThat(similarities[0]).isGreaterThan(similarities[1]).isGreaterThan(similarities[2]);
+
+        graph.markDeleted(east);
+
+        assertThat(graph.search(Embedding.of(new float[]{1f, 0.1f}), 3, 8, similarities)).containsExactly(northEast, north);
+    }
+
+    private static Embedding randomVector(Random random) {
+        float[] vector = new float[DIMENSIONS];
+        for (int i = 0; i < DIMENSIONS; i++) {
+            vector[i] = (float) random.nextGaussian();
+        }
+        return Embedding.of(vector);
+    }
+}
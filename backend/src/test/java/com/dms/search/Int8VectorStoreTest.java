@@ -0,0 +1,57 @@
+package com.dms.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class Int8VectorStoreTest {
+
+    private static final int DIMENSIONS = 256;
+
+    @Test
+    void shouldApproximateFloatSimilaritiesFromCodes() {
+        Random random = new Random(5);
+        Int8VectorStore store = new Int8VectorStore(DIMENSIONS);
+        store.ensureCapacity(20);
+        Embedding[] vectors = new Embedding[20];
+        for (int i = 0; i < vectors.length; i++) {
+            vectors[i] = randomVector(random);
+            store.set(i, vectors[i]);
+        }
+        Embedding query = randomVector(random);
+        VectorStore.NodeScorer scorer = store.scorer(query);
+
+        for (int i = 0; i < vectors.length; i++) {
+            assertThat(scorer.similarity(i)).isCloseTo(query.cosine(vectors[i]), within(0.01f));
+            assertThat(store.similarity(i, (i + 1) % vectors.length))
+                .isCloseTo(vectors[i].cosine(vectors[(i + 1) % vectors.length]), within(0.01f));
+            assertThat(store.vector(i).cosine(vectors[i])).isGreaterThan(0.999f);
+        }
+    }
+
+    @Test
+    void shouldUseAQuarterOfTheFloatStorage() {
+        assertThat(new Int8VectorStore(DIMENSIONS).bytesPerVector())
+            .isLessThan(new FloatVectorStore(DIMENSIONS).bytesPerVector() / 3);
+    }
+
+    @Test
+    void shouldKeepConstantVectorsExact() {
+        Int8VectorStore store = new Int8VectorStore(4);
+        store.ensureCapacity(1);
+        store.set(0, Embedding.of(new float[]{1f, 1f, 1f, 1f}));
+
+        assertThat(store.scorer(Embedding.of(new float[]{1f, 1f, 1f, 1f})).similarity(0)).isCloseTo(1.0f, within(1e-6f));
+    }
+
+    private static Embedding randomVector(Random random) {
+        float[] vector = new float[DIMENSIONS];
+        for (int i = 0; i < DIMENSIONS; i++) {
+            vector[i] = (float) random.nextGaussian();
+        }
+        return Embedding.of(vector);
+    }
+}
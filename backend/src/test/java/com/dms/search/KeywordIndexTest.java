@@ -0,0 +1,205 @@
+package com.dms.search;
+
+import com.dms.domain.RequirementChunk;
+import com.dms.dto.response.HybridSearchResult;
+import com.dms.repository.RequirementChunkRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyIterable;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class KeywordIndexTest {
+
+    private static final UUID TENANT = UUID.randomUUID();
+
+    @Mock
+    private RequirementChunkRepository requirementChunkRepository;
+
+    private KeywordIndex keywordIndex;
+
+    @BeforeEach
+    void setUp() {
+        keywordIndex = new KeywordIndex(requirementChunkRepository, 1.2, 0.75, 60_000);
+    }
+
+    @Test
+    void shouldRankByBm25AndLoadTenantOnlyOnce() {
+        UUID documentId = UUID.randomUUID();
+        RequirementChunk focused = chunk(documentId, "Brake pressure shall be monitored. Brake faults raise an alarm.");
+        RequirementChunk passing = chunk(documentId, "The display shows speed, fuel level, brake status and the time of day.");
+        RequirementChunk unrelated = chunk(documentId, "Seats shall be adjustable.");
+        when(requirementChunkRepository.findSearchableByTenantId(TENANT)).thenReturn(List.of(passing, unrelated, focused));
+        readsChunks(requirementChunkRepository, passing, unrelated, focused);
+
+        List<HybridSearchResult> first = keywordIndex.search(TENANT, "brake alarm", 10);
+        List<HybridSearchResult> second = keywordIndex.search(TENANT, "BRAKE", 1);
+
+        assertThat(first).extracting(HybridSearchResult::getChunkId).containsExactly(focused.getId(), passing.getId());
+        assertThat(first.get(0).getRelevanceScore()).isGreaterThan(first.get(1).getRelevanceScore());
+        assertThat(second).extracting(HybridSearchResult::getChunkId).containsExactly(focused.getId());
+        verify(requirementChunkRepository, times(1)).findSearchableByTenantId(TENANT);
+    }
+
+    @Test
+    void shouldReplaceReindexedChunksAndDropRemovedDocuments() {
+        when(requirementChunkRepository.findSearchableByTenantId(TENANT)).thenReturn(List.of());
+        keywordIndex.search(TENANT, "door", 10);
+        UUID documentId = UUID.randomUUID();
+        RequirementChunk chunk = chunk(documentId, "Door locks engage above walking speed.");
+        readsChunks(requirementChunkRepository, chunk);
+        keywordIndex.index(TENANT, List.of(chunk), 1);
+
+        chunk.setChunkText("Door locks release after a crash.");
+        keywordIndex.index(TENANT, List.of(chunk), 2);
+
+        assertThat(keywordIndex.search(TENANT, "walking", 10)).isEmpty();
+        assertThat(keywordIndex.search(TENANT, "crash", 10)).extracting(HybridSearchResult::getContent)
+            .containsExactly("Door locks release after a crash.");
+
+        keywordIndex.removeDocument(TENANT, documentId, 3);
+
+        assertThat(keywordIndex.search(TENANT, "door", 10)).isEmpty();
+        verify(requirementChunkRepository, times(1)).findSearchableByTenantId(TENANT);
+    }
+
+    @Test
+    void shouldLeaveChangesBeforeFirstQueryToTheLoad() {
+        RequirementChunk committed = chunk(UUID.randomUUID(), "Mirror heating");
+        when(requirementChunkRepository.findSearchableByTenantId(TENANT)).thenReturn(List.of(committed));
+        readsChunks(requirementChunkRepository, committed);
+
+        keywordIndex.index(TENANT, List.of(chunk(UUID.randomUUID(), "Mirror folding")), 1);
+        keywordIndex.removeDocument(TENANT, UUID.randomUUID(), 2);
+
+        assertThat(keywordIndex.search(TENANT, "mirror", 10)).extracting(HybridSearchResult::getChunkId)
+            .containsExactly(committed.getId());
+    }
+
+    @Test
+    void shouldReloadWhenAnotherInstanceChangedTheTenant() {
+        keywordIndex = new KeywordIndex(requirementChunkRepository, 1.2, 0.75, 0);
+        RequirementChunk before = chunk(UUID.randomUUID(), "Wiper speed follows rain intensity.");
+        RequirementChunk after = chunk(UUID.randomUUID(), "Wiper parks below the bonnet line.");
+        when(requirementChunkRepository.findSearchIndexGeneration(TENANT)).thenReturn(0L, 0L, 1L);
+        when(requirementChunkRepository.findSearchableByTenantId(TENANT)).thenReturn(List.of(before), List.of(before, after));
+        readsChunks(requirementChunkRepository, before, after);
+
+        assertThat(keywordIndex.search(TENANT, "wiper", 10)).hasSize(1);
+        assertThat(keywordIndex.search(TENANT, "wiper", 10)).extracting(HybridSearchResult::getChunkId)
+            .containsExactlyInAnyOrder(before.getId(), after.getId());
+        verify(requirementChunkRepository, times(2)).findSearchableByTenantId(TENANT);
+    }
+
+    @Test
+    void shouldReloadWhenALocalChangeSkippedAGeneration() {
+        keywordIndex = new KeywordIndex(requirementChunkRepository, 1.2, 0.75, 0);
+        RequirementChunk remote = chunk(UUID.randomUUID(), "Horn sounds on panic button.");
+        RequirementChunk local = chunk(UUID.randomUUID(), "Horn volume is fixed.");
+        when(requirementChunkRepository.findSearchIndexGeneration(TENANT)).thenReturn(0L, 0L, 2L);
+        when(requirementChunkRepository.findSearchableByTenantId(TENANT)).thenReturn(List.of(), List.of(remote, local));
+        readsChunks(requirementChunkRepository, remote, local);
+        keywordIndex.search(TENANT, "horn", 10);
+
+        // Generation 1 was written by another instance, so the local change alone is not enough.
+        keywordIndex.index(TENANT, List.of(local), 2);
+
+        assertThat(keywordIndex.search(TENANT, "horn", 10)).extracting(HybridSearchResult::getChunkId)
+            .containsExactlyInAnyOrder(remote.getId(), local.getId());
+    }
+
+    @Test
+    void shouldScoreAsIfReplacedAndRemovedChunksWereNeverIndexed() {
+        UUID kept = UUID.randomUUID();
+        UUID removed = UUID.randomUUID();
+        RequirementChunk lamp = chunk(kept, "Lamp failure is reported to the driver.");
+        RequirementChunk lampAgain = chunk(kept, "Lamp brightness adapts to ambient light and lamp age.");
+        RequirementChunk replaced = chunk(kept, "Placeholder text that is long and mentions lamp lamp lamp several times over.");
+        when(requirementChunkRepository.findSearchableByTenantId(TENANT)).thenReturn(List.of(lamp, lampAgain, replaced));
+        readsChunks(requirementChunkRepository, lamp, lampAgain, replaced);
+        keywordIndex.search(TENANT, "lamp", 10);
+        keywordIndex.index(TENANT, List.of(chunk(removed, "Lamp test at ignition."), chunk(removed, "Lamp lamp.")), 1);
+        keywordIndex.removeDocument(TENANT, removed, 2);
+        replaced.setChunkText("Fog lamp switches off with high beam.");
+        keywordIndex.index(TENANT, List.of(replaced), 3);
+
+        RequirementChunkRepository freshRepository = mock(RequirementChunkRepository.class);
+        KeywordIndex fresh = new KeywordIndex(freshRepository, 1.2, 0.75, 60_000);
+        when(freshRepository.findSearchableByTenantId(TENANT)).thenReturn(List.of(lamp, lampAgain, replaced));
+        readsChunks(freshRepository, lamp, lampAgain, replaced);
+
+        assertThat(keywordIndex.search(TENANT, "lamp light", 10))
+            .usingRecursiveFieldByFieldElementComparator()
+            .containsExactlyElementsOf(fresh.search(TENANT, "lamp light", 10));
+    }
+
+    @Test
+    void shouldDropChunksDeletedSinceTheIndexCaughtUp() {
+        RequirementChunk kept = chunk(UUID.randomUUID(), "Trailer hitch detection.");
+        RequirementChunk deleted = chunk(UUID.randomUUID(), "Trailer lights test.");
+        when(requirementChunkRepository.findSearchableByTenantId(TENANT)).thenReturn(List.of(kept, deleted));
+        readsChunks(requirementChunkRepository, kept);
+
+        assertThat(keywordIndex.search(TENANT, "trailer", 10)).extracting(HybridSearchResult::getChunkId)
+            .containsExactly(kept.getId());
+    }
+
+    @Test
+    void shouldKeepScoringTheSameAfterCompaction() {
+        RequirementChunk kept = chunk(UUID.randomUUID(), "Battery heater starts below freezing.");
+        RequirementChunk other = chunk(UUID.randomUUID(), "Battery state of charge is shown in percent.");
+        when(requirementChunkRepository.findSearchableByTenantId(TENANT)).thenReturn(List.of(kept, other));
+        readsChunks(requirementChunkRepository, kept, other);
+        List<HybridSearchResult> before = keywordIndex.search(TENANT, "battery heater", 10);
+
+        UUID bulk = UUID.randomUUID();
+        List<RequirementChunk> bulkChunks = IntStream.range(0, 1100)
+            .mapToObj(i -> chunk(bulk, "Battery cell " + i + " voltage sample"))
+            .toList();
+        keywordIndex.index(TENANT, bulkChunks, 1);
+        keywordIndex.removeDocument(TENANT, bulk, 2);
+
+        assertThat(keywordIndex.search(TENANT, "voltage", 10)).isEmpty();
+        assertThat(keywordIndex.search(TENANT, "battery heater", 10))
+            .usingRecursiveFieldByFieldElementComparator()
+            .containsExactlyElementsOf(before);
+    }
+
+    @Test
+    void shouldTokenizeOnLettersAndDigits() {
+        assertThat(KeywordIndex.tokenize("REQ-42: ECU/ABS self-test")).containsExactly("req", "42", "ecu", "abs", "self", "test");
+    }
+
+    private static void readsChunks(RequirementChunkRepository repository, RequirementChunk... chunks) {
+        when(repository.findAllById(anyIterable())).thenAnswer(invocation -> {
+            Collection<?> ids = invocation.getArgument(0);
+            return Stream.of(chunks).filter(chunk -> ids.contains(chunk.getId())).toList();
+        });
+    }
+
+    private static RequirementChunk chunk(UUID documentId, String text) {
+        return RequirementChunk.builder()
+            .id(UUID.randomUUID())
+            .tenantId(TENANT)
+            .documentId(documentId)
+            .chunkText(text)
+            .chunkOrder(0)
+            .createdAt(Instant.now())
+            .build();
+    }
+}
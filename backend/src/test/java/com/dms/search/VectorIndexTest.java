@@ -0,0 +1,134 @@
+package com.dms.search;
+
+import com.dms.domain.ChunkEmbedding;
+import com.dms.domain.RequirementChunk;
+import com.dms.dto.response.HybridSearchResult;
+import com.dms.repository.ChunkEmbeddingRepository;
+import com.dms.repository.RequirementChunkRepository;
+import com.dms.repository.SearchableEmbedding;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyIterable;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class VectorIndexTest {
+
+    private static final UUID TENANT = UUID.randomUUID();
+
+    @Mock
+    private ChunkEmbeddingRepository chunkEmbeddingRepository;
+
+    @Mock
+    private RequirementChunkRepository requirementChunkRepository;
+
+    private VectorIndex vectorIndex;
+
+    @BeforeEach
+    void setUp() {
+        vectorIndex = new VectorIndex(chunkEmbeddingRepository, requirementChunkRepository, 4, 16, 16, "none", 4, 60_000);
+    }
+
+    @Test
+    void shouldReadTheTextOfTheFinalResultsOnly() {
+        RequirementChunk east = chunk("Heading east");
+        RequirementChunk northEast = chunk("Heading north-east");
+        RequirementChunk north = chunk("Heading north");
+        when(chunkEmbeddingRepository.findSearchableByTenantId(TENANT)).thenReturn(List.of(
+            row(east, 10f, 0f), row(northEast, 1f, 1f), row(north, 0f, 3f)));
+        when(requirementChunkRepository.findAllById(anyIterable())).thenAnswer(invocation -> {
+            Iterable<UUID> ids = invocation.getArgument(0);
+            return List.of(east, northEast, north).stream()
+                .filter(chunk -> ((Collection<?>) ids).contains(chunk.getId()))
+                .toList();
+        });
+
+        List<HybridSearchResult> results = vectorIndex.search(TENANT, Embedding.of(new float[]{1f, 0.1f}), 2);
+
+        assertThat(results).extracting(HybridSearchResult::getContent).containsExactly("Heading east", "Heading north-east");
+        assertThat(results.get(0).getRelevanceScore()).isGreaterThan(results.get(1).getRelevanceScore());
+    }
+
+    @Test
+    void shouldDropChunksDeletedSinceTheGraphCaughtUp() {
+        RequirementChunk kept = chunk("Kept");
+        RequirementChunk deleted = chunk("Deleted elsewhere");
+        when(chunkEmbeddingRepository.findSearchableByTenantId(TENANT)).thenReturn(List.of(row(kept, 1f, 0f), row(deleted, 1f, 0.2f)));
+        when(requirementChunkRepository.findAllById(anyIterable())).thenReturn(List.of(kept));
+
+        assertThat(vectorIndex.search(TENANT, Embedding.of(new float[]{1f, 0f}), 10)).extracting(HybridSearchResult::getChunkId)
+            .containsExactly(kept.getId());
+    }
+
+    @Test
+    void shouldRescoreQuantizedCandidatesAndDropThoseWithoutAFloatRow() {
+        vectorIndex = new VectorIndex(chunkEmbeddingRepository, requirementChunkRepository, 4, 16, 16, "int8", 4, 60_000);
+        RequirementChunk closest = chunk("Closest");
+        RequirementChunk reembedded = chunk("Re-embedded elsewhere");
+        RequirementChunk farther = chunk("Farther");
+        SearchableEmbedding closestRow = row(closest, 1f, 0.1f);
+        SearchableEmbedding fartherRow = row(farther, 1f, 1f);
+        when(chunkEmbeddingRepository.findSearchableByTenantId(TENANT)).thenReturn(List.of(
+            closestRow, row(reembedded, 1f, 0.05f), fartherRow));
+        when(chunkEmbeddingRepository.findAllById(anyIterable())).thenReturn(List.of(closestRow.embedding(), fartherRow.embedding()));
+        when(requirementChunkRepository.findAllById(anyIterable())).thenReturn(List.of(closest, reembedded, farther));
+        Embedding query = Embedding.of(new float[]{1f, 0.1f});
+
+        List<HybridSearchResult> results = vectorIndex.search(TENANT, query, 3);
+
+        assertThat(results).extracting(HybridSearchResult::getChunkId).containsExactly(closest.getId(), farther.getId());
+        assertThat(results.get(1).getRelevanceScore())
+            .isEqualTo((double) query.cosine(Embedding.of(fartherRow.embedding().toVector())));
+    }
+
+    @Test
+    void shouldApplyCommittedChangesAfterLoadAndReloadOnAGap() {
+        vectorIndex = new VectorIndex(chunkEmbeddingRepository, requirementChunkRepository, 4, 16, 16, "none", 4, 0);
+        RequirementChunk added = chunk("Added here");
+        RequirementChunk remote = chunk("Added on another instance");
+        when(requirementChunkRepository.findSearchIndexGeneration(TENANT)).thenReturn(0L, 0L, 1L, 3L);
+        when(chunkEmbeddingRepository.findSearchableByTenantId(TENANT))
+            .thenReturn(List.of(), List.of(row(remote, 0f, 1f)));
+        when(requirementChunkRepository.findAllById(anyIterable())).thenReturn(List.of(added, remote));
+        Embedding query = Embedding.of(new float[]{1f, 1f});
+
+        assertThat(vectorIndex.search(TENANT, query, 10)).isEmpty();
+        vectorIndex.index(TENANT, List.of(added), List.of(Embedding.of(new float[]{1f, 0f})), 1);
+        assertThat(vectorIndex.search(TENANT, query, 10)).extracting(HybridSearchResult::getChunkId).containsExactly(added.getId());
+
+        // Generation 2 was written by another instance, so the local change leaves the graph stale.
+        vectorIndex.removeDocument(TENANT, added.getDocumentId(), 3);
+
+        assertThat(vectorIndex.search(TENANT, query, 10)).extracting(HybridSearchResult::getChunkId)
+            .containsExactly(remote.getId());
+        verify(chunkEmbeddingRepository, times(2)).findSearchableByTenantId(TENANT);
+    }
+
+    private static RequirementChunk chunk(String text) {
+        return RequirementChunk.builder()
+            .id(UUID.randomUUID())
+            .tenantId(TENANT)
+            .documentId(UUID.randomUUID())
+            .chunkText(text)
+            .chunkOrder(0)
+            .createdAt(Instant.now())
+            .build();
+    }
+
+    private static SearchableEmbedding row(RequirementChunk chunk, float... vector) {
+        ChunkEmbedding embedding = ChunkEmbedding.of(chunk, Embedding.of(vector).toArray());
+        return new SearchableEmbedding(chunk.getDocumentId(), embedding);
+    }
+}
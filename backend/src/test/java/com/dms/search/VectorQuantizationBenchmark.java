@@ -0,0 +1,104 @@
+package com.dms.search;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Recall, latency and vector memory of float32 against int8 storage on a synthetic clustered corpus,
+ * with and without full-precision rescoring of the int8 candidates. Not picked up by surefire; run with
+ * {@code mvn test -Dtest=VectorQuantizationBenchmark -Ddms.benchmark=true -Dsurefire.failIfNoSpecifiedTests=false}.
+ */
+@EnabledIfSystemProperty(named = "dms.benchmark", matches = "true")
+class VectorQuantizationBenchmark {
+
+    private static final int VECTORS = 50_000;
+    private static final int DIMENSIONS = 256;
+    private static final int QUERIES = 200;
+    private static final int K = 10;
+    private static final int EF_SEARCH = 64;
+    private static final int OVERSAMPLE = 4;
+
+    @Test
+    void compareFloatAndInt8Storage() {
+        Random random = new Random(13);
+        Embedding[] corpus = new Embedding[VECTORS];
+        for (int i = 0; i < VECTORS; i++) {
+            corpus[i] = clusteredVector(random);
+        }
+        Embedding[] queries = new Embedding[QUERIES];
+        int[][] truth = new int[QUERIES][];
+        HnswGraph exact = build(new FloatVectorStore(DIMENSIONS), corpus);
+        for (int q = 0; q < QUERIES; q++) {
+            queries[q] = clusteredVector(random);
+            truth[q] = exact.bruteForce(queries[q], K);
+        }
+        HnswGraph quantized = build(new Int8VectorStore(DIMENSIONS), corpus);
+
+        Result float32 = run(exact, queries, truth, corpus, false);
+        Result int8 = run(quantized, queries, truth, corpus, false);
+        Result int8Rescored = run(quantized, queries, truth, corpus, true);
+
+        System.out.printf("%,d x %d vectors, k=%d, efSearch=%d%n", VECTORS, DIMENSIONS, K, EF_SEARCH);
+        System.out.printf("%-16s %8s %10s %14s%n", "storage", "recall", "us/query", "vector MB");
+        print("float32", float32, exact.store());
+        print("int8", int8, quantized.store());
+        print("int8 + rescore", int8Rescored, quantized.store());
+
+        assertThat(int8Rescored.recall()).isGreaterThanOrEqualTo(float32.recall() - 0.02);
+    }
+
+    private static HnswGraph build(VectorStore store, Embedding[] corpus) {
+        HnswGraph graph = new HnswGraph(store, 16, 200, 42);
+        for (Embedding vector : corpus) {
+            graph.add(vector);
+        }
+        return graph;
+    }
+
+    private static Result run(HnswGraph graph, Embedding[] queries, int[][] truth, Embedding[] corpus, boolean rescore) {
+        int candidates = rescore ? K * OVERSAMPLE : K;
+        float[] similarities = new float[candidates];
+        int found = 0;
+        long nanos = 0;
+        for (int q = 0; q < queries.length; q++) {
+            long start = System.nanoTime();
+            int[] nodes = graph.search(queries[q], candidates, Math.max(EF_SEARCH, candidates), similarities);
+            if (rescore) {
+                nodes = rescore(queries[q], nodes, corpus);
+            }
+            nanos += System.nanoTime() - start;
+            int[] expected = truth[q];
+            found += (int) Arrays.stream(nodes).filter(node -> Arrays.stream(expected).anyMatch(e -> e == node)).count();
+        }
+        return new Result(found / (double) (queries.length * K), nanos / queries.length / 1_000);
+    }
+
+    // Stands in for the primary-key lookup of float32 vectors that VectorIndex does.
+    private static int[] rescore(Embedding query, int[] nodes, Embedding[] corpus) {
+        Integer[] ordered = Arrays.stream(nodes).boxed().toArray(Integer[]::new);
+        Arrays.sort(ordered, (left, right) -> Float.compare(query.cosine(corpus[right]), query.cosine(corpus[left])));
+        return Arrays.stream(ordered).limit(K).mapToInt(Integer::intValue).toArray();
+    }
+
+    private static void print(String label, Result result, VectorStore store) {
+        System.out.printf("%-16s %8.3f %,10d %14.1f%n", label, result.recall(), result.micros(),
+            (double) store.bytesPerVector() * VECTORS / (1024 * 1024));
+    }
+
+    private static Embedding clusteredVector(Random random) {
+        Random centre = new Random(random.nextInt(200));
+        float[] vector = new float[DIMENSIONS];
+        for (int i = 0; i < DIMENSIONS; i++) {
+            vector[i] = (float) (centre.nextGaussian() + 0.5 * random.nextGaussian());
+        }
+        return Embedding.of(vector);
+    }
+
+    private record Result(double recall, long micros) {
+    }
+}
@@ -0,0 +1,75 @@
+package com.dms.search;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Recall@k and latency of {@link HnswGraph} against an exact scan, at the embedding dimension used in
+ * production. Not picked up by surefire; run with
+ * {@code mvn test -Dtest=VectorSearchBenchmark -Ddms.benchmark=true -Dsurefire.failIfNoSpecifiedTests=false}.
+ */
+@EnabledIfSystemProperty(named = "dms.benchmark", matches = "true")
+class VectorSearchBenchmark {
+
+    private static final int VECTORS = 50_000;
+    private static final int DIMENSIONS = 256;
+    private static final int QUERIES = 200;
+    private static final int K = 10;
+    private static final int[] EF_SEARCH = {16, 32, 64, 128, 256};
+
+    @Test
+    void compareHnswWithBruteForce() {
+        Random random = new Random(11);
+        HnswGraph graph = new HnswGraph(new FloatVectorStore(DIMENSIONS), 16, 200, 42);
+        long buildStart = System.nanoTime();
+        for (int i = 0; i < VECTORS; i++) {
+            graph.add(clusteredVector(random));
+        }
+        long buildMillis = (System.nanoTime() - buildStart) / 1_000_000;
+
+        Embedding[] queries = new Embedding[QUERIES];
+        int[][] exact = new int[QUERIES][];
+        long exactNanos = 0;
+        for (int q = 0; q < QUERIES; q++) {
+            queries[q] = clusteredVector(random);
+            long start = System.nanoTime();
+            exact[q] = graph.bruteForce(queries[q], K);
+            exactNanos += System.nanoTime() - start;
+        }
+        System.out.printf("Built HNSW over %,d x %d vectors in %,d ms; brute force %,d us/query%n",
+            VECTORS, DIMENSIONS, buildMillis, exactNanos / QUERIES / 1_000);
+
+        double bestRecall = 0.0;
+        for (int ef : EF_SEARCH) {
+            int found = 0;
+            long nanos = 0;
+            float[] similarities = new float[K];
+            for (int q = 0; q < QUERIES; q++) {
+                long start = System.nanoTime();
+                int[] approximate = graph.search(queries[q], K, ef, similarities);
+                nanos += System.nanoTime() - start;
+                int[] truth = exact[q];
+                found += (int) Arrays.stream(approximate).filter(node -> Arrays.stream(truth).anyMatch(e -> e == node)).count();
+            }
+            double recall = found / (double) (QUERIES * K);
+            bestRecall = Math.max(bestRecall, recall);
+            System.out.printf("efSearch=%d: recall@%d %.3f, %,d us/query%n", ef, K, recall, nanos / QUERIES / 1_000);
+        }
+        assertThat(bestRecall).isGreaterThan(0.95);
+    }
+
+    // Embeddings of real text cluster by topic; uniform noise would understate what the graph can do.
+    private static Embedding clusteredVector(Random random) {
+        Random centre = new Random(random.nextInt(200));
+        float[] vector = new float[DIMENSIONS];
+        for (int i = 0; i < DIMENSIONS; i++) {
+            vector[i] = (float) (centre.nextGaussian() + 0.5 * random.nextGaussian());
+        }
+        return Embedding.of(vector);
+    }
+}
@@ -1,5 +1,6 @@
 package com.dms.security;
 
+import com.dms.service.TenantContext;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Test;
@@ -11,6 +12,8 @@ import org.springframework.security.oauth2.jwt.Jwt;
 import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
 import org.springframework.test.util.ReflectionTestUtils;
 
+import java.util.UUID;
+
 import static org.assertj.core.api.Assertions.assertThat;
 
 class RateLimitingFilterTest {
@@ -22,7 +25,8 @@ class RateLimitingFilterTest {
 
     @Test
     void shouldReturnTooManyRequestsWhenLimitExceeded() throws Exception {
-        RateLimitingFilter filter = new RateLimitingFilter(new ObjectMapper());
+        RateLimitingFilter filter = new RateLimitingFilter(new ObjectMapper(),
+            new TenantContext(UUID.fromString("00000000-0000-0000-0000-000000000001")));
         ReflectionTestUtils.setField(filter, "maxRequestsPerMinute", 1);
 
         Jwt jwt = Jwt.withTokenValue("token")
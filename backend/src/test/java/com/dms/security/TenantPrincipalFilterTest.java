@@ -0,0 +1,95 @@
+package com.dms.security;
+
+import com.dms.service.TenantContext;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TenantPrincipalFilterTest {
+
+    private static final UUID DEFAULT_TENANT = UUID.fromString("00000000-0000-0000-0000-000000000001");
+
+    private final TenantContext tenantContext = new TenantContext(DEFAULT_TENANT);
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+        TenantPrincipalHolder.clear();
+    }
+
+    @Test
+    void shouldBindOnePrincipalForTheRequestAndClearItAfterwards() throws Exception {
+        UUID tenantId = UUID.randomUUID();
+        authenticate(tenantId, "ROLE_ADMIN", "ROLE_document_user", "SCOPE_read");
+        AtomicReference<TenantPrincipal> seen = new AtomicReference<>();
+
+        new TenantPrincipalFilter(tenantContext).doFilter(new MockHttpServletRequest("GET", "/api/v1/documents"),
+            new MockHttpServletResponse(), (request, response) -> {
+                seen.set(tenantContext.current());
+                assertThat(tenantContext.current()).isSameAs(seen.get());
+            });
+
+        assertThat(seen.get().tenantId()).isEqualTo(tenantId);
+        assertThat(seen.get().userId()).isEqualTo("user-1");
+        assertThat(seen.get().roles()).containsExactlyInAnyOrder(DmsRole.ADMIN, DmsRole.DOCUMENT_USER);
+        assertThat(tenantContext.current()).isNotSameAs(seen.get()).isEqualTo(seen.get());
+    }
+
+    @Test
+    void shouldIgnoreBoundPrincipalOnceAuthenticationChanges() {
+        authenticate(UUID.randomUUID());
+        TenantPrincipalHolder.set(SecurityContextHolder.getContext().getAuthentication(),
+            tenantContext.resolve(SecurityContextHolder.getContext().getAuthentication()));
+
+        UUID otherTenant = UUID.randomUUID();
+        authenticate(otherTenant);
+
+        assertThat(tenantContext.getCurrentTenantId()).isEqualTo(otherTenant);
+    }
+
+    @Test
+    void shouldCarryPrincipalIntoDecoratedTasks() throws Exception {
+        UUID tenantId = UUID.randomUUID();
+        authenticate(tenantId, "ROLE_COMPLIANCE_OFFICER");
+        TenantPrincipal principal = tenantContext.resolve(SecurityContextHolder.getContext().getAuthentication());
+        TenantPrincipalHolder.set(SecurityContextHolder.getContext().getAuthentication(), principal);
+        AtomicReference<TenantPrincipal> seen = new AtomicReference<>();
+
+        Thread worker = new Thread(new TenantPrincipalTaskDecorator().decorate(() -> seen.set(tenantContext.current())));
+        worker.start();
+        worker.join();
+
+        assertThat(seen.get()).isSameAs(principal);
+    }
+
+    @Test
+    void shouldRunAsSystemUserWithoutAuthentication() {
+        TenantPrincipal principal = tenantContext.current();
+
+        assertThat(principal.tenantId()).isEqualTo(DEFAULT_TENANT);
+        assertThat(principal.userId()).isEqualTo(TenantPrincipal.SYSTEM_USER);
+        assertThat(principal.roles()).isEmpty();
+    }
+
+    private static void authenticate(UUID tenantId, String... authorities) {
+        Jwt jwt = Jwt.withTokenValue("token")
+            .header("alg", "none")
+            .claim("tenant_id", tenantId.toString())
+            .subject("user-1")
+            .build();
+        List<SimpleGrantedAuthority> granted = Arrays.stream(authorities).map(SimpleGrantedAuthority::new).toList();
+        SecurityContextHolder.getContext().setAuthentication(new JwtAuthenticationToken(jwt, granted));
+    }
+}
@@ -3,11 +3,10 @@ package com.dms.service;
 import com.dms.domain.Document;
 import com.dms.domain.DocumentType;
 import com.dms.domain.Group;
-import com.dms.domain.UserGroup;
 import com.dms.exception.TenantMismatchException;
 import com.dms.exception.UnauthorizedAccessException;
+import com.dms.repository.DocumentRepository;
 import com.dms.repository.GroupRepository;
-import com.dms.repository.UserGroupRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -18,7 +17,10 @@ import java.util.List;
 import java.util.UUID;
 
 import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -27,15 +29,16 @@ class AuthorizationServiceTest {
     @Mock
     private TenantContext tenantContext;
     @Mock
-    private UserGroupRepository userGroupRepository;
-    @Mock
     private GroupRepository groupRepository;
+    @Mock
+    private DocumentRepository documentRepository;
 
     private AuthorizationService authorizationService;
 
     @BeforeEach
     void setUp() {
-        authorizationService = new AuthorizationService(tenantContext, userGroupRepository, groupRepository);
+        authorizationService = new AuthorizationService(tenantContext,
+            new GroupHierarchyCache(groupRepository, 300, 5000, 10000), documentRepository);
     }
 
     @Test
@@ -44,15 +47,14 @@ class AuthorizationServiceTest {
         UUID groupId = UUID.randomUUID();
 
         Group group = Group.builder().id(groupId).tenantId(tenantId).name("finance").build();
-        UserGroup assignment = UserGroup.builder().tenantId(tenantId).userId("alice").group(group).build();
 
         DocumentType type = DocumentType.builder().allowedGroups(new UUID[]{groupId}).build();
         Document document = Document.builder().tenantId(tenantId).documentType(type).build();
 
         when(tenantContext.getCurrentTenantId()).thenReturn(tenantId);
         when(tenantContext.getCurrentUserId()).thenReturn("alice");
-        when(userGroupRepository.findAllByTenantIdAndUserId(tenantId, "alice")).thenReturn(List.of(assignment));
-        when(groupRepository.findAllByTenantId(tenantId)).thenReturn(List.of(group));
+        when(groupRepository.findEffectiveGroupIds(tenantId, "alice")).thenReturn(List.of(group.getId()));
+        when(groupRepository.findIdsByTenantId(tenantId)).thenReturn(List.of(group.getId()));
 
         assertDoesNotThrow(() -> authorizationService.assertCanAccessDocument(document));
     }
@@ -64,15 +66,14 @@ class AuthorizationServiceTest {
         UUID userGroup = UUID.randomUUID();
 
         Group group = Group.builder().id(userGroup).tenantId(tenantId).name("sales").build();
-        UserGroup assignment = UserGroup.builder().tenantId(tenantId).userId("bob").group(group).build();
 
         DocumentType type = DocumentType.builder().allowedGroups(new UUID[]{allowedGroup}).build();
         Document document = Document.builder().tenantId(tenantId).documentType(type).build();
 
         when(tenantContext.getCurrentTenantId()).thenReturn(tenantId);
         when(tenantContext.getCurrentUserId()).thenReturn("bob");
-        when(userGroupRepository.findAllByTenantIdAndUserId(tenantId, "bob")).thenReturn(List.of(assignment));
-        when(groupRepository.findAllByTenantId(tenantId)).thenReturn(List.of(group));
+        when(groupRepository.findEffectiveGroupIds(tenantId, "bob")).thenReturn(List.of(group.getId()));
+        when(groupRepository.findIdsByTenantId(tenantId)).thenReturn(List.of(group.getId()));
 
         assertThrows(UnauthorizedAccessException.class, () -> authorizationService.assertCanAccessDocument(document));
     }
@@ -89,4 +90,32 @@ class AuthorizationServiceTest {
 
         assertThrows(TenantMismatchException.class, () -> authorizationService.assertCanAccessDocument(document));
     }
+
+    @Test
+    void shouldFilterAccessibleDocuments_resolvingEachTypeOnce() {
+        UUID tenantId = UUID.randomUUID();
+        UUID financeGroup = UUID.randomUUID();
+
+        Group group = Group.builder().id(financeGroup).tenantId(tenantId).name("finance").build();
+
+        DocumentType open = DocumentType.builder().id(UUID.randomUUID()).allowedGroups(new UUID[0]).build();
+        DocumentType finance = DocumentType.builder().id(UUID.randomUUID()).allowedGroups(new UUID[]{financeGroup}).build();
+        DocumentType hr = DocumentType.builder().id(UUID.randomUUID()).allowedGroups(new UUID[]{UUID.randomUUID()}).build();
+        List<Document> documents = List.of(
+            Document.builder().id(UUID.randomUUID()).tenantId(tenantId).documentType(hr).build(),
+            Document.builder().id(UUID.randomUUID()).tenantId(tenantId).documentType(finance).build(),
+            Document.builder().id(UUID.randomUUID()).tenantId(UUID.randomUUID()).documentType(open).build(),
+            Document.builder().id(UUID.randomUUID()).tenantId(tenantId).documentType(open).build(),
+            Document.builder().id(UUID.randomUUID()).tenantId(tenantId).documentType(finance).build());
+
+        when(tenantContext.getCurrentTenantId()).thenReturn(tenantId);
+        when(tenantContext.getCurrentUserId()).thenReturn("carol");
+        when(groupRepository.findEffectiveGroupIds(tenantId, "carol")).thenReturn(List.of(group.getId()));
+        when(groupRepository.findIdsByTenantId(tenantId)).thenReturn(List.of(group.getId()));
+
+        List<Document> accessible = authorizationService.filterAccessible(documents);
+
+        assertEquals(List.of(documents.get(1), documents.get(3), documents.get(4)), accessible);
+        verify(groupRepository, times(1)).findEffectiveGroupIds(tenantId, "carol");
+    }
 }
@@ -0,0 +1,122 @@
+package com.dms.service;
+
+import com.dms.domain.BlobReference;
+import com.dms.repository.BlobReferenceRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class BlobReferenceServiceTest {
+
+    private static final String HASH = "ab" + "0".repeat(62);
+
+    @Mock
+    private BlobReferenceRepository blobReferenceRepository;
+    @Mock
+    private BlobStorageService blobStorageService;
+    @InjectMocks
+    private BlobReferenceService blobReferenceService;
+
+    private final UUID tenantId = UUID.randomUUID();
+    private final MockMultipartFile file = new MockMultipartFile("file", "spec.pdf", "application/pdf", "%PDF-spec".getBytes());
+
+    @BeforeEach
+    void enableContentAddressing() {
+        ReflectionTestUtils.setField(blobReferenceService, "contentAddressed", true);
+    }
+
+    @Test
+    void duplicateUploadSkipsBlobWriteAndCountsReference() {
+        BlobReference existing = reference(2);
+        when(blobStorageService.calculateContentHash(file)).thenReturn(HASH);
+        when(blobReferenceRepository.findByTenantIdAndContentHash(tenantId, HASH)).thenReturn(Optional.of(existing));
+
+        BlobReferenceService.StoredBlob stored = blobReferenceService.store(tenantId, "tenant/type/doc_v1.pdf", file);
+
+        assertThat(stored.deduplicated()).isTrue();
+        assertThat(stored.blobPath()).isEqualTo(existing.getBlobPath());
+        assertThat(existing.getRefCount()).isEqualTo(3);
+        verify(blobStorageService, never()).uploadValidatedPdf(anyString(), any());
+    }
+
+    @Test
+    void firstUploadWritesContentAddressedPath() {
+        when(blobStorageService.calculateContentHash(file)).thenReturn(HASH);
+        when(blobReferenceRepository.findByTenantIdAndContentHash(tenantId, HASH)).thenReturn(Optional.empty());
+        when(blobReferenceRepository.insertIfAbsent(tenantId, HASH, tenantId + "/cas/ab/" + HASH + ".pdf", file.getSize()))
+            .thenReturn(true);
+
+        BlobReferenceService.StoredBlob stored = blobReferenceService.store(tenantId, "tenant/type/doc_v1.pdf", file);
+
+        assertThat(stored.blobPath()).isEqualTo(tenantId + "/cas/ab/" + HASH + ".pdf");
+        assertThat(stored.deduplicated()).isFalse();
+        verify(blobStorageService).uploadValidatedPdf(stored.blobPath(), file);
+    }
+
+    @Test
+    void concurrentFirstUploadThatLosesTheInsertCountsAReference() {
+        BlobReference winner = reference(1);
+        when(blobStorageService.calculateContentHash(file)).thenReturn(HASH);
+        when(blobReferenceRepository.findByTenantIdAndContentHash(tenantId, HASH))
+            .thenReturn(Optional.empty())
+            .thenReturn(Optional.of(winner));
+        when(blobReferenceRepository.insertIfAbsent(tenantId, HASH, winner.getBlobPath(), file.getSize())).thenReturn(false);
+
+        BlobReferenceService.StoredBlob stored = blobReferenceService.store(tenantId, "tenant/type/doc_v1.pdf", file);
+
+        assertThat(stored.deduplicated()).isTrue();
+        assertThat(stored.blobPath()).isEqualTo(winner.getBlobPath());
+        assertThat(winner.getRefCount()).isEqualTo(2);
+        verify(blobStorageService, never()).uploadValidatedPdf(anyString(), any());
+    }
+
+    @Test
+    void releaseDeletesBlobOnlyWithLastReference() {
+        BlobReference shared = reference(2);
+        when(blobReferenceRepository.findByTenantIdAndBlobPath(tenantId, shared.getBlobPath())).thenReturn(Optional.of(shared));
+
+        blobReferenceService.release(tenantId, shared.getBlobPath());
+        verify(blobStorageService, never()).deleteBlob(anyString());
+        assertThat(shared.getRefCount()).isEqualTo(1);
+
+        blobReferenceService.release(tenantId, shared.getBlobPath());
+        verify(blobReferenceRepository).delete(shared);
+        verify(blobStorageService).deleteBlob(shared.getBlobPath());
+    }
+
+    @Test
+    void releaseDeletesUncountedBlobDirectly() {
+        when(blobReferenceRepository.findByTenantIdAndBlobPath(tenantId, "tenant/type/doc_v1.pdf")).thenReturn(Optional.empty());
+
+        blobReferenceService.release(tenantId, "tenant/type/doc_v1.pdf");
+
+        verify(blobStorageService).deleteBlob("tenant/type/doc_v1.pdf");
+    }
+
+    private BlobReference reference(int refCount) {
+        return BlobReference.builder()
+            .id(UUID.randomUUID())
+            .tenantId(tenantId)
+            .contentHash(HASH)
+            .blobPath(tenantId + "/cas/ab/" + HASH + ".pdf")
+            .fileSizeBytes(9L)
+            .refCount(refCount)
+            .build();
+    }
+}
@@ -1,6 +1,10 @@
 package com.dms.service;
 
 import com.dms.exception.ValidationException;
+import com.dms.storage.BlobDiskCache;
+import com.dms.storage.BlockUploadEngine;
+import com.dms.storage.MappedRegionCache;
+import com.dms.storage.StorageCircuitBreakers;
 import net.jqwik.api.ForAll;
 import net.jqwik.api.Property;
 import org.springframework.beans.factory.ObjectProvider;
@@ -12,7 +16,7 @@ import static org.junit.jupiter.api.Assertions.assertThrows;
 
 class BlobStorageServiceProperties {
 
-    private final BlobStorageService service = new BlobStorageService(emptyProvider(), "./target/test-blob-storage", 1024 * 1024, 60, 5);
+    private final BlobStorageService service = new BlobStorageService(emptyProvider(), new BlockUploadEngine(4194304, 4, 3, 4), MappedRegionCache.disabled(), BlobDiskCache.disabled(), "./target/test-blob-storage", 1024 * 1024, 8388608L, StorageCircuitBreakers.withDefaults());
 
     @Property
     void nonPdfPrefixIsRejected(@ForAll String text) {
@@ -1,20 +1,33 @@
 package com.dms.service;
 
 import com.dms.exception.ValidationException;
+import com.dms.storage.BlobDiskCache;
+import com.dms.storage.BlockUploadEngine;
+import com.dms.storage.MappedRegionCache;
+import com.dms.storage.StorageCircuitBreakers;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.mock.web.MockMultipartFile;
 
+import java.io.InputStream;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.HexFormat;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
 class BlobStorageServiceTest {
 
     @Test
     void uploadValidatedPdfReturnsHash() {
-        BlobStorageService service = new BlobStorageService(emptyProvider(), "./target/test-blob-storage", 104857600L, 60, 5);
+        BlobStorageService service = new BlobStorageService(emptyProvider(), new BlockUploadEngine(4194304, 4, 3, 4), MappedRegionCache.disabled(), BlobDiskCache.disabled(), "./target/test-blob-storage", 104857600L, 8388608L, StorageCircuitBreakers.withDefaults());
         MockMultipartFile pdf = new MockMultipartFile(
             "file",
             "sample.pdf",
@@ -29,7 +42,7 @@ class BlobStorageServiceTest {
 
     @Test
     void rejectsNonPdfFile() {
-        BlobStorageService service = new BlobStorageService(emptyProvider(), "./target/test-blob-storage", 104857600L, 60, 5);
+        BlobStorageService service = new BlobStorageService(emptyProvider(), new BlockUploadEngine(4194304, 4, 3, 4), MappedRegionCache.disabled(), BlobDiskCache.disabled(), "./target/test-blob-storage", 104857600L, 8388608L, StorageCircuitBreakers.withDefaults());
         MockMultipartFile txt = new MockMultipartFile(
             "file",
             "sample.txt",
@@ -40,6 +53,61 @@ class BlobStorageServiceTest {
         assertThrows(ValidationException.class, () -> service.uploadValidatedPdf("tenant/a.txt", txt));
     }
 
+    @Test
+    void streamedUploadStoresExactBytesAndMatchingHash(@TempDir Path root) throws Exception {
+        BlobStorageService service = new BlobStorageService(emptyProvider(), new BlockUploadEngine(4194304, 4, 3, 4), MappedRegionCache.disabled(), BlobDiskCache.disabled(), root.toString(), 104857600L, 8388608L, StorageCircuitBreakers.withDefaults());
+        byte[] content = new byte[3 * 1024 * 1024 + 17];
+        Arrays.fill(content, (byte) 'x');
+        System.arraycopy("%PDF-1.7".getBytes(StandardCharsets.US_ASCII), 0, content, 0, 8);
+        MockMultipartFile pdf = new MockMultipartFile("file", "large.pdf", "application/pdf", content);
+
+        String hash = service.uploadValidatedPdf("tenant/large.pdf", pdf);
+
+        assertArrayEquals(content, Files.readAllBytes(root.resolve("tenant/large.pdf")));
+        assertEquals(HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(content)), hash);
+        assertFalse(Files.exists(root.resolve("tenant/large.pdf.part")));
+    }
+
+    @Test
+    void rejectsFileLargerThanConfiguredLimit(@TempDir Path root) {
+        BlobStorageService service = new BlobStorageService(emptyProvider(), new BlockUploadEngine(4194304, 4, 3, 4), MappedRegionCache.disabled(), BlobDiskCache.disabled(), root.toString(), 16L, 8388608L, StorageCircuitBreakers.withDefaults());
+        MockMultipartFile pdf = new MockMultipartFile(
+            "file",
+            "big.pdf",
+            "application/pdf",
+            "%PDF-1.7\nmore than sixteen bytes".getBytes(StandardCharsets.UTF_8)
+        );
+
+        assertThrows(ValidationException.class, () -> service.uploadValidatedPdf("tenant/big.pdf", pdf));
+        assertFalse(Files.exists(root.resolve("tenant/big.pdf")));
+    }
+
+    @Test
+    void rangedReadReturnsOnlyRequestedBytes(@TempDir Path root) throws Exception {
+        BlobStorageService service = new BlobStorageService(emptyProvider(), new BlockUploadEngine(4194304, 4, 3, 4), MappedRegionCache.disabled(), BlobDiskCache.disabled(), root.toString(), 104857600L, 8388608L, StorageCircuitBreakers.withDefaults());
+        byte[] content = "%PDF-1.7\n0123456789".getBytes(StandardCharsets.US_ASCII);
+        service.uploadValidatedPdf("tenant/range.pdf", new MockMultipartFile("file", "range.pdf", "application/pdf", content));
+
+        try (InputStream range = service.downloadBlobRange("tenant/range.pdf", 9, 13)) {
+            assertArrayEquals("01234".getBytes(StandardCharsets.US_ASCII), range.readAllBytes());
+        }
+        try (InputStream tail = service.downloadBlobRange("tenant/range.pdf", 15, 100)) {
+            assertArrayEquals("6789".getBytes(StandardCharsets.US_ASCII), tail.readAllBytes());
+        }
+    }
+
+    @Test
+    void copyBlobLeavesIndependentTarget(@TempDir Path root) throws Exception {
+        BlobStorageService service = new BlobStorageService(emptyProvider(), new BlockUploadEngine(4194304, 4, 3, 4), MappedRegionCache.disabled(), BlobDiskCache.disabled(), root.toString(), 104857600L, 8388608L, StorageCircuitBreakers.withDefaults());
+        byte[] content = "%PDF-1.7\nversion one".getBytes(StandardCharsets.US_ASCII);
+        service.uploadValidatedPdf("tenant/doc_v1.pdf", new MockMultipartFile("file", "v1.pdf", "application/pdf", content));
+
+        service.copyBlob("tenant/doc_v1.pdf", "tenant/doc_v3.pdf");
+        service.deleteBlob("tenant/doc_v1.pdf");
+
+        assertArrayEquals(content, Files.readAllBytes(root.resolve("tenant/doc_v3.pdf")));
+    }
+
     private ObjectProvider<com.azure.storage.blob.BlobContainerClient> emptyProvider() {
         return new ObjectProvider<>() {
             @Override
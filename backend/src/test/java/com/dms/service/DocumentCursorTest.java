@@ -0,0 +1,43 @@
+package com.dms.service;
+
+import com.dms.domain.Document;
+import com.dms.exception.ValidationException;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class DocumentCursorTest {
+
+    @Test
+    void roundTripsThroughOpaqueToken() {
+        DocumentCursor cursor = new DocumentCursor(Instant.parse("2024-03-01T10:15:30.123456Z"), UUID.randomUUID());
+
+        String token = cursor.encode();
+
+        assertThat(token).doesNotContain("|", "=", "/", "+");
+        assertThat(DocumentCursor.decode(token)).isEqualTo(cursor);
+    }
+
+    @Test
+    void missingTokenStartsFromTheBeginningAndGarbageIsRejected() {
+        assertThat(DocumentCursor.decode(null)).isEqualTo(DocumentCursor.START);
+        assertThat(DocumentCursor.decode(" ")).isEqualTo(DocumentCursor.START);
+        assertThrows(ValidationException.class, () -> DocumentCursor.decode("not-a-cursor"));
+    }
+
+    @Test
+    void nextCursorPointsAtLastRowOfAFullPage() {
+        Document first = Document.builder().id(UUID.randomUUID()).createdAt(Instant.parse("2024-03-02T00:00:00Z")).build();
+        Document second = Document.builder().id(UUID.randomUUID()).createdAt(Instant.parse("2024-03-01T00:00:00Z")).build();
+        Document extra = Document.builder().id(UUID.randomUUID()).createdAt(Instant.parse("2024-02-28T00:00:00Z")).build();
+
+        assertThat(DocumentCursor.nextCursor(List.of(first, second), 2)).isNull();
+        assertThat(DocumentCursor.decode(DocumentCursor.nextCursor(List.of(first, second, extra), 2)))
+            .isEqualTo(new DocumentCursor(second.getCreatedAt(), second.getId()));
+    }
+}
@@ -0,0 +1,172 @@
+package com.dms.service;
+
+import com.dms.domain.Document;
+import com.dms.domain.DocumentType;
+import com.dms.domain.LegalHold;
+import com.dms.dto.response.CursorPageResponse;
+import com.dms.dto.response.DocumentResponse;
+import com.dms.repository.DocumentRepository;
+import com.dms.repository.DocumentTypeRepository;
+import com.dms.repository.DocumentVersionRepository;
+import com.dms.repository.LegalHoldRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Pins the statements {@link DocumentService#listDocuments} needs for a page of documents with type names
+ * and legal-hold flags, so a lazy association or per-row lookup creeping back in fails here instead of in
+ * production.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("local")
+class DocumentListingQueryCountTest {
+
+    @Autowired
+    private DocumentRepository documentRepository;
+
+    @Autowired
+    private DocumentTypeRepository documentTypeRepository;
+
+    @Autowired
+    private DocumentVersionRepository documentVersionRepository;
+
+    @Autowired
+    private LegalHoldRepository legalHoldRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private final TenantContext tenantContext = mock(TenantContext.class);
+
+    private DocumentService documentService;
+
+    @BeforeEach
+    void setUp() {
+        AuthorizationService authorizationService = mock(AuthorizationService.class);
+        when(authorizationService.currentEffectiveGroups()).thenReturn(Set.of(UUID.randomUUID()));
+        AuditService auditService = mock(AuditService.class);
+        documentService = new DocumentService(documentRepository, documentTypeRepository, documentVersionRepository,
+            tenantContext, mock(BlobStorageService.class), mock(BlobReferenceService.class),
+            mock(MetadataValidationService.class), auditService, authorizationService,
+            new LegalHoldService(legalHoldRepository, documentRepository, tenantContext, auditService));
+    }
+
+    @Test
+    void offsetListingUsesConstantNumberOfStatements() {
+        UUID smallTenant = UUID.randomUUID();
+        UUID largeTenant = UUID.randomUUID();
+        seed(smallTenant, 8);
+        seed(largeTenant, 120);
+
+        long small = statements(smallTenant, () -> documentService.listDocuments(PageRequest.of(0, 5)).getContent());
+        long large = statements(largeTenant, () -> documentService.listDocuments(PageRequest.of(0, 100)).getContent());
+
+        // page ids, one fetch join for documents and types, count, one batched legal-hold lookup
+        assertThat(small).isEqualTo(4);
+        assertThat(large).isEqualTo(small);
+    }
+
+    @Test
+    void cursorListingUsesConstantNumberOfStatements() {
+        UUID smallTenant = UUID.randomUUID();
+        UUID largeTenant = UUID.randomUUID();
+        seed(smallTenant, 8);
+        seed(largeTenant, 120);
+
+        long small = statements(smallTenant, () -> documentService.listDocuments(null, 5, false).getResults());
+        when(tenantContext.getCurrentTenantId()).thenReturn(largeTenant);
+        CursorPageResponse first = documentService.listDocuments(null, 50, false);
+        long large = statements(largeTenant, () -> documentService.listDocuments(first.getNextCursor(), 50, false).getResults());
+        long counted = statements(largeTenant, () -> documentService.listDocuments(first.getNextCursor(), 50, true).getResults());
+
+        // page ids, one fetch join for documents and types, one batched legal-hold lookup; the count only on request
+        assertThat(small).isEqualTo(3);
+        assertThat(large).isEqualTo(small);
+        assertThat(counted).isEqualTo(small + 1);
+    }
+
+    private long statements(UUID tenantId, Supplier<List<DocumentResponse>> listing) {
+        when(tenantContext.getCurrentTenantId()).thenReturn(tenantId);
+        entityManager.clear();
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        List<DocumentResponse> page = listing.get();
+        assertThat(page).isNotEmpty().allSatisfy(document -> {
+            assertThat(document.getDocumentTypeName()).isNotBlank();
+            assertThat(document.isHasActiveLegalHold()).isEqualTo(document.getMetadata().containsKey("held"));
+        });
+
+        return statistics.getPrepareStatementCount();
+    }
+
+    private void seed(UUID tenantId, int documents) {
+        DocumentType type = entityManager.persist(DocumentType.builder()
+            .tenantId(tenantId)
+            .name("invoice-" + UUID.randomUUID())
+            .displayName("invoice")
+            .description("invoice docs")
+            .metadataSchema(Map.of())
+            .allowedGroups(new UUID[0])
+            .retentionDays(365)
+            .minRetentionDays(0)
+            .active(true)
+            .createdAt(Instant.now())
+            .createdBy("test")
+            .entityVersion(0L)
+            .build());
+        for (int i = 0; i < documents; i++) {
+            boolean held = i % 2 == 0;
+            Document document = entityManager.persist(Document.builder()
+                .tenantId(tenantId)
+                .documentType(type)
+                .currentVersion(1)
+                .metadata(held ? Map.of("held", true) : Map.of())
+                .blobPath("blob/" + UUID.randomUUID() + ".pdf")
+                .fileSizeBytes(123L)
+                .contentType("application/pdf")
+                .contentHash("hash")
+                .createdAt(Instant.now())
+                .createdBy("test")
+                .retentionExpiresAt(Instant.now().plusSeconds(86400))
+                .entityVersion(0L)
+                .build());
+            if (held) {
+                entityManager.persist(LegalHold.builder()
+                    .tenantId(tenantId)
+                    .document(document)
+                    .caseReference("CASE-" + i)
+                    .reason("litigation")
+                    .placedAt(Instant.now())
+                    .placedBy("test")
+                    .entityVersion(0L)
+                    .build());
+            }
+        }
+        entityManager.flush();
+    }
+}
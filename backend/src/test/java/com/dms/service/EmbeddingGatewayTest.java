@@ -0,0 +1,190 @@
+package com.dms.service;
+
+import com.dms.domain.EmbeddingCacheEntry;
+import com.dms.exception.EmbeddingGenerationException;
+import com.dms.repository.EmbeddingCacheRepository;
+import com.dms.search.Embedding;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class EmbeddingGatewayTest {
+
+    @Mock
+    private EmbeddingCacheRepository embeddingCacheRepository;
+
+    private final RecordingProvider provider = new RecordingProvider();
+    private EmbeddingGateway gateway;
+
+    @AfterEach
+    void tearDown() {
+        gateway.shutdown();
+    }
+
+    @Test
+    void shouldEmbedEachDistinctTextOnceAndServeRepeatsFromMemory() {
+        gateway = gateway(16, 50);
+
+        List<Embedding> first = gateway.embed(List.of("Brake pressure", "  Brake\n pressure ", "Door lock"));
+        List<Embedding> second = gateway.embed(List.of("Door lock", "Brake pressure"));
+
+        assertThat(provider.batches).containsExactly(List.of("Brake pressure", "Door lock"));
+        assertThat(first.get(0)).isEqualTo(first.get(1)).isEqualTo(second.get(1));
+        assertThat(first.get(2)).isEqualTo(second.get(0)).isNotEqualTo(first.get(0));
+        assertThat(first.get(0)).isEqualTo(Embedding.of(new HashEmbeddingProvider().embed(List.of("Brake pressure")).get(0)));
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<EmbeddingCacheEntry>> saved = ArgumentCaptor.forClass(List.class);
+        verify(embeddingCacheRepository, timeout(1000)).insertIfAbsent(saved.capture());
+        assertThat(saved.getValue()).extracting(EmbeddingCacheEntry::getModel).containsOnly(provider.model());
+        assertThat(saved.getValue()).hasSize(2);
+    }
+
+    @Test
+    void shouldReusePersistedEmbeddingsWithoutCallingProvider() {
+        float[] stored = new HashEmbeddingProvider().embed(List.of("Seat heating")).get(0);
+        when(embeddingCacheRepository.findByModelAndTextHashIn(eq(provider.model()), anyCollection())).thenAnswer(invocation -> {
+            Collection<String> hashes = invocation.getArgument(1);
+            return hashes.stream().map(hash -> EmbeddingCacheEntry.of(provider.model(), hash, stored)).toList();
+        });
+        gateway = gateway(16, 0);
+
+        assertThat(gateway.embed(List.of("Seat heating"))).containsExactly(Embedding.of(stored));
+        assertThat(provider.batches).isEmpty();
+    }
+
+    @Test
+    void shouldCoalesceConcurrentCallersIntoBoundedBatches() throws Exception {
+        gateway = gateway(4, 200);
+        ExecutorService callers = Executors.newFixedThreadPool(10);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<List<Embedding>>> results = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            String text = "Requirement " + i;
+            results.add(callers.submit(() -> {
+                start.await();
+                return gateway.embed(List.of(text));
+            }));
+        }
+        start.countDown();
+        for (Future<List<Embedding>> result : results) {
+            assertThat(result.get()).hasSize(1);
+        }
+        callers.shutdown();
+
+        assertThat(provider.batches).allSatisfy(batch -> assertThat(batch).hasSizeLessThanOrEqualTo(4));
+        assertThat(provider.batches).hasSizeLessThan(10);
+        assertThat(provider.batches.stream().mapToInt(List::size).sum()).isEqualTo(10);
+    }
+
+    @Test
+    void shouldSurfaceProviderFailuresWithoutCachingThem() {
+        provider.failNext.set(true);
+        gateway = gateway(16, 0);
+
+        assertThatThrownBy(() -> gateway.embed(List.of("Mirror heating")))
+            .isInstanceOf(EmbeddingGenerationException.class);
+        assertThat(gateway.embed(List.of("Mirror heating"))).hasSize(1);
+        assertThat(provider.batches).hasSize(2);
+    }
+
+    @Test
+    void shouldGiveEachCallerOfAFailedBatchItsOwnException() throws Exception {
+        provider.failNext.set(true);
+        // A batch of two is sent as soon as both texts are queued, so they always fail together.
+        gateway = gateway(2, 5000);
+        ExecutorService callers = Executors.newFixedThreadPool(2);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Throwable>> failures = new ArrayList<>();
+        for (String text : List.of("Horn", "Hazard lights")) {
+            failures.add(callers.submit(() -> {
+                start.await();
+                try {
+                    gateway.embed(List.of(text));
+                    return null;
+                } catch (EmbeddingGenerationException e) {
+                    return e;
+                }
+            }));
+        }
+        start.countDown();
+        Throwable first = failures.get(0).get();
+        Throwable second = failures.get(1).get();
+        callers.shutdown();
+
+        assertThat(provider.batches).hasSize(1);
+        assertThat(first).isNotNull().isNotSameAs(second);
+        assertThat(second).isNotNull();
+        assertThat(first.getCause()).isSameAs(second.getCause());
+    }
+
+    @Test
+    void shouldRemoveCacheEntriesOlderThanTheRetention() {
+        gateway = gateway(16, 0);
+        ArgumentCaptor<Instant> cutoff = ArgumentCaptor.forClass(Instant.class);
+        when(embeddingCacheRepository.deleteCreatedBefore(cutoff.capture())).thenReturn(3);
+
+        gateway.expireCacheEntries();
+
+        assertThat(cutoff.getValue()).isBetween(Instant.now().minus(Duration.ofDays(181)), Instant.now().minus(Duration.ofDays(179)));
+    }
+
+    @Test
+    void shouldRejectBlankTexts() {
+        gateway = gateway(16, 0);
+
+        assertThatThrownBy(() -> gateway.embed(List.of("valid", " \t ")))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void shouldNormalizeWhitespaceAndLength() {
+        gateway = gateway(16, 0);
+
+        assertThat(EmbeddingGateway.normalize("  ECU\t\tself-test \n")).isEqualTo("ECU self-test");
+        assertThat(EmbeddingGateway.normalize("x".repeat(9000))).hasSize(8000);
+    }
+
+    private EmbeddingGateway gateway(int maxBatchSize, long maxWaitMillis) {
+        return new EmbeddingGateway(provider, embeddingCacheRepository, maxBatchSize, maxWaitMillis, 64, 5000, 100, 2, 0, 180);
+    }
+
+    private static final class RecordingProvider extends HashEmbeddingProvider {
+
+        private final List<List<String>> batches = Collections.synchronizedList(new ArrayList<>());
+        private final AtomicBoolean failNext = new AtomicBoolean();
+
+        @Override
+        public List<float[]> embed(List<String> texts) {
+            batches.add(List.copyOf(texts));
+            if (failNext.getAndSet(false)) {
+                throw new IllegalStateException("provider unavailable");
+            }
+            return super.embed(texts);
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package com.dms.service;
+
+import com.dms.repository.GroupRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class GroupHierarchyCacheTest {
+
+    @Mock
+    private GroupRepository groupRepository;
+
+    private GroupHierarchyCache cache;
+    private final UUID tenantId = UUID.randomUUID();
+    private final UUID root = UUID.randomUUID();
+    private final UUID finance = UUID.randomUUID();
+    private final UUID payroll = UUID.randomUUID();
+    private final UUID sales = UUID.randomUUID();
+
+    @BeforeEach
+    void setUp() {
+        cache = new GroupHierarchyCache(groupRepository, 300, 5000, 10000);
+        when(groupRepository.findIdsByTenantId(tenantId)).thenReturn(List.of(root, finance, payroll, sales));
+        when(groupRepository.findEffectiveGroupIds(tenantId, "alice")).thenReturn(List.of(payroll, finance, root));
+    }
+
+    @Test
+    void shouldResolveEffectiveGroupsOnceForRepeatedChecks() {
+        for (int i = 0; i < 100; i++) {
+            assertThat(cache.isMemberOfAny(tenantId, "alice", new UUID[]{root})).isTrue();
+            assertThat(cache.isMemberOfAny(tenantId, "alice", new UUID[]{sales, UUID.randomUUID()})).isFalse();
+        }
+
+        assertThat(cache.effectiveGroups(tenantId, "alice")).containsExactlyInAnyOrder(root, finance, payroll);
+        verify(groupRepository, times(1)).findIdsByTenantId(tenantId);
+        verify(groupRepository, times(1)).findEffectiveGroupIds(tenantId, "alice");
+    }
+
+    @Test
+    void shouldReloadOnlyTheUserWhenMembershipsChange() {
+        assertThat(cache.isMemberOfAny(tenantId, "alice", new UUID[]{sales})).isFalse();
+        when(groupRepository.findEffectiveGroupIds(tenantId, "alice")).thenReturn(List.of(payroll, finance, root, sales));
+
+        cache.invalidateUser(tenantId, "alice");
+
+        assertThat(cache.isMemberOfAny(tenantId, "alice", new UUID[]{sales})).isTrue();
+        verify(groupRepository, times(1)).findIdsByTenantId(tenantId);
+        verify(groupRepository, times(2)).findEffectiveGroupIds(tenantId, "alice");
+    }
+
+    @Test
+    void shouldReloadTenantWhenHierarchyChanges() {
+        UUID audit = UUID.randomUUID();
+        assertThat(cache.isMemberOfAny(tenantId, "alice", new UUID[]{audit})).isFalse();
+        when(groupRepository.findIdsByTenantId(tenantId)).thenReturn(List.of(root, finance, payroll, sales, audit));
+        when(groupRepository.findEffectiveGroupIds(tenantId, "alice")).thenReturn(List.of(payroll, audit, root));
+
+        cache.invalidateTenant(tenantId);
+
+        assertThat(cache.isMemberOfAny(tenantId, "alice", new UUID[]{audit})).isTrue();
+        assertThat(cache.isMemberOfAny(tenantId, "alice", new UUID[]{finance})).isFalse();
+    }
+
+    @Test
+    void shouldReloadWhenAnotherNodeChangedTheHierarchy() {
+        GroupHierarchyCache otherNode = new GroupHierarchyCache(groupRepository, 300, 0, 10000);
+        assertThat(otherNode.isMemberOfAny(tenantId, "alice", new UUID[]{sales})).isFalse();
+        when(groupRepository.findEffectiveGroupIds(tenantId, "alice")).thenReturn(List.of(sales));
+
+        cache.invalidateUser(tenantId, "alice");
+        when(groupRepository.findHierarchyGeneration(tenantId)).thenReturn(1L);
+
+        assertThat(otherNode.isMemberOfAny(tenantId, "alice", new UUID[]{sales})).isTrue();
+        assertThat(otherNode.isMemberOfAny(tenantId, "alice", new UUID[]{root})).isFalse();
+        verify(groupRepository).bumpHierarchyGeneration(tenantId);
+        verify(groupRepository, times(2)).findIdsByTenantId(tenantId);
+    }
+
+    @Test
+    void shouldEvictTheLeastRecentlySeenUser() {
+        GroupHierarchyCache small = new GroupHierarchyCache(groupRepository, 300, 5000, 2);
+        when(groupRepository.findEffectiveGroupIds(tenantId, "bob")).thenReturn(List.of(sales));
+        when(groupRepository.findEffectiveGroupIds(tenantId, "carol")).thenReturn(List.of(root));
+
+        small.effectiveGroups(tenantId, "alice");
+        small.effectiveGroups(tenantId, "bob");
+        small.effectiveGroups(tenantId, "alice");
+        small.effectiveGroups(tenantId, "carol");
+        small.effectiveGroups(tenantId, "alice");
+        small.effectiveGroups(tenantId, "bob");
+
+        verify(groupRepository, times(1)).findEffectiveGroupIds(tenantId, "alice");
+        verify(groupRepository, times(2)).findEffectiveGroupIds(tenantId, "bob");
+    }
+}
@@ -28,6 +28,8 @@ class GroupServiceTest {
     private TenantContext tenantContext;
     @Mock
     private AuditService auditService;
+    @Mock
+    private GroupHierarchyCache groupHierarchyCache;
     @InjectMocks
     private GroupService groupService;
 
@@ -37,7 +39,7 @@ class GroupServiceTest {
         when(tenantContext.getCurrentTenantId()).thenReturn(tenantId);
         when(tenantContext.getCurrentUserId()).thenReturn("admin");
         when(groupRepository.findByNameAndTenantId("finance", tenantId)).thenReturn(Optional.empty());
-        when(groupRepository.save(any())).thenAnswer(invocation -> invocation.getArgument(0));
+        when(groupRepository.saveAndFlush(any())).thenAnswer(invocation -> invocation.getArgument(0));
 
         Group result = groupService.createGroup("finance", "Finance", "Finance docs", null);
         assertEquals("finance", result.getName());
@@ -0,0 +1,79 @@
+package com.dms.service;
+
+import com.dms.dto.response.SearchFacetsResponse;
+import com.dms.repository.DocumentFacets;
+import com.dms.repository.DocumentRepository;
+import com.dms.repository.DocumentSearchCriteria;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class SearchFacetServiceTest {
+
+    @Mock
+    private DocumentRepository documentRepository;
+
+    private SearchFacetService searchFacetService;
+
+    @BeforeEach
+    void setUp() {
+        searchFacetService = new SearchFacetService(documentRepository, "status, customer", 5, 30, 100);
+        when(documentRepository.facets(any(), eq(List.of("status", "customer")), anyInt())).thenReturn(new DocumentFacets(
+            List.of(new DocumentFacets.FacetCount("type-1", "invoice", 3)),
+            List.of(new DocumentFacets.FacetCount("2024-01", null, 3)),
+            Map.of("status", List.of(new DocumentFacets.FacetCount("paid", "paid", 2)))));
+    }
+
+    @Test
+    void shouldServeRepeatedFiltersFromCacheRegardlessOfPaging() {
+        UUID tenantId = UUID.randomUUID();
+        DocumentSearchCriteria firstPage = criteria(tenantId, Set.of());
+        firstPage.setLimit(21);
+        DocumentSearchCriteria laterPage = criteria(tenantId, Set.of());
+        laterPage.setOffset(40);
+        laterPage.setLimit(20);
+
+        SearchFacetsResponse first = searchFacetService.facets(firstPage);
+        SearchFacetsResponse second = searchFacetService.facets(laterPage);
+
+        assertThat(second).isSameAs(first);
+        assertThat(first.getDocumentTypes()).singleElement()
+            .satisfies(bucket -> assertThat(bucket.getLabel()).isEqualTo("invoice"));
+        verify(documentRepository, times(1)).facets(any(), any(), eq(5));
+    }
+
+    @Test
+    void shouldNotShareFacetsBetweenGroupSets() {
+        UUID tenantId = UUID.randomUUID();
+
+        searchFacetService.facets(criteria(tenantId, Set.of()));
+        searchFacetService.facets(criteria(tenantId, Set.of(UUID.randomUUID())));
+        searchFacetService.facets(criteria(UUID.randomUUID(), Set.of()));
+
+        verify(documentRepository, times(3)).facets(any(), any(), anyInt());
+    }
+
+    private static DocumentSearchCriteria criteria(UUID tenantId, Set<UUID> groups) {
+        return DocumentSearchCriteria.builder()
+            .tenantId(tenantId)
+            .metadata(Map.of("status", "paid"))
+            .effectiveGroupIds(groups)
+            .build();
+    }
+}
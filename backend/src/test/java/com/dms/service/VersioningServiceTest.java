@@ -2,10 +2,12 @@ package com.dms.service;
 
 import com.dms.domain.Document;
 import com.dms.domain.DocumentType;
+import com.dms.domain.DocumentVersion;
 import com.dms.repository.DocumentRepository;
 import com.dms.repository.DocumentVersionRepository;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
@@ -14,7 +16,13 @@ import org.springframework.mock.web.MockMultipartFile;
 import java.util.Optional;
 import java.util.UUID;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -29,6 +37,8 @@ class VersioningServiceTest {
     @Mock
     private BlobStorageService blobStorageService;
     @Mock
+    private BlobReferenceService blobReferenceService;
+    @Mock
     private TenantContext tenantContext;
     @Mock
     private AuthorizationService authorizationService;
@@ -53,11 +63,78 @@ class VersioningServiceTest {
         when(tenantContext.getCurrentUserId()).thenReturn("alice");
         when(documentRepository.findByIdAndTenantId(documentId, tenantId)).thenReturn(Optional.of(document));
         MockMultipartFile file = new MockMultipartFile("file", "v2.pdf", "application/pdf", "%PDF-test".getBytes());
+        when(blobStorageService.uploadValidatedPdf(contains(documentId + "_v2.pdf"), eq(file))).thenReturn("new-hash");
+        when(blobReferenceService.adopt(eq(tenantId), contains(documentId + "_v2.pdf"), eq("new-hash"), eq(file.getSize())))
+            .thenAnswer(invocation -> new BlobReferenceService.StoredBlob(invocation.getArgument(1), "new-hash", false, false));
 
         versioningService.uploadNewVersion(documentId, file);
 
-        verify(documentVersionRepository, times(1)).save(any());
+        ArgumentCaptor<DocumentVersion> saved = ArgumentCaptor.forClass(DocumentVersion.class);
+        verify(documentVersionRepository, times(1)).save(saved.capture());
+        assertThat(saved.getValue().getBlobPath()).endsWith(documentId + "_v2.pdf");
+        assertThat(saved.getValue().getContentHash()).isEqualTo("new-hash");
         verify(documentRepository, times(1)).save(any());
+        verify(blobStorageService, never()).calculateContentHash(any());
+        verify(blobStorageService, never()).deleteBlob(anyString());
     }
-}
 
+    @Test
+    void shouldRecordNoOpVersion_whenContentMatchesCurrentVersion() {
+        UUID tenantId = UUID.randomUUID();
+        UUID documentId = UUID.randomUUID();
+        DocumentType documentType = DocumentType.builder().name("invoice").build();
+        Document document = Document.builder()
+            .id(documentId)
+            .tenantId(tenantId)
+            .documentType(documentType)
+            .currentVersion(1)
+            .blobPath("tenant/invoice/doc_v1.pdf")
+            .contentHash("same-hash")
+            .build();
+
+        when(tenantContext.getCurrentTenantId()).thenReturn(tenantId);
+        when(documentRepository.findByIdAndTenantId(documentId, tenantId)).thenReturn(Optional.of(document));
+        MockMultipartFile file = new MockMultipartFile("file", "v2.pdf", "application/pdf", "%PDF-test".getBytes());
+        when(blobStorageService.uploadValidatedPdf(contains(documentId + "_v2.pdf"), eq(file))).thenReturn("same-hash");
+
+        versioningService.uploadNewVersion(documentId, file);
+
+        ArgumentCaptor<DocumentVersion> saved = ArgumentCaptor.forClass(DocumentVersion.class);
+        verify(documentVersionRepository).save(saved.capture());
+        assertThat(saved.getValue().getBlobPath()).isEqualTo("tenant/invoice/doc_v1.pdf");
+        assertThat(saved.getValue().getVersionNumber()).isEqualTo(2);
+        verify(blobReferenceService, never()).adopt(any(), anyString(), anyString(), anyLong());
+        verify(blobReferenceService).retain(tenantId, "tenant/invoice/doc_v1.pdf");
+        verify(blobStorageService, never()).calculateContentHash(any());
+        verify(blobStorageService).deleteBlob(contains(documentId + "_v2.pdf"));
+    }
+
+    @Test
+    void shouldRestoreVersionWithServerSideCopy() {
+        UUID tenantId = UUID.randomUUID();
+        UUID documentId = UUID.randomUUID();
+        DocumentType documentType = DocumentType.builder().name("invoice").build();
+        Document document = Document.builder()
+            .id(documentId)
+            .tenantId(tenantId)
+            .documentType(documentType)
+            .currentVersion(2)
+            .build();
+        DocumentVersion previous = DocumentVersion.builder()
+            .versionNumber(1)
+            .blobPath("tenant/invoice/doc_v1.pdf")
+            .fileSizeBytes(9L)
+            .contentType("application/pdf")
+            .build();
+
+        when(tenantContext.getCurrentTenantId()).thenReturn(tenantId);
+        when(documentRepository.findByIdAndTenantId(documentId, tenantId)).thenReturn(Optional.of(document));
+        when(documentVersionRepository.findByDocumentAndVersionNumber(document, 1)).thenReturn(Optional.of(previous));
+
+        versioningService.restoreVersion(documentId, 1);
+
+        verify(blobStorageService).copyBlob(eq("tenant/invoice/doc_v1.pdf"), contains(documentId + "_v3.pdf"));
+        verify(blobStorageService, never()).downloadBlob(any());
+        verify(documentVersionRepository, times(1)).save(any());
+    }
+}
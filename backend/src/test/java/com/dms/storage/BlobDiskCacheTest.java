@@ -0,0 +1,94 @@
+package com.dms.storage;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BlobDiskCacheTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    @Test
+    void concurrentMissesShareOneFetch(@TempDir Path root) throws Exception {
+        BlobDiskCache cache = new BlobDiskCache(true, root.toString(), 1024, registry);
+        AtomicInteger fetches = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Path>> results = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                results.add(pool.submit(() -> cache.fetch("tenant/doc.pdf", "hash1", () -> {
+                    fetches.incrementAndGet();
+                    release.await(5, TimeUnit.SECONDS);
+                    return new ByteArrayInputStream("%PDF-shared".getBytes(StandardCharsets.US_ASCII));
+                })));
+            }
+            Thread.sleep(100);
+            release.countDown();
+            for (Future<Path> result : results) {
+                assertThat(Files.readString(result.get(5, TimeUnit.SECONDS))).isEqualTo("%PDF-shared");
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        assertThat(fetches.get()).isEqualTo(1);
+    }
+
+    @Test
+    void evictsLeastRecentlyUsedEntriesBySize(@TempDir Path root) throws Exception {
+        BlobDiskCache cache = new BlobDiskCache(true, root.toString(), 20, registry);
+        Path first = cache.fetch("a.pdf", "h", () -> content("0123456789"));
+        cache.fetch("b.pdf", "h", () -> content("0123456789"));
+        cache.fetch("a.pdf", "h", () -> content("unexpected"));
+        cache.fetch("c.pdf", "h", () -> content("0123456789"));
+
+        assertThat(Files.exists(first)).isTrue();
+        assertThat(cache.getCachedBytes()).isEqualTo(20);
+        assertThat(registry.counter("dms.blob.cache.evictions").count()).isEqualTo(1);
+        assertThat(registry.counter("dms.blob.cache.requests", "result", "hit").count()).isEqualTo(1);
+        assertThat(registry.counter("dms.blob.cache.requests", "result", "miss").count()).isEqualTo(3);
+    }
+
+    @Test
+    void invalidateDropsEveryVersionOfBlob(@TempDir Path root) throws Exception {
+        BlobDiskCache cache = new BlobDiskCache(true, root.toString(), 1024, registry);
+        Path v1 = cache.fetch("tenant/doc.pdf", "h1", () -> content("one"));
+        Path v2 = cache.fetch("tenant/doc.pdf", "h2", () -> content("two"));
+
+        cache.invalidate("tenant/doc.pdf");
+
+        assertThat(Files.exists(v1)).isFalse();
+        assertThat(Files.exists(v2)).isFalse();
+        assertThat(cache.getCachedBytes()).isZero();
+    }
+
+    @Test
+    void reloadsEntriesLeftOnDisk(@TempDir Path root) throws Exception {
+        new BlobDiskCache(true, root.toString(), 1024, registry).fetch("tenant/doc.pdf", "h1", () -> content("persisted"));
+
+        BlobDiskCache restarted = new BlobDiskCache(true, root.toString(), 1024, new SimpleMeterRegistry());
+        Path cached = restarted.fetch("tenant/doc.pdf", "h1", () -> content("refetched"));
+
+        assertThat(Files.readString(cached)).isEqualTo("persisted");
+    }
+
+    private static ByteArrayInputStream content(String value) {
+        return new ByteArrayInputStream(value.getBytes(StandardCharsets.US_ASCII));
+    }
+}
@@ -0,0 +1,69 @@
+package com.dms.storage;
+
+import com.dms.exception.BlobStorageException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class BlockUploadEngineTest {
+
+    private static final int BLOCK_SIZE = 64 * 1024;
+
+    private final BlockUploadEngine engine = new BlockUploadEngine(BLOCK_SIZE, 4, 2, 8);
+
+    @AfterEach
+    void tearDown() {
+        engine.shutdown();
+    }
+
+    @Test
+    void stagesBlocksInParallelAndCommitsInOrder() {
+        byte[] content = randomBytes(BLOCK_SIZE * 8 + 123);
+        InMemoryBlockStagingClient container = new InMemoryBlockStagingClient(0);
+        container.rendezvous(4);
+
+        long uploaded = engine.upload(new ByteArrayInputStream(content), container, "application/pdf");
+
+        assertThat(uploaded).isEqualTo(content.length);
+        assertThat(container.committed()).isEqualTo(content);
+        assertThat(container.committedContentType()).isEqualTo("application/pdf");
+        // The first four stage calls only proceed once all four are in flight together.
+        assertThat(container.maxInFlight()).isEqualTo(4);
+    }
+
+    @Test
+    void retriesOnlyTheFailedBlock() {
+        byte[] content = randomBytes(BLOCK_SIZE * 4);
+        InMemoryBlockStagingClient container = new InMemoryBlockStagingClient(0);
+        container.failBlock(2, 2);
+
+        engine.upload(new ByteArrayInputStream(content), container, "application/pdf");
+
+        assertThat(container.committed()).isEqualTo(content);
+        assertThat(container.attempts(0)).isEqualTo(1);
+        assertThat(container.attempts(1)).isEqualTo(1);
+        assertThat(container.attempts(2)).isEqualTo(3);
+        assertThat(container.attempts(3)).isEqualTo(1);
+    }
+
+    @Test
+    void failsWithoutCommittingWhenRetriesAreExhausted() {
+        InMemoryBlockStagingClient container = new InMemoryBlockStagingClient(0);
+        container.failBlock(1, 5);
+
+        assertThrows(BlobStorageException.class,
+            () -> engine.upload(new ByteArrayInputStream(randomBytes(BLOCK_SIZE * 3)), container, "application/pdf"));
+        assertThat(container.committed()).isNull();
+    }
+
+    private byte[] randomBytes(int length) {
+        byte[] bytes = new byte[length];
+        new Random(42).nextBytes(bytes);
+        return bytes;
+    }
+}
@@ -0,0 +1,87 @@
+package com.dms.storage;
+
+import com.dms.exception.BlobStorageException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class BulkArchiveWriterTest {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final BulkArchiveWriter writer = new BulkArchiveWriter(3, BUFFER_SIZE, 4);
+
+    @AfterEach
+    void tearDown() {
+        writer.shutdown();
+    }
+
+    @Test
+    void writesEntriesInRequestOrderWithStoredSmallBlobs() throws Exception {
+        Map<String, byte[]> blobs = new HashMap<>();
+        List<BulkArchiveWriter.ArchiveEntry> entries = new ArrayList<>();
+        Random random = new Random(11);
+        for (int i = 0; i < 12; i++) {
+            // every fourth blob is larger than the prefetch buffer and has to be streamed
+            byte[] content = new byte[i % 4 == 3 ? BUFFER_SIZE * 2 + i : 1000 + i];
+            random.nextBytes(content);
+            blobs.put("blob-" + i, content);
+            entries.add(new BulkArchiveWriter.ArchiveEntry("doc-" + i + ".pdf", "blob-" + i, null, content.length));
+        }
+        AtomicInteger open = new AtomicInteger();
+        AtomicInteger maxOpen = new AtomicInteger();
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        writer.prepare(entries, entry -> {
+            maxOpen.accumulateAndGet(open.incrementAndGet(), Math::max);
+            return new ByteArrayInputStream(blobs.get(entry.blobPath())) {
+                @Override
+                public void close() {
+                    open.decrementAndGet();
+                }
+            };
+        }).writeTo(out);
+
+        try (ZipInputStream zip = new ZipInputStream(new ByteArrayInputStream(out.toByteArray()))) {
+            for (int i = 0; i < 12; i++) {
+                ZipEntry entry = zip.getNextEntry();
+                assertThat(entry.getName()).isEqualTo("doc-" + i + ".pdf");
+                assertThat(entry.getMethod()).isEqualTo(i % 4 == 3 ? ZipEntry.DEFLATED : ZipEntry.STORED);
+                assertThat(zip.readAllBytes()).isEqualTo(blobs.get("blob-" + i));
+            }
+            assertThat(zip.getNextEntry()).isNull();
+        }
+        assertThat(open.get()).isZero();
+        // the entry being written plus the prefetch window
+        assertThat(maxOpen.get()).isLessThanOrEqualTo(4);
+    }
+
+    @Test
+    void failsWhenABlobCannotBeRead() {
+        List<BulkArchiveWriter.ArchiveEntry> entries = List.of(
+            new BulkArchiveWriter.ArchiveEntry("a.pdf", "a", null, 3),
+            new BulkArchiveWriter.ArchiveEntry("b.pdf", "b", null, 3));
+
+        BulkArchiveWriter.Archive archive = writer.prepare(entries, entry -> {
+            if (entry.blobPath().equals("b")) {
+                throw new java.io.FileNotFoundException(entry.blobPath());
+            }
+            return new ByteArrayInputStream(new byte[] { 1, 2, 3 });
+        });
+
+        assertThrows(BlobStorageException.class, () -> archive.writeTo(new ByteArrayOutputStream()));
+    }
+}
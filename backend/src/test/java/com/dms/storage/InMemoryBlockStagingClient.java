@@ -0,0 +1,102 @@
+package com.dms.storage;
+
+import java.io.ByteArrayOutputStream;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Local stand-in for an Azure block blob: stages blocks in memory with optional latency
+ * and injected failures so upload behaviour can be measured without a storage account.
+ */
+class InMemoryBlockStagingClient implements BlockStagingClient {
+
+    private final long stageLatencyMillis;
+    private final Map<String, byte[]> stagedBlocks = new ConcurrentHashMap<>();
+    private final Map<String, AtomicInteger> stageAttempts = new ConcurrentHashMap<>();
+    private final Map<String, Integer> failuresToInject = new ConcurrentHashMap<>();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger maxInFlight = new AtomicInteger();
+    private volatile CountDownLatch rendezvous;
+    private volatile byte[] committed;
+    private volatile String committedContentType;
+
+    InMemoryBlockStagingClient(long stageLatencyMillis) {
+        this.stageLatencyMillis = stageLatencyMillis;
+    }
+
+    void failBlock(int index, int times) {
+        failuresToInject.put(BlockUploadEngine.blockId(index), times);
+    }
+
+    /**
+     * Holds each of the first {@code parties} stage calls until that many are in flight at once (or a
+     * generous timeout passes), so parallelism shows up in {@link #maxInFlight()} regardless of timing.
+     */
+    void rendezvous(int parties) {
+        rendezvous = new CountDownLatch(parties);
+    }
+
+    @Override
+    public void stageBlock(String blockId, byte[] data, int length) {
+        stageAttempts.computeIfAbsent(blockId, id -> new AtomicInteger()).incrementAndGet();
+        int current = inFlight.incrementAndGet();
+        maxInFlight.accumulateAndGet(current, Math::max);
+        try {
+            CountDownLatch latch = rendezvous;
+            if (latch != null && latch.getCount() > 0) {
+                latch.countDown();
+                latch.await(10, TimeUnit.SECONDS);
+            }
+            if (stageLatencyMillis > 0) {
+                Thread.sleep(stageLatencyMillis);
+            }
+            Integer remainingFailures = failuresToInject.get(blockId);
+            if (remainingFailures != null && remainingFailures > 0) {
+                failuresToInject.put(blockId, remainingFailures - 1);
+                throw new IllegalStateException("Injected failure for block " + blockId);
+            }
+            stagedBlocks.put(blockId, Arrays.copyOf(data, length));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        } finally {
+            inFlight.decrementAndGet();
+        }
+    }
+
+    @Override
+    public void commitBlockList(List<String> blockIds, String contentType) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        for (String blockId : blockIds) {
+            byte[] block = stagedBlocks.get(blockId);
+            if (block == null) {
+                throw new IllegalStateException("Block was never staged: " + blockId);
+            }
+            out.writeBytes(block);
+        }
+        committed = out.toByteArray();
+        committedContentType = contentType;
+    }
+
+    byte[] committed() {
+        return committed;
+    }
+
+    String committedContentType() {
+        return committedContentType;
+    }
+
+    int attempts(int index) {
+        AtomicInteger attempts = stageAttempts.get(BlockUploadEngine.blockId(index));
+        return attempts == null ? 0 : attempts.get();
+    }
+
+    int maxInFlight() {
+        return maxInFlight.get();
+    }
+}
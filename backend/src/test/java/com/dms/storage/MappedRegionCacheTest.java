@@ -0,0 +1,76 @@
+package com.dms.storage;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MappedRegionCacheTest {
+
+    @Test
+    void returnsNullWhenDisabled(@TempDir Path root) throws Exception {
+        Path file = write(root.resolve("a.pdf"), "%PDF-1.7 disabled");
+
+        assertThat(MappedRegionCache.disabled().get(file)).isNull();
+    }
+
+    @Test
+    void evictsLeastRecentlyUsedMappingWhenOverBudget(@TempDir Path root) throws Exception {
+        MappedRegionCache cache = new MappedRegionCache(true, 30, 30);
+        Path first = write(root.resolve("first.pdf"), "%PDF-1.7 first file");
+        Path second = write(root.resolve("second.pdf"), "%PDF-1.7 second file");
+
+        cache.get(first);
+        cache.get(second);
+
+        assertThat(cache.getMappedBytes()).isEqualTo(Files.size(second));
+    }
+
+    @Test
+    void remapsFileOnceInvalidated(@TempDir Path root) throws Exception {
+        MappedRegionCache cache = new MappedRegionCache(true, 1024, 1024);
+        Path file = write(root.resolve("doc.pdf"), "%PDF-1.7 original");
+        assertThat(read(cache.get(file))).isEqualTo("%PDF-1.7 original");
+
+        cache.invalidate(file);
+        write(file, "%PDF-1.7 replaced content");
+
+        assertThat(read(cache.get(file))).isEqualTo("%PDF-1.7 replaced content");
+        assertThat(cache.getMappedBytes()).isEqualTo(Files.size(file));
+    }
+
+    @Test
+    void localBlobResourceWritesMappedAndUnmappedContentIdentically(@TempDir Path root) throws Exception {
+        MappedRegionCache cache = new MappedRegionCache(true, 1024, 1024);
+        Path file = write(root.resolve("doc.pdf"), "%PDF-1.7 zero copy");
+        long size = Files.size(file);
+
+        ByteArrayOutputStream mapped = new ByteArrayOutputStream();
+        new LocalBlobResource(file, size, cache.get(file)).writeTo(mapped, 9, 4);
+        ByteArrayOutputStream transferred = new ByteArrayOutputStream();
+        new LocalBlobResource(file, size, null).writeTo(transferred, 9, 4);
+
+        assertThat(mapped.toString(StandardCharsets.US_ASCII)).isEqualTo("zero");
+        assertThat(transferred.toString(StandardCharsets.US_ASCII)).isEqualTo("zero");
+
+        ByteArrayOutputStream whole = new ByteArrayOutputStream();
+        new LocalBlobResource(file, size, cache.get(file)).writeTo(whole);
+        assertThat(whole.toString(StandardCharsets.US_ASCII)).isEqualTo("%PDF-1.7 zero copy");
+    }
+
+    private static Path write(Path file, String content) throws Exception {
+        return Files.writeString(file, content, StandardCharsets.US_ASCII);
+    }
+
+    private static String read(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.remaining()];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.US_ASCII);
+    }
+}
@@ -0,0 +1,58 @@
+package com.dms.storage;
+
+import com.dms.exception.ValidationException;
+import org.junit.jupiter.api.Test;
+
+import java.security.MessageDigest;
+import java.util.HexFormat;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ResumableSha256Test {
+
+    @Test
+    void matchesMessageDigestAcrossExportAndRestore() throws Exception {
+        Random random = new Random(11);
+        for (int round = 0; round < 200; round++) {
+            byte[] content = new byte[random.nextInt(700)];
+            random.nextBytes(content);
+            ResumableSha256 sha = new ResumableSha256();
+            int position = 0;
+            while (position < content.length) {
+                int count = Math.min(content.length - position, random.nextInt(130));
+                sha.update(content, position, count);
+                position += count;
+                sha = ResumableSha256.restore(sha.exportState());
+            }
+
+            assertThat(sha.hexDigest()).isEqualTo(sha256(content));
+            assertThat(sha.length()).isEqualTo(content.length);
+        }
+    }
+
+    @Test
+    void digestDoesNotEndTheHash() throws Exception {
+        byte[] content = new byte[100];
+        new Random(3).nextBytes(content);
+        ResumableSha256 sha = new ResumableSha256();
+        sha.update(content, 0, 60);
+        sha.hexDigest();
+        sha.update(content, 60, 40);
+
+        assertThat(sha.hexDigest()).isEqualTo(sha256(content));
+    }
+
+    @Test
+    void rejectsCorruptState() {
+        String state = new ResumableSha256().exportState();
+
+        assertThrows(ValidationException.class, () -> ResumableSha256.restore("not base64!"));
+        assertThrows(ValidationException.class, () -> ResumableSha256.restore(state.substring(0, 8)));
+    }
+
+    private static String sha256(byte[] content) throws Exception {
+        return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(content));
+    }
+}
@@ -0,0 +1,148 @@
+package com.dms.storage;
+
+import com.dms.exception.ValidationException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.HexFormat;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class StagedUploadTest {
+
+    private static final int BLOCK_SIZE = 64 * 1024;
+
+    @Test
+    void assemblesPartsInOrderAndHashesIncrementally() throws Exception {
+        byte[] content = pdfBytes(BLOCK_SIZE * 3 + 17);
+        InMemoryBlockStagingClient container = new InMemoryBlockStagingClient(0);
+        StagedUpload upload = new StagedUpload(container, BLOCK_SIZE, BLOCK_SIZE * 2L, Long.MAX_VALUE);
+
+        upload.uploadPart(1, new ByteArrayInputStream(content, 0, BLOCK_SIZE * 2));
+        upload.uploadPart(2, new ByteArrayInputStream(content, BLOCK_SIZE * 2, content.length - BLOCK_SIZE * 2));
+        String sha256 = upload.complete("application/pdf");
+
+        assertThat(container.committed()).isEqualTo(content);
+        assertThat(upload.getTotalBytes()).isEqualTo(content.length);
+        assertThat(sha256).isEqualTo(sha256(content));
+    }
+
+    @Test
+    void resendingLastPartReplacesIt() throws Exception {
+        byte[] content = pdfBytes(BLOCK_SIZE + 100);
+        InMemoryBlockStagingClient container = new InMemoryBlockStagingClient(0);
+        StagedUpload upload = new StagedUpload(container, BLOCK_SIZE, Long.MAX_VALUE, Long.MAX_VALUE);
+
+        upload.uploadPart(1, new ByteArrayInputStream(content, 0, BLOCK_SIZE));
+        upload.uploadPart(2, new ByteArrayInputStream(new byte[] { 1, 2, 3 }));
+        upload.uploadPart(2, new ByteArrayInputStream(content, BLOCK_SIZE, 100));
+
+        assertThat(upload.complete("application/pdf")).isEqualTo(sha256(content));
+        assertThat(container.committed()).isEqualTo(content);
+    }
+
+    @Test
+    void failedRetryOfLastPartKeepsTheRecordedBlocks() throws Exception {
+        byte[] content = pdfBytes(BLOCK_SIZE * 3);
+        InMemoryBlockStagingClient container = new InMemoryBlockStagingClient(0);
+        StagedUpload upload = new StagedUpload(container, BLOCK_SIZE, Long.MAX_VALUE, Long.MAX_VALUE);
+        upload.uploadPart(1, new ByteArrayInputStream(content, 0, BLOCK_SIZE));
+        upload.uploadPart(2, new ByteArrayInputStream(content, BLOCK_SIZE, BLOCK_SIZE * 2));
+
+        InputStream brokenRetry = new SequenceInputStream(new ByteArrayInputStream(new byte[BLOCK_SIZE]), new InputStream() {
+            @Override
+            public int read() throws IOException {
+                throw new IOException("connection reset");
+            }
+        });
+        assertThrows(IOException.class, () -> upload.uploadPart(2, brokenRetry));
+
+        assertThat(upload.complete("application/pdf")).isEqualTo(sha256(content));
+        assertThat(container.committed()).isEqualTo(content);
+    }
+
+    @Test
+    void resumedUploadContinuesFromRecordedProgress() throws Exception {
+        byte[] content = pdfBytes(BLOCK_SIZE * 2 + 9);
+        InMemoryBlockStagingClient container = new InMemoryBlockStagingClient(0);
+        StagedUpload first = new StagedUpload(container, BLOCK_SIZE, Long.MAX_VALUE, Long.MAX_VALUE);
+        // A part that does not end on a SHA-256 block boundary leaves bytes in the exported state.
+        first.uploadPart(1, new ByteArrayInputStream(content, 0, BLOCK_SIZE - 3));
+        first.uploadPart(2, new ByteArrayInputStream(new byte[] { 1, 2, 3 }));
+
+        StagedUpload resumed = StagedUpload.resume(container, BLOCK_SIZE, Long.MAX_VALUE, Long.MAX_VALUE, first.progress());
+        resumed.uploadPart(2, new ByteArrayInputStream(content, BLOCK_SIZE - 3, BLOCK_SIZE + 3));
+        resumed.uploadPart(3, new ByteArrayInputStream(content, BLOCK_SIZE * 2, 9));
+
+        assertThat(resumed.getLastPartNumber()).isEqualTo(3);
+        assertThat(resumed.getTotalBytes()).isEqualTo(content.length);
+        assertThat(resumed.complete("application/pdf")).isEqualTo(sha256(content));
+        assertThat(container.committed()).isEqualTo(content);
+    }
+
+    @Test
+    void refusesToResumeProgressWithoutDigestState() throws Exception {
+        InMemoryBlockStagingClient container = new InMemoryBlockStagingClient(0);
+        StagedUpload first = new StagedUpload(container, BLOCK_SIZE, Long.MAX_VALUE, Long.MAX_VALUE);
+        first.uploadPart(1, new ByteArrayInputStream(pdfBytes(10)));
+        StagedUpload.Progress progress = first.progress();
+        StagedUpload.Progress legacy = new StagedUpload.Progress(progress.partBlocks(), progress.totalBytes(),
+            progress.bytesBeforeLastPart(), progress.lastPartAttempt(), null, null);
+
+        assertThrows(ValidationException.class,
+            () -> StagedUpload.resume(container, BLOCK_SIZE, Long.MAX_VALUE, Long.MAX_VALUE, legacy));
+    }
+
+    @Test
+    void rejectsPartsOutOfOrder() throws Exception {
+        StagedUpload upload = new StagedUpload(new InMemoryBlockStagingClient(0), BLOCK_SIZE, Long.MAX_VALUE, Long.MAX_VALUE);
+        upload.uploadPart(1, new ByteArrayInputStream(pdfBytes(10)));
+
+        assertThrows(ValidationException.class, () -> upload.uploadPart(3, new ByteArrayInputStream(new byte[10])));
+        assertThat(upload.getLastPartNumber()).isEqualTo(1);
+    }
+
+    @Test
+    void rejectsNonPdfFirstPartAndOversizedUpload() {
+        StagedUpload notPdf = new StagedUpload(new InMemoryBlockStagingClient(0), BLOCK_SIZE, Long.MAX_VALUE, Long.MAX_VALUE);
+        assertThrows(ValidationException.class, () -> notPdf.uploadPart(1, new ByteArrayInputStream("hello world".getBytes())));
+
+        StagedUpload tooLarge = new StagedUpload(new InMemoryBlockStagingClient(0), BLOCK_SIZE, Long.MAX_VALUE, 100);
+        assertThrows(ValidationException.class, () -> tooLarge.uploadPart(1, new ByteArrayInputStream(pdfBytes(101))));
+        assertThat(tooLarge.getTotalBytes()).isZero();
+    }
+
+    @Test
+    void localStagingCommitsBlocksIntoTargetFile(@TempDir Path root) throws Exception {
+        byte[] content = pdfBytes(BLOCK_SIZE * 2 + 5);
+        Path target = root.resolve("tenant/type/doc_v1.pdf");
+        StagedUpload upload = new StagedUpload(new LocalBlockStagingClient(target), BLOCK_SIZE, Long.MAX_VALUE, Long.MAX_VALUE);
+
+        upload.uploadPart(1, new ByteArrayInputStream(content, 0, BLOCK_SIZE));
+        upload.uploadPart(2, new ByteArrayInputStream(content, BLOCK_SIZE, content.length - BLOCK_SIZE));
+        upload.complete("application/pdf");
+
+        assertThat(Files.readAllBytes(target)).isEqualTo(content);
+        assertThat(root.resolve("tenant/type/doc_v1.pdf.blocks")).doesNotExist();
+    }
+
+    private static byte[] pdfBytes(int length) {
+        byte[] content = new byte[length];
+        new Random(7).nextBytes(content);
+        System.arraycopy("%PDF-".getBytes(), 0, content, 0, Math.min(5, length));
+        return content;
+    }
+
+    private static String sha256(byte[] content) throws Exception {
+        return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(content));
+    }
+}
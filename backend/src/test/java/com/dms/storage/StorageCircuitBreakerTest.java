@@ -0,0 +1,192 @@
+package com.dms.storage;
+
+import com.dms.exception.BlobStorageException;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class StorageCircuitBreakerTest {
+
+    private static final StorageCircuitBreaker.FailureClassifier NOT_FOUND_IS_HEALTHY =
+        ex -> !(ex instanceof FileNotFoundException);
+
+    private final MutableClock clock = new MutableClock();
+
+    @Test
+    void opensWhenFailureRateOverWindowReachesThreshold() {
+        StorageCircuitBreaker breaker = breaker(4, 10);
+        succeed(breaker);
+        succeed(breaker);
+        fail(breaker, new IOException("boom"));
+        assertThat(breaker.getState()).isEqualTo(StorageCircuitBreaker.State.CLOSED);
+
+        fail(breaker, new IOException("boom"));
+
+        assertThat(breaker.getState()).isEqualTo(StorageCircuitBreaker.State.OPEN);
+        assertThrows(BlobStorageException.class, () -> breaker.execute(() -> "unreachable", NOT_FOUND_IS_HEALTHY));
+    }
+
+    @Test
+    void clientErrorsDoNotCountAgainstBreaker() {
+        StorageCircuitBreaker breaker = breaker(4, 10);
+        for (int i = 0; i < 8; i++) {
+            fail(breaker, new FileNotFoundException("missing"));
+        }
+
+        assertThat(breaker.getState()).isEqualTo(StorageCircuitBreaker.State.CLOSED);
+        assertThat(breaker.getFailureRate()).isZero();
+    }
+
+    @Test
+    void halfOpenProbesCloseBreakerAfterSuccessfulTrialCalls() {
+        StorageCircuitBreaker breaker = breaker(2, 10);
+        fail(breaker, new IOException("boom"));
+        fail(breaker, new IOException("boom"));
+        assertThat(breaker.getState()).isEqualTo(StorageCircuitBreaker.State.OPEN);
+
+        clock.advance(Duration.ofSeconds(30));
+        assertThat(breaker.getState()).isEqualTo(StorageCircuitBreaker.State.HALF_OPEN);
+        succeed(breaker);
+        succeed(breaker);
+
+        assertThat(breaker.getState()).isEqualTo(StorageCircuitBreaker.State.CLOSED);
+    }
+
+    @Test
+    void failedProbeReopensBreaker() {
+        StorageCircuitBreaker breaker = breaker(2, 10);
+        fail(breaker, new IOException("boom"));
+        fail(breaker, new IOException("boom"));
+        clock.advance(Duration.ofSeconds(30));
+
+        fail(breaker, new IOException("still down"));
+
+        assertThat(breaker.getState()).isEqualTo(StorageCircuitBreaker.State.OPEN);
+    }
+
+    @Test
+    void bulkheadRejectsCallsBeyondConcurrencyLimit() throws Exception {
+        StorageCircuitBreaker breaker = breaker(4, 1);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Thread holder = new Thread(() -> {
+            try {
+                breaker.execute(() -> {
+                    started.countDown();
+                    return release.await(5, TimeUnit.SECONDS);
+                }, NOT_FOUND_IS_HEALTHY);
+            } catch (Exception ignored) {
+                // the test only cares about the second caller
+            }
+        });
+        holder.start();
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+
+        assertThrows(BlobStorageException.class, () -> breaker.execute(() -> "second", NOT_FOUND_IS_HEALTHY));
+        assertThat(breaker.snapshot()).containsEntry("rejectedCalls", 1L);
+
+        release.countDown();
+        holder.join();
+        assertThat(breaker.execute(() -> "after", NOT_FOUND_IS_HEALTHY)).isEqualTo("after");
+    }
+
+    @Test
+    void streamHoldsBulkheadPermitUntilClosed() throws Exception {
+        StorageCircuitBreaker breaker = breaker(4, 1);
+        InputStream stream = breaker.executeStream(() -> new ByteArrayInputStream(new byte[]{1, 2}), NOT_FOUND_IS_HEALTHY);
+
+        assertThrows(BlobStorageException.class, () -> breaker.execute(() -> "second", NOT_FOUND_IS_HEALTHY));
+        assertThat(stream.readAllBytes()).containsExactly(1, 2);
+        stream.close();
+        stream.close();
+
+        assertThat(breaker.snapshot()).containsEntry("concurrentCalls", 0);
+        assertThat(breaker.execute(() -> "after", NOT_FOUND_IS_HEALTHY)).isEqualTo("after");
+    }
+
+    @Test
+    void failedReadsCountAgainstBreaker() throws Exception {
+        StorageCircuitBreaker breaker = breaker(2, 10);
+        for (int i = 0; i < 2; i++) {
+            try (InputStream stream = breaker.executeStream(() -> new InputStream() {
+                @Override
+                public int read() throws IOException {
+                    throw new IOException("connection reset");
+                }
+            }, NOT_FOUND_IS_HEALTHY)) {
+                assertThrows(IOException.class, stream::read);
+            }
+        }
+
+        assertThat(breaker.getState()).isEqualTo(StorageCircuitBreaker.State.OPEN);
+        assertThat(breaker.snapshot()).containsEntry("concurrentCalls", 0);
+    }
+
+    @Test
+    void breakersAreIsolatedPerOperation() {
+        StorageCircuitBreakers breakers = new StorageCircuitBreakers(2, 2, 50, 60, 1, 4, 0, "download:16");
+        StorageCircuitBreaker delete = breakers.get(StorageOperation.DELETE);
+        fail(delete, new IOException("boom"));
+        fail(delete, new IOException("boom"));
+
+        assertThat(delete.getState()).isEqualTo(StorageCircuitBreaker.State.OPEN);
+        assertThat(breakers.get(StorageOperation.DOWNLOAD).getState()).isEqualTo(StorageCircuitBreaker.State.CLOSED);
+        assertThat(breakers.snapshot().get("download")).containsEntry("maxConcurrentCalls", 16);
+    }
+
+    private StorageCircuitBreaker breaker(int windowSize, int maxConcurrentCalls) {
+        return new StorageCircuitBreaker(StorageOperation.DOWNLOAD, windowSize, windowSize, 50,
+            Duration.ofSeconds(30), 2, maxConcurrentCalls, 0, clock);
+    }
+
+    private static void succeed(StorageCircuitBreaker breaker) {
+        try {
+            breaker.execute(() -> "ok", NOT_FOUND_IS_HEALTHY);
+        } catch (Exception e) {
+            throw new AssertionError(e);
+        }
+    }
+
+    private static void fail(StorageCircuitBreaker breaker, Exception failure) {
+        assertThrows(Exception.class, () -> breaker.execute(() -> {
+            throw failure;
+        }, NOT_FOUND_IS_HEALTHY));
+    }
+
+    private static final class MutableClock extends Clock {
+
+        private Instant now = Instant.parse("2024-01-01T00:00:00Z");
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}